@@ -1537,10 +1537,10 @@ public class CockroachdbDialect extends BaseSqlDialect {
         List<String> result = new ArrayList<>();
 
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_schema\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_vertex\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"schemaVertex\" TEXT);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_edge\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_vertex\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"schemaVertex\" TEXT, \"partitionType\" TEXT, \"partitionKey\" TEXT);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_edge\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"partitionType\" TEXT, \"partitionKey\" TEXT);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_property\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"type\" TEXT);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_index\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"index_type\" TEXT);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_index\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"index_type\" TEXT, \"valid\" BOOLEAN);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_globalUniqueIndex\" (" +
                 "\"ID\" SERIAL PRIMARY KEY, " +
                 "\"createdOn\" TIMESTAMP WITH TIME ZONE, " +
@@ -1633,6 +1633,21 @@ public class CockroachdbDialect extends BaseSqlDialect {
         return null;
     }
 
+    @Override
+    public String sqlgAddIndexValidColumn() {
+        return "ALTER TABLE \"sqlg_schema\".\"V_index\" ADD COLUMN \"valid\" BOOLEAN DEFAULT TRUE;";
+    }
+
+    @Override
+    public List<String> sqlgAddPartitionColumns() {
+        List<String> result = new ArrayList<>();
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD COLUMN \"partitionType\" TEXT;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD COLUMN \"partitionKey\" TEXT;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD COLUMN \"partitionType\" TEXT;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD COLUMN \"partitionKey\" TEXT;");
+        return result;
+    }
+
     @Override
     public boolean isIndexPartOfCreateTable() {
         return true;
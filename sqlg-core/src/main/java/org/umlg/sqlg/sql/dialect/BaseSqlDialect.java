@@ -2,8 +2,10 @@ package org.umlg.sqlg.sql.dialect;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,7 +19,12 @@ import org.umlg.sqlg.util.SqlgUtil;
 import java.io.IOException;
 import java.security.SecureRandom;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.umlg.sqlg.structure.topology.Topology.*;
 
@@ -28,6 +35,15 @@ import static org.umlg.sqlg.structure.topology.Topology.*;
 public abstract class BaseSqlDialect implements SqlDialect, SqlBulkDialect, SqlSchemaChangeDialect {
 
     protected Logger logger = LoggerFactory.getLogger(getClass().getName());
+    /**
+     * How long {@link #lock(SqlgGraph)} keeps trying when the database gives up waiting for the lock.
+     */
+    private static final long TOPOLOGY_LOCK_TIMEOUT = TimeUnit.MINUTES.toMillis(2);
+    //identifies the logs this graph wrote, there is no backend pid to use as on postgres.
+    private final int topologyLogPid = new SecureRandom().nextInt(Integer.MAX_VALUE);
+    //the connection holding the topology lock of a distributed graph, see lock(SqlgGraph)
+    private Connection topologyLockConnection;
+    private TopologyLogPoller topologyLogPoller;
 
     public BaseSqlDialect() {
     }
@@ -416,11 +432,7 @@ public abstract class BaseSqlDialect implements SqlDialect, SqlBulkDialect, SqlS
                             Object value = parameterValueMap.get(column);
                             if (value == null) {
                                 //if the value is not present update it to what is currently is.
-                                if (sqlgVertex.property(column).isPresent()) {
-                                    value = sqlgVertex.value(column);
-                                } else {
-                                    value = null;
-                                }
+                                value = sqlgVertex.getLoadedValue(column);
                             }
                             typeAndValues.add(Pair.of(propertyColumn.getPropertyType(), value));
                         }
@@ -507,11 +519,7 @@ public abstract class BaseSqlDialect implements SqlDialect, SqlBulkDialect, SqlS
                             Object value = parameterValueMap.get(column);
                             if (value == null) {
                                 //if the value is not present update it to what is currently is.
-                                if (sqlgEdge.property(column).isPresent()) {
-                                    value = sqlgEdge.value(column);
-                                } else {
-                                    value = null;
-                                }
+                                value = sqlgEdge.getLoadedValue(column);
                             }
                             typeAndValues.add(Pair.of(propertyColumn.getPropertyType(), value));
                         }
@@ -730,6 +738,24 @@ public abstract class BaseSqlDialect implements SqlDialect, SqlBulkDialect, SqlS
         return columns;
     }
 
+    @Override
+    public Map<String, List<Triple<String, Integer, String>>> getAllTableColumns(DatabaseMetaData metaData) {
+        Map<String, List<Triple<String, Integer, String>>> columns = new HashMap<>();
+        try (ResultSet rs = metaData.getColumns(null, null, "%", null)) {
+            while (rs.next()) {
+                String schema = rs.getString(2);
+                String table = rs.getString(3);
+                String columnName = rs.getString(4);
+                int columnType = rs.getInt(5);
+                String typeName = rs.getString("TYPE_NAME");
+                columns.computeIfAbsent(schema + "." + table, k -> new ArrayList<>()).add(Triple.of(columnName, columnType, typeName));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return columns;
+    }
+
     @Override
     public List<Triple<String, Boolean, String>> getIndexInfo(DatabaseMetaData metaData, String catalog,
                                                               String schema, String table, boolean unique, boolean approximate) {
@@ -1090,6 +1116,183 @@ public abstract class BaseSqlDialect implements SqlDialect, SqlBulkDialect, SqlS
         }
     }
 
+    @Override
+    public boolean supportsDistribution() {
+        return true;
+    }
+
+    /**
+     * Takes the topology lock of a distributed graph by locking the sqlg_schema.graph row on a connection of its own.
+     * The lock is held until {@link #unlock(SqlgGraph)} as a schema change commits implicitly on some databases,
+     * which would release a lock taken on the transaction's connection.
+     */
+    @Override
+    public void lock(SqlgGraph sqlgGraph) {
+        Preconditions.checkState(this.topologyLockConnection == null, "BUG: the topology lock is already held");
+        String sql = "UPDATE " + maybeWrapInQoutes(SQLG_SCHEMA) + "." + maybeWrapInQoutes(VERTEX_PREFIX + SQLG_SCHEMA_GRAPH) +
+                " SET " + maybeWrapInQoutes(UPDATED_ON) + " = " + maybeWrapInQoutes(UPDATED_ON);
+        if (needsSemicolon()) {
+            sql += ";";
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        long deadline = System.currentTimeMillis() + TOPOLOGY_LOCK_TIMEOUT;
+        try {
+            Connection connection = sqlgGraph.getSqlgDataSource().getDatasource().getConnection();
+            try {
+                connection.setAutoCommit(false);
+                while (true) {
+                    try (Statement statement = connection.createStatement()) {
+                        //without a committed row nothing is locked
+                        if (statement.executeUpdate(sql) == 0) {
+                            throw new IllegalStateException("BUG: the sqlg_schema.graph row must be committed before the topology is locked");
+                        }
+                        break;
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        //some databases give up waiting for a row lock long before the topology lock times out
+                        if (!isLockTimeout(e) || System.currentTimeMillis() > deadline) {
+                            throw e;
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+            this.topologyLockConnection = connection;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean isLockTimeout(SQLException e) {
+        String sqlState = e.getSQLState();
+        return e instanceof SQLTransientException || "HYT00".equals(sqlState) || (sqlState != null && sqlState.startsWith("40"));
+    }
+
+    @Override
+    public void unlock(SqlgGraph sqlgGraph) {
+        if (this.topologyLockConnection != null) {
+            try (Connection connection = this.topologyLockConnection) {
+                this.topologyLockConnection = null;
+                connection.rollback();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * The other graphs poll sqlg_schema.log for topology changes, see {@link TopologyLogPoller}.
+     */
+    @Override
+    public void registerListener(SqlgGraph sqlgGraph) {
+        this.topologyLogPoller = new TopologyLogPoller(sqlgGraph);
+        this.topologyLogPoller.start();
+    }
+
+    @Override
+    public void unregisterListener() {
+        if (this.topologyLogPoller != null) {
+            this.topologyLogPoller.stop();
+            this.topologyLogPoller = null;
+        }
+    }
+
+    @Override
+    public long notifyChange(SqlgGraph sqlgGraph, LocalDateTime timestamp, JsonNode jsonNode) {
+        return addTopologyLog(sqlgGraph, timestamp, this.topologyLogPid, jsonNode);
+    }
+
+    /**
+     * Writes the topology change to sqlg_schema.log, outside of batch mode as the log is read by the other graphs.
+     *
+     * @return The id of the log.
+     */
+    protected long addTopologyLog(SqlgGraph sqlgGraph, LocalDateTime timestamp, int pid, JsonNode jsonNode) {
+        Vertex log;
+        if (sqlgGraph.tx().isInBatchMode()) {
+            BatchManager.BatchModeType batchModeType = sqlgGraph.tx().getBatchModeType();
+            sqlgGraph.tx().flush();
+            sqlgGraph.tx().batchMode(BatchManager.BatchModeType.NONE);
+            log = sqlgGraph.addVertex(
+                    T.label,
+                    SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG,
+                    SQLG_SCHEMA_LOG_TIMESTAMP, timestamp,
+                    SQLG_SCHEMA_LOG_PID, pid,
+                    SQLG_SCHEMA_LOG_LOG, jsonNode
+            );
+            sqlgGraph.tx().batchMode(batchModeType);
+        } else {
+            log = sqlgGraph.addVertex(
+                    T.label,
+                    SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG,
+                    SQLG_SCHEMA_LOG_TIMESTAMP, timestamp,
+                    SQLG_SCHEMA_LOG_PID, pid,
+                    SQLG_SCHEMA_LOG_LOG, jsonNode
+            );
+        }
+        return ((RecordId) log.id()).getId();
+    }
+
+    /**
+     * Polls sqlg_schema.log for the topology changes of the other graphs. JDBC has no change notification so the log is
+     * polled, the interval doubles while nothing changes up to {@link SqlgGraph#DISTRIBUTED_POLL_MAX} milliseconds and drops
+     * back to {@link SqlgGraph#DISTRIBUTED_POLL_MIN} as soon as a change is found.
+     */
+    private class TopologyLogPoller implements Runnable {
+
+        private final SqlgGraph sqlgGraph;
+        private final ScheduledExecutorService scheduledExecutorService;
+        private final long minInterval;
+        private final long maxInterval;
+        private long interval;
+
+        TopologyLogPoller(SqlgGraph sqlgGraph) {
+            this.sqlgGraph = sqlgGraph;
+            this.minInterval = sqlgGraph.configuration().getLong(SqlgGraph.DISTRIBUTED_POLL_MIN, 100);
+            this.maxInterval = Math.max(this.minInterval, sqlgGraph.configuration().getLong(SqlgGraph.DISTRIBUTED_POLL_MAX, 2000));
+            this.interval = this.minInterval;
+            this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "Sqlg topology log poller " + sqlgGraph.toString());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void start() {
+            this.scheduledExecutorService.schedule(this, this.interval, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            this.scheduledExecutorService.shutdownNow();
+        }
+
+        @Override
+        public void run() {
+            try {
+                Topology topology = this.sqlgGraph.getTopology();
+                //the topology is null until the graph is open
+                if (topology != null && topology.fromNotifyLogs()) {
+                    this.interval = this.minInterval;
+                } else {
+                    this.interval = Math.min(this.interval * 2, this.maxInterval);
+                }
+            } catch (Exception e) {
+                if (!this.scheduledExecutorService.isShutdown()) {
+                    logger.error(String.format("topology log poller on graph %s error", this.sqlgGraph.toString()), e);
+                }
+            }
+            try {
+                this.scheduledExecutorService.schedule(this, this.interval, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                //stopped
+            }
+        }
+    }
+
     /**
      * escape quotes by doubling them when we need a string inside quotes
      * @param o
@@ -90,4 +90,41 @@ public interface SqlBulkDialect extends SqlDialect {
         throw SqlgExceptions.batchModeNotSupported(dialectName());
     }
 
+    /**
+     * Copies the vertices, with their ids, into the table on the current thread's transaction.
+     *
+     * @param keys     The union of the vertices' property keys.
+     * @param vertices The vertex ids and their properties.
+     */
+    default void bulkLoadVertices(SqlgGraph sqlgGraph, SchemaTable schemaTable, SortedSet<String> keys, List<Pair<Long, Map<String, Object>>> vertices) {
+        throw SqlgExceptions.batchModeNotSupported(dialectName());
+    }
+
+    /**
+     * Copies the edges into the table on the current thread's transaction. The edges' ids are assigned by the table's sequence.
+     *
+     * @param schemaTable    The edge's schema and label, without the prefix.
+     * @param outSchemaTable The out vertices' label.
+     * @param inSchemaTable  The in vertices' label.
+     * @param keys           The union of the edges' property keys.
+     * @param edges          The out vertex id, in vertex id and properties of each edge.
+     */
+    default void bulkLoadEdges(SqlgGraph sqlgGraph, SchemaTable schemaTable, SchemaTable outSchemaTable, SchemaTable inSchemaTable, SortedSet<String> keys, List<Triple<Long, Long, Map<String, Object>>> edges) {
+        throw SqlgExceptions.batchModeNotSupported(dialectName());
+    }
+
+    /**
+     * Starts the copy command of a streaming vertex label. The returned writer is passed to {@link #writeStreamingVertex(Writer, Map)}.
+     */
+    default Writer streamSqlVertex(SqlgGraph sqlgGraph, SqlgVertex vertex, Map<String, Object> keyValueMap) {
+        return streamSql(sqlgGraph, constructCompleteCopyCommandSqlVertex(sqlgGraph, vertex, keyValueMap));
+    }
+
+    /**
+     * Starts the copy command of a streaming edge label. The returned writer is passed to {@link #writeStreamingEdge(Writer, SqlgEdge, SqlgVertex, SqlgVertex, Map)}.
+     */
+    default Writer streamSqlEdge(SqlgGraph sqlgGraph, SqlgEdge sqlgEdge, SqlgVertex outVertex, SqlgVertex inVertex, Map<String, Object> keyValueMap) {
+        return streamSql(sqlgGraph, constructCompleteCopyCommandSqlEdge(sqlgGraph, sqlgEdge, outVertex, inVertex, keyValueMap));
+    }
+
 }
@@ -13,6 +13,7 @@ import org.umlg.sqlg.sql.parse.SchemaTableTree;
 import org.umlg.sqlg.strategy.SqlgSqlExecutor;
 import org.umlg.sqlg.structure.*;
 import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.PartitionType;
 import org.umlg.sqlg.structure.topology.Schema;
 import org.umlg.sqlg.structure.topology.Topology;
 import org.umlg.sqlg.structure.topology.VertexLabel;
@@ -28,6 +29,13 @@ public interface SqlDialect {
         return false;
     }
 
+    /**
+     * @return true if {@link SqlSchemaChangeDialect#setLockTimeout(SqlgGraph, long)} is supported.
+     */
+    default boolean supportsLockTimeout() {
+        return false;
+    }
+
     String dialectName();
 
     Set<String> getInternalSchemas();
@@ -510,12 +518,56 @@ public interface SqlDialect {
 
     long nextSequenceVal(SqlgGraph sqlgGraph, SchemaTable schemaTable, String prefix);
 
+    /**
+     * Reserves count ids of the table's sequence. The ids are unique but need not be consecutive.
+     *
+     * @return the reserved ids in ascending order.
+     */
+    default long[] nextSequenceVals(SqlgGraph sqlgGraph, SchemaTable schemaTable, String prefix, int count) {
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = nextSequenceVal(sqlgGraph, schemaTable, prefix);
+        }
+        return result;
+    }
+
     long currSequenceVal(SqlgGraph sqlgGraph, SchemaTable schemaTable, String prefix);
 
     String sequenceName(SqlgGraph sqlgGraph, SchemaTable outSchemaTable, String prefix);
 
     boolean supportsBulkWithinOut();
 
+    /**
+     * Indicates if a bulk P.within/P.without and the SqlgVertexStep's parent ids can be bound as typed array parameters,
+     * i.e. <code>"ID" = ANY(?)</code> and <code>unnest(?, ?)</code>, instead of being inlined in a VALUES expression.
+     *
+     * @return true if array parameters are supported, else false.
+     */
+    default boolean supportsBulkWithinOutAsArray() {
+        return false;
+    }
+
+    /**
+     * dedup() after the optimized steps is folded into the sql as a SELECT DISTINCT on the emitted element's columns.
+     * Dialects that support <code>DISTINCT ON (column)</code> only compare the element's id or, for dedup().by(key),
+     * the key's column.
+     *
+     * @return true if <code>SELECT DISTINCT ON (column)</code> is supported, else false.
+     */
+    default boolean supportsDistinctOn() {
+        return false;
+    }
+
+    /**
+     * A table expression of the elements of array parameters zipped together, one column per array.
+     *
+     * @param count The number of array parameters.
+     * @return The table expression, i.e. <code>unnest(?, ?)</code>
+     */
+    default String unnestArrayParameters(int count) {
+        throw new UnsupportedOperationException("unnestArrayParameters is not supported for " + dialectName());
+    }
+
     String afterCreateTemporaryTableStatement();
 
     /**
@@ -579,6 +631,13 @@ public interface SqlDialect {
 
     String sqlgAddIndexEdgeSequenceColumn();
 
+    String sqlgAddIndexValidColumn();
+
+    /**
+     * @return the statements that add the partition type and key columns to the vertex and edge label tables.
+     */
+    List<String> sqlgAddPartitionColumns();
+
     default Long getPrimaryKeyStartValue() {
         return 1L;
     }
@@ -649,6 +708,14 @@ public interface SqlDialect {
     List<Triple<String, Integer, String>> getTableColumns(DatabaseMetaData metaData, String catalog, String schemaPattern,
                                                           String tableNamePattern, String columnNamePattern);
 
+    /**
+     * Get the columns of all tables in one catalog query, as opposed to one {@link #getTableColumns} query per table.
+     *
+     * @param metaData JDBC meta data.
+     * @return The columns in ordinal order, by table. The key is the schema + "." + table as returned by {@link #getVertexTables(DatabaseMetaData)}
+     */
+    Map<String, List<Triple<String, Integer, String>>> getAllTableColumns(DatabaseMetaData metaData);
+
     List<Triple<String, Boolean, String>> getIndexInfo(DatabaseMetaData metaData, String catalog,
                                                        String schema, String table, boolean unique, boolean approximate);
 
@@ -985,4 +1052,164 @@ public interface SqlDialect {
     default boolean supportsTruncateMultipleTablesTogether() {
         return false;
     }
+
+    /**
+     * Indicates if an index can be built without blocking writes to its table, outside of a transaction.
+     * See {@link org.umlg.sqlg.structure.topology.AbstractLabel#ensureOnlineIndexExists}.
+     *
+     * @return true if the rdbms supports online index creation, else false.
+     */
+    default boolean supportsOnlineIndexCreation() {
+        return false;
+    }
+
+    /**
+     * @return the keyword that follows <code>CREATE INDEX</code> for an online index build, i.e. <code>CONCURRENTLY</code>.
+     */
+    default String onlineIndexCreationModifier() {
+        return "";
+    }
+
+    /**
+     * @return the option appended to the <code>CREATE INDEX</code> statement for an online index build, i.e. <code>WITH (ONLINE = ON)</code>.
+     */
+    default String onlineIndexCreationOption() {
+        return "";
+    }
+
+    /**
+     * @return true if a failed online index build leaves an invalid index behind that must be dropped.
+     */
+    default boolean onlineIndexCreationLeavesInvalidIndex() {
+        return false;
+    }
+
+    /**
+     * Indicates if vertex and edge labels can be declared as partitioned on one of their properties, see
+     * {@link org.umlg.sqlg.structure.topology.PartitionType}. The partitions are tables of their own that the rdbms
+     * attaches to the label's table.
+     *
+     * @return true if the rdbms supports declarative partitioning, else false.
+     */
+    default boolean supportsPartitioning() {
+        return false;
+    }
+
+    /**
+     * The primary key of a partitioned table must include the partition key.
+     *
+     * @return the definition of the auto increment "ID" column of a partitioned table, without a primary key constraint.
+     */
+    default String getPartitionedAutoIncrementConstruct() {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    /**
+     * @return the clause that follows the column definitions of a partitioned table's <code>CREATE TABLE</code>.
+     */
+    default String partitionByClause(PartitionType partitionType, String partitionKey) {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    /**
+     * The values are rendered as literals of the partition key's type.
+     *
+     * @param propertyType The partition key's type.
+     * @param from         The inclusive lower bound, null for no lower bound.
+     * @param to           The exclusive upper bound, null for no upper bound.
+     * @return the bound of a range partition.
+     */
+    default String rangePartitionBound(PropertyType propertyType, Object from, Object to) {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    /**
+     * The values are rendered as literals of the partition key's type.
+     *
+     * @param propertyType The partition key's type.
+     * @param in           The values the partition holds, null for the rows without a value.
+     * @return the bound of a list partition.
+     */
+    default String listPartitionBound(PropertyType propertyType, Collection<?> in) {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    default String hashPartitionBound(int modulus, int remainder) {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    /**
+     * @return the bound of the partition that holds the rows that no other partition holds.
+     */
+    default String defaultPartitionBound() {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    default String sqlToCreatePartition(String schema, String table, String partition, String bound) {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    /**
+     * @return the sql that attaches an existing table, i.e. a detached partition, as a partition of the table.
+     */
+    default String sqlToAttachPartition(String schema, String table, String partition, String bound) {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    default String sqlToDetachPartition(String schema, String table, String partition) {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    /**
+     * The query takes the schema and the table as parameters and returns the partitions' names and bounds.
+     *
+     * @return the query that lists the partitions of a table.
+     */
+    default String sqlToListPartitions() {
+        throw new UnsupportedOperationException("Partitioning is not supported for " + dialectName());
+    }
+
+    /**
+     * Indicates if simple <code>repeat(out/in/both).until(has)/times(n)</code> traversals can be executed as one
+     * 'WITH RECURSIVE ... UNION ALL ...' query. The recursive term must only see the rows of the previous iteration
+     * and the dialect must support '||' string concatenation.
+     *
+     * @return true if the rdbms supports recursive common table expressions as required, else false.
+     */
+    default boolean supportsRecursiveCte() {
+        return false;
+    }
+
+    /**
+     * Parallel queries run on their own pooled connections. If the dialect can export the transaction's snapshot the
+     * parallel queries import it so that they all read the same committed data.
+     *
+     * @return the sql that returns the current transaction's snapshot id or null if snapshots can not be exported.
+     */
+    default String sqlToExportSnapshot() {
+        return null;
+    }
+
+    /**
+     * Only called if {@link #sqlToExportSnapshot()} is not null. Executed as the first statement of a repeatable read
+     * transaction.
+     *
+     * @param snapshotId the id returned by {@link #sqlToExportSnapshot()}.
+     * @return the sql that makes the current transaction use the exported snapshot.
+     */
+    default String sqlToImportSnapshot(String snapshotId) {
+        throw new UnsupportedOperationException("sqlToImportSnapshot is not supported for " + dialectName());
+    }
+
+    /**
+     * Used by {@link org.umlg.sqlg.structure.SqlgGraph#estimateVertexCount()} and
+     * {@link org.umlg.sqlg.structure.SqlgGraph#estimateEdgeCount()} to read the row counts from the db's statistics
+     * instead of counting the rows. The estimate of a table that is not returned or is negative is counted exactly.
+     *
+     * @return the sql that returns the schema, table and estimated row count of the tables or null if the dialect has
+     * no row count statistics.
+     */
+    default String sqlToEstimateRowCounts() {
+        return null;
+    }
 }
@@ -5,6 +5,7 @@ import org.umlg.sqlg.structure.SqlgExceptions;
 import org.umlg.sqlg.structure.SqlgGraph;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Date: 2016/09/03
@@ -16,6 +17,24 @@ public interface SqlSchemaChangeDialect extends SqlDialect {
         throw SqlgExceptions.multipleJvmNotSupported(dialectName());
     }
 
+    /**
+     * Releases what {@link #lock(SqlgGraph)} took, called once the topology change has been committed or rolled back.
+     * A lock taken on the transaction's connection is already released by then.
+     */
+    default void unlock(SqlgGraph sqlgGraph) {
+    }
+
+    /**
+     * Limits how long the statements of the current transaction wait for a lock held by another transaction.
+     * Used by the topology transactions of {@link SqlgGraph#TOPOLOGY_AUTONOMOUS}, as the transaction waiting for them
+     * may hold the lock they need.
+     *
+     * @param millis The time to wait before the statement fails.
+     */
+    default void setLockTimeout(SqlgGraph sqlgGraph, long millis) {
+        throw new UnsupportedOperationException(String.format("%s does not support lock timeouts", dialectName()));
+    }
+
     default void registerListener(SqlgGraph sqlgGraph) {
         throw SqlgExceptions.multipleJvmNotSupported(dialectName());
     }
@@ -24,8 +43,30 @@ public interface SqlSchemaChangeDialect extends SqlDialect {
         throw SqlgExceptions.multipleJvmNotSupported(dialectName());
     }
 
-    default int notifyChange(SqlgGraph sqlgGraph, LocalDateTime timestamp, JsonNode jsonNode) {
+    /**
+     * Writes the topology change to sqlg_schema.log and notifies the other graphs.
+     *
+     * @return The id of the log.
+     */
+    default long notifyChange(SqlgGraph sqlgGraph, LocalDateTime timestamp, JsonNode jsonNode) {
         throw SqlgExceptions.multipleJvmNotSupported(dialectName());
     }
 
+    /**
+     * Sends the element cache invalidations of the transaction to the other graphs, they are delivered on commit.
+     *
+     * @param notifications The payloads, see {@link org.umlg.sqlg.structure.ElementCache#invalidate(String)}.
+     */
+    default void notifyElementCacheInvalidation(SqlgGraph sqlgGraph, List<String> notifications) {
+        throw SqlgExceptions.multipleJvmNotSupported(dialectName());
+    }
+
+    /**
+     * A distributed graph may only cache elements if the other graphs are told about its invalidations,
+     * see {@link #notifyElementCacheInvalidation(SqlgGraph, List)}.
+     */
+    default boolean supportsElementCacheInvalidation() {
+        return false;
+    }
+
 }
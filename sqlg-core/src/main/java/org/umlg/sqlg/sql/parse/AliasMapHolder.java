@@ -25,6 +25,13 @@ public class AliasMapHolder {
         return aliasColumnNameMap;
     }
 
+    AliasMapHolder copy() {
+        AliasMapHolder copy = new AliasMapHolder();
+        copy.columnNameAliasMap.putAll(this.columnNameAliasMap);
+        copy.aliasColumnNameMap.putAll(this.aliasColumnNameMap);
+        return copy;
+    }
+
     void clear() {
         this.columnNameAliasMap.clear();
         this.aliasColumnNameMap.clear();
@@ -0,0 +1,116 @@
+package org.umlg.sqlg.sql.parse;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the sql generated for a distinct query stack together with the column alias maps that the sql generation
+ * populated as a side effect. The key is a fingerprint of the query stack's shape,
+ * see {@link SchemaTableTree#planFingerprint(String, java.util.LinkedList, java.util.Set)}.
+ * Only stacks whose literal values are all bound as parameters are cached so the same plan is valid for every
+ * traversal with the same shape.
+ * <p>
+ * The sql depends on the topology (the columns selected) so the cache is cleared on every topology change.
+ * <p>
+ * Date: 2018/01/20
+ */
+public class QueryPlanCache {
+
+    /**
+     * The maximum number of cached query plans. 0 disables the cache.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String QUERY_PLAN_CACHE_SIZE = "cache.queryPlan.size";
+    public static final int DEFAULT_QUERY_PLAN_CACHE_SIZE = 1000;
+
+    private final int maxSize;
+    private final Map<String, Plan> plans;
+    //Incremented on every clear. Plans generated against an older version are not cached.
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public QueryPlanCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.plans = new LinkedHashMap<String, Plan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Plan> eldest) {
+                return size() > QueryPlanCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return this.maxSize > 0;
+    }
+
+    long getVersion() {
+        return this.version.get();
+    }
+
+    synchronized Plan get(String fingerprint) {
+        Plan plan = this.plans.get(fingerprint);
+        if (plan != null) {
+            this.hits.incrementAndGet();
+        } else {
+            this.misses.incrementAndGet();
+        }
+        return plan;
+    }
+
+    /**
+     * Caches the plan if the cache has not been cleared since {@code version} was read.
+     */
+    synchronized void put(String fingerprint, Plan plan, long version) {
+        if (this.version.get() == version) {
+            this.plans.put(fingerprint, plan);
+        }
+    }
+
+    public synchronized void clear() {
+        this.version.incrementAndGet();
+        this.plans.clear();
+    }
+
+    public synchronized int size() {
+        return this.plans.size();
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    static class Plan {
+
+        private final String sql;
+        private final Map<String, String> columnNameAliasMap;
+        private final Map<String, String> aliasColumnNameMap;
+        private final int rootAliasCounter;
+
+        Plan(String sql, AliasMapHolder aliasMapHolder, int rootAliasCounter) {
+            this.sql = sql;
+            this.columnNameAliasMap = new HashMap<>(aliasMapHolder.getColumnNameAliasMap());
+            this.aliasColumnNameMap = new HashMap<>(aliasMapHolder.getAliasColumnNameMap());
+            this.rootAliasCounter = rootAliasCounter;
+        }
+
+        String getSql() {
+            return this.sql;
+        }
+
+        int getRootAliasCounter() {
+            return this.rootAliasCounter;
+        }
+
+        void copyAliasMapsTo(AliasMapHolder aliasMapHolder) {
+            aliasMapHolder.getColumnNameAliasMap().putAll(this.columnNameAliasMap);
+            aliasMapHolder.getAliasColumnNameMap().putAll(this.aliasColumnNameMap);
+        }
+    }
+}
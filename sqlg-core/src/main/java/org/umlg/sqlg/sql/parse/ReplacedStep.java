@@ -62,6 +62,11 @@ public class ReplacedStep<S, E> {
     private boolean fake;
     private boolean joinToLeftJoin;
     private boolean drop;
+    //The properties to select for the step's elements, null for all of them.
+    private Set<String> restrictedProperties;
+    //The step's elements are deduplicated on the db, on the distinctByKey property if not null.
+    private boolean distinct;
+    private String distinctByKey;
 
     private ReplacedStep() {
     }
@@ -90,7 +95,7 @@ public class ReplacedStep<S, E> {
         return replacedStep;
     }
 
-    boolean isFake() {
+    public boolean isFake() {
         return fake;
     }
 
@@ -512,6 +517,8 @@ public class ReplacedStep<S, E> {
                 replacedStepDepth,
                 ReplacedStep.this.labels
         );
+        schemaTableTree.setRestrictedProperties(this.restrictedProperties);
+        schemaTableTree.setDistinct(this.distinct, this.distinctByKey);
 
         result.add(schemaTableTree);
     }
@@ -646,6 +653,30 @@ public class ReplacedStep<S, E> {
         return depth;
     }
 
+    public Set<String> getRestrictedProperties() {
+        return restrictedProperties;
+    }
+
+    public void setRestrictedProperties(Set<String> restrictedProperties) {
+        this.restrictedProperties = restrictedProperties;
+    }
+
+    public boolean isDistinct() {
+        return distinct;
+    }
+
+    public String getDistinctByKey() {
+        return distinctByKey;
+    }
+
+    /**
+     * @param distinctByKey The property to deduplicate the elements on, null to deduplicate the elements themselves.
+     */
+    public void setDistinct(String distinctByKey) {
+        this.distinct = true;
+        this.distinctByKey = distinctByKey;
+    }
+
     /**
      * Each id is for a specific label, add the label to the {@link ReplacedStep#labelHasContainers}
      *
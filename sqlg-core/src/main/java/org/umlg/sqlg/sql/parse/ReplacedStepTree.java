@@ -104,6 +104,21 @@ public class ReplacedStepTree {
         }
     }
 
+    /**
+     * Restricts the properties selected for the elements of the leaf nodes, i.e. the elements the step emits.
+     * Leaf nodes with labels of their own are not restricted as their elements can still be selected further on.
+     *
+     * @param restrictedProperties The properties read by the step following the optimized steps.
+     */
+    public void restrictLeafNodeProperties(Set<String> restrictedProperties) {
+        for (TreeNode leafNode : this.leafNodes()) {
+            ReplacedStep<?, ?> replacedStep = leafNode.getReplacedStep();
+            if (!replacedStep.isEmit() && replacedStep.getLabels().stream().allMatch(l -> l.endsWith(BaseStrategy.SQLG_PATH_FAKE_LABEL))) {
+                replacedStep.setRestrictedProperties(restrictedProperties);
+            }
+        }
+    }
+
     public boolean hasRange() {
         List<ReplacedStep<?,?>> replacedSteps = linearPathToLeafNode();
         ReplacedStep<?, ?> replacedStep = replacedSteps.get(replacedSteps.size() - 1);
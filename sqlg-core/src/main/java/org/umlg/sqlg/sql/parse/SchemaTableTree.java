@@ -12,9 +12,11 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.map.SelectOneStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ElementValueComparator;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.ConnectiveP;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.umlg.sqlg.predicate.Existence;
 import org.umlg.sqlg.predicate.FullText;
+import org.umlg.sqlg.predicate.PropertyReference;
 import org.umlg.sqlg.strategy.*;
 import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.*;
@@ -29,6 +31,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.apache.tinkerpop.gremlin.structure.T.label;
@@ -44,6 +47,13 @@ public class SchemaTableTree {
     private static final String CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT = "constructSql may only be called on the root object";
     private static final String WITHIN = "within";
     private static final String WITHOUT = "without";
+    //The property types whose columns can be compared by a plain DISTINCT on all dialects.
+    private static final List<PropertyType> DISTINCT_PROPERTY_TYPES = Arrays.asList(
+            PropertyType.BOOLEAN, PropertyType.BYTE, PropertyType.SHORT, PropertyType.INTEGER, PropertyType.LONG,
+            PropertyType.FLOAT, PropertyType.DOUBLE, PropertyType.STRING, PropertyType.LOCALDATE,
+            PropertyType.LOCALDATETIME, PropertyType.LOCALTIME, PropertyType.ZONEDDATETIME, PropertyType.PERIOD,
+            PropertyType.DURATION
+    );
     //stepDepth indicates the depth of the replaced steps. i.e. v1.out().out().out() existVertexLabel stepDepth 0,1,2,3
     private int stepDepth;
     private SchemaTable schemaTable;
@@ -104,6 +114,14 @@ public class SchemaTableTree {
     private SqlgRangeHolder sqlgRangeHolder;
     //This is the incoming element id and the traversals start elements index, for SqlgVertexStep.
     private List<Pair<Long, Long>> parentIdsAndIndexes;
+    //The properties to select, null for all of them. Only set on leaf nodes whose elements are not selected later.
+    private Set<String> restrictedProperties;
+    //Deduplicate the rows, on the distinctByKey column if not null. Only set on leaf nodes.
+    private boolean distinct;
+    private String distinctByKey;
+    //The P.within/P.without values bound as one array parameter, per has container. Computed once as both the sql and
+    //the parameters need them.
+    private final Map<HasContainer, Object[]> withInOutArrays = new IdentityHashMap<>();
 
 
     public enum STEP_TYPE {
@@ -188,6 +206,9 @@ public class SchemaTableTree {
                 replacedStep.isUntilFirst(),
                 replacedStep.isLeftJoin(),
                 replacedStep.isDrop(),
+                replacedStep.getRestrictedProperties(),
+                replacedStep.isDistinct(),
+                replacedStep.getDistinctByKey(),
                 labels);
     }
 
@@ -224,6 +245,9 @@ public class SchemaTableTree {
                 replacedStep.isUntilFirst(),
                 replacedStep.isLeftJoin(),
                 replacedStep.isDrop(),
+                replacedStep.getRestrictedProperties(),
+                replacedStep.isDistinct(),
+                replacedStep.getDistinctByKey(),
                 labels);
     }
 
@@ -242,6 +266,9 @@ public class SchemaTableTree {
             boolean untilFirst,
             boolean leftJoin,
             boolean drop,
+            Set<String> restrictedProperties,
+            boolean distinct,
+            String distinctByKey,
             Set<String> labels) {
 
         SchemaTableTree schemaTableTree = new SchemaTableTree(this.sqlgGraph, schemaTable, stepDepth, this.replacedStepDepth);
@@ -252,6 +279,9 @@ public class SchemaTableTree {
             schemaTableTree.sqlgComparatorHolder = sqlgComparatorHolder;
             schemaTableTree.dbComparators = new ArrayList<>(dbComparators);
             schemaTableTree.sqlgRangeHolder = sqlgRangeHolder;
+            schemaTableTree.restrictedProperties = restrictedProperties;
+            schemaTableTree.distinct = distinct;
+            schemaTableTree.distinctByKey = distinctByKey;
         }
         schemaTableTree.parent = this;
         schemaTableTree.direction = direction;
@@ -269,6 +299,42 @@ public class SchemaTableTree {
         return getRoot().filteredAllTables;
     }
 
+    /**
+     * @return the properties whose columns are selected for this node's elements.
+     */
+    private Map<String, PropertyType> getPropertyTypeMapToSelect() {
+        Map<String, PropertyType> propertyTypeMap = getFilteredAllTables().get(this.schemaTable.toString());
+        if (this.restrictedProperties == null) {
+            return propertyTypeMap;
+        }
+        Map<String, PropertyType> result = new LinkedHashMap<>();
+        for (Map.Entry<String, PropertyType> propertyTypeEntry : propertyTypeMap.entrySet()) {
+            if (this.restrictedProperties.contains(propertyTypeEntry.getKey())) {
+                result.put(propertyTypeEntry.getKey(), propertyTypeEntry.getValue());
+            }
+        }
+        return result;
+    }
+
+    void setRestrictedProperties(Set<String> restrictedProperties) {
+        this.restrictedProperties = restrictedProperties;
+    }
+
+    void setDistinct(boolean distinct, String distinctByKey) {
+        this.distinct = distinct;
+        this.distinctByKey = distinctByKey;
+    }
+
+    /**
+     * @return the has container's P.within/P.without values as a typed array, see {@link SqlgUtil#withInOutAsArray(HasContainer)}.
+     */
+    public Object[] withInOutAsArray(HasContainer hasContainer) {
+        if (!this.withInOutArrays.containsKey(hasContainer)) {
+            this.withInOutArrays.put(hasContainer, SqlgUtil.withInOutAsArray(hasContainer));
+        }
+        return this.withInOutArrays.get(hasContainer);
+    }
+
     void initializeAliasColumnNameMaps() {
         this.aliasMapHolder = new AliasMapHolder();
     }
@@ -339,6 +405,27 @@ public class SchemaTableTree {
         this.rootAliasCounter = 1;
     }
 
+    /**
+     * The alias maps are populated while constructing the sql and are needed to load the sql's result set.
+     * The copy allows constructing the sql of multiple query stacks before loading their results.
+     *
+     * @return a copy of the column alias maps.
+     */
+    public AliasMapHolder copyColumnAliasMaps() {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        return this.aliasMapHolder.copy();
+    }
+
+    /**
+     * Replaces the column alias maps with a copy made by {@link #copyColumnAliasMaps()}.
+     */
+    public void restoreColumnAliasMaps(AliasMapHolder aliasMapHolder) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        this.aliasMapHolder.clear();
+        this.aliasMapHolder.getColumnNameAliasMap().putAll(aliasMapHolder.getColumnNameAliasMap());
+        this.aliasMapHolder.getAliasColumnNameMap().putAll(aliasMapHolder.getAliasColumnNameMap());
+    }
+
     private boolean containsLabelledColumn(String columnName) {
         if (columnName.startsWith(this.stepDepth + ALIAS_SEPARATOR + this.reducedLabels() + ALIAS_SEPARATOR)) {
             String column = columnName.substring((this.stepDepth + ALIAS_SEPARATOR + this.reducedLabels() + ALIAS_SEPARATOR).length());
@@ -357,15 +444,153 @@ public class SchemaTableTree {
 
     public String constructSql(LinkedList<SchemaTableTree> distinctQueryStack) {
         Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
-        //If the same element occurs multiple times in the stack then the sql needs to be different.
-        //This is because the same element can not be joined on more than once in sql
-        //The way to overcome this is to break up the path in select sections with no duplicates and then join them together.
-        if (duplicatesInStack(distinctQueryStack)) {
-            List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(distinctQueryStack);
-            return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
+        return constructCachedSql("regular", distinctQueryStack, null, () -> {
+            //If the same element occurs multiple times in the stack then the sql needs to be different.
+            //This is because the same element can not be joined on more than once in sql
+            //The way to overcome this is to break up the path in select sections with no duplicates and then join them together.
+            if (duplicatesInStack(distinctQueryStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(distinctQueryStack);
+                return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
+            } else {
+                //If there are no duplicates in the path then one select statement will suffice.
+                return constructSinglePathSql(this.sqlgGraph, false, distinctQueryStack, null, null, false);
+            }
+        });
+    }
+
+    /**
+     * Constructs the sql that computes the aggregate over the rows the regular query would return.
+     * The stack may not have duplicate labels, see {@link SqlgAggregateHolder#isSupported(PropertyType, boolean)}.
+     */
+    public String constructAggregateSql(LinkedList<SchemaTableTree> distinctQueryStack, SqlgAggregateHolder aggregateHolder) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        Preconditions.checkState(!duplicatesInStack(distinctQueryStack), "The aggregate of a query with duplicate labels in its path can not be computed on the db.");
+        return constructCachedSql("aggregate " + aggregateHolder.toString(), distinctQueryStack, null, () ->
+                constructSelectSinglePathSql(this.sqlgGraph, false, distinctQueryStack, null, null, Collections.emptySet(), false, aggregateHolder)
+        );
+    }
+
+    /**
+     * Returns the sql from the graph's {@link QueryPlanCache} if a query with the same shape has already been generated,
+     * else generates and caches it.
+     * The alias maps are populated as a side effect of generating the sql, on a cache hit they are restored from the plan.
+     */
+    private String constructCachedSql(String queryType, LinkedList<SchemaTableTree> queryStack, Set<SchemaTableTree> leftJoinOn, Supplier<String> sqlSupplier) {
+        QueryPlanCache queryPlanCache = this.sqlgGraph.getQueryPlanCache();
+        //The plan is only valid if generated from empty alias maps.
+        //While the topology is locked it has uncommitted changes that other threads can not see.
+        if (!queryPlanCache.isEnabled() ||
+                !this.aliasMapHolder.getColumnNameAliasMap().isEmpty() ||
+                this.rootAliasCounter != 1 ||
+                this.sqlgGraph.getTopology().isSqlWriteLocked()) {
+            return sqlSupplier.get();
+        }
+        String fingerprint = planFingerprint(queryType, queryStack, leftJoinOn);
+        if (fingerprint == null) {
+            return sqlSupplier.get();
+        }
+        QueryPlanCache.Plan plan = queryPlanCache.get(fingerprint);
+        if (plan != null) {
+            plan.copyAliasMapsTo(this.aliasMapHolder);
+            this.rootAliasCounter = plan.getRootAliasCounter();
+            return plan.getSql();
+        }
+        long version = queryPlanCache.getVersion();
+        String sql = sqlSupplier.get();
+        queryPlanCache.put(fingerprint, new QueryPlanCache.Plan(sql, this.aliasMapHolder, this.rootAliasCounter), version);
+        return sql;
+    }
+
+    /**
+     * Calculates a key that identifies the sql generated for the query stack.
+     * Everything that influences the sql's text is part of the key, the has container values are not as they are bound
+     * as parameters in the same order for all stacks with the same key.
+     *
+     * @return the fingerprint or null if the sql contains literal values and can not be cached.
+     */
+    String planFingerprint(String queryType, LinkedList<SchemaTableTree> queryStack, Set<SchemaTableTree> leftJoinOn) {
+        StringBuilder sb = new StringBuilder(queryType);
+        for (SchemaTableTree schemaTableTree : queryStack) {
+            if (!schemaTableTree.appendFingerprint(sb)) {
+                return null;
+            }
+        }
+        if (leftJoinOn != null) {
+            sb.append("\nleft join");
+            for (SchemaTableTree schemaTableTree : leftJoinOn) {
+                if (!schemaTableTree.appendFingerprint(sb)) {
+                    return null;
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private boolean appendFingerprint(StringBuilder sb) {
+        //Parent ids, bulk within values and the TopologyStrategy's filtering are part of the sql text.
+        if (this.schemaTable.getSchema().equals(Topology.SQLG_SCHEMA) ||
+                (this.parentIdsAndIndexes != null && !this.parentIdsAndIndexes.isEmpty() && !bindsParentIdsAsArrays()) ||
+                !this.andOrHasContainers.isEmpty() ||
+                !this.dbComparators.isEmpty() ||
+                (this.sqlgGraph.getSqlDialect().supportsBulkWithinOut() && hasBulkWithinOrOut(this.sqlgGraph))) {
+            return false;
+        }
+        sb.append("\n").append(this.schemaTable.toString())
+                .append(" ").append(this.stepDepth)
+                .append(" ").append(this.replacedStepDepth)
+                .append(" ").append(this.stepType)
+                .append(" ").append(this.direction)
+                .append(" ").append(this.emit)
+                .append(" ").append(this.untilFirst)
+                .append(" ").append(this.optionalLeftJoin)
+                .append(" ").append(this.drop)
+                .append(" ").append(this.localStep)
+                .append(" ").append(this.fakeEmit)
+                .append(" ").append(new TreeSet<>(this.labels));
+        if (this.restrictedProperties != null) {
+            sb.append(" select:").append(new TreeSet<>(this.restrictedProperties));
+        }
+        if (this.distinct) {
+            sb.append(" distinct:").append(this.distinctByKey);
+        }
+        for (HasContainer hasContainer : this.hasContainers) {
+            sb.append(" ").append(hasContainer.getKey()).append(":");
+            if (SqlgUtil.isBulkWithinAndOutAsArray(this.sqlgGraph, this, hasContainer)) {
+                //bound as one array parameter, the sql does not depend on the number of values
+                sb.append(hasContainer.getBiPredicate().toString()).append("[]");
+            } else if (!appendPredicateFingerprint(sb, hasContainer.getPredicate())) {
+                return false;
+            }
+        }
+        if (this.sqlgRangeHolder != null && this.sqlgRangeHolder.isApplyOnDb()) {
+            sb.append(" range:").append(this.sqlgRangeHolder.hasRange() ? this.sqlgRangeHolder.getRange().toString() : "skip " + this.sqlgRangeHolder.getSkip());
+        }
+        return true;
+    }
+
+    private static boolean appendPredicateFingerprint(StringBuilder sb, P<?> p) {
+        if (p instanceof ConnectiveP) {
+            sb.append(p.getClass().getSimpleName()).append("(");
+            for (P<?> predicate : ((ConnectiveP<?>) p).getPredicates()) {
+                if (!appendPredicateFingerprint(sb, predicate)) {
+                    return false;
+                }
+                sb.append(",");
+            }
+            sb.append(")");
+            return true;
+        } else if (p.getBiPredicate() instanceof FullText) {
+            //the full text query is part of the sql
+            return false;
         } else {
-            //If there are no duplicates in the path then one select statement will suffice.
-            return constructSinglePathSql(this.sqlgGraph, false, distinctQueryStack, null, null, false);
+            sb.append(p.getBiPredicate().toString());
+            Object value = p.getValue();
+            if (value instanceof PropertyReference) {
+                sb.append("->").append(((PropertyReference) value).getColumnName());
+            } else if (value instanceof Collection) {
+                sb.append("[").append(((Collection<?>) value).size()).append("]");
+            }
+            return true;
         }
     }
 
@@ -452,24 +677,28 @@ public class SchemaTableTree {
 
     public String constructSqlForOptional(LinkedList<SchemaTableTree> innerJoinStack, Set<SchemaTableTree> leftJoinOn) {
         Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
-        if (duplicatesInStack(innerJoinStack)) {
-            List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
-            return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks, leftJoinOn);
-        } else {
-            //If there are no duplicates in the path then one select statement will suffice.
-            return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null, leftJoinOn, false);
-        }
+        return constructCachedSql("optional", innerJoinStack, leftJoinOn, () -> {
+            if (duplicatesInStack(innerJoinStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
+                return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks, leftJoinOn);
+            } else {
+                //If there are no duplicates in the path then one select statement will suffice.
+                return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null, leftJoinOn, false);
+            }
+        });
     }
 
     public String constructSqlForEmit(LinkedList<SchemaTableTree> innerJoinStack) {
         Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
-        if (duplicatesInStack(innerJoinStack)) {
-            List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
-            return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
-        } else {
-            //If there are no duplicates in the path then one select statement will suffice.
-            return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null);
-        }
+        return constructCachedSql("emit", innerJoinStack, null, () -> {
+            if (duplicatesInStack(innerJoinStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
+                return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
+            } else {
+                //If there are no duplicates in the path then one select statement will suffice.
+                return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null);
+            }
+        });
     }
 
     public List<LinkedList<SchemaTableTree>> constructDistinctQueries() {
@@ -666,7 +895,7 @@ public class SchemaTableTree {
 
     private String printOuterFromClause(int count, Map<String, String> columnNameAliasMapCopy, SchemaTableTree previousSchemaTableTree) {
         String sql = "";
-        Map<String, PropertyType> propertyTypeMap = this.getFilteredAllTables().get(this.toString());
+        Map<String, PropertyType> propertyTypeMap = this.getPropertyTypeMapToSelect();
         Optional<String> optional = this.lastMappedAliasIdForOuterFrom(columnNameAliasMapCopy);
         if (optional.isPresent()) {
             sql = "a" + count + "." + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(optional.get());
@@ -788,9 +1017,14 @@ public class SchemaTableTree {
                 lastOfPrevious,
                 firstOfNextStack,
                 leftJoinOn,
-                dropStep);
+                dropStep,
+                null);
     }
 
+    /**
+     * @param aggregateHolder if not null the aggregate replaces the selected columns and the query is not ordered.
+     *                        A grouped aggregate also selects and groups on the group by column.
+     */
     private String constructSelectSinglePathSql(
             SqlgGraph sqlgGraph,
             boolean partOfDuplicateQuery,
@@ -798,17 +1032,25 @@ public class SchemaTableTree {
             SchemaTableTree lastOfPrevious,
             SchemaTableTree firstOfNextStack,
             Set<SchemaTableTree> leftJoinOn,
-            boolean dropStep
+            boolean dropStep,
+            SqlgAggregateHolder aggregateHolder
     ) {
         StringBuilder singlePathSql = new StringBuilder("\nSELECT\n\t");
         SchemaTableTree firstSchemaTableTree = distinctQueryStack.getFirst();
         SchemaTable firstSchemaTable = firstSchemaTableTree.getSchemaTable();
 
+        //Only the leaf element's columns, and a vertex step's incoming index, are selected for a path without labels,
+        //so deduplicating the rows deduplicates the leaf elements. A single table's rows are unique already.
+        if (aggregateHolder == null && !dropStep && !partOfDuplicateQuery && lastOfPrevious == null && firstOfNextStack == null &&
+                leftJoinOn.isEmpty() && distinctQueryStack.size() > 1) {
+            singlePathSql.append(distinctQueryStack.getLast().toDistinctClause(sqlgGraph, firstSchemaTableTree.stepType != STEP_TYPE.GRAPH_STEP));
+        }
+
         //The SqlgVertexStep's incoming/parent element index and ids
         //dropStep must not have the index as it uses 'delete from where in (select...)' or 'WITH (SELECT) DELETE...'
         //the first column in the select must be the ID.
         //As its a DELETE there is no need for the 'index' to order on.
-        if (!dropStep && lastOfPrevious == null && distinctQueryStack.getFirst().stepType != STEP_TYPE.GRAPH_STEP) {
+        if (aggregateHolder == null && !dropStep && lastOfPrevious == null && distinctQueryStack.getFirst().stepType != STEP_TYPE.GRAPH_STEP) {
             //if there is only 1 incoming start/traverser we use a where clause as its faster.
             if (this.parentIdsAndIndexes.size() == 1) {
                 singlePathSql.append(this.parentIdsAndIndexes.get(0).getRight());
@@ -831,7 +1073,11 @@ public class SchemaTableTree {
             singlePathSql.append(",\n\t");
         }
 
-        singlePathSql.append(constructFromClause(sqlgGraph, distinctQueryStack, lastOfPrevious, firstOfNextStack, dropStep));
+        if (aggregateHolder != null) {
+            singlePathSql.append(aggregateHolder.toSql(sqlgGraph.getSqlDialect(), distinctQueryStack.getLast().getSchemaTable()));
+        } else {
+            singlePathSql.append(constructFromClause(sqlgGraph, distinctQueryStack, lastOfPrevious, firstOfNextStack, dropStep));
+        }
         singlePathSql.append("\nFROM\n\t");
         singlePathSql.append(sqlgGraph.getSqlDialect().maybeWrapInQoutes(firstSchemaTableTree.getSchemaTable().getSchema()));
         singlePathSql.append(".");
@@ -871,7 +1117,22 @@ public class SchemaTableTree {
 
         //lastOfPrevious is null for the first call in the call stack it needs the id parameter in the where clause.
         if (lastOfPrevious == null && distinctQueryStack.getFirst().stepType != STEP_TYPE.GRAPH_STEP) {
-            if (this.parentIdsAndIndexes.size() != 1 && sqlgGraph.getSqlDialect().supportsValuesExpression()) {
+            if (bindsParentIdsAsArrays()) {
+                singlePathSql.append(" INNER JOIN\n\t");
+                singlePathSql.append(sqlgGraph.getSqlDialect().unnestArrayParameters(2));
+                singlePathSql.append(" AS tmp (");
+                singlePathSql.append(sqlgGraph.getSqlDialect().maybeWrapInQoutes("tmpId"));
+                singlePathSql.append(", ");
+                singlePathSql.append(sqlgGraph.getSqlDialect().maybeWrapInQoutes("index"));
+                singlePathSql.append(") ON ");
+                singlePathSql.append(sqlgGraph.getSqlDialect().maybeWrapInQoutes(firstSchemaTable.getSchema()));
+                singlePathSql.append(".");
+                singlePathSql.append(sqlgGraph.getSqlDialect().maybeWrapInQoutes(firstSchemaTable.getTable()));
+                singlePathSql.append(".");
+                singlePathSql.append(sqlgGraph.getSqlDialect().maybeWrapInQoutes(Topology.ID));
+                singlePathSql.append(" = tmp.");
+                singlePathSql.append(sqlgGraph.getSqlDialect().maybeWrapInQoutes("tmpId"));
+            } else if (this.parentIdsAndIndexes.size() != 1 && sqlgGraph.getSqlDialect().supportsValuesExpression()) {
                 singlePathSql.append(" INNER JOIN\n\t(VALUES");
                 int count = 1;
                 for (Pair<Long, Long> parentIdAndIndex : this.parentIdsAndIndexes) {
@@ -959,8 +1220,13 @@ public class SchemaTableTree {
             singlePathSql.append(schemaTableTree.toOptionalLeftJoinWhereClause(sqlgGraph, mutableWhere));
         }
 
+        if (aggregateHolder != null && aggregateHolder.isGroupBy()) {
+            singlePathSql.append("\nGROUP BY\n\t");
+            singlePathSql.append(aggregateHolder.toGroupBySql(sqlgGraph.getSqlDialect(), distinctQueryStack.getLast().getSchemaTable()));
+        }
+
         //if partOfDuplicateQuery then the order by clause is on the outer select
-        if (!partOfDuplicateQuery) {
+        if (!partOfDuplicateQuery && aggregateHolder == null) {
 
             if (!dropStep && lastOfPrevious == null && distinctQueryStack.getFirst().stepType != STEP_TYPE.GRAPH_STEP) {
                 singlePathSql.append("\nORDER BY\n\t");
@@ -979,13 +1245,82 @@ public class SchemaTableTree {
     }
 
 
+    /**
+     * DISTINCT ON only compares the id or by key column. A plain DISTINCT compares all the selected columns, it is only
+     * used to deduplicate the elements themselves and only if all their columns can be compared.
+     *
+     * @param vertexStep If true the rows are deduplicated per incoming element, DISTINCT ON includes the "index" column.
+     * @return the DISTINCT clause for the leaf node's rows or an empty string if they are not deduplicated on the db.
+     */
+    private String toDistinctClause(SqlgGraph sqlgGraph, boolean vertexStep) {
+        if (!this.distinct) {
+            return "";
+        }
+        Map<String, PropertyType> propertyTypeMap = getPropertyTypeMapToSelect();
+        if (sqlgGraph.getSqlDialect().supportsDistinctOn()) {
+            String column;
+            if (this.distinctByKey == null) {
+                column = Topology.ID;
+            } else if (DISTINCT_PROPERTY_TYPES.contains(propertyTypeMap.get(this.distinctByKey))) {
+                column = this.distinctByKey;
+            } else {
+                return "";
+            }
+            return "DISTINCT ON (" +
+                    (vertexStep ? sqlgGraph.getSqlDialect().maybeWrapInQoutes("index") + ", " : "") +
+                    sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.schemaTable.getSchema()) + "." +
+                    sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.schemaTable.getTable()) + "." +
+                    sqlgGraph.getSqlDialect().maybeWrapInQoutes(column) + ") ";
+        } else if (this.distinctByKey == null && DISTINCT_PROPERTY_TYPES.containsAll(propertyTypeMap.values())) {
+            return "DISTINCT ";
+        } else {
+            return "";
+        }
+    }
+
+    /**
+     * The sql of a stack with a bulk within/without or, on dialects without a values expression, many parent ids joins
+     * on temporary tables that are only visible to the transaction's connection.
+     *
+     * @return true if the stack's sql uses temporary tables.
+     */
+    public boolean usesTemporaryTables(LinkedList<SchemaTableTree> distinctQueryStack) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        if (distinctQueryStack.getFirst().stepType != STEP_TYPE.GRAPH_STEP &&
+                this.parentIdsAndIndexes.size() != 1 &&
+                !this.sqlgGraph.getSqlDialect().supportsValuesExpression()) {
+            return true;
+        }
+        if (this.sqlgGraph.getSqlDialect().supportsBulkWithinOut()) {
+            for (SchemaTableTree schemaTableTree : distinctQueryStack) {
+                if (schemaTableTree.hasBulkWithinOrOut(this.sqlgGraph)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The SqlgVertexStep's parent ids and indexes are bound as two array parameters, see {@link SqlgUtil#BULK_WITHIN_ARRAY}.
+     * The parameters precede all other parameters of the statement.
+     *
+     * @return true if the parent ids and indexes are joined on as 'unnest(?, ?)'.
+     */
+    public boolean bindsParentIdsAsArrays() {
+        return this.stepType != STEP_TYPE.GRAPH_STEP &&
+                this.parentIdsAndIndexes != null &&
+                this.parentIdsAndIndexes.size() > 1 &&
+                SqlgUtil.useArrayParameters(this.sqlgGraph);
+    }
+
     private boolean hasBulkWithinOrOut(SqlgGraph sqlgGraph) {
-        return this.hasContainers.stream().anyMatch(h -> SqlgUtil.isBulkWithinAndOut(sqlgGraph, h));
+        return this.hasContainers.stream().anyMatch(h -> SqlgUtil.isBulkWithinAndOut(sqlgGraph, this, h));
     }
 
     private String bulkWithJoin(SqlgGraph sqlgGraph) {
         StringBuilder sb = new StringBuilder();
-        List<HasContainer> bulkHasContainers = this.hasContainers.stream().filter(h -> SqlgUtil.isBulkWithinAndOut(sqlgGraph, h)).collect(Collectors.toList());
+        List<HasContainer> bulkHasContainers = this.hasContainers.stream().filter(h -> SqlgUtil.isBulkWithinAndOut(sqlgGraph, this, h)).collect(Collectors.toList());
         for (HasContainer hasContainer : bulkHasContainers) {
             P<List<Object>> predicate = (P<List<Object>>) hasContainer.getPredicate();
             Collection<Object> withInList = predicate.getValue();
@@ -1103,7 +1438,7 @@ public class SchemaTableTree {
         final StringBuilder result = new StringBuilder();
         if (sqlgGraph.getSqlDialect().supportsBulkWithinOut()) {
             for (HasContainer hasContainer : this.hasContainers) {
-                if (!SqlgUtil.isBulkWithin(sqlgGraph, hasContainer)) {
+                if (!SqlgUtil.isBulkWithin(sqlgGraph, this, hasContainer)) {
                     if (!printedWhere.booleanValue()) {
                         printedWhere.setTrue();
                         result.append("\nWHERE\n\t(");
@@ -1517,7 +1852,7 @@ public class SchemaTableTree {
 
     private String printLabeledOuterFromClause(String sql, int counter, Map<String, String> columnNameAliasMapCopy) {
         sql += " a" + counter + "." + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.labeledMappedAliasIdForOuterFromClause(columnNameAliasMapCopy));
-        Map<String, PropertyType> propertyTypeMap = this.getFilteredAllTables().get(this.getSchemaTable().toString());
+        Map<String, PropertyType> propertyTypeMap = this.getPropertyTypeMapToSelect();
         if (!propertyTypeMap.isEmpty()) {
             sql += ", ";
         }
@@ -1577,7 +1912,7 @@ public class SchemaTableTree {
     }
 
     private static void printFromClauseFor(SchemaTableTree lastSchemaTableTree, ColumnList cols) {
-        Map<String, PropertyType> propertyTypeMap = lastSchemaTableTree.getFilteredAllTables().get(lastSchemaTableTree.getSchemaTable().toString());
+        Map<String, PropertyType> propertyTypeMap = lastSchemaTableTree.getPropertyTypeMapToSelect();
         for (Map.Entry<String, PropertyType> propertyTypeMapEntry : propertyTypeMap.entrySet()) {
             String alias = lastSchemaTableTree.calculateAliasPropertyName(propertyTypeMapEntry.getKey());
             cols.add(lastSchemaTableTree, propertyTypeMapEntry.getKey(), alias);
@@ -1589,7 +1924,7 @@ public class SchemaTableTree {
     }
 
     private String printLabeledOuterFromClauseFor(String sql, int counter, Map<String, String> columnNameAliasMapCopy) {
-        Map<String, PropertyType> propertyTypeMap = this.getFilteredAllTables().get(this.getSchemaTable().toString());
+        Map<String, PropertyType> propertyTypeMap = this.getPropertyTypeMapToSelect();
         int count = 1;
         for (String propertyName : propertyTypeMap.keySet()) {
             sql += " a" + counter + ".";
@@ -1613,7 +1948,7 @@ public class SchemaTableTree {
     }
 
     private static void printLabeledFromClauseFor(SchemaTableTree lastSchemaTableTree, ColumnList cols) {
-        Map<String, PropertyType> propertyTypeMap = lastSchemaTableTree.getFilteredAllTables().get(lastSchemaTableTree.getSchemaTable().toString());
+        Map<String, PropertyType> propertyTypeMap = lastSchemaTableTree.getPropertyTypeMapToSelect();
         for (Map.Entry<String, PropertyType> propertyTypeMapEntry : propertyTypeMap.entrySet()) {
             String col = propertyTypeMapEntry.getKey();
             String alias = cols.getAlias(lastSchemaTableTree, col);
@@ -2325,6 +2660,7 @@ public class SchemaTableTree {
     }
 
     public void loadProperty(ResultSet resultSet, SqlgElement sqlgElement) throws SQLException {
+        sqlgElement.loadingProperties(this.restrictedProperties);
         for (int ix = 1; ix <= resultSet.getMetaData().getColumnCount(); ix++) {
             String columnName = resultSet.getMetaData().getColumnLabel(ix);//entry.getKey();
             Pair<String, PropertyType> p = getColumnNamePropertyName().get(columnName);
@@ -2340,6 +2676,9 @@ public class SchemaTableTree {
                 }
             }
         }
+        if (this.restrictedProperties == null && sqlgElement instanceof SqlgVertex) {
+            this.sqlgGraph.tx().cacheVertex((SqlgVertex) sqlgElement);
+        }
     }
 
     public void clearColumnNamePropertyNameMap() {
@@ -56,7 +56,19 @@ public class WhereClause {
             }
             result += compareToSql((Compare) p.getBiPredicate());
             return result;
-        } else if ((!sqlgGraph.getSqlDialect().supportsBulkWithinOut() || (!SqlgUtil.isBulkWithinAndOut(sqlgGraph, hasContainer))) && p.getBiPredicate() instanceof Contains) {
+        } else if (p.getBiPredicate() instanceof Contains && SqlgUtil.isBulkWithinAndOutAsArray(sqlgGraph, schemaTableTree, hasContainer)) {
+            if (hasContainer.getKey().equals(T.id.getAccessor())) {
+                result += prefix + "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID");
+            } else {
+                result += prefix + "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes(hasContainer.getKey());
+            }
+            if (p.getBiPredicate() == Contains.within) {
+                result += " = ANY(?)";
+            } else {
+                result += " <> ALL(?)";
+            }
+            return result;
+        } else if ((!sqlgGraph.getSqlDialect().supportsBulkWithinOut() || (!SqlgUtil.isBulkWithinAndOut(sqlgGraph, schemaTableTree, hasContainer))) && p.getBiPredicate() instanceof Contains) {
             if (hasContainer.getKey().equals(T.id.getAccessor())) {
                 result += prefix + "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID");
             } else {
@@ -235,7 +247,7 @@ public class WhereClause {
         return prefix + result;
     }
 
-    public void putKeyValueMap(HasContainer hasContainer, Multimap<String, Object> keyValueMap) {
+    public void putKeyValueMap(SqlgGraph sqlgGraph, SchemaTableTree schemaTableTree, HasContainer hasContainer, Multimap<String, Object> keyValueMap) {
         if (p instanceof OrP) {
             OrP<?> orP = (OrP<?>) p;
             Preconditions.checkState(orP.getPredicates().size() == 2, "Only handling OrP with 2 predicates!");
@@ -250,6 +262,12 @@ public class WhereClause {
             P<?> p2 = andP.getPredicates().get(1);
             keyValueMap.put(hasContainer.getKey(), p1.getValue());
             keyValueMap.put(hasContainer.getKey(), p2.getValue());
+        } else if ((p.getBiPredicate() == Contains.within || p.getBiPredicate() == Contains.without) && SqlgUtil.isBulkWithinAndOutAsArray(sqlgGraph, schemaTableTree, hasContainer)) {
+            if (hasContainer.getKey().equals(T.id.getAccessor())) {
+                keyValueMap.put("ID", schemaTableTree.withInOutAsArray(hasContainer));
+            } else {
+                keyValueMap.put(hasContainer.getKey(), schemaTableTree.withInOutAsArray(hasContainer));
+            }
         } else if (p.getBiPredicate() == Contains.within || p.getBiPredicate() == Contains.without) {
             Collection<?> values = (Collection<?>) hasContainer.getValue();
             for (Object value : values) {
@@ -1,6 +1,9 @@
 package org.umlg.sqlg.step;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
@@ -13,11 +16,10 @@ import org.umlg.sqlg.sql.parse.ReplacedStep;
 import org.umlg.sqlg.sql.parse.ReplacedStepTree;
 import org.umlg.sqlg.sql.parse.SchemaTableTree;
 import org.umlg.sqlg.strategy.Emit;
+import org.umlg.sqlg.strategy.SqlgAggregateHolder;
 import org.umlg.sqlg.strategy.SqlgComparatorHolder;
-import org.umlg.sqlg.structure.SqlgCompiledResultIterator;
-import org.umlg.sqlg.structure.SqlgElement;
-import org.umlg.sqlg.structure.SqlgGraph;
-import org.umlg.sqlg.structure.SqlgTraverserGenerator;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
+import org.umlg.sqlg.structure.*;
 import org.umlg.sqlg.util.SqlgTraversalUtil;
 
 import java.util.*;
@@ -55,6 +57,9 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
     private boolean requiresSack;
     private boolean requiresOneBulk;
 
+    private SqlgAggregateHolder aggregateHolder;
+    private Iterator<Traverser.Admin> aggregateTraversers;
+
     public SqlgGraphStep(final SqlgGraph sqlgGraph, final Traversal.Admin traversal, final Class<E> returnClass, final boolean isStart, final Object... ids) {
         super(traversal, returnClass, isStart, ids);
         this.sqlgGraph = sqlgGraph;
@@ -64,6 +69,9 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
 
     @Override
     protected Traverser.Admin<E> processNextStart() {
+        if (this.aggregateHolder != null) {
+            return processNextAggregate();
+        }
         while (true) {
             if (this.traversersLstIter != null && this.traversersLstIter.hasNext()) {
                 Emit<E> emit = this.traversersLstIter.next();
@@ -107,6 +115,156 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
         }
     }
 
+    private Traverser.Admin<E> processNextAggregate() {
+        if (this.aggregateTraversers == null) {
+            this.aggregateTraversers = aggregate();
+        }
+        if (this.aggregateTraversers.hasNext()) {
+            return this.aggregateTraversers.next();
+        }
+        throw FastNoSuchElementException.instance();
+    }
+
+    /**
+     * Computes the aggregate of every query on the db. The traversers carry the aggregate as value and the number of
+     * rows it represents as bulk.
+     * A grouped aggregate emits one traverser with the groups' map, replacing the group step.
+     * If any of the queries' aggregates can not be computed on the db the elements are loaded and their values emitted
+     * instead, leaving the reducing step to do all the work.
+     */
+    private Iterator<Traverser.Admin> aggregate() {
+        this.sqlgGraph.tx().readWrite();
+        if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().getBatchManager().isStreaming()) {
+            throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
+        }
+        Set<SchemaTableTree> rootSchemaTableTrees = doLast();
+        //The stacks with the type of the aggregated property and the type of the group by property.
+        List<Triple<SchemaTableTree, LinkedList<SchemaTableTree>, Pair<PropertyType, PropertyType>>> aggregateQueries = new ArrayList<>();
+        boolean supported = true;
+        for (SchemaTableTree rootSchemaTableTree : rootSchemaTableTrees) {
+            try {
+                for (LinkedList<SchemaTableTree> distinctQueryStack : rootSchemaTableTree.constructDistinctQueries()) {
+                    Map<String, PropertyType> columns = this.sqlgGraph.getTopology().getTableFor(distinctQueryStack.getLast().getSchemaTable());
+                    PropertyType propertyType = null;
+                    if (this.aggregateHolder.getPropertyKey() != null) {
+                        propertyType = columns.get(this.aggregateHolder.getPropertyKey());
+                        //The label does not have the property, it has no values to aggregate.
+                        if (propertyType == null) {
+                            continue;
+                        }
+                    }
+                    PropertyType groupByPropertyType = null;
+                    if (this.aggregateHolder.isGroupBy()) {
+                        groupByPropertyType = columns.get(this.aggregateHolder.getGroupByKey());
+                        //The elements of a label without the group by property are loaded to fail on it as they would in memory.
+                        if (!this.aggregateHolder.isGroupBySupported(groupByPropertyType)) {
+                            supported = false;
+                            break;
+                        }
+                    }
+                    if (!this.aggregateHolder.isSupported(propertyType, rootSchemaTableTree.duplicatesInStack(distinctQueryStack))) {
+                        supported = false;
+                        break;
+                    }
+                    aggregateQueries.add(Triple.of(rootSchemaTableTree, distinctQueryStack, Pair.of(propertyType, groupByPropertyType)));
+                }
+            } finally {
+                rootSchemaTableTree.resetColumnAliasMaps();
+            }
+            if (!supported) {
+                break;
+            }
+        }
+        if (!supported) {
+            return loadAggregateValues(rootSchemaTableTrees);
+        }
+        List<Traverser.Admin> result = new ArrayList<>();
+        Map<Object, Object> groups = new HashMap<>();
+        for (Triple<SchemaTableTree, LinkedList<SchemaTableTree>, Pair<PropertyType, PropertyType>> aggregateQuery : aggregateQueries) {
+            SchemaTableTree rootSchemaTableTree = aggregateQuery.getLeft();
+            try {
+                String sql = rootSchemaTableTree.constructAggregateSql(aggregateQuery.getMiddle(), this.aggregateHolder);
+                if (this.aggregateHolder.isGroupBy()) {
+                    Map<Object, Pair<Object, Long>> groupValues = SqlgSqlExecutor.executeGroupByAggregateQuery(
+                            this.sqlgGraph, sql, aggregateQuery.getMiddle(), this.aggregateHolder,
+                            aggregateQuery.getRight().getLeft(), aggregateQuery.getRight().getRight(),
+                            SqlgTraversalUtil.fetchSize(this.sqlgGraph, this.traversal)
+                    );
+                    for (Map.Entry<Object, Pair<Object, Long>> groupValue : groupValues.entrySet()) {
+                        groups.put(groupValue.getKey(), this.aggregateHolder.merge(
+                                groups.get(groupValue.getKey()), groupValue.getValue().getLeft(), groupValue.getValue().getRight())
+                        );
+                    }
+                } else {
+                    Pair<Object, Long> valueAndBulk = SqlgSqlExecutor.executeAggregateQuery(
+                            this.sqlgGraph, sql, aggregateQuery.getMiddle(), this.aggregateHolder, aggregateQuery.getRight().getLeft()
+                    );
+                    if (valueAndBulk != null) {
+                        result.add(SqlgTraverserGenerator.instance().generate(valueAndBulk.getLeft(), this, valueAndBulk.getRight(), this.requiresSack, false));
+                    }
+                }
+            } finally {
+                rootSchemaTableTree.resetColumnAliasMaps();
+            }
+        }
+        if (this.aggregateHolder.isGroupBy()) {
+            result.add(groupTraverser(groups));
+        }
+        return result.iterator();
+    }
+
+    private Iterator<Traverser.Admin> loadAggregateValues(Set<SchemaTableTree> rootSchemaTableTrees) {
+        Iterator<List<Emit<E>>> emits = new SqlgCompiledResultIterator<>(
+                this.sqlgGraph,
+                rootSchemaTableTrees,
+                false,
+                SqlgTraversalUtil.fetchSize(this.sqlgGraph, this.traversal),
+                SqlgTraversalUtil.queryParallelism(this.sqlgGraph, this.traversal)
+        );
+        Iterator<E> elements = Iterators.transform(emits, emitList -> {
+            E element = null;
+            for (Emit<E> emit : emitList) {
+                if (!emit.isFake()) {
+                    element = emit.getElement();
+                }
+            }
+            Preconditions.checkState(element != null, "BUG: a query must emit an element");
+            return element;
+        });
+        String propertyKey = this.aggregateHolder.getPropertyKey();
+        if (this.aggregateHolder.isGroupBy()) {
+            //The group step has been removed, group the elements here.
+            Map<Object, Object> groups = new HashMap<>();
+            while (elements.hasNext()) {
+                E element = elements.next();
+                Object groupByValue = element.value(this.aggregateHolder.getGroupByKey());
+                Object value = propertyKey == null ? element : element.property(propertyKey).orElse(null);
+                if (value != null) {
+                    groups.put(groupByValue, this.aggregateHolder.merge(groups.get(groupByValue), value, 1L));
+                }
+            }
+            return Collections.singletonList(groupTraverser(groups)).iterator();
+        }
+        Iterator<Object> values = Iterators.filter(
+                Iterators.transform(elements, element -> propertyKey == null ? element : element.property(propertyKey).orElse(null)),
+                Objects::nonNull
+        );
+        return Iterators.transform(values, value -> SqlgTraverserGenerator.instance().generate(value, this, 1L, this.requiresSack, false));
+    }
+
+    private Traverser.Admin groupTraverser(Map<Object, Object> groups) {
+        groups.replaceAll((key, value) -> this.aggregateHolder.finalizeGroupValue(value));
+        return SqlgTraverserGenerator.instance().generate(groups, this, 1L, this.requiresSack, false);
+    }
+
+    public void setAggregateHolder(SqlgAggregateHolder aggregateHolder) {
+        this.aggregateHolder = aggregateHolder;
+    }
+
+    public SqlgAggregateHolder getAggregateHolder() {
+        return this.aggregateHolder;
+    }
+
     private boolean applyRange(Emit<E> emit) {
         if (this.lastReplacedStep.hasRange() && this.lastReplacedStep.applyInStep() && this.lastReplacedStep.getDepth() == emit.getReplacedStepDepth()) {
             if (this.lastReplacedStep.getSqlgRangeHolder().hasRange()) {
@@ -180,6 +338,7 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
     public void reset() {
         super.reset();
         this.previousHead = null;
+        this.aggregateTraversers = null;
     }
 
     @Override
@@ -195,7 +354,13 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
         Preconditions.checkState(this.replacedSteps.size() > 0, "There must be at least one replacedStep");
         Preconditions.checkState(this.replacedSteps.get(0).isGraphStep(), "The first step must a SqlgGraphStep");
         Set<SchemaTableTree> rootSchemaTableTrees = doLast();
-        return new SqlgCompiledResultIterator<>(this.sqlgGraph, rootSchemaTableTrees);
+        return new SqlgCompiledResultIterator<>(
+                this.sqlgGraph,
+                rootSchemaTableTrees,
+                false,
+                SqlgTraversalUtil.fetchSize(this.sqlgGraph, this.traversal),
+                SqlgTraversalUtil.queryParallelism(this.sqlgGraph, this.traversal)
+        );
     }
 
     private Set<SchemaTableTree> doLast() {
@@ -241,6 +406,11 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
         return this.replacedSteps;
     }
 
+    @Override
+    public ReplacedStepTree getReplacedStepTree() {
+        return this.replacedStepTree;
+    }
+
     @Override
     public ReplacedStepTree.TreeNode addReplacedStep(ReplacedStep<?, ?> replacedStep) {
         //depth is + 1 because there is always a root node who's depth is 0
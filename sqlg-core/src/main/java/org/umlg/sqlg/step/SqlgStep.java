@@ -12,6 +12,8 @@ public interface SqlgStep extends Step {
 
     ReplacedStepTree.TreeNode addReplacedStep(ReplacedStep<?, ?> replacedStep);
 
+    ReplacedStepTree getReplacedStepTree();
+
     boolean isForMultipleQueries();
 
     void setEagerLoad(boolean eager);
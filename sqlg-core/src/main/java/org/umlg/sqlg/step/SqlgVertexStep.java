@@ -15,6 +15,7 @@ import org.umlg.sqlg.sql.parse.SchemaTableTree;
 import org.umlg.sqlg.strategy.Emit;
 import org.umlg.sqlg.strategy.SqlgComparatorHolder;
 import org.umlg.sqlg.structure.*;
+import org.umlg.sqlg.util.SqlgTraversalUtil;
 
 import java.util.*;
 
@@ -242,7 +243,13 @@ public class SqlgVertexStep<E extends SqlgElement> extends SqlgAbstractStep impl
         rootSchemaTableTree.setParentIdsAndIndexes(this.schemaTableParentIds.get(schemaTable));
         Set<SchemaTableTree> rootSchemaTableTrees = new HashSet<>();
         rootSchemaTableTrees.add(rootSchemaTableTree);
-        return new SqlgCompiledResultListIterator<>(new SqlgCompiledResultIterator<>(this.sqlgGraph, rootSchemaTableTrees, true));
+        return new SqlgCompiledResultListIterator<>(new SqlgCompiledResultIterator<>(
+                this.sqlgGraph,
+                rootSchemaTableTrees,
+                true,
+                SqlgTraversalUtil.fetchSize(this.sqlgGraph, this.traversal),
+                SqlgTraversalUtil.queryParallelism(this.sqlgGraph, this.traversal)
+        ));
     }
 
     @Override
@@ -264,6 +271,11 @@ public class SqlgVertexStep<E extends SqlgElement> extends SqlgAbstractStep impl
         return this.replacedSteps;
     }
 
+    @Override
+    public ReplacedStepTree getReplacedStepTree() {
+        return this.replacedStepTree;
+    }
+
     @Override
     public SqlgVertexStep<E> clone() {
         final SqlgVertexStep<E> clone = (SqlgVertexStep<E>) super.clone();
@@ -23,6 +23,9 @@ import org.umlg.sqlg.structure.topology.VertexLabel;
 
 import java.util.*;
 
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
+
 /**
  * @author Pieter Martin (https://github.com/pietermartin)
  * Date: 2017/11/19
@@ -153,12 +156,16 @@ public class SqlgDropStepBarrier<S> extends SqlgFilterStep<S>  implements Mutati
         for (EdgeLabel edgeLabel : this.edgesToDelete.keySet()) {
             Collection<Long> ids = this.edgesToDelete.get(edgeLabel);
             String sql = this.sqlgGraph.getSqlDialect().drop(edgeLabel, ids);
-            SqlgSqlExecutor.executeDrop(this.sqlgGraph, sql);
+            SqlgSqlExecutor.executeDrop(this.sqlgGraph, SchemaTable.of(edgeLabel.getSchema().getName(), EDGE_PREFIX + edgeLabel.getLabel()), sql);
         }
         for (VertexLabel vertexLabel : this.verticesToDelete.keySet()) {
             Collection<Long> ids = this.verticesToDelete.get(vertexLabel);
+            SchemaTable schemaTable = SchemaTable.of(vertexLabel.getSchema().getName(), vertexLabel.getLabel());
+            for (Long id : ids) {
+                this.sqlgGraph.tx().elementCacheWrite(schemaTable, RecordId.from(schemaTable, id));
+            }
             String sql = this.sqlgGraph.getSqlDialect().drop(vertexLabel, ids);
-            SqlgSqlExecutor.executeDrop(this.sqlgGraph, sql);
+            SqlgSqlExecutor.executeDrop(this.sqlgGraph, SchemaTable.of(vertexLabel.getSchema().getName(), VERTEX_PREFIX + vertexLabel.getLabel()), sql);
         }
         //The standard TraversalFilterStep.filter calls TraversalUtil.test which normally resets the traversal for every incoming start.
         reset();
@@ -0,0 +1,437 @@
+package org.umlg.sqlg.step.barrier;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.step.SqlgAbstractStep;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgVertex;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.umlg.sqlg.structure.topology.Topology.*;
+
+/**
+ * Executes <code>repeat(out/in/both(label)).until(has(...))</code> and <code>repeat(out/in/both(label)).times(n)</code>,
+ * optionally with <code>emit()</code> and <code>simplePath()</code>, as a single 'WITH RECURSIVE' query per chunk of starts.
+ * The edge labels must all be between the same vertex label.
+ * <p>
+ * Every row of the recursive query is a path so the results have the same multiplicity as the {@link SqlgRepeatStepBarrier}.
+ * With <code>simplePath()</code> paths that revisit a vertex are pruned in the query, paths that revisit a vertex the
+ * traverser had visited before the repeat are filtered out afterwards. Without it an until query over a cycle repeats
+ * forever, as the barrier does.
+ * Only the ids are read, the vertices' properties are loaded on demand.
+ *
+ * @see SqlDialect#supportsRecursiveCte()
+ * Date: 2018/01/24
+ */
+public class SqlgRecursiveRepeatStepBarrier<S> extends SqlgAbstractStep<S, S> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlgRecursiveRepeatStepBarrier.class);
+    private static final String RECURSIVE_TABLE = "sqlg_repeat";
+    private static final String START = "sqlg_start";
+    private static final String DEPTH = "sqlg_depth";
+    private static final String PATH = "sqlg_path";
+    private static final String DONE = "sqlg_done";
+    private static final String FROM = "sqlg_from";
+    private static final String TO = "sqlg_to";
+    private static final Set<PropertyType> UNTIL_PROPERTY_TYPES = EnumSet.of(
+            PropertyType.BOOLEAN, PropertyType.SHORT, PropertyType.INTEGER, PropertyType.LONG,
+            PropertyType.FLOAT, PropertyType.DOUBLE, PropertyType.STRING
+    );
+
+    private final SqlgGraph sqlgGraph;
+    private final VertexLabel vertexLabel;
+    private final Set<EdgeLabel> edgeLabels;
+    private final Direction direction;
+    private final List<HasContainer> untilHasContainers;
+    private final long times;
+    private final boolean emit;
+    private final boolean simplePath;
+
+    private boolean first = true;
+    private Iterator<Traverser.Admin<S>> resultIterator = Collections.emptyIterator();
+    private Iterator<List<Traverser.Admin<S>>> startChunks;
+
+    /**
+     * @param untilHasContainers The until condition, empty when repeating a fixed number of times.
+     * @param times              The number of times to repeat, -1 when repeating until the condition holds.
+     * @param simplePath         true if the repeated vertex step is followed by <code>simplePath()</code>.
+     */
+    public SqlgRecursiveRepeatStepBarrier(
+            Traversal.Admin traversal,
+            VertexLabel vertexLabel,
+            Set<EdgeLabel> edgeLabels,
+            Direction direction,
+            List<HasContainer> untilHasContainers,
+            long times,
+            boolean emit,
+            boolean simplePath) {
+
+        super(traversal);
+        Preconditions.checkArgument(!untilHasContainers.isEmpty() || times > 0, "repeat needs an until condition or times");
+        this.sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+        this.vertexLabel = vertexLabel;
+        this.edgeLabels = edgeLabels;
+        this.direction = direction;
+        this.untilHasContainers = untilHasContainers;
+        this.times = times;
+        this.emit = emit;
+        this.simplePath = simplePath;
+    }
+
+    /**
+     * @return true if the until predicate can be translated to sql.
+     */
+    public static boolean isSupportedUntil(VertexLabel vertexLabel, HasContainer hasContainer) {
+        if (!(hasContainer.getBiPredicate() instanceof Compare) || hasContainer.getValue() == null) {
+            return false;
+        }
+        PropertyType propertyType = vertexLabel.getProperties().containsKey(hasContainer.getKey()) ?
+                vertexLabel.getProperties().get(hasContainer.getKey()).getPropertyType() : null;
+        return propertyType != null && UNTIL_PROPERTY_TYPES.contains(propertyType);
+    }
+
+    @Override
+    protected Traverser.Admin<S> processNextStart() throws NoSuchElementException {
+        if (this.first) {
+            this.first = false;
+            //Only vertices of the vertex label have the edges, all other starts have no result.
+            Map<Long, List<Traverser.Admin<S>>> startsById = new LinkedHashMap<>();
+            while (this.starts.hasNext()) {
+                Traverser.Admin<S> start = this.starts.next();
+                if (start.get() instanceof SqlgVertex) {
+                    RecordId recordId = (RecordId) ((SqlgVertex) start.get()).id();
+                    if (recordId.getSchemaTable().getSchema().equals(this.vertexLabel.getSchema().getName()) &&
+                            recordId.getSchemaTable().getTable().equals(this.vertexLabel.getName())) {
+
+                        startsById.computeIfAbsent(recordId.getId(), k -> new ArrayList<>()).add(start);
+                    }
+                }
+            }
+            List<Long> ids = new ArrayList<>(startsById.keySet());
+            Iterator<List<Long>> idChunks;
+            if (SqlgUtil.useArrayParameters(this.sqlgGraph)) {
+                //The start ids are bound as one array parameter.
+                idChunks = ids.isEmpty() ? Collections.emptyIterator() : Collections.singletonList(ids).iterator();
+            } else {
+                //The until parameters are bound in both the anchor and the recursive term.
+                int inParameterLimit = this.sqlgGraph.getSqlDialect().sqlInParameterLimit() - (2 * this.untilHasContainers.size());
+                idChunks = Lists.partition(ids, inParameterLimit).iterator();
+            }
+            this.startChunks = new Iterator<List<Traverser.Admin<S>>>() {
+                @Override
+                public boolean hasNext() {
+                    return idChunks.hasNext();
+                }
+
+                @Override
+                public List<Traverser.Admin<S>> next() {
+                    return execute(idChunks.next(), startsById);
+                }
+            };
+        }
+        while (true) {
+            if (this.resultIterator.hasNext()) {
+                return this.resultIterator.next();
+            } else if (this.startChunks.hasNext()) {
+                this.resultIterator = this.startChunks.next().iterator();
+            } else {
+                throw FastNoSuchElementException.instance();
+            }
+        }
+    }
+
+    private List<Traverser.Admin<S>> execute(List<Long> startIds, Map<Long, List<Traverser.Admin<S>>> startsById) {
+        boolean startIdsAsArray = SqlgUtil.useArrayParameters(this.sqlgGraph);
+        String sql = sql(startIds.size(), startIdsAsArray);
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        boolean requiresPath = TraversalHelper.getRootTraversal(this.traversal).getTraverserRequirements().contains(TraverserRequirement.PATH);
+        List<Traverser.Admin<S>> result = new ArrayList<>();
+        if (this.sqlgGraph.tx().isInBatchMode()) {
+            this.sqlgGraph.tx().flush();
+        }
+        this.sqlgGraph.tx().flushPropertyUpdates();
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = this.sqlgGraph.tx().prepareQuery(sql);
+            int parameterIndex = setUntilParameters(preparedStatement, 1);
+            if (startIdsAsArray) {
+                this.sqlgGraph.getSqlDialect().setArray(preparedStatement, parameterIndex++, PropertyType.LONG_ARRAY, startIds.toArray(new Long[0]));
+            } else {
+                for (Long startId : startIds) {
+                    preparedStatement.setLong(parameterIndex++, startId);
+                }
+            }
+            setUntilParameters(preparedStatement, parameterIndex);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    long startId = resultSet.getLong(1);
+                    String path = resultSet.getString(2);
+                    long id = resultSet.getLong(3);
+                    //The path starts and ends with the start and end vertex, '/start/.../end/'
+                    String[] pathIds = path.substring(1, path.length() - 1).split("/");
+                    for (Traverser.Admin<S> start : startsById.get(startId)) {
+                        if (this.simplePath && revisitsPath(start, pathIds)) {
+                            continue;
+                        }
+                        Traverser.Admin<S> traverser = start;
+                        if (requiresPath) {
+                            for (int i = 1; i < pathIds.length - 1; i++) {
+                                traverser = traverser.split(vertex(Long.valueOf(pathIds[i])), EmptyStep.instance());
+                            }
+                        }
+                        result.add(traverser.split(vertex(id), EmptyStep.instance()));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (preparedStatement != null) {
+                try {
+                    this.sqlgGraph.tx().release(preparedStatement);
+                } catch (SQLException e) {
+                    logger.debug("error releasing statement", e);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the repeat's path visits a vertex that is already on the start's path.
+     */
+    private boolean revisitsPath(Traverser.Admin<S> start, String[] pathIds) {
+        Set<Long> visited = new HashSet<>();
+        for (Object object : start.path().objects()) {
+            if (object instanceof SqlgVertex) {
+                RecordId recordId = (RecordId) ((SqlgVertex) object).id();
+                if (recordId.getSchemaTable().getSchema().equals(this.vertexLabel.getSchema().getName()) &&
+                        recordId.getSchemaTable().getTable().equals(this.vertexLabel.getName())) {
+                    visited.add(recordId.getId());
+                }
+            }
+        }
+        for (int i = 1; i < pathIds.length; i++) {
+            if (visited.contains(Long.valueOf(pathIds[i]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private S vertex(Long id) {
+        return (S) SqlgVertex.of(this.sqlgGraph, id, this.vertexLabel.getSchema().getName(), this.vertexLabel.getName());
+    }
+
+    private int setUntilParameters(PreparedStatement preparedStatement, int parameterIndex) throws SQLException {
+        List<ImmutablePair<PropertyType, Object>> typeAndValues = new ArrayList<>();
+        for (HasContainer hasContainer : this.untilHasContainers) {
+            PropertyType propertyType = this.vertexLabel.getProperties().get(hasContainer.getKey()).getPropertyType();
+            typeAndValues.add(ImmutablePair.of(propertyType, hasContainer.getValue()));
+        }
+        return SqlgUtil.setKeyValuesAsParameter(this.sqlgGraph, true, parameterIndex, preparedStatement, typeAndValues);
+    }
+
+    /**
+     * The recursive query returns the start id, the path as '/start/.../end/' and the end id.
+     * The until or times condition is evaluated when a row is added, rows for which it holds are not expanded further.
+     * The start ids are bound as one array parameter or as a parameter each.
+     */
+    private String sql(int numberOfStarts, boolean startIdsAsArray) {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        String edges = edgesSql();
+        String recursive = sqlDialect.maybeWrapInQoutes(RECURSIVE_TABLE);
+        String from = "e." + sqlDialect.maybeWrapInQoutes(FROM);
+        String to = "e." + sqlDialect.maybeWrapInQoutes(TO);
+        String vertexTable = sqlDialect.maybeWrapInQoutes(this.vertexLabel.getSchema().getName()) + "." +
+                sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + this.vertexLabel.getName());
+        String idAsString = "CAST(" + to + " AS VARCHAR(20))";
+
+        StringBuilder sql = new StringBuilder("WITH RECURSIVE ");
+        sql.append(recursive);
+        sql.append("(");
+        sql.append(sqlDialect.maybeWrapInQoutes(START)).append(", ");
+        sql.append(sqlDialect.maybeWrapInQoutes("ID")).append(", ");
+        sql.append(sqlDialect.maybeWrapInQoutes(DEPTH)).append(", ");
+        sql.append(sqlDialect.maybeWrapInQoutes(PATH)).append(", ");
+        sql.append(sqlDialect.maybeWrapInQoutes(DONE));
+        sql.append(") AS (\n\tSELECT ");
+        sql.append(from).append(", ");
+        sql.append(to).append(", ");
+        sql.append("1, ");
+        sql.append("CAST('/' || CAST(").append(from).append(" AS VARCHAR(20)) || '/' || ").append(idAsString).append(" || '/' AS VARCHAR), ");
+        sql.append(doneSql("1"));
+        sql.append("\n\tFROM ").append(edges).append(" e");
+        if (!this.untilHasContainers.isEmpty()) {
+            sql.append(" JOIN ").append(vertexTable).append(" v ON v.").append(sqlDialect.maybeWrapInQoutes("ID")).append(" = ").append(to);
+        }
+        sql.append("\n\tWHERE ").append(from);
+        if (startIdsAsArray) {
+            sql.append(" = ANY(?)");
+        } else if (numberOfStarts == 1) {
+            sql.append(" = ?");
+        } else {
+            sql.append(" IN (");
+            for (int i = 0; i < numberOfStarts; i++) {
+                sql.append("?");
+                if (i < numberOfStarts - 1) {
+                    sql.append(", ");
+                }
+            }
+            sql.append(")");
+        }
+        if (this.simplePath) {
+            sql.append(" AND ").append(to).append(" <> ").append(from);
+        }
+        sql.append("\n\tUNION ALL\n\tSELECT ");
+        sql.append("r.").append(sqlDialect.maybeWrapInQoutes(START)).append(", ");
+        sql.append(to).append(", ");
+        String depth = "r." + sqlDialect.maybeWrapInQoutes(DEPTH) + " + 1";
+        sql.append(depth).append(", ");
+        String path = "r." + sqlDialect.maybeWrapInQoutes(PATH);
+        sql.append("CAST(").append(path).append(" || ").append(idAsString).append(" || '/' AS VARCHAR), ");
+        sql.append(doneSql(depth));
+        sql.append("\n\tFROM ").append(recursive).append(" r JOIN ").append(edges).append(" e ON ");
+        sql.append(from).append(" = r.").append(sqlDialect.maybeWrapInQoutes("ID"));
+        if (!this.untilHasContainers.isEmpty()) {
+            sql.append(" JOIN ").append(vertexTable).append(" v ON v.").append(sqlDialect.maybeWrapInQoutes("ID")).append(" = ").append(to);
+        }
+        sql.append("\n\tWHERE r.").append(sqlDialect.maybeWrapInQoutes(DONE)).append(" = 0");
+        if (this.simplePath) {
+            //simplePath(), the path may not revisit a vertex
+            sql.append(" AND ").append(path).append(" NOT LIKE '%/' || ").append(idAsString).append(" || '/%'");
+        }
+        sql.append("\n)\nSELECT ");
+        sql.append(sqlDialect.maybeWrapInQoutes(START)).append(", ");
+        sql.append(sqlDialect.maybeWrapInQoutes(PATH)).append(", ");
+        sql.append(sqlDialect.maybeWrapInQoutes("ID"));
+        sql.append(" FROM ").append(recursive);
+        if (!this.emit) {
+            sql.append(" WHERE ").append(sqlDialect.maybeWrapInQoutes(DONE)).append(" = 1");
+        }
+        if (sqlDialect.needsSemicolon()) {
+            sql.append(";");
+        }
+        return sql.toString();
+    }
+
+    private String doneSql(String depth) {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        StringBuilder sql = new StringBuilder("CASE WHEN ");
+        if (this.times != -1) {
+            sql.append(depth).append(" >= ").append(this.times);
+        } else {
+            int count = 1;
+            for (HasContainer hasContainer : this.untilHasContainers) {
+                sql.append("v.").append(sqlDialect.maybeWrapInQoutes(hasContainer.getKey()));
+                sql.append(compareToSql((Compare) hasContainer.getBiPredicate()));
+                if (count++ < this.untilHasContainers.size()) {
+                    sql.append(" AND ");
+                }
+            }
+        }
+        sql.append(" THEN 1 ELSE 0 END");
+        return sql.toString();
+    }
+
+    private static String compareToSql(Compare compare) {
+        switch (compare) {
+            case eq:
+                return " = ?";
+            case neq:
+                return " <> ?";
+            case lt:
+                return " < ?";
+            case lte:
+                return " <= ?";
+            case gt:
+                return " > ?";
+            case gte:
+                return " >= ?";
+            default:
+                throw new IllegalStateException("Unhandled compare " + compare.name());
+        }
+    }
+
+    /**
+     * A derived table of all the edges as ("sqlg_from", "sqlg_to") pairs in the direction of the traversal.
+     */
+    private String edgesSql() {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        String outColumn = sqlDialect.maybeWrapInQoutes(this.vertexLabel.getFullName() + OUT_VERTEX_COLUMN_END);
+        String inColumn = sqlDialect.maybeWrapInQoutes(this.vertexLabel.getFullName() + IN_VERTEX_COLUMN_END);
+        List<String> selects = new ArrayList<>();
+        for (EdgeLabel edgeLabel : this.edgeLabels) {
+            String edgeTable = sqlDialect.maybeWrapInQoutes(edgeLabel.getSchema().getName()) + "." +
+                    sqlDialect.maybeWrapInQoutes(EDGE_PREFIX + edgeLabel.getName());
+            if (this.direction == Direction.OUT || this.direction == Direction.BOTH) {
+                selects.add("SELECT " + outColumn + " AS " + sqlDialect.maybeWrapInQoutes(FROM) + ", " +
+                        inColumn + " AS " + sqlDialect.maybeWrapInQoutes(TO) + " FROM " + edgeTable);
+            }
+            if (this.direction == Direction.IN || this.direction == Direction.BOTH) {
+                selects.add("SELECT " + inColumn + " AS " + sqlDialect.maybeWrapInQoutes(FROM) + ", " +
+                        outColumn + " AS " + sqlDialect.maybeWrapInQoutes(TO) + " FROM " + edgeTable);
+            }
+        }
+        return "(" + String.join(" UNION ALL ", selects) + ")";
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return EnumSet.of(TraverserRequirement.OBJECT, TraverserRequirement.BULK);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.first = true;
+        this.resultIterator = Collections.emptyIterator();
+        this.startChunks = null;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(
+                this,
+                this.direction.name().toLowerCase(),
+                this.edgeLabels.stream().map(EdgeLabel::getName).distinct().toArray(),
+                this.times == -1 ? "until(" + this.untilHasContainers + ")" : "times(" + this.times + ")",
+                this.emit ? "emit" : ""
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode() ^ this.direction.hashCode() ^ Long.hashCode(this.times) ^ Boolean.hashCode(this.emit);
+        for (HasContainer hasContainer : this.untilHasContainers) {
+            result ^= hasContainer.hashCode();
+        }
+        return result;
+    }
+}
@@ -4,8 +4,10 @@ import com.google.common.base.Preconditions;
 import org.apache.commons.lang3.Range;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.tinkerpop.gremlin.process.traversal.*;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.LoopTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.ChooseStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.LocalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.OptionalStep;
@@ -565,6 +567,74 @@ public abstract class BaseStrategy {
         }
     }
 
+    /**
+     * Restricts the columns selected for the elements the sqlgStep emits to the properties read by the step following it.
+     * values(keys), properties(keys) and valueMap(keys) only read their keys, id(), label() and count() read none.
+     * The elements load their remaining properties lazily if they are accessed anyhow.
+     */
+    void handlePropertiesRestriction(SqlgStep sqlgStep) {
+        if (sqlgStep.getReplacedStepTree() == null) {
+            return;
+        }
+        for (ReplacedStep<?, ?> replacedStep : sqlgStep.getReplacedSteps()) {
+            //The comparators read the properties of the elements being ordered.
+            if (replacedStep.getSqlgComparatorHolder().hasComparators() || replacedStep.isDrop()) {
+                return;
+            }
+        }
+        Step<?, ?> nextStep = sqlgStep.getNextStep();
+        Set<String> restrictedProperties;
+        if (nextStep instanceof PropertiesStep && ((PropertiesStep<?>) nextStep).getPropertyKeys().length > 0) {
+            restrictedProperties = new HashSet<>(Arrays.asList(((PropertiesStep<?>) nextStep).getPropertyKeys()));
+        } else if (nextStep instanceof PropertyMapStep && ((PropertyMapStep<?, ?>) nextStep).getPropertyKeys().length > 0 &&
+                ((PropertyMapStep<?, ?>) nextStep).getLocalChildren().isEmpty()) {
+            restrictedProperties = new HashSet<>(Arrays.asList(((PropertyMapStep<?, ?>) nextStep).getPropertyKeys()));
+        } else if (nextStep instanceof IdStep || nextStep instanceof LabelStep || nextStep instanceof CountGlobalStep) {
+            restrictedProperties = Collections.emptySet();
+        } else {
+            return;
+        }
+        sqlgStep.getReplacedStepTree().restrictLeafNodeProperties(restrictedProperties);
+    }
+
+    /**
+     * A dedup() or, on dialects with DISTINCT ON, a dedup().by(key) directly following the sqlgStep deduplicates the
+     * rows of every query on the db. A {@link SqlgVertexStep}'s rows are deduplicated per incoming element.
+     * The dedup step remains as the same element can still be returned by the different queries and incoming elements.
+     */
+    void handleDedupStep(SqlgStep sqlgStep) {
+        List<ReplacedStep<?, ?>> replacedSteps = sqlgStep.getReplacedSteps();
+        for (int i = 0; i < replacedSteps.size(); i++) {
+            ReplacedStep<?, ?> replacedStep = replacedSteps.get(i);
+            //Labeled elements are selected too, deduplicating the rows would not deduplicate the leaf elements.
+            //The leaf's own fake path label only aliases the leaf element's columns.
+            boolean labeled = i < replacedSteps.size() - 1 ?
+                    !replacedStep.getLabels().isEmpty() :
+                    !replacedStep.getLabels().stream().allMatch(l -> l.endsWith(BaseStrategy.SQLG_PATH_FAKE_LABEL));
+            if (!(replacedStep.isFake() || replacedStep.isGraphStep() || replacedStep.isVertexStep() ||
+                    replacedStep.isEdgeVertexStep() || replacedStep.isEdgeOtherVertexStep()) ||
+                    replacedStep.hasRange() || replacedStep.isEmit() || replacedStep.isLeftJoin() ||
+                    replacedStep.isJoinToLeftJoin() || replacedStep.isDrop() ||
+                    replacedStep.getSqlgComparatorHolder().hasComparators() || labeled) {
+                return;
+            }
+        }
+        Step<?, ?> step = sqlgStep.getNextStep();
+        if (!(step instanceof DedupGlobalStep) || !((DedupGlobalStep<?>) step).getScopeKeys().isEmpty()) {
+            return;
+        }
+        List<Traversal.Admin<?, ?>> localChildren = new ArrayList<>(((TraversalParent) step).getLocalChildren());
+        String distinctByKey;
+        if (localChildren.isEmpty()) {
+            distinctByKey = null;
+        } else if (localChildren.get(0) instanceof ElementValueTraversal && this.sqlgGraph.getSqlDialect().supportsDistinctOn()) {
+            distinctByKey = ((ElementValueTraversal<?>) localChildren.get(0)).getPropertyKey();
+        } else {
+            return;
+        }
+        replacedSteps.get(replacedSteps.size() - 1).setDistinct(distinctByKey);
+    }
+
     protected void handleConnectiveSteps(ListIterator<Step<?, ?>> iterator) {
         //Collect the hasSteps
         int countToGoPrevious = 0;
@@ -5,7 +5,9 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
-import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.*;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Graph;
@@ -80,6 +82,103 @@ public class GraphStrategy extends BaseStrategy {
                 break;
             }
         }
+        handleAggregateStep();
+        if (this.sqlgStep instanceof SqlgGraphStep && ((SqlgGraphStep) this.sqlgStep).isStartStep() &&
+                ((SqlgGraphStep) this.sqlgStep).getAggregateHolder() == null) {
+            handleDedupStep(this.sqlgStep);
+        }
+        //The aggregates read their properties from the elements when not computed on the db.
+        if (this.sqlgStep != null && ((SqlgGraphStep) this.sqlgStep).getAggregateHolder() == null) {
+            handlePropertiesRestriction(this.sqlgStep);
+        }
+    }
+
+    /**
+     * A count(), sum(), min(), max() or mean(), optionally preceded by values(key), directly following the
+     * {@link SqlgGraphStep} is computed on the db.
+     * The values step is removed, the reducing step remains to combine the aggregates of the different queries.
+     * groupCount().by(key) and group().by(key).by(aggregate) are computed with a sql GROUP BY, the group step is
+     * removed as the {@link SqlgGraphStep} emits the groups' map.
+     */
+    private void handleAggregateStep() {
+        if (!(this.sqlgStep instanceof SqlgGraphStep) || !((SqlgGraphStep) this.sqlgStep).isStartStep()) {
+            return;
+        }
+        for (ReplacedStep<?, ?> replacedStep : this.sqlgStep.getReplacedSteps()) {
+            if (!(replacedStep.isGraphStep() || replacedStep.isVertexStep() || replacedStep.isEdgeVertexStep() || replacedStep.isEdgeOtherVertexStep()) ||
+                    replacedStep.hasRange() || replacedStep.isEmit() || replacedStep.isLeftJoin() ||
+                    replacedStep.isJoinToLeftJoin() || replacedStep.isDrop()) {
+                return;
+            }
+        }
+        Step<?, ?> step = ((SqlgGraphStep) this.sqlgStep).getNextStep();
+        if (step instanceof GroupCountStep || step instanceof GroupStep) {
+            SqlgAggregateHolder aggregateHolder = groupByAggregate(step);
+            if (aggregateHolder != null) {
+                this.traversal.removeStep(step);
+                ((SqlgGraphStep) this.sqlgStep).setAggregateHolder(aggregateHolder);
+            }
+            return;
+        }
+        PropertiesStep<?> propertiesStep = null;
+        if (step instanceof PropertiesStep) {
+            propertiesStep = (PropertiesStep<?>) step;
+            if (propertiesStep.getReturnType() != org.apache.tinkerpop.gremlin.structure.PropertyType.VALUE ||
+                    propertiesStep.getPropertyKeys().length != 1 ||
+                    !propertiesStep.getLabels().isEmpty()) {
+                return;
+            }
+            step = propertiesStep.getNextStep();
+        }
+        SqlgAggregateHolder.FUNCTION function = SqlgAggregateHolder.function(step);
+        if (function == null || (propertiesStep == null && function != SqlgAggregateHolder.FUNCTION.COUNT)) {
+            return;
+        }
+        String propertyKey = null;
+        if (propertiesStep != null) {
+            propertyKey = propertiesStep.getPropertyKeys()[0];
+            this.traversal.removeStep(propertiesStep);
+        }
+        ((SqlgGraphStep) this.sqlgStep).setAggregateHolder(SqlgAggregateHolder.from(function, propertyKey));
+    }
+
+    /**
+     * @return the grouped aggregate of groupCount().by(key), group().by(key).by(count()) or
+     * group().by(key).by(values(key).count()|sum()|min()|max()|mean()), null for any other group step.
+     */
+    private SqlgAggregateHolder groupByAggregate(Step<?, ?> groupStep) {
+        if (!groupStep.getLabels().isEmpty()) {
+            return null;
+        }
+        List<Traversal.Admin<?, ?>> localChildren = new ArrayList<>(((TraversalParent) groupStep).getLocalChildren());
+        if (localChildren.isEmpty() || !(localChildren.get(0) instanceof ElementValueTraversal)) {
+            return null;
+        }
+        String groupByKey = ((ElementValueTraversal<?>) localChildren.get(0)).getPropertyKey();
+        if (groupStep instanceof GroupCountStep) {
+            return SqlgAggregateHolder.from(SqlgAggregateHolder.FUNCTION.COUNT, null, groupByKey);
+        }
+        if (localChildren.size() != 2) {
+            return null;
+        }
+        List<Step> valueSteps = localChildren.get(1).getSteps();
+        String propertyKey = null;
+        if (valueSteps.size() == 2 && valueSteps.get(0) instanceof PropertiesStep) {
+            PropertiesStep<?> propertiesStep = (PropertiesStep<?>) valueSteps.get(0);
+            if (propertiesStep.getReturnType() != org.apache.tinkerpop.gremlin.structure.PropertyType.VALUE ||
+                    propertiesStep.getPropertyKeys().length != 1 ||
+                    !propertiesStep.getLabels().isEmpty()) {
+                return null;
+            }
+            propertyKey = propertiesStep.getPropertyKeys()[0];
+        } else if (valueSteps.size() != 1) {
+            return null;
+        }
+        SqlgAggregateHolder.FUNCTION function = SqlgAggregateHolder.function(valueSteps.get(valueSteps.size() - 1));
+        if (function == null || (propertyKey == null && function != SqlgAggregateHolder.FUNCTION.COUNT)) {
+            return null;
+        }
+        return SqlgAggregateHolder.from(function, propertyKey, groupByKey);
     }
 
     @Override
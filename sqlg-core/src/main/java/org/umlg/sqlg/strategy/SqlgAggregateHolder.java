@@ -0,0 +1,296 @@
+package org.umlg.sqlg.strategy;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.*;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.util.NumberHelper;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SchemaTable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds a reducing barrier, count(), sum(), min(), max() or mean(), optionally preceded by values(key), that is
+ * executed as a sql aggregate function instead of loading the elements.
+ * The aggregate of every query is emitted as a traverser whose bulk is the number of rows it represents, so the
+ * original reducing step combines the queries' results exactly as it would the elements.
+ * <p>
+ * For groupCount().by(key) and group().by(key).by(aggregate) the holder has a group by key. The aggregates are then
+ * computed per group with a sql GROUP BY and merged into the map the group step would have produced.
+ *
+ * Date: 2018/01/28
+ */
+public class SqlgAggregateHolder {
+
+    public enum FUNCTION {
+        COUNT,
+        SUM,
+        MIN,
+        MAX,
+        MEAN
+    }
+
+    private static final List<PropertyType> NUMERIC_PROPERTY_TYPES = Arrays.asList(
+            PropertyType.SHORT, PropertyType.INTEGER, PropertyType.LONG, PropertyType.FLOAT, PropertyType.DOUBLE
+    );
+
+    private static final List<PropertyType> GROUP_BY_PROPERTY_TYPES = Arrays.asList(
+            PropertyType.STRING, PropertyType.BOOLEAN, PropertyType.SHORT, PropertyType.INTEGER, PropertyType.LONG,
+            PropertyType.FLOAT, PropertyType.DOUBLE
+    );
+
+    private FUNCTION function;
+    //null for count() of the elements themselves
+    private String propertyKey;
+    //null if not grouped
+    private String groupByKey;
+
+    private SqlgAggregateHolder(FUNCTION function, String propertyKey, String groupByKey) {
+        this.function = function;
+        this.propertyKey = propertyKey;
+        this.groupByKey = groupByKey;
+    }
+
+    public static SqlgAggregateHolder from(FUNCTION function, String propertyKey) {
+        return new SqlgAggregateHolder(function, propertyKey, null);
+    }
+
+    public static SqlgAggregateHolder from(FUNCTION function, String propertyKey, String groupByKey) {
+        return new SqlgAggregateHolder(function, propertyKey, groupByKey);
+    }
+
+    /**
+     * @return the aggregate function of the reducing step or null if it has none.
+     */
+    static FUNCTION function(Step<?, ?> step) {
+        if (step instanceof CountGlobalStep) {
+            return FUNCTION.COUNT;
+        } else if (step instanceof SumGlobalStep) {
+            return FUNCTION.SUM;
+        } else if (step instanceof MinGlobalStep) {
+            return FUNCTION.MIN;
+        } else if (step instanceof MaxGlobalStep) {
+            return FUNCTION.MAX;
+        } else if (step instanceof MeanGlobalStep) {
+            return FUNCTION.MEAN;
+        } else {
+            return null;
+        }
+    }
+
+    public FUNCTION getFunction() {
+        return function;
+    }
+
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    public String getGroupByKey() {
+        return groupByKey;
+    }
+
+    public boolean isGroupBy() {
+        return this.groupByKey != null;
+    }
+
+    /**
+     * Only simple single column types are grouped on by the db.
+     *
+     * @param groupByPropertyType The type of the group by property's column.
+     * @return true if the db can group on the column.
+     */
+    public boolean isGroupBySupported(PropertyType groupByPropertyType) {
+        return GROUP_BY_PROPERTY_TYPES.contains(groupByPropertyType);
+    }
+
+    /**
+     * The numeric aggregates are only computed on the db for numeric columns, anything else is left to the reducing
+     * step to fail on or handle.
+     * A query with duplicate labels in its path joins sub selects whose columns can not be aggregated over.
+     *
+     * @param propertyType      The type of the property's column.
+     * @param duplicatesInStack true if the query is constructed from sub selects.
+     * @return true if the aggregate can be computed on the db.
+     */
+    public boolean isSupported(PropertyType propertyType, boolean duplicatesInStack) {
+        if (duplicatesInStack) {
+            return false;
+        } else if (this.function == FUNCTION.COUNT) {
+            return true;
+        } else {
+            return NUMERIC_PROPERTY_TYPES.contains(propertyType);
+        }
+    }
+
+    /**
+     * @return the select list of the aggregate over the query's leaf table, preceded by the group by column if grouped.
+     */
+    public String toSql(SqlDialect sqlDialect, SchemaTable schemaTable) {
+        if (this.groupByKey != null) {
+            return toGroupBySql(sqlDialect, schemaTable) + ", " + toAggregateSql(sqlDialect, schemaTable);
+        } else {
+            return toAggregateSql(sqlDialect, schemaTable);
+        }
+    }
+
+    /**
+     * @return the group by column of the query's leaf table.
+     */
+    public String toGroupBySql(SqlDialect sqlDialect, SchemaTable schemaTable) {
+        Preconditions.checkState(this.groupByKey != null, "BUG: toGroupBySql called on an aggregate that is not grouped.");
+        return column(sqlDialect, schemaTable, this.groupByKey);
+    }
+
+    private String toAggregateSql(SqlDialect sqlDialect, SchemaTable schemaTable) {
+        if (this.propertyKey == null) {
+            return "COUNT(*)";
+        }
+        String column = column(sqlDialect, schemaTable, this.propertyKey);
+        switch (this.function) {
+            case COUNT:
+                return "COUNT(" + column + ")";
+            case SUM:
+                return "SUM(" + column + ")";
+            case MIN:
+                return "MIN(" + column + ")";
+            case MAX:
+                return "MAX(" + column + ")";
+            case MEAN:
+                return "SUM(" + column + "), COUNT(" + column + ")";
+            default:
+                throw new IllegalStateException("Unhandled aggregate function " + this.function.name());
+        }
+    }
+
+    private static String column(SqlDialect sqlDialect, SchemaTable schemaTable, String key) {
+        return sqlDialect.maybeWrapInQoutes(schemaTable.getSchema()) + "." +
+                sqlDialect.maybeWrapInQoutes(schemaTable.getTable()) + "." +
+                sqlDialect.maybeWrapInQoutes(key);
+    }
+
+    /**
+     * Reads the group by value from the current row.
+     * Like {@link org.apache.tinkerpop.gremlin.structure.Element#value(String)} an element without the property is
+     * an error.
+     */
+    public Object readGroupByValue(ResultSet resultSet, PropertyType groupByPropertyType) throws SQLException {
+        Object value = resultSet.getObject(1);
+        if (value == null) {
+            throw Property.Exceptions.propertyDoesNotExist();
+        }
+        switch (groupByPropertyType) {
+            case SHORT:
+                return ((Number) value).shortValue();
+            case INTEGER:
+                return ((Number) value).intValue();
+            case LONG:
+                return ((Number) value).longValue();
+            case FLOAT:
+                return ((Number) value).floatValue();
+            case DOUBLE:
+                return ((Number) value).doubleValue();
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Reads the aggregate from the current row. The value is converted to the type the reducing step would have
+     * computed from the property values, sum() multiplies the values with their long bulk so integral sums are longs.
+     *
+     * @return the value and bulk to emit or null if the query matched no values.
+     */
+    public Pair<Object, Long> readResult(ResultSet resultSet, PropertyType propertyType) throws SQLException {
+        int column = this.groupByKey != null ? 2 : 1;
+        if (this.function == FUNCTION.COUNT) {
+            long count = resultSet.getLong(column);
+            return count == 0 ? null : Pair.of(count, count);
+        }
+        Number number = (Number) resultSet.getObject(column);
+        if (number == null) {
+            return null;
+        }
+        switch (this.function) {
+            case SUM:
+                switch (propertyType) {
+                    case SHORT:
+                    case INTEGER:
+                    case LONG:
+                        return Pair.of(number.longValue(), 1L);
+                    case FLOAT:
+                        return Pair.of(number.floatValue(), 1L);
+                    default:
+                        return Pair.of(number.doubleValue(), 1L);
+                }
+            case MIN:
+            case MAX:
+                switch (propertyType) {
+                    case SHORT:
+                        return Pair.of(number.shortValue(), 1L);
+                    case INTEGER:
+                        return Pair.of(number.intValue(), 1L);
+                    case LONG:
+                        return Pair.of(number.longValue(), 1L);
+                    case FLOAT:
+                        return Pair.of(number.floatValue(), 1L);
+                    default:
+                        return Pair.of(number.doubleValue(), 1L);
+                }
+            case MEAN:
+                long count = resultSet.getLong(column + 1);
+                return Pair.of(number.doubleValue() / count, count);
+            default:
+                throw new IllegalStateException("Unhandled aggregate function " + this.function.name());
+        }
+    }
+
+    /**
+     * Merges an aggregate value with the number of rows it represents into a group's current value, the same way the
+     * group step's reducing step would.
+     *
+     * @param current the group's current value, null for the group's first value.
+     * @return the group's new value.
+     */
+    public Object merge(Object current, Object value, long bulk) {
+        switch (this.function) {
+            case COUNT:
+                return current == null ? bulk : (Long) current + bulk;
+            case SUM:
+                Number sum = NumberHelper.mul((Number) value, bulk);
+                return current == null ? sum : NumberHelper.add((Number) current, sum);
+            case MIN:
+                return current == null ? value : NumberHelper.min((Number) current, (Number) value);
+            case MAX:
+                return current == null ? value : NumberHelper.max((Number) current, (Number) value);
+            case MEAN:
+                MeanGlobalStep.MeanNumber meanNumber = new MeanGlobalStep.MeanNumber((Number) value, bulk);
+                return current == null ? meanNumber : ((MeanGlobalStep.MeanNumber) current).add(meanNumber);
+            default:
+                throw new IllegalStateException("Unhandled aggregate function " + this.function.name());
+        }
+    }
+
+    /**
+     * @return the group's final value.
+     */
+    public Object finalizeGroupValue(Object value) {
+        if (this.function == FUNCTION.MEAN) {
+            return ((MeanGlobalStep.MeanNumber) value).getFinal();
+        } else {
+            return value;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (this.groupByKey != null ? "group(" + this.groupByKey + ")." : "") +
+                this.function.name().toLowerCase() + "(" + (this.propertyKey != null ? this.propertyKey : "") + ")";
+    }
+}
@@ -8,6 +8,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.util.event.EventCallb
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.SchemaTable;
 import org.umlg.sqlg.structure.SqlgEdge;
 import org.umlg.sqlg.structure.SqlgGraph;
@@ -15,9 +16,9 @@ import org.umlg.sqlg.structure.topology.EdgeLabel;
 import org.umlg.sqlg.util.SqlgUtil;
 
 import java.sql.*;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
 
 /**
  * Date: 2016/05/04
@@ -42,11 +43,20 @@ public class SqlgSqlExecutor {
             SchemaTableTree rootSchemaTableTree,
             LinkedList<SchemaTableTree> distinctQueryStack) {
 
+        //The elements dropped are those of the last label, the ids are only known to the db.
+        SchemaTable droppedSchemaTable = distinctQueryStack.getLast().getSchemaTable();
+        sqlgGraph.tx().written(droppedSchemaTable);
+        if (droppedSchemaTable.isVertexTable()) {
+            sqlgGraph.tx().elementCacheDrop(droppedSchemaTable.withOutPrefix());
+        }
         List<Triple<DROP_QUERY, String, SchemaTable>> sqls = rootSchemaTableTree.constructDropSql(distinctQueryStack);
         for (Triple<DROP_QUERY, String, SchemaTable> sqlPair : sqls) {
             DROP_QUERY dropQuery = sqlPair.getLeft();
             String sql = sqlPair.getMiddle();
             SchemaTable deletedSchemaTable = sqlPair.getRight();
+            if (deletedSchemaTable != null) {
+                sqlgGraph.tx().written(deletedSchemaTable);
+            }
             switch (dropQuery) {
                 case ALTER:
                     executeDropQuery(sqlgGraph, sql, new LinkedList<>(), deletedSchemaTable);
@@ -71,33 +81,99 @@ public class SqlgSqlExecutor {
     public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeRegularQuery(
             SqlgGraph sqlgGraph,
             SchemaTableTree rootSchemaTableTree,
-            LinkedList<SchemaTableTree> distinctQueryStack) {
+            LinkedList<SchemaTableTree> distinctQueryStack,
+            int fetchSize) {
 
         String sql = rootSchemaTableTree.constructSql(distinctQueryStack);
-        return executeQuery(sqlgGraph, sql, distinctQueryStack);
+        return executeQuery(sqlgGraph, sql, distinctQueryStack, fetchSize);
     }
 
     public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeOptionalQuery(
             SqlgGraph sqlgGraph, SchemaTableTree rootSchemaTableTree,
-            Pair<LinkedList<SchemaTableTree>, Set<SchemaTableTree>> leftJoinQuery) {
+            Pair<LinkedList<SchemaTableTree>, Set<SchemaTableTree>> leftJoinQuery,
+            int fetchSize) {
 
         String sql = rootSchemaTableTree.constructSqlForOptional(leftJoinQuery.getLeft(), leftJoinQuery.getRight());
         LinkedList<SchemaTableTree> distinctQueryStack = leftJoinQuery.getLeft();
-        return executeQuery(sqlgGraph, sql, distinctQueryStack);
+        return executeQuery(sqlgGraph, sql, distinctQueryStack, fetchSize);
     }
 
     public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeEmitQuery(
             SqlgGraph sqlgGraph, SchemaTableTree rootSchemaTableTree,
-            LinkedList<SchemaTableTree> leftJoinQuery) {
+            LinkedList<SchemaTableTree> leftJoinQuery,
+            int fetchSize) {
 
         String sql = rootSchemaTableTree.constructSqlForEmit(leftJoinQuery);
-        return executeQuery(sqlgGraph, sql, leftJoinQuery);
+        return executeQuery(sqlgGraph, sql, leftJoinQuery, fetchSize);
+    }
+
+    /**
+     * Executes the aggregate over the query stack and reads its single row.
+     *
+     * @return the aggregate value and the number of rows it represents or null if the query matched no values.
+     */
+    public static Pair<Object, Long> executeAggregateQuery(
+            SqlgGraph sqlgGraph,
+            String sql,
+            LinkedList<SchemaTableTree> distinctQueryStack,
+            SqlgAggregateHolder aggregateHolder,
+            PropertyType propertyType) {
+
+        Triple<ResultSet, ResultSetMetaData, PreparedStatement> queryResult = executeQuery(sqlgGraph, sql, distinctQueryStack, 1);
+        try {
+            ResultSet resultSet = queryResult.getLeft();
+            try {
+                return resultSet.next() ? aggregateHolder.readResult(resultSet, propertyType) : null;
+            } finally {
+                resultSet.close();
+                sqlgGraph.tx().release(queryResult.getRight());
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
     }
 
-    private static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeQuery(SqlgGraph sqlgGraph, String sql, LinkedList<SchemaTableTree> distinctQueryStack) {
+    /**
+     * Executes the grouped aggregate over the query stack.
+     *
+     * @return the aggregate value and the number of rows it represents per group by value.
+     */
+    public static Map<Object, Pair<Object, Long>> executeGroupByAggregateQuery(
+            SqlgGraph sqlgGraph,
+            String sql,
+            LinkedList<SchemaTableTree> distinctQueryStack,
+            SqlgAggregateHolder aggregateHolder,
+            PropertyType propertyType,
+            PropertyType groupByPropertyType,
+            int fetchSize) {
+
+        Map<Object, Pair<Object, Long>> result = new LinkedHashMap<>();
+        Triple<ResultSet, ResultSetMetaData, PreparedStatement> queryResult = executeQuery(sqlgGraph, sql, distinctQueryStack, fetchSize);
+        try {
+            ResultSet resultSet = queryResult.getLeft();
+            try {
+                while (resultSet.next()) {
+                    Object groupByValue = aggregateHolder.readGroupByValue(resultSet, groupByPropertyType);
+                    Pair<Object, Long> valueAndBulk = aggregateHolder.readResult(resultSet, propertyType);
+                    if (valueAndBulk != null) {
+                        result.put(groupByValue, valueAndBulk);
+                    }
+                }
+            } finally {
+                resultSet.close();
+                sqlgGraph.tx().release(queryResult.getRight());
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
+    private static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeQuery(SqlgGraph sqlgGraph, String sql, LinkedList<SchemaTableTree> distinctQueryStack, int fetchSize) {
         if (sqlgGraph.tx().isInBatchMode()) {
             sqlgGraph.tx().flush();
         }
+        sqlgGraph.tx().flushPropertyUpdates();
         try {
             if (distinctQueryStack.peekFirst().getStepType() != SchemaTableTree.STEP_TYPE.GRAPH_STEP) {
                 Preconditions.checkState(!distinctQueryStack.peekFirst().getParentIdsAndIndexes().isEmpty());
@@ -130,11 +206,11 @@ public class SqlgSqlExecutor {
 //            		logger.warn(sqle.getMessage());
 //            	}
 //            }
-            PreparedStatement preparedStatement = conn.prepareStatement(sql);
-            sqlgGraph.tx().add(preparedStatement);
+            PreparedStatement preparedStatement = sqlgGraph.tx().prepareQuery(sql);
             int parameterCount = 1;
             SqlgUtil.setParametersOnStatement(sqlgGraph, distinctQueryStack, preparedStatement, parameterCount);
-//            preparedStatement.setFetchSize(100_000);
+            //reset on every execution as the statement may come from the prepared statement cache.
+            preparedStatement.setFetchSize(fetchSize);
             ResultSet resultSet = preparedStatement.executeQuery();
             ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
             return Triple.of(resultSet, resultSetMetaData, preparedStatement);
@@ -147,6 +223,7 @@ public class SqlgSqlExecutor {
         if (sqlgGraph.tx().isInBatchMode()) {
             sqlgGraph.tx().flush();
         }
+        sqlgGraph.tx().flushPropertyUpdates();
         try {
             if (!distinctQueryStack.isEmpty() && distinctQueryStack.peekFirst().getStepType() != SchemaTableTree.STEP_TYPE.GRAPH_STEP) {
                 Preconditions.checkState(!distinctQueryStack.peekFirst().getParentIdsAndIndexes().isEmpty());
@@ -170,6 +247,7 @@ public class SqlgSqlExecutor {
     }
 
     public static void executeDropEdges(SqlgGraph sqlgGraph, EdgeLabel edgeLabel, String sql, List<EventCallback<Event>> mutatingCallbacks) {
+        sqlgGraph.tx().written(SchemaTable.of(edgeLabel.getSchema().getName(), EDGE_PREFIX + edgeLabel.getLabel()));
         try {
             Connection conn = sqlgGraph.tx().getConnection();
             if (logger.isDebugEnabled()) {
@@ -196,7 +274,8 @@ public class SqlgSqlExecutor {
 
     }
 
-    public static void executeDrop(SqlgGraph sqlgGraph, String sql) {
+    public static void executeDrop(SqlgGraph sqlgGraph, SchemaTable schemaTable, String sql) {
+        sqlgGraph.tx().written(schemaTable);
         try {
             Connection conn = sqlgGraph.tx().getConnection();
             if (logger.isDebugEnabled()) {
@@ -78,6 +78,10 @@ public class VertexStrategy extends BaseStrategy {
             ReplacedStepTree replacedStepTree = this.currentTreeNodeNode.getReplacedStepTree();
             replacedStepTree.maybeAddLabelToLeafNodes();
         }
+        for (SqlgVertexStep<?> sqlgVertexStep : TraversalHelper.getStepsOfClass(SqlgVertexStep.class, this.traversal)) {
+            handleDedupStep(sqlgVertexStep);
+            handlePropertiesRestriction(sqlgVertexStep);
+        }
     }
 
     /**
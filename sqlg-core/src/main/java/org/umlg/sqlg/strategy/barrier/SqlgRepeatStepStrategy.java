@@ -4,21 +4,31 @@ import org.apache.commons.lang3.Range;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.LoopTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.TrueTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.RepeatStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.PathFilterStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.SampleGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.CountStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.umlg.sqlg.step.barrier.SqlgRecursiveRepeatStepBarrier;
 import org.umlg.sqlg.step.barrier.SqlgRepeatStepBarrier;
 import org.umlg.sqlg.strategy.SqlgGraphStepStrategy;
 import org.umlg.sqlg.strategy.SqlgRangeHolder;
+import org.umlg.sqlg.structure.SchemaTable;
 import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.Schema;
+import org.umlg.sqlg.structure.topology.VertexLabel;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.lang.reflect.Field;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -71,6 +81,15 @@ public class SqlgRepeatStepStrategy extends AbstractTraversalStrategy<TraversalS
                     }
                 }
 
+                Optional<SqlgRecursiveRepeatStepBarrier<?>> recursiveRepeatStepBarrier = recursiveRepeatStepBarrier(traversal, repeatStep);
+                if (recursiveRepeatStepBarrier.isPresent()) {
+                    for (String label : repeatStep.getLabels()) {
+                        recursiveRepeatStepBarrier.get().addLabel(label);
+                    }
+                    TraversalHelper.replaceStep((Step) repeatStep, recursiveRepeatStepBarrier.get(), traversal);
+                    continue;
+                }
+
                 SqlgRepeatStepBarrier<?> sqlgRepeatStepBarrier = new SqlgRepeatStepBarrier<>(traversal, repeatStep);
                 for (String label : repeatStep.getLabels()) {
                     sqlgRepeatStepBarrier.addLabel(label);
@@ -98,6 +117,100 @@ public class SqlgRepeatStepStrategy extends AbstractTraversalStrategy<TraversalS
         }
     }
 
+    /**
+     * Simple <code>repeat(out/in/both(label)).until(has(...))/times(n)</code> traversals, optionally with
+     * <code>emit()</code> and with <code>simplePath()</code> after the vertex step, over edges between one vertex label
+     * are executed as a recursive query if the dialect supports it.
+     */
+    private Optional<SqlgRecursiveRepeatStepBarrier<?>> recursiveRepeatStepBarrier(Traversal.Admin<?, ?> traversal, RepeatStep<?> repeatStep) {
+        //noinspection OptionalGetWithoutIsPresent
+        SqlgGraph sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+        if (!sqlgGraph.getSqlDialect().supportsRecursiveCte() || repeatStep.untilFirst || repeatStep.emitFirst) {
+            return Optional.empty();
+        }
+        List<Step> repeatSteps = repeatStep.getRepeatTraversal().getSteps();
+        boolean simplePath = repeatSteps.size() == 3 && isSimplePath(repeatSteps.get(1));
+        if ((repeatSteps.size() != 2 && !simplePath) || !(repeatSteps.get(0) instanceof VertexStep) || !(repeatSteps.get(repeatSteps.size() - 1) instanceof RepeatStep.RepeatEndStep)) {
+            return Optional.empty();
+        }
+        VertexStep<?> vertexStep = (VertexStep<?>) repeatSteps.get(0);
+        if (!vertexStep.returnsVertex() || vertexStep.getEdgeLabels().length == 0 || !vertexStep.getLabels().isEmpty()) {
+            return Optional.empty();
+        }
+        Traversal.Admin<?, ?> emitTraversal = repeatStep.getEmitTraversal();
+        if (emitTraversal != null && !(emitTraversal instanceof TrueTraversal)) {
+            return Optional.empty();
+        }
+        Set<EdgeLabel> edgeLabels = new HashSet<>();
+        for (String label : vertexStep.getEdgeLabels()) {
+            if (label.contains(".")) {
+                SchemaTable schemaTable = SchemaTable.from(sqlgGraph, label);
+                sqlgGraph.getTopology().getEdgeLabel(schemaTable.getSchema(), schemaTable.getTable()).ifPresent(edgeLabels::add);
+            } else {
+                for (Schema schema : sqlgGraph.getTopology().getSchemas()) {
+                    schema.getEdgeLabel(label).ifPresent(edgeLabels::add);
+                }
+            }
+        }
+        Set<VertexLabel> vertexLabels = new HashSet<>();
+        for (EdgeLabel edgeLabel : edgeLabels) {
+            vertexLabels.addAll(edgeLabel.getOutVertexLabels());
+            vertexLabels.addAll(edgeLabel.getInVertexLabels());
+        }
+        if (vertexLabels.size() != 1) {
+            return Optional.empty();
+        }
+        VertexLabel vertexLabel = vertexLabels.iterator().next();
+        Traversal.Admin<?, ?> untilTraversal = repeatStep.getUntilTraversal();
+        List<HasContainer> untilHasContainers = new ArrayList<>();
+        long times = -1;
+        if (untilTraversal instanceof LoopTraversal) {
+            times = ((LoopTraversal) untilTraversal).getMaxLoops();
+            if (times < 1) {
+                return Optional.empty();
+            }
+        } else if (untilTraversal != null && untilTraversal.getSteps().size() == 1 && untilTraversal.getStartStep() instanceof HasStep) {
+            untilHasContainers.addAll(((HasStep<?>) untilTraversal.getStartStep()).getHasContainers());
+            for (HasContainer hasContainer : untilHasContainers) {
+                if (!SqlgRecursiveRepeatStepBarrier.isSupportedUntil(vertexLabel, hasContainer)) {
+                    return Optional.empty();
+                }
+            }
+        } else {
+            return Optional.empty();
+        }
+        return Optional.of(new SqlgRecursiveRepeatStepBarrier<>(
+                traversal,
+                vertexLabel,
+                edgeLabels,
+                vertexStep.getDirection(),
+                untilHasContainers,
+                times,
+                emitTraversal != null,
+                simplePath
+        ));
+    }
+
+    /**
+     * @return true if the step is a plain <code>simplePath()</code>, without from, to or by modulators.
+     */
+    private static boolean isSimplePath(Step<?, ?> step) {
+        if (!step.getClass().equals(PathFilterStep.class) || !step.getLabels().isEmpty() || !((PathFilterStep<?>) step).getLocalChildren().isEmpty()) {
+            return false;
+        }
+        try {
+            Field isSimpleField = PathFilterStep.class.getDeclaredField("isSimple");
+            Field fromLabelField = PathFilterStep.class.getDeclaredField("fromLabel");
+            Field toLabelField = PathFilterStep.class.getDeclaredField("toLabel");
+            isSimpleField.setAccessible(true);
+            fromLabelField.setAccessible(true);
+            toLabelField.setAccessible(true);
+            return (boolean) isSimpleField.get(step) && fromLabelField.get(step) == null && toLabelField.get(step) == null;
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public Set<Class<? extends OptimizationStrategy>> applyPost() {
         return Stream.of(
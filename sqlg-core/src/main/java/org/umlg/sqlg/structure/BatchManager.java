@@ -128,8 +128,7 @@ public class BatchManager {
             }
             Writer writer = this.streamingVertexOutputStreamCache.get(schemaTable);
             if (writer == null) {
-                String sql = this.sqlDialect.constructCompleteCopyCommandSqlVertex(sqlgGraph, sqlgVertex, keyValueMap);
-                writer = this.sqlDialect.streamSql(this.sqlgGraph, sql);
+                writer = this.sqlDialect.streamSqlVertex(this.sqlgGraph, sqlgVertex, keyValueMap);
                 this.streamingVertexOutputStreamCache.put(schemaTable, writer);
             }
             this.sqlDialect.writeStreamingVertex(writer, keyValueMap);
@@ -172,8 +171,7 @@ public class BatchManager {
             }
             Writer writer = this.streamingEdgeOutputStreamCache.get(outSchemaTable);
             if (writer == null) {
-                String sql = this.sqlDialect.constructCompleteCopyCommandSqlEdge(sqlgGraph, sqlgEdge, outVertex, inVertex, keyValueMap);
-                writer = this.sqlDialect.streamSql(this.sqlgGraph, sql);
+                writer = this.sqlDialect.streamSqlEdge(this.sqlgGraph, sqlgEdge, outVertex, inVertex, keyValueMap);
                 this.streamingEdgeOutputStreamCache.put(outSchemaTable, writer);
             }
             try {
@@ -205,6 +203,22 @@ public class BatchManager {
         this.clear();
     }
 
+    /**
+     * Flushes the property updates buffered by a transaction in write behind mode.
+     * The updates of an element are coalesced and the updated rows of a table are written together.
+     */
+    void flushPropertyUpdates() {
+        if (this.vertexPropertyCache.isEmpty() && this.edgePropertyCache.isEmpty()) {
+            return;
+        }
+        this.isBusyFlushing = true;
+        this.sqlDialect.flushVertexPropertyCache(this.sqlgGraph, this.vertexPropertyCache);
+        this.sqlDialect.flushEdgePropertyCache(this.sqlgGraph, this.edgePropertyCache);
+        this.isBusyFlushing = false;
+        this.vertexPropertyCache.clear();
+        this.edgePropertyCache.clear();
+    }
+
     public void close() {
         this.streamingVertexOutputStreamCache.values().forEach(o -> {
             try {
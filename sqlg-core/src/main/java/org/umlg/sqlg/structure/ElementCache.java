@@ -0,0 +1,231 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import org.umlg.sqlg.sql.dialect.SqlSchemaChangeDialect;
+import org.umlg.sqlg.structure.topology.Schema;
+import org.umlg.sqlg.structure.topology.Topology;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A graph wide cache of the committed properties of vertices, keyed by their {@link RecordId}.
+ * Vertices that are loaded via {@link SqlgElement#load()} are read from the cache, vertices fully loaded by a query or
+ * a load are added to it. The least recently used vertices are evicted first.
+ * <p>
+ * A transaction does not use the cache for the labels it has written to. On commit the vertices it updated or removed,
+ * and the labels of any drop queries, are invalidated. With a distributed graph the invalidations are also sent to the
+ * other graphs, see {@link org.umlg.sqlg.sql.dialect.SqlSchemaChangeDialect#notifyElementCacheInvalidation}. A distributed
+ * graph can only enable the cache if its dialect supports that.
+ * The cache is cleared on every topology change.
+ * <p>
+ * Every invalidation increments the cache's version. A transaction only adds the vertices it read to the cache if they
+ * have not been invalidated since it started, so a concurrent transaction can not cache rows that were read before
+ * another transaction's commit.
+ * <p>
+ * Date: 2018/02/03
+ */
+public class ElementCache {
+
+    /**
+     * The maximum number of cached vertices. 0, the default, disables the cache.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String ELEMENT_CACHE_SIZE = "cache.elements.size";
+    /**
+     * The vertex labels to cache, 'schema.label' or 'label' for the public schema. All labels are cached if not set.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String ELEMENT_CACHE_LABELS = "cache.elements.labels";
+
+    /**
+     * The channel the invalidations of a commit are sent on to the other graphs of a distributed graph.
+     * Lower case as the channel is case sensitive when notified via a parameter.
+     */
+    public static final String NOTIFICATION_CHANNEL = "sqlg_element_notify";
+    //postgresql limits the payload to 8000 bytes
+    static final int MAX_NOTIFICATION_LENGTH = 2000;
+    private static final String INVALIDATE_ALL = "*";
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char ENTRY_SEPARATOR = '\n';
+
+    private final int maxSize;
+    //empty for all labels
+    private final Set<SchemaTable> labels;
+    private final Map<RecordId, Map<String, Object>> vertices;
+    private final AtomicLong version = new AtomicLong();
+    //The version at which a vertex was last invalidated, as many as there are cached vertices.
+    private final Map<RecordId, Long> invalidations;
+    //The highest version of the invalidations that are no longer remembered.
+    private long invalidationsWatermark;
+    private final Map<SchemaTable, Long> labelInvalidations = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ElementCache(SqlgGraph sqlgGraph, int maxSize, Collection<String> labels) {
+        Preconditions.checkArgument(maxSize >= 0, "%s must be >= 0, found %s", ELEMENT_CACHE_SIZE, maxSize);
+        Preconditions.checkArgument(
+                maxSize == 0 || !sqlgGraph.configuration().getBoolean(SqlgGraph.DISTRIBUTED, false) ||
+                        ((SqlSchemaChangeDialect) sqlgGraph.getSqlDialect()).supportsElementCacheInvalidation(),
+                "%s can not invalidate the element cache of a distributed graph, %s must be 0", sqlgGraph.getSqlDialect().dialectName(), ELEMENT_CACHE_SIZE);
+        this.maxSize = maxSize;
+        this.labels = new HashSet<>();
+        for (String label : labels) {
+            this.labels.add(SchemaTable.from(sqlgGraph, label.trim()));
+        }
+        this.vertices = new LinkedHashMap<RecordId, Map<String, Object>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RecordId, Map<String, Object>> eldest) {
+                return size() > ElementCache.this.maxSize;
+            }
+        };
+        this.invalidations = new LinkedHashMap<RecordId, Long>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RecordId, Long> eldest) {
+                if (size() > ElementCache.this.maxSize) {
+                    ElementCache.this.invalidationsWatermark = Math.max(ElementCache.this.invalidationsWatermark, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return this.maxSize > 0;
+    }
+
+    /**
+     * The topology's own vertices are never cached.
+     *
+     * @param schemaTable The unprefixed vertex label.
+     * @return true if the label's vertices are cached.
+     */
+    public boolean isCached(SchemaTable schemaTable) {
+        return this.maxSize > 0 &&
+                (this.labels.isEmpty() || this.labels.contains(schemaTable)) &&
+                !schemaTable.getSchema().equals(Topology.SQLG_SCHEMA) &&
+                !schemaTable.getSchema().equals(Schema.GLOBAL_UNIQUE_INDEX_SCHEMA);
+    }
+
+    long getVersion() {
+        return this.version.get();
+    }
+
+    /**
+     * @return a copy of the vertex's properties or null if it is not cached.
+     */
+    synchronized Map<String, Object> get(RecordId recordId) {
+        Map<String, Object> properties = this.vertices.get(recordId);
+        if (properties != null) {
+            this.hits.incrementAndGet();
+            return new HashMap<>(properties);
+        } else {
+            this.misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Caches the vertex's properties if it has not been invalidated since {@code version} was read.
+     */
+    synchronized void put(RecordId recordId, Map<String, Object> properties, long version) {
+        Long labelInvalidation = this.labelInvalidations.get(recordId.getSchemaTable());
+        Long invalidation = this.invalidations.get(recordId);
+        if (version >= this.invalidationsWatermark &&
+                (labelInvalidation == null || version >= labelInvalidation) &&
+                (invalidation == null || version >= invalidation)) {
+            this.vertices.put(recordId, Collections.unmodifiableMap(new HashMap<>(properties)));
+        }
+    }
+
+    synchronized void invalidate(Collection<RecordId> recordIds, Collection<SchemaTable> schemaTables) {
+        long invalidationVersion = this.version.incrementAndGet();
+        for (RecordId recordId : recordIds) {
+            this.vertices.remove(recordId);
+            this.invalidations.remove(recordId);
+            this.invalidations.put(recordId, invalidationVersion);
+        }
+        for (SchemaTable schemaTable : schemaTables) {
+            this.labelInvalidations.put(schemaTable, invalidationVersion);
+            this.vertices.keySet().removeIf(recordId -> recordId.getSchemaTable().equals(schemaTable));
+        }
+    }
+
+    public synchronized void clear() {
+        long invalidationVersion = this.version.incrementAndGet();
+        this.vertices.clear();
+        this.invalidations.clear();
+        this.labelInvalidations.clear();
+        this.invalidationsWatermark = invalidationVersion;
+    }
+
+    /**
+     * Encodes the invalidations of a commit as the payloads of the notifications sent to the other graphs.
+     *
+     * @param maxLength The maximum length of a payload.
+     */
+    static List<String> toNotifications(Collection<RecordId> recordIds, Collection<SchemaTable> schemaTables, int maxLength) {
+        List<String> entries = new ArrayList<>(recordIds.size() + schemaTables.size());
+        for (SchemaTable schemaTable : schemaTables) {
+            entries.add(schemaTable.getSchema() + FIELD_SEPARATOR + schemaTable.getTable());
+        }
+        for (RecordId recordId : recordIds) {
+            entries.add(recordId.getSchemaTable().getSchema() + FIELD_SEPARATOR + recordId.getSchemaTable().getTable() + FIELD_SEPARATOR + recordId.getId());
+        }
+        List<String> notifications = new ArrayList<>();
+        StringBuilder notification = new StringBuilder();
+        for (String entry : entries) {
+            if (entry.length() + 1 > maxLength) {
+                //can not be sent
+                return Collections.singletonList(INVALIDATE_ALL);
+            }
+            if (notification.length() + entry.length() + 1 > maxLength) {
+                notifications.add(notification.toString());
+                notification.setLength(0);
+            }
+            notification.append(entry).append(ENTRY_SEPARATOR);
+        }
+        if (notification.length() > 0) {
+            notifications.add(notification.toString());
+        }
+        return notifications;
+    }
+
+    /**
+     * Applies the invalidations another graph sent on commit.
+     *
+     * @param notification The payload of the notification.
+     */
+    public void invalidate(String notification) {
+        if (notification.equals(INVALIDATE_ALL)) {
+            clear();
+            return;
+        }
+        List<RecordId> recordIds = new ArrayList<>();
+        List<SchemaTable> schemaTables = new ArrayList<>();
+        for (String entry : notification.split(String.valueOf(ENTRY_SEPARATOR))) {
+            if (!entry.isEmpty()) {
+                String[] fields = entry.split(String.valueOf(FIELD_SEPARATOR));
+                if (fields.length == 2) {
+                    schemaTables.add(SchemaTable.of(fields[0], fields[1]));
+                } else {
+                    recordIds.add(RecordId.from(SchemaTable.of(fields[0], fields[1]), Long.valueOf(fields[2])));
+                }
+            }
+        }
+        invalidate(recordIds, schemaTables);
+    }
+
+    public synchronized int size() {
+        return this.vertices.size();
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+}
@@ -1,31 +1,201 @@
 package org.umlg.sqlg.structure;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
+ * Holds the query statements prepared on one physical connection in a bounded lru cache keyed by their sql so that
+ * repeated traversals reuse the already prepared statement, also across transactions that get the same pooled
+ * connection. A cached statement is only handed out when its previous {@link java.sql.ResultSet} has been released,
+ * i.e. two lazy iterators executing the same sql will each get their own statement. The cache is invalidated whenever
+ * the topology version changes and closed with its connection.
+ * <p>
+ * Statements that are not cached are tracked per transaction and closed on commit or rollback.
+ * <p>
  * Date: 2016/05/15
  * Time: 2:24 PM
  */
 @SuppressWarnings("ALL")
 public class PreparedStatementCache {
 
+    private final Connection connection;
     private List<PreparedStatement> cache = new ArrayList<>();
 
+    private final int maxSize;
+    private long topologyVersion;
+    private final Map<String, PreparedStatement> statements;
+    private final Set<PreparedStatement> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long hits = 0;
+    private long misses = 0;
+
+    PreparedStatementCache(Connection connection, int maxSize, long topologyVersion) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.topologyVersion = topologyVersion;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > PreparedStatementCache.this.maxSize) {
+                    //statements still in use are closed on release or on commit.
+                    if (!PreparedStatementCache.this.inUse.contains(eldest.getValue())) {
+                        closeQuietly(eldest.getValue());
+                    } else {
+                        PreparedStatementCache.this.cache.add(eldest.getValue());
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
     void add(PreparedStatement preparedStatement) {
         this.cache.add(preparedStatement);
     }
 
-    public void close() throws SQLException {
+    /**
+     * @return The physical connection the statements are prepared on.
+     */
+    Connection getConnection() {
+        return this.connection;
+    }
+
+    /**
+     * Returns a prepared statement for the given sql, reusing a cached statement if one is available.
+     *
+     * @param sql             The query's sql.
+     * @param topologyVersion The current topology version. If it differs from the version the cache was populated with
+     *                        the cache is invalidated first.
+     * @return A prepared statement that is marked as in use until {@link #release(PreparedStatement)} is called.
+     */
+    PreparedStatement prepare(String sql, long topologyVersion) throws SQLException {
+        if (this.topologyVersion != topologyVersion) {
+            invalidate();
+            this.topologyVersion = topologyVersion;
+        }
+        if (this.maxSize > 0) {
+            PreparedStatement preparedStatement = this.statements.get(sql);
+            if (preparedStatement != null && !this.inUse.contains(preparedStatement)) {
+                this.hits++;
+                this.inUse.add(preparedStatement);
+                return preparedStatement;
+            }
+            this.misses++;
+            PreparedStatement newPreparedStatement = this.connection.prepareStatement(sql);
+            this.inUse.add(newPreparedStatement);
+            if (preparedStatement == null) {
+                this.statements.put(sql, newPreparedStatement);
+            } else {
+                this.cache.add(newPreparedStatement);
+            }
+            return newPreparedStatement;
+        } else {
+            this.misses++;
+            PreparedStatement preparedStatement = this.connection.prepareStatement(sql);
+            this.cache.add(preparedStatement);
+            this.inUse.add(preparedStatement);
+            return preparedStatement;
+        }
+    }
+
+    /**
+     * Releases a statement obtained from {@link #prepare(String, long)}.
+     * Cached statements stay open for reuse, all others are closed.
+     */
+    void release(PreparedStatement preparedStatement) throws SQLException {
+        this.inUse.remove(preparedStatement);
+        if (!this.statements.containsValue(preparedStatement)) {
+            preparedStatement.close();
+        }
+    }
+
+    /**
+     * Closes all cached statements that are not in use and empties the cache.
+     * Statements that are still being iterated are closed when they are released.
+     */
+    public void invalidate() {
+        for (PreparedStatement preparedStatement : this.statements.values()) {
+            if (!this.inUse.contains(preparedStatement)) {
+                closeQuietly(preparedStatement);
+            } else {
+                this.cache.add(preparedStatement);
+            }
+        }
+        this.statements.clear();
+    }
+
+    /**
+     * Called on commit or rollback. Closes the transaction's statements that are not cached and cached statements
+     * whose result set was never released. The cached statements stay open for the connection's next transaction.
+     */
+    void endTransaction() throws SQLException {
+        this.statements.values().removeIf(preparedStatement -> {
+            if (this.inUse.contains(preparedStatement)) {
+                this.cache.add(preparedStatement);
+                return true;
+            }
+            return false;
+        });
         for (PreparedStatement preparedStatement : this.cache) {
             preparedStatement.close();
         }
         this.cache.clear();
+        this.inUse.clear();
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * Closes all statements, cached or not. Called when the physical connection is closed.
+     */
+    public void close() {
+        for (PreparedStatement preparedStatement : this.statements.values()) {
+            closeQuietly(preparedStatement);
+        }
+        for (PreparedStatement preparedStatement : this.cache) {
+            closeQuietly(preparedStatement);
+        }
+        this.cache.clear();
+        this.statements.clear();
+        this.inUse.clear();
     }
 
     public boolean isEmpty() {
         return this.cache.isEmpty();
     }
+
+    public int size() {
+        return this.statements.size();
+    }
+
+    /**
+     * @return The cached statements, they keep the settings, i.e. the fetch size, of their last execution.
+     */
+    public Collection<PreparedStatement> getStatements() {
+        return Collections.unmodifiableCollection(this.statements.values());
+    }
+
+    /**
+     * @return The number of statements reused from the cache by the current transaction.
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return The number of statements prepared by the current transaction.
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    private static void closeQuietly(PreparedStatement preparedStatement) {
+        try {
+            preparedStatement.close();
+        } catch (SQLException e) {
+            //swallow, the statement is closed again on commit.
+        }
+    }
 }
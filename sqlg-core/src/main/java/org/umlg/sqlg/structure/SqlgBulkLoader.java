@@ -0,0 +1,412 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
+
+/**
+ * Loads vertices and edges in bulk.
+ * The elements are partitioned by label. Every chunk of a partition is copied into its table by one of parallelism
+ * threads, each thread on its own connection and transaction. A chunk's transaction is committed as soon as it is copied.
+ * <p>
+ * Vertex ids are reserved from the label's sequence in blocks of chunk size, so {@link #addVertex(String, Map)}
+ * returns the vertex's id immediately and edges to it can be added before it is written.
+ * If foreign keys are implemented an edge chunk waits for the vertex chunks of its out and in labels to be committed.
+ * <p>
+ * Topology changes and id reservations are committed on the calling thread's transaction.
+ * The loader is not thread safe, all elements must be added on the same thread.
+ * It is not atomic, if a chunk fails the chunks that have been committed remain and all further calls throw the failure.
+ * <p>
+ * Date: 2018/01/27
+ */
+public class SqlgBulkLoader implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlgBulkLoader.class);
+
+    /**
+     * The number of threads, and so connections, that copy chunks concurrently.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String BULK_LOAD_PARALLELISM = "bulk.load.parallelism";
+    /**
+     * The number of elements per copy command and the number of vertex ids reserved at a time.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String BULK_LOAD_CHUNK_SIZE = "bulk.load.chunkSize";
+
+    private final SqlgGraph sqlgGraph;
+    private final SqlBulkDialect sqlBulkDialect;
+    private final int chunkSize;
+    private final ExecutorService executorService;
+    //Bounds the memory held by chunks that are waiting to be copied.
+    private final Semaphore chunksInFlight;
+    private final Map<SchemaTable, VertexPartition> vertexPartitions = new LinkedHashMap<>();
+    //Keyed by the edge's, out vertices' and in vertices' label.
+    private final Map<Triple<SchemaTable, SchemaTable, SchemaTable>, EdgePartition> edgePartitions = new LinkedHashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong numberOfVertices = new AtomicLong();
+    private final AtomicLong numberOfEdges = new AtomicLong();
+    private final long startTime = System.nanoTime();
+    private boolean closed = false;
+
+    SqlgBulkLoader(SqlgGraph sqlgGraph, int parallelism, int chunkSize) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be > 0, found %s", parallelism);
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize must be > 0, found %s", chunkSize);
+        if (!sqlgGraph.getSqlDialect().supportsStreamingBatchMode()) {
+            throw SqlgExceptions.batchModeNotSupported(sqlgGraph.getSqlDialect().dialectName());
+        }
+        Preconditions.checkState(!sqlgGraph.tx().isInBatchMode(), "The bulk loader can not be used in batch mode");
+        this.sqlgGraph = sqlgGraph;
+        this.sqlBulkDialect = (SqlBulkDialect) sqlgGraph.getSqlDialect();
+        this.chunkSize = chunkSize;
+        this.executorService = Executors.newFixedThreadPool(
+                parallelism,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sqlg-bulk-load-%d").build()
+        );
+        this.chunksInFlight = new Semaphore(2 * parallelism);
+    }
+
+    /**
+     * Adds a vertex.
+     *
+     * @param label      The vertex's label, may be prefixed with its schema.
+     * @param properties The vertex's properties.
+     * @return The id the vertex will have once it is written.
+     */
+    public RecordId addVertex(String label, Map<String, Object> properties) {
+        checkOpen();
+        Triple<Map<String, PropertyType>, Map<String, Object>, Map<String, Object>> keyValueMapTriple =
+                SqlgUtil.validateVertexKeysValues(this.sqlgGraph.getSqlDialect(), SqlgUtil.mapToStringKeyValues(properties));
+        SchemaTable schemaTable = SchemaTable.from(this.sqlgGraph, label);
+        VertexPartition partition = this.vertexPartitions.computeIfAbsent(schemaTable, VertexPartition::new);
+        partition.ensureColumns(keyValueMapTriple.getLeft());
+        long id = partition.nextId();
+        partition.add(Pair.of(id, keyValueMapTriple.getMiddle()), keyValueMapTriple.getMiddle().keySet());
+        return RecordId.from(schemaTable, id);
+    }
+
+    /**
+     * Adds an edge between two vertices, the vertices need not have been written yet.
+     *
+     * @param label       The edge's label, the edge is stored in the schema of the out vertex.
+     * @param outVertexId The id of the out vertex.
+     * @param inVertexId  The id of the in vertex.
+     * @param properties  The edge's properties.
+     */
+    public void addEdge(String label, RecordId outVertexId, RecordId inVertexId, Map<String, Object> properties) {
+        checkOpen();
+        ElementHelper.validateLabel(label);
+        Preconditions.checkArgument(!label.contains("."), "Edge label may not contain a '.' , the edge will be stored in the schema of the owning vertex. label = %s", label);
+        Triple<Map<String, PropertyType>, Map<String, Object>, Map<String, Object>> keyValueMapTriple =
+                SqlgUtil.validateVertexKeysValues(this.sqlgGraph.getSqlDialect(), SqlgUtil.mapToStringKeyValues(properties));
+        SchemaTable outSchemaTable = outVertexId.getSchemaTable();
+        SchemaTable inSchemaTable = inVertexId.getSchemaTable();
+        Triple<SchemaTable, SchemaTable, SchemaTable> edgeLabels = Triple.of(SchemaTable.of(outSchemaTable.getSchema(), label), outSchemaTable, inSchemaTable);
+        EdgePartition partition = this.edgePartitions.computeIfAbsent(edgeLabels, EdgePartition::new);
+        partition.ensureColumns(keyValueMapTriple.getLeft());
+        partition.add(Triple.of(outVertexId.getId(), inVertexId.getId(), keyValueMapTriple.getMiddle()), keyValueMapTriple.getMiddle().keySet());
+    }
+
+    /**
+     * @return The number of vertices that have been written and committed.
+     */
+    public long getNumberOfVertices() {
+        return this.numberOfVertices.get();
+    }
+
+    /**
+     * @return The number of edges that have been written and committed.
+     */
+    public long getNumberOfEdges() {
+        return this.numberOfEdges.get();
+    }
+
+    /**
+     * @return The number of vertices and edges written per second since the loader was created.
+     */
+    public double getElementsPerSecond() {
+        long elapsed = System.nanoTime() - this.startTime;
+        return elapsed == 0 ? 0 : (this.numberOfVertices.get() + this.numberOfEdges.get()) * 1_000_000_000D / elapsed;
+    }
+
+    /**
+     * Writes the remaining chunks and waits for all of them to be committed.
+     * Throws the first failure, if any.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            if (this.failure.get() == null) {
+                for (VertexPartition vertexPartition : this.vertexPartitions.values()) {
+                    vertexPartition.dispatch();
+                }
+                for (EdgePartition edgePartition : this.edgePartitions.values()) {
+                    edgePartition.dispatch();
+                }
+            }
+        } finally {
+            this.executorService.shutdown();
+            try {
+                //noinspection StatementWithEmptyBody
+                while (!this.executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+                }
+            } catch (InterruptedException e) {
+                this.executorService.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.debug(String.format("bulk loaded %d vertices and %d edges, %.0f elements/s", getNumberOfVertices(), getNumberOfEdges(), getElementsPerSecond()));
+        checkFailure();
+    }
+
+    private void checkOpen() {
+        Preconditions.checkState(!this.closed, "The bulk loader is closed");
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        Throwable throwable = this.failure.get();
+        if (throwable != null) {
+            throw new RuntimeException("bulk load failed", throwable);
+        }
+    }
+
+    /**
+     * Topology changes must be committed before the loader's connections can see them.
+     * Committing after reserving ids returns the calling thread's connection to the pool.
+     */
+    private void commitCallerTransaction() {
+        if (this.sqlgGraph.tx().isOpen()) {
+            this.sqlgGraph.tx().commit();
+        }
+    }
+
+    private abstract class Partition<R> {
+
+        //The union of the keys of the current chunk's rows.
+        private SortedSet<String> keys = new TreeSet<>();
+        private List<R> rows = new ArrayList<>();
+        //The keys whose columns are known to exist.
+        private final Set<String> columns = new HashSet<>();
+        private boolean exists = false;
+        //The chunks that are not yet committed.
+        private final List<Future<?>> futures = new ArrayList<>();
+
+        void ensureColumns(Map<String, PropertyType> properties) {
+            if (!this.exists || !this.columns.containsAll(properties.keySet())) {
+                ensureExists(properties);
+                commitCallerTransaction();
+                this.exists = true;
+                this.columns.addAll(properties.keySet());
+            }
+        }
+
+        void add(R row, Set<String> rowKeys) {
+            this.keys.addAll(rowKeys);
+            this.rows.add(row);
+            if (this.rows.size() >= SqlgBulkLoader.this.chunkSize) {
+                dispatch();
+            }
+        }
+
+        /**
+         * Submits the current chunk to be copied.
+         */
+        void dispatch() {
+            if (this.rows.isEmpty()) {
+                return;
+            }
+            SortedSet<String> chunkKeys = this.keys;
+            List<R> chunkRows = this.rows;
+            this.keys = new TreeSet<>();
+            this.rows = new ArrayList<>();
+            List<Future<?>> dependencies = dependencies();
+            try {
+                SqlgBulkLoader.this.chunksInFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            try {
+                this.futures.removeIf(Future::isDone);
+                this.futures.add(SqlgBulkLoader.this.executorService.submit(() -> copy(chunkKeys, chunkRows, dependencies)));
+            } catch (RejectedExecutionException e) {
+                SqlgBulkLoader.this.chunksInFlight.release();
+                throw e;
+            }
+        }
+
+        List<Future<?>> pendingChunks() {
+            dispatch();
+            this.futures.removeIf(Future::isDone);
+            return new ArrayList<>(this.futures);
+        }
+
+        /**
+         * Runs on the loader's threads, every thread has its own transaction.
+         */
+        private void copy(SortedSet<String> chunkKeys, List<R> chunkRows, List<Future<?>> dependencies) {
+            SqlgGraph sqlgGraph = SqlgBulkLoader.this.sqlgGraph;
+            try {
+                for (Future<?> dependency : dependencies) {
+                    dependency.get();
+                }
+                if (SqlgBulkLoader.this.failure.get() != null) {
+                    return;
+                }
+                load(chunkKeys, chunkRows);
+                sqlgGraph.tx().commit();
+                count(chunkRows.size());
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("bulk loaded %d rows into %s, %.0f elements/s", chunkRows.size(), this, getElementsPerSecond()));
+                }
+            } catch (Throwable e) {
+                SqlgBulkLoader.this.failure.compareAndSet(null, e instanceof ExecutionException ? e.getCause() : e);
+                if (sqlgGraph.tx().isOpen()) {
+                    sqlgGraph.tx().rollback();
+                }
+            } finally {
+                SqlgBulkLoader.this.chunksInFlight.release();
+            }
+        }
+
+        abstract void ensureExists(Map<String, PropertyType> properties);
+
+        abstract List<Future<?>> dependencies();
+
+        abstract void load(SortedSet<String> chunkKeys, List<R> chunkRows);
+
+        abstract void count(int numberOfRows);
+    }
+
+    private class VertexPartition extends Partition<Pair<Long, Map<String, Object>>> {
+
+        private final SchemaTable schemaTable;
+        private long[] ids = new long[0];
+        private int idIndex = 0;
+
+        private VertexPartition(SchemaTable schemaTable) {
+            this.schemaTable = schemaTable;
+        }
+
+        long nextId() {
+            if (this.idIndex == this.ids.length) {
+                this.ids = SqlgBulkLoader.this.sqlBulkDialect.nextSequenceVals(
+                        SqlgBulkLoader.this.sqlgGraph,
+                        this.schemaTable,
+                        VERTEX_PREFIX,
+                        SqlgBulkLoader.this.chunkSize
+                );
+                this.idIndex = 0;
+                commitCallerTransaction();
+            }
+            return this.ids[this.idIndex++];
+        }
+
+        @Override
+        void ensureExists(Map<String, PropertyType> properties) {
+            SqlgBulkLoader.this.sqlgGraph.getTopology().ensureVertexLabelExist(this.schemaTable.getSchema(), this.schemaTable.getTable(), properties);
+        }
+
+        @Override
+        List<Future<?>> dependencies() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        void load(SortedSet<String> chunkKeys, List<Pair<Long, Map<String, Object>>> chunkRows) {
+            SqlgBulkLoader.this.sqlBulkDialect.bulkLoadVertices(SqlgBulkLoader.this.sqlgGraph, this.schemaTable, chunkKeys, chunkRows);
+        }
+
+        @Override
+        void count(int numberOfRows) {
+            SqlgBulkLoader.this.numberOfVertices.addAndGet(numberOfRows);
+        }
+
+        @Override
+        public String toString() {
+            return VERTEX_PREFIX + this.schemaTable.toString();
+        }
+    }
+
+    private class EdgePartition extends Partition<Triple<Long, Long, Map<String, Object>>> {
+
+        private final SchemaTable schemaTable;
+        private final SchemaTable outSchemaTable;
+        private final SchemaTable inSchemaTable;
+
+        private EdgePartition(Triple<SchemaTable, SchemaTable, SchemaTable> edgeLabels) {
+            this.schemaTable = edgeLabels.getLeft();
+            this.outSchemaTable = edgeLabels.getMiddle();
+            this.inSchemaTable = edgeLabels.getRight();
+        }
+
+        @Override
+        void ensureExists(Map<String, PropertyType> properties) {
+            SqlgBulkLoader.this.sqlgGraph.getTopology().ensureEdgeLabelExist(
+                    this.schemaTable.getTable(),
+                    this.outSchemaTable,
+                    this.inSchemaTable,
+                    properties
+            );
+        }
+
+        /**
+         * The foreign keys require the out and in vertices to be committed before the edges are copied.
+         */
+        @Override
+        List<Future<?>> dependencies() {
+            if (!SqlgBulkLoader.this.sqlgGraph.getTopology().isImplementingForeignKeys()) {
+                return Collections.emptyList();
+            }
+            List<Future<?>> dependencies = new ArrayList<>();
+            for (SchemaTable schemaTable : Arrays.asList(this.outSchemaTable, this.inSchemaTable)) {
+                VertexPartition vertexPartition = SqlgBulkLoader.this.vertexPartitions.get(schemaTable);
+                if (vertexPartition != null) {
+                    dependencies.addAll(vertexPartition.pendingChunks());
+                }
+            }
+            return dependencies;
+        }
+
+        @Override
+        void load(SortedSet<String> chunkKeys, List<Triple<Long, Long, Map<String, Object>>> chunkRows) {
+            SqlgBulkLoader.this.sqlBulkDialect.bulkLoadEdges(
+                    SqlgBulkLoader.this.sqlgGraph,
+                    this.schemaTable,
+                    this.outSchemaTable,
+                    this.inSchemaTable,
+                    chunkKeys,
+                    chunkRows
+            );
+        }
+
+        @Override
+        void count(int numberOfRows) {
+            SqlgBulkLoader.this.numberOfEdges.addAndGet(numberOfRows);
+        }
+
+        @Override
+        public String toString() {
+            return EDGE_PREFIX + this.schemaTable.toString();
+        }
+    }
+}
@@ -49,6 +49,16 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
      * are we reading the query results lazily?
      */
     private boolean lazy = true;
+    /**
+     * the number of rows fetched per round trip, 0 for the jdbc driver's default.
+     */
+    private int fetchSize;
+    /**
+     * the number of distinct query stacks executed concurrently, 1 for sequential execution.
+     */
+    private int queryParallelism;
+    private SqlgParallelQueries parallelQueries;
+    private boolean parallelQueriesChecked = false;
 
     private boolean first = true;
     private Map<String, Integer> lastElementIdCountMap = new HashMap<>();
@@ -65,11 +75,21 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
     }
 
     public SqlgCompiledResultIterator(SqlgGraph sqlgGraph, Set<SchemaTableTree> rootSchemaTableTrees, boolean forParent) {
+        this(sqlgGraph, rootSchemaTableTrees, forParent, sqlgGraph.tx().getFetchSize());
+    }
+
+    public SqlgCompiledResultIterator(SqlgGraph sqlgGraph, Set<SchemaTableTree> rootSchemaTableTrees, boolean forParent, int fetchSize) {
+        this(sqlgGraph, rootSchemaTableTrees, forParent, fetchSize, sqlgGraph.tx().getQueryParallelism());
+    }
+
+    public SqlgCompiledResultIterator(SqlgGraph sqlgGraph, Set<SchemaTableTree> rootSchemaTableTrees, boolean forParent, int fetchSize, int queryParallelism) {
         this.sqlgGraph = sqlgGraph;
         this.rootSchemaTableTrees = rootSchemaTableTrees;
         this.rootSchemaTableTreeIterator = rootSchemaTableTrees.iterator();
         this.lazy = sqlgGraph.tx().isLazyQueries();
         this.forParent = forParent;
+        this.fetchSize = fetchSize;
+        this.queryParallelism = queryParallelism;
     }
 
     @Override
@@ -102,6 +122,10 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                         if (this.elements != null) {
                             return true;
                         } else {
+                            if (!this.parallelQueriesChecked) {
+                                this.parallelQueriesChecked = true;
+                                startParallelQueries();
+                            }
                             if (this.queryResult != null) {
                                 iterateRegularQueries();
                                 this.first = false;
@@ -109,7 +133,13 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                             if (this.elements == null) {
                                 closePreparedStatement();
                                 //try the next distinctQueryStack
-                                if (this.distinctQueriesIterator.hasNext()) {
+                                if (this.parallelQueries != null && this.parallelQueries.hasNext()) {
+                                    this.queryResult = this.parallelQueries.next();
+                                    this.currentRootSchemaTableTree = this.parallelQueries.currentRootSchemaTableTree();
+                                    this.currentDistinctQueryStack = this.parallelQueries.currentDistinctQueryStack();
+                                    this.subQueryStacks = SchemaTableTree.splitIntoSubStacks(this.currentDistinctQueryStack);
+                                    this.first = true;
+                                } else if (this.distinctQueriesIterator.hasNext()) {
                                     this.currentDistinctQueryStack = this.distinctQueriesIterator.next();
                                     this.subQueryStacks = SchemaTableTree.splitIntoSubStacks(this.currentDistinctQueryStack);
                                     this.currentRootSchemaTableTree.resetColumnAliasMaps();
@@ -241,20 +271,48 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
         return (E) result;
     }
 
+    /**
+     * Executes the regular distinct queries of all the root trees in parallel if requested, there is more than one,
+     * none of them modify the graph and none of them need temporary tables.
+     * The pooled connections do not see the transaction's uncommitted writes nor its uncommitted topology changes, if
+     * there are any the queries are executed serially on the transaction's connection.
+     */
+    private void startParallelQueries() {
+        if (this.queryParallelism <= 1 ||
+                this.sqlgGraph.tx().isInBatchMode() ||
+                this.sqlgGraph.tx().hasWrites() ||
+                this.sqlgGraph.getTopology().isSqlWriteLocked()) {
+            return;
+        }
+        List<Pair<SchemaTableTree, LinkedList<SchemaTableTree>>> distinctQueries = new ArrayList<>();
+        for (SchemaTableTree rootSchemaTableTree : this.rootSchemaTableTrees) {
+            for (LinkedList<SchemaTableTree> distinctQuery : rootSchemaTableTree.constructDistinctQueries()) {
+                if (distinctQuery.getLast().isDrop() || rootSchemaTableTree.usesTemporaryTables(distinctQuery)) {
+                    return;
+                }
+                distinctQueries.add(Pair.of(rootSchemaTableTree, distinctQuery));
+            }
+        }
+        if (distinctQueries.size() > 1) {
+            this.parallelQueries = new SqlgParallelQueries(this.sqlgGraph, distinctQueries, this.queryParallelism, this.fetchSize);
+            this.rootSchemaTableTreeIterator = EmptyIterator.instance();
+        }
+    }
+
     private void executeDropQuery() {
         SqlgSqlExecutor.executeDropQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.currentDistinctQueryStack);
     }
 
     private void executeRegularQuery() {
-        this.queryResult = SqlgSqlExecutor.executeRegularQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.currentDistinctQueryStack);
+        this.queryResult = SqlgSqlExecutor.executeRegularQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.currentDistinctQueryStack, this.fetchSize);
     }
 
     private void executeOptionalQuery() {
-        this.queryResult = SqlgSqlExecutor.executeOptionalQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.optionalCurrentLeftJoinResult);
+        this.queryResult = SqlgSqlExecutor.executeOptionalQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.optionalCurrentLeftJoinResult, this.fetchSize);
     }
 
     private void executeEmitQuery() {
-        this.queryResult = SqlgSqlExecutor.executeEmitQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.emitCurrentLeftJoinResult);
+        this.queryResult = SqlgSqlExecutor.executeEmitQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.emitCurrentLeftJoinResult, this.fetchSize);
     }
 
     private void iterateRegularQueries() throws SQLException {
@@ -346,9 +404,13 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
     }
 
     private void closePreparedStatement() {
-        if (this.queryResult != null) {
+        if (this.queryResult != null && this.parallelQueries != null && this.queryState == QUERY.REGULAR) {
+            this.queryResult = null;
+            this.parallelQueries.closeCurrent();
+        } else if (this.queryResult != null) {
             try {
-                this.queryResult.getRight().close();
+                this.queryResult.getLeft().close();
+                this.sqlgGraph.tx().release(this.queryResult.getRight());
                 this.queryResult = null;
             } catch (SQLException e) {
                 throw new RuntimeException(e);
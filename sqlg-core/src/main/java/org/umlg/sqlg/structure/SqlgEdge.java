@@ -50,7 +50,9 @@ public class SqlgEdge extends SqlgElement implements Edge {
     }
 
     public static SqlgEdge of(SqlgGraph sqlgGraph, Long id, String schema, String table) {
-        return new SqlgEdge(sqlgGraph, id, schema, table);
+        SqlgEdge sqlgEdge = new SqlgEdge(sqlgGraph, id, schema, table);
+        sqlgEdge.registerUnloaded();
+        return sqlgEdge;
     }
 
     /**
@@ -113,6 +115,8 @@ public class SqlgEdge extends SqlgElement implements Edge {
     private void insertEdge(boolean complete, Pair<Map<String, Object>, Map<String, Object>> keyValueMapPair) throws SQLException {
         Map<String, Object> allKeyValueMap = keyValueMapPair.getLeft();
         Map<String, Object> notNullKeyValueMap = keyValueMapPair.getRight();
+        //the foreign keys lock the out and in vertices too
+        this.sqlgGraph.tx().written(getSchemaTablePrefixed(), this.outVertex.getSchemaTablePrefixed(), this.inVertex.getSchemaTablePrefixed());
         if (this.sqlgGraph.features().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
             internalBatchAddEdge(complete, allKeyValueMap);
         } else {
@@ -192,7 +196,7 @@ public class SqlgEdge extends SqlgElement implements Edge {
     @Override
     protected void load() {
         //recordId can be null when in batchMode
-        if (this.recordId != null && this.properties.isEmpty()) {
+        if (this.recordId != null && isNotLoaded()) {
             this.sqlgGraph.tx().readWrite();
             if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().getBatchManager().isStreaming()) {
                 throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
@@ -228,25 +232,8 @@ public class SqlgEdge extends SqlgElement implements Edge {
             sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.schema));
             sql.append(".");
             sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(EDGE_PREFIX + this.table));
-            sql.append(" WHERE ");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
-            sql.append(" = ?");
-            if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
-                sql.append(";");
-            }
-            Connection conn = this.sqlgGraph.tx().getConnection();
-            if (logger.isDebugEnabled()) {
-                logger.debug(sql.toString());
-            }
-            try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
-                preparedStatement.setLong(1, this.recordId.getId());
-                ResultSet resultSet = preparedStatement.executeQuery();
-                if (resultSet.next()) {
-                    loadResultSet(resultSet);
-                }
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
+            //Load the other edges of this label that were instantiated from their id only in the same round trip.
+            loadElements(sql, elementsToLoad());
         }
     }
 
@@ -16,7 +16,6 @@ import org.umlg.sqlg.util.SqlgUtil;
 import java.sql.*;
 import java.time.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static org.umlg.sqlg.sql.parse.SchemaTableTree.ALIAS_SEPARATOR;
 import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
@@ -34,8 +33,10 @@ public abstract class SqlgElement implements Element {
     protected String table;
     RecordId recordId;
     protected final SqlgGraph sqlgGraph;
-    //Multiple threads can access the same element
-    protected Map<String, Object> properties = new ConcurrentHashMap<>();
+    //Multiple threads can access the same element. The keys are shared with the other elements of the label.
+    protected Map<String, Object> properties;
+    //The properties loaded by a query that only selected some of the element's columns, null if all are loaded.
+    volatile Set<String> loadedPropertyKeys;
     private SqlgElementElementPropertyRollback elementPropertyRollback;
     boolean removed = false;
     //Used in the SqlgBranchStepBarrier to sort the results by the start elements.
@@ -45,6 +46,7 @@ public abstract class SqlgElement implements Element {
         this.sqlgGraph = sqlgGraph;
         this.schema = schema;
         this.table = table;
+        this.properties = new SqlgElementProperties(sqlgGraph.propertyKeyIndex(this instanceof Vertex, schema, table));
         this.elementPropertyRollback = new SqlgElementElementPropertyRollback();
 //        if (!this.graph.tx().isInStreamingBatchMode() && !this.graph.tx().isInStreamingWithLockBatchMode()) {
 //            graph.tx().addElementPropertyRollback(this.elementPropertyRollback);
@@ -59,6 +61,7 @@ public abstract class SqlgElement implements Element {
         this.schema = schema;
         this.table = table;
         this.recordId = RecordId.from(SchemaTable.of(this.schema, this.table), id);
+        this.properties = new SqlgElementProperties(sqlgGraph.propertyKeyIndex(this instanceof Vertex, schema, table));
         this.elementPropertyRollback = new SqlgElementElementPropertyRollback();
 //        if (!this.graph.tx().isInStreamingBatchMode() && !this.graph.tx().isInStreamingWithLockBatchMode()) {
 //            graph.tx().addElementPropertyRollback(this.elementPropertyRollback);
@@ -74,6 +77,7 @@ public abstract class SqlgElement implements Element {
         @Override
         public void clearProperties() {
             SqlgElement.this.properties.clear();
+            SqlgElement.this.loadedPropertyKeys = null;
         }
 
 //        @Override
@@ -105,6 +109,8 @@ public abstract class SqlgElement implements Element {
 
     @Override
     public void remove() {
+        this.sqlgGraph.tx().written(getSchemaTablePrefixed());
+        this.sqlgGraph.tx().flushPropertyUpdates();
         StringBuilder sql = new StringBuilder("DELETE FROM ");
         sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.schema));
         sql.append(".");
@@ -173,7 +179,7 @@ public abstract class SqlgElement implements Element {
         if (this.removed) {
             throw Element.Exceptions.elementAlreadyRemoved(this.getClass(), this.id());
         } else {
-            load();
+            load(key);
             V propertyValue = (V) this.properties.get(key);
             if (propertyValue != null) {
                 return instantiateProperty(key, propertyValue);
@@ -183,6 +189,17 @@ public abstract class SqlgElement implements Element {
         }
     }
 
+    /**
+     * Returns the value the element holds for the property without loading its row.
+     * Used when flushing buffered updates, loading the row would overwrite the values that are not yet written.
+     *
+     * @param key The property key.
+     * @return The value or null if the element holds none.
+     */
+    public Object getLoadedValue(String key) {
+        return this.properties.get(key);
+    }
+
     protected <V> Property<V> emptyProperty() {
         return Property.empty();
     }
@@ -228,6 +245,148 @@ public abstract class SqlgElement implements Element {
      */
     protected abstract void load();
 
+    /**
+     * Loads the row unless all the keys were loaded by the query the element comes from.
+     */
+    private void load(String... propertyKeys) {
+        Set<String> loaded = this.loadedPropertyKeys;
+        if (loaded == null || propertyKeys.length == 0 || !loaded.containsAll(Arrays.asList(propertyKeys))) {
+            load();
+        }
+    }
+
+    /**
+     * @return true if the row must be loaded before all the element's properties can be accessed.
+     */
+    boolean isNotLoaded() {
+        return this.properties.isEmpty() || this.loadedPropertyKeys != null;
+    }
+
+    /**
+     * Called before loading the element's row from a query.
+     * If the query only selects some of the properties' columns the other properties of an element that is not
+     * already loaded are loaded when first accessed.
+     *
+     * @param propertyKeys The properties whose columns the query selects, null if it selects all of them.
+     */
+    public void loadingProperties(Set<String> propertyKeys) {
+        Set<String> loaded = this.loadedPropertyKeys;
+        if (propertyKeys == null) {
+            this.loadedPropertyKeys = null;
+        } else if (loaded != null) {
+            Set<String> union = new HashSet<>(loaded);
+            union.addAll(propertyKeys);
+            this.loadedPropertyKeys = union;
+        } else if (this.properties.isEmpty()) {
+            this.loadedPropertyKeys = propertyKeys;
+        }
+    }
+
+    /**
+     * Registers this element, instantiated from its id only, to be loaded together with the next element of its label
+     * whose properties are accessed.
+     */
+    void registerUnloaded() {
+        if (this.sqlgGraph.tx().isOpen() && !this.sqlgGraph.tx().isInBatchMode()) {
+            this.sqlgGraph.tx().addUnloaded(getSchemaTablePrefixed(), this);
+        }
+    }
+
+    /**
+     * @return this element followed by the other not yet loaded elements of the same label, at most
+     * {@link org.umlg.sqlg.sql.dialect.SqlDialect#sqlInParameterLimit()} in total.
+     */
+    @SuppressWarnings("unchecked")
+    <E extends SqlgElement> List<E> elementsToLoad() {
+        List<E> sqlgElements = new ArrayList<>();
+        sqlgElements.add((E) this);
+        if (!this.sqlgGraph.tx().isInBatchMode()) {
+            int max = this.sqlgGraph.getSqlDialect().sqlInParameterLimit() - 1;
+            for (SqlgElement sqlgElement : this.sqlgGraph.tx().pollUnloaded(getSchemaTablePrefixed(), max)) {
+                if (sqlgElement != this) {
+                    sqlgElements.add((E) sqlgElement);
+                }
+            }
+        }
+        return sqlgElements;
+    }
+
+    /**
+     * Completes the load sql with the id condition and loads the rows into the elements.
+     *
+     * @param sql          The select and from clauses.
+     * @param sqlgElements The elements to load, all of the same label.
+     * @return The ids that were found.
+     */
+    Set<Long> loadElements(StringBuilder sql, List<? extends SqlgElement> sqlgElements) {
+        this.sqlgGraph.tx().flushPropertyUpdates();
+        Map<Long, List<SqlgElement>> idElementMap = new HashMap<>();
+        for (SqlgElement sqlgElement : sqlgElements) {
+            idElementMap.computeIfAbsent(sqlgElement.recordId.getId(), k -> new ArrayList<>(1)).add(sqlgElement);
+        }
+        Set<Long> found = new HashSet<>();
+        if (this instanceof SqlgVertex) {
+            //Take the vertices in the element cache from it.
+            for (Iterator<Map.Entry<Long, List<SqlgElement>>> iterator = idElementMap.entrySet().iterator(); iterator.hasNext(); ) {
+                Map.Entry<Long, List<SqlgElement>> entry = iterator.next();
+                Map<String, Object> cachedProperties = this.sqlgGraph.tx().getCachedVertex((SqlgVertex) entry.getValue().get(0));
+                if (cachedProperties != null) {
+                    for (SqlgElement sqlgElement : entry.getValue()) {
+                        sqlgElement.properties.putAll(cachedProperties);
+                        sqlgElement.loadedPropertyKeys = null;
+                    }
+                    found.add(entry.getKey());
+                    iterator.remove();
+                }
+            }
+            if (idElementMap.isEmpty()) {
+                return found;
+            }
+        }
+        sql.append("\nWHERE\n\t");
+        sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
+        if (idElementMap.size() == 1) {
+            sql.append(" = ?");
+        } else {
+            sql.append(" IN (");
+            for (int i = 0; i < idElementMap.size(); i++) {
+                sql.append("?");
+                if (i < idElementMap.size() - 1) {
+                    sql.append(", ");
+                }
+            }
+            sql.append(")");
+        }
+        if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
+            sql.append(";");
+        }
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            int parameterIndex = 1;
+            for (Long id : idElementMap.keySet()) {
+                preparedStatement.setLong(parameterIndex++, id);
+            }
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                long id = resultSet.getLong("ID");
+                found.add(id);
+                for (SqlgElement sqlgElement : idElementMap.get(id)) {
+                    sqlgElement.loadResultSet(resultSet);
+                    sqlgElement.loadedPropertyKeys = null;
+                }
+                if (this instanceof SqlgVertex) {
+                    this.sqlgGraph.tx().cacheVertex((SqlgVertex) idElementMap.get(id).get(0));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return found;
+    }
+
     public String getSchema() {
         return schema;
     }
@@ -237,6 +396,10 @@ public abstract class SqlgElement implements Element {
     }
 
     private void updateRow(String key, Object value) {
+        this.sqlgGraph.tx().written(getSchemaTablePrefixed());
+        if (this instanceof SqlgVertex) {
+            this.sqlgGraph.tx().elementCacheWrite(SchemaTable.of(this.schema, this.table), this.recordId);
+        }
 
         boolean elementInInsertedCache = false;
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
@@ -271,45 +434,50 @@ public abstract class SqlgElement implements Element {
                 SqlgElement.updateGlobalUniqueIndex(this.sqlgGraph, globalUniqueIndex, this.recordId, propertyColumnObjectPair);
             }
 
-            String tableName = (this instanceof Vertex ? VERTEX_PREFIX : EDGE_PREFIX) + this.table;
-            StringBuilder sql = new StringBuilder("UPDATE ");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.schema));
-            sql.append(".");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(tableName));
-            sql.append(" SET ");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(key));
-            sql.append(" = ?");
-            // some data types require several columns in the db, make sure to update them all
-            PropertyType pt = PropertyType.from(value);
-            String[] postfixes = this.sqlgGraph.getSqlDialect().propertyTypeToSqlDefinition(pt);
-            if (postfixes != null && postfixes.length > 1) {
-                for (int i = 1; i < postfixes.length; i++) {
-                    sql.append(",");
-                    sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(key + pt.getPostFixes()[i - 1]));
-                    sql.append(" = ?");
+            if (this.sqlgGraph.tx().isInWriteBehindMode()) {
+                //buffered per label and coalesced per element, flushed before the next query or commit
+                this.sqlgGraph.tx().getBatchManager().updateProperty(this, key, value);
+            } else {
+                String tableName = (this instanceof Vertex ? VERTEX_PREFIX : EDGE_PREFIX) + this.table;
+                StringBuilder sql = new StringBuilder("UPDATE ");
+                sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.schema));
+                sql.append(".");
+                sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(tableName));
+                sql.append(" SET ");
+                sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(key));
+                sql.append(" = ?");
+                // some data types require several columns in the db, make sure to update them all
+                PropertyType pt = PropertyType.from(value);
+                String[] postfixes = this.sqlgGraph.getSqlDialect().propertyTypeToSqlDefinition(pt);
+                if (postfixes != null && postfixes.length > 1) {
+                    for (int i = 1; i < postfixes.length; i++) {
+                        sql.append(",");
+                        sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(key + pt.getPostFixes()[i - 1]));
+                        sql.append(" = ?");
+                    }
                 }
-            }
 
-            sql.append(" WHERE ");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
-            sql.append(" = ?");
-            if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
-                sql.append(";");
-            }
-            if (logger.isDebugEnabled()) {
-                logger.debug(sql.toString());
-            }
-            Connection conn = this.sqlgGraph.tx().getConnection();
-            try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
-                Map<String, Object> keyValue = new HashMap<>();
-                keyValue.put(key, value);
-                // the index of the id column in the statement depend on how many columns we had to use to store that data type
-                int idx = setKeyValuesAsParameter(this.sqlgGraph, 1, preparedStatement, keyValue);
-                preparedStatement.setLong(idx, ((RecordId) this.id()).getId());
-                preparedStatement.executeUpdate();
-                preparedStatement.close();
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+                sql.append(" WHERE ");
+                sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
+                sql.append(" = ?");
+                if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
+                    sql.append(";");
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug(sql.toString());
+                }
+                Connection conn = this.sqlgGraph.tx().getConnection();
+                try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+                    Map<String, Object> keyValue = new HashMap<>();
+                    keyValue.put(key, value);
+                    // the index of the id column in the statement depend on how many columns we had to use to store that data type
+                    int idx = setKeyValuesAsParameter(this.sqlgGraph, 1, preparedStatement, keyValue);
+                    preparedStatement.setLong(idx, ((RecordId) this.id()).getId());
+                    preparedStatement.executeUpdate();
+                    preparedStatement.close();
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
             }
         }
 
@@ -356,7 +524,7 @@ public abstract class SqlgElement implements Element {
     }
 
     protected <V> Map<String, ? extends Property<V>> internalGetProperties(final String... propertyKeys) {
-        load();
+        load(propertyKeys);
         Map<String, SqlgProperty<V>> properties = new HashMap<>();
 
         //Check the propertyKeys parameter
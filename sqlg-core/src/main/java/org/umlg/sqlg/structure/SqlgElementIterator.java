@@ -0,0 +1,182 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
+
+/**
+ * Lazily iterates the vertices or edges for {@link SqlgGraph#vertices(Object...)} and {@link SqlgGraph#edges(Object...)}.
+ * Only one table's result set is open at a time and rows are fetched in batches of the fetch size.
+ * Ids are queried per table in chunks of {@link SqlDialect#sqlInParameterLimit()}.
+ * <p>
+ * Date: 2018/01/22
+ */
+class SqlgElementIterator<T extends Element> implements Iterator<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlgElementIterator.class);
+    //Used when the transaction's fetch size is left to the jdbc driver.
+    private static final int DEFAULT_FETCH_SIZE = 1_000;
+
+    private final SqlgGraph sqlgGraph;
+    private final boolean returnVertices;
+    private final int fetchSize;
+    //The tables, without the vertex or edge prefix, to query and the ids to query for, null for all rows.
+    private final Iterator<Pair<SchemaTable, List<Long>>> queries;
+
+    private SchemaTable currentSchemaTable;
+    private PreparedStatement preparedStatement;
+    private ResultSet resultSet;
+    private T next;
+
+    private SqlgElementIterator(SqlgGraph sqlgGraph, boolean returnVertices, List<Pair<SchemaTable, List<Long>>> queries) {
+        this.sqlgGraph = sqlgGraph;
+        this.returnVertices = returnVertices;
+        int transactionFetchSize = sqlgGraph.tx().getFetchSize();
+        this.fetchSize = transactionFetchSize > 0 ? transactionFetchSize : DEFAULT_FETCH_SIZE;
+        this.queries = queries.iterator();
+    }
+
+    /**
+     * Iterates all the elements of all the vertex or edge tables.
+     */
+    static <T extends Element> SqlgElementIterator<T> all(SqlgGraph sqlgGraph, boolean returnVertices) {
+        List<Pair<SchemaTable, List<Long>>> queries = new ArrayList<>();
+        for (String table : sqlgGraph.getTopology().getAllTables().keySet()) {
+            SchemaTable schemaTable = SchemaTable.from(sqlgGraph, table);
+            if (returnVertices ? schemaTable.isVertexTable() : !schemaTable.isVertexTable()) {
+                queries.add(Pair.of(schemaTable.withOutPrefix(), null));
+            }
+        }
+        return new SqlgElementIterator<>(sqlgGraph, returnVertices, queries);
+    }
+
+    /**
+     * Iterates the elements with the given ids. Ids of tables that do not exist are ignored.
+     */
+    static <T extends Element> SqlgElementIterator<T> of(SqlgGraph sqlgGraph, boolean returnVertices, List<RecordId> elementIds) {
+        List<Pair<SchemaTable, List<Long>>> queries = new ArrayList<>();
+        Map<SchemaTable, List<Long>> distinctTableIdMap = RecordId.normalizeIds(elementIds);
+        int inParameterLimit = sqlgGraph.getSqlDialect().sqlInParameterLimit();
+        for (Map.Entry<SchemaTable, List<Long>> schemaTableListEntry : distinctTableIdMap.entrySet()) {
+            SchemaTable schemaTable = schemaTableListEntry.getKey();
+            String tableName = (returnVertices ? VERTEX_PREFIX : EDGE_PREFIX) + schemaTable.getTable();
+            if (sqlgGraph.getTopology().getAllTables().containsKey(schemaTable.getSchema() + "." + tableName)) {
+                for (List<Long> ids : Lists.partition(schemaTableListEntry.getValue(), inParameterLimit)) {
+                    queries.add(Pair.of(schemaTable, ids));
+                }
+            }
+        }
+        return new SqlgElementIterator<>(sqlgGraph, returnVertices, queries);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (this.next == null) {
+                if (this.resultSet != null && this.resultSet.next()) {
+                    this.next = load();
+                } else {
+                    close();
+                    if (this.queries.hasNext()) {
+                        executeQuery(this.queries.next());
+                    } else {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = this.next;
+        this.next = null;
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T load() throws SQLException {
+        long id = this.resultSet.getLong("ID");
+        SqlgElement sqlgElement;
+        if (this.returnVertices) {
+            sqlgElement = SqlgVertex.of(this.sqlgGraph, id, this.currentSchemaTable.getSchema(), this.currentSchemaTable.getTable());
+        } else {
+            sqlgElement = new SqlgEdge(this.sqlgGraph, id, this.currentSchemaTable.getSchema(), this.currentSchemaTable.getTable());
+        }
+        sqlgElement.loadResultSet(this.resultSet);
+        return (T) sqlgElement;
+    }
+
+    private void executeQuery(Pair<SchemaTable, List<Long>> query) throws SQLException {
+        if (this.sqlgGraph.tx().isInBatchMode()) {
+            this.sqlgGraph.tx().flush();
+        }
+        this.sqlgGraph.tx().flushPropertyUpdates();
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        this.currentSchemaTable = query.getLeft();
+        List<Long> ids = query.getRight();
+        StringBuilder sql = new StringBuilder("SELECT * FROM ");
+        sql.append(sqlDialect.maybeWrapInQoutes(this.currentSchemaTable.getSchema()));
+        sql.append(".");
+        sql.append(sqlDialect.maybeWrapInQoutes((this.returnVertices ? VERTEX_PREFIX : EDGE_PREFIX) + this.currentSchemaTable.getTable()));
+        if (ids != null) {
+            sql.append(" WHERE ");
+            sql.append(sqlDialect.maybeWrapInQoutes("ID"));
+            if (ids.size() == 1) {
+                sql.append(" = ?");
+            } else {
+                sql.append(" IN (");
+                for (int i = 0; i < ids.size(); i++) {
+                    sql.append("?");
+                    if (i < ids.size() - 1) {
+                        sql.append(", ");
+                    }
+                }
+                sql.append(")");
+            }
+        }
+        if (sqlDialect.needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        this.preparedStatement = this.sqlgGraph.tx().prepareQuery(sql.toString());
+        if (ids != null) {
+            int parameterIndex = 1;
+            for (Long id : ids) {
+                this.preparedStatement.setLong(parameterIndex++, id);
+            }
+        }
+        this.preparedStatement.setFetchSize(this.fetchSize);
+        this.resultSet = this.preparedStatement.executeQuery();
+    }
+
+    private void close() throws SQLException {
+        if (this.resultSet != null) {
+            this.resultSet.close();
+            this.resultSet = null;
+        }
+        if (this.preparedStatement != null) {
+            this.sqlgGraph.tx().release(this.preparedStatement);
+            this.preparedStatement = null;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The property values of an element.
+ * The property keys and their positions are held by a {@link KeyIndex} that is shared by all the elements of a label
+ * whose properties were set in the same order, i.e. all the elements of a label loaded by the same query. The element
+ * itself only holds the values, addressed by the keys' positions. Every label of a graph has its own root index.
+ * <p>
+ * Like the {@link ConcurrentHashMap} it replaces null values are not accepted, a removed property leaves an empty slot.
+ * Multiple threads can access the same element. Writes are synchronized, reads are not. They see the values as of the
+ * last completed write and the entries are iterated over a snapshot of the values.
+ *
+ * Date: 2018/02/02
+ */
+final class SqlgElementProperties extends AbstractMap<String, Object> {
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final KeyIndex root;
+    //The values array is assigned before the keyIndex and reassigned after every write, the reads read the keyIndex
+    //first so they see the writes that preceded it.
+    private volatile KeyIndex keyIndex;
+    //At least as long as the keyIndex, the slots of absent properties are null. Only clear() shrinks it.
+    private volatile Object[] values = NO_VALUES;
+
+    SqlgElementProperties(KeyIndex root) {
+        this.root = root;
+        this.keyIndex = root;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int position = this.keyIndex.positionOf(key);
+        Object[] values = this.values;
+        return position == -1 || position >= values.length ? null : values[position];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized Object put(String key, Object value) {
+        Preconditions.checkNotNull(key, "key may not be null");
+        Preconditions.checkNotNull(value, "value may not be null");
+        int position = this.keyIndex.positionOf(key);
+        if (position == -1) {
+            KeyIndex child = this.keyIndex.with(key);
+            if (this.values.length < child.size()) {
+                this.values = Arrays.copyOf(this.values, Math.max(child.size(), child.descendantSize));
+            }
+            this.keyIndex = child;
+            position = child.size() - 1;
+        }
+        Object[] values = this.values;
+        Object previous = values[position];
+        values[position] = value;
+        //publishes the value
+        this.values = values;
+        return previous;
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        int position = this.keyIndex.positionOf(key);
+        if (position == -1) {
+            return null;
+        }
+        Object[] values = this.values;
+        Object previous = values[position];
+        values[position] = null;
+        //publishes the removal
+        this.values = values;
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.keyIndex = this.root;
+        this.values = NO_VALUES;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        int length = this.keyIndex.size();
+        Object[] values = this.values;
+        for (int i = 0; i < length && i < values.length; i++) {
+            if (values[i] != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        final String[] keys = this.keyIndex.keys;
+        final Object[] snapshot = Arrays.copyOf(this.values, keys.length);
+        List<Entry<String, Object>> entries = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (snapshot[i] != null) {
+                entries.add(new SimpleImmutableEntry<>(keys[i], snapshot[i]));
+            }
+        }
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return Collections.unmodifiableList(entries).iterator();
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    /**
+     * The immutable positions of an ordered set of property keys.
+     * Adding a key transitions to a child index that is cached, so the elements that add the same keys in the same
+     * order share their indexes.
+     */
+    static final class KeyIndex {
+
+        //Keys added in arbitrary orders must not grow the cached indexes without bound.
+        private static final int MAX_TRANSITIONS = 64;
+        private static final int MAX_INDEXES = 1024;
+
+        private final KeyIndex parent;
+        //The number of cached indexes reached from the root, shared by all of them.
+        private final AtomicInteger numberOfIndexes;
+        private final String[] keys;
+        private final Map<String, Integer> positions;
+        private final ConcurrentHashMap<String, KeyIndex> transitions = new ConcurrentHashMap<>();
+        //The size of the largest index reached from this one, the values array is allocated at this size.
+        private volatile int descendantSize;
+
+        /**
+         * @return a new root, the index of no keys.
+         */
+        static KeyIndex root() {
+            return new KeyIndex(null, null);
+        }
+
+        private KeyIndex(KeyIndex parent, String key) {
+            this.parent = parent;
+            this.numberOfIndexes = parent == null ? new AtomicInteger() : parent.numberOfIndexes;
+            if (parent == null) {
+                this.keys = new String[0];
+                this.positions = Collections.emptyMap();
+            } else {
+                this.keys = Arrays.copyOf(parent.keys, parent.keys.length + 1);
+                this.keys[parent.keys.length] = key;
+                this.positions = new HashMap<>(parent.positions);
+                this.positions.put(key, parent.keys.length);
+                for (KeyIndex ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+                    if (ancestor.descendantSize < this.keys.length) {
+                        ancestor.descendantSize = this.keys.length;
+                    }
+                }
+            }
+            this.descendantSize = this.keys.length;
+        }
+
+        int size() {
+            return this.keys.length;
+        }
+
+        int positionOf(Object key) {
+            Integer position = this.positions.get(key);
+            return position == null ? -1 : position;
+        }
+
+        KeyIndex with(String key) {
+            KeyIndex child = this.transitions.get(key);
+            if (child == null) {
+                child = new KeyIndex(this, key);
+                if (this.transitions.size() < MAX_TRANSITIONS && this.numberOfIndexes.get() < MAX_INDEXES) {
+                    KeyIndex existing = this.transitions.putIfAbsent(key, child);
+                    if (existing != null) {
+                        child = existing;
+                    } else {
+                        this.numberOfIndexes.incrementAndGet();
+                    }
+                }
+            }
+            return child;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
@@ -27,6 +28,7 @@ import org.umlg.sqlg.SqlgPlugin;
 import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
 import org.umlg.sqlg.sql.dialect.SqlDialect;
 import org.umlg.sqlg.sql.parse.GremlinParser;
+import org.umlg.sqlg.sql.parse.QueryPlanCache;
 import org.umlg.sqlg.strategy.*;
 import org.umlg.sqlg.strategy.barrier.*;
 import org.umlg.sqlg.structure.SqlgDataSourceFactory.SqlgDataSource;
@@ -40,12 +42,21 @@ import org.umlg.sqlg.util.SqlgUtil;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
-import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
 import static org.apache.tinkerpop.gremlin.structure.Graph.OptIn;
 import static org.apache.tinkerpop.gremlin.structure.Graph.OptOut;
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
 
 /**
  * Date: 2014/07/12
@@ -182,6 +193,10 @@ public class SqlgGraph implements Graph {
 
     public static final String JDBC_URL = "jdbc.url";
     public static final String DISTRIBUTED = "distributed";
+    public static final String TOPOLOGY_SNAPSHOT_FILE = "topology.snapshot.file";
+    public static final String DISTRIBUTED_POLL_MIN = "distributed.poll.min";
+    public static final String DISTRIBUTED_POLL_MAX = "distributed.poll.max";
+    public static final String TOPOLOGY_AUTONOMOUS = "topology.autonomous";
     public static final String MODE_FOR_STREAM_VERTEX = " mode for streamVertex";
     public static final String TRANSACTION_MUST_BE_IN = "Transaction must be in ";
     private final SqlgDataSource sqlgDataSource;
@@ -189,6 +204,12 @@ public class SqlgGraph implements Graph {
     private final SqlgTransaction sqlgTransaction;
     private Topology topology;
     private GremlinParser gremlinParser;
+    private QueryPlanCache queryPlanCache;
+    private ElementCache elementCache;
+    //The root of the property key indexes per label, see SqlgElementProperties. Cleared on topology changes.
+    private final Map<String, SqlgElementProperties.KeyIndex> propertyKeyIndexes = new ConcurrentHashMap<>();
+    //Executes the parallel queries, created on first use.
+    private ExecutorService queryExecutorService;
     private SqlDialect sqlDialect;
     private String jdbcUrl;
     private ObjectMapper mapper = new ObjectMapper();
@@ -290,10 +311,22 @@ public class SqlgGraph implements Graph {
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        this.elementCache = new ElementCache(
+                this,
+                this.configuration.getInt(ElementCache.ELEMENT_CACHE_SIZE, 0),
+                this.configuration.getList(ElementCache.ELEMENT_CACHE_LABELS).stream().map(Object::toString).collect(Collectors.toList())
+        );
         this.sqlgTransaction = new SqlgTransaction(this, this.configuration.getBoolean("cache.vertices", false));
+        this.queryPlanCache = new QueryPlanCache(this.configuration.getInt(QueryPlanCache.QUERY_PLAN_CACHE_SIZE, QueryPlanCache.DEFAULT_QUERY_PLAN_CACHE_SIZE));
         this.tx().readWrite();
         //Instantiating Topology will create the 'public' schema if it does not exist.
         this.topology = new Topology(this);
+        this.topology.registerListener((topologyInf, oldValue, topologyChangeAction) -> {
+            this.sqlgTransaction.invalidatePreparedStatementCache();
+            this.queryPlanCache.clear();
+            this.elementCache.clear();
+            this.propertyKeyIndexes.clear();
+        });
         this.gremlinParser = new GremlinParser(this);
         if (!this.sqlDialect.supportsSchemas() && !this.getTopology().getSchema(this.sqlDialect.getPublicSchema()).isPresent()) {
             //This is for mariadb. Need to make sure a db called public exist
@@ -319,6 +352,48 @@ public class SqlgGraph implements Graph {
         return gremlinParser;
     }
 
+    public QueryPlanCache getQueryPlanCache() {
+        return this.queryPlanCache;
+    }
+
+    public ElementCache getElementCache() {
+        return this.elementCache;
+    }
+
+    SqlgElementProperties.KeyIndex propertyKeyIndex(boolean vertex, String schema, String table) {
+        return this.propertyKeyIndexes.computeIfAbsent(
+                schema + "." + (vertex ? VERTEX_PREFIX : EDGE_PREFIX) + table,
+                k -> SqlgElementProperties.KeyIndex.root()
+        );
+    }
+
+    /**
+     * The parallel queries run on at most this many threads, each holding a pooled connection.
+     * It is {@link SqlgTransaction#QUERY_PARALLELISM_MAX} capped at the connection pool's maxPoolSize.
+     */
+    public int getMaxQueryParallelism() {
+        int maxPoolSize = this.configuration.getInt("maxPoolSize", 100);
+        int max = this.configuration.getInt(SqlgTransaction.QUERY_PARALLELISM_MAX, 8);
+        return Math.max(1, Math.min(max, maxPoolSize));
+    }
+
+    synchronized ExecutorService getQueryExecutorService() {
+        if (this.queryExecutorService == null) {
+            int threads = getMaxQueryParallelism();
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                    threads,
+                    threads,
+                    60L,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sqlg-query-%d").build()
+            );
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            this.queryExecutorService = threadPoolExecutor;
+        }
+        return this.queryExecutorService;
+    }
+
     public SqlDialect getSqlDialect() {
         return sqlDialect;
     }
@@ -379,6 +454,24 @@ public class SqlgGraph implements Graph {
         return new SqlgVertex(this, true, false, schemaTablePair.getSchema(), schemaTablePair.getTable(), keyValueMapPair);
     }
 
+    /**
+     * Creates a bulk loader that copies vertices and edges on {@link SqlgBulkLoader#BULK_LOAD_PARALLELISM} connections
+     * concurrently. The loader must be closed to write the remaining elements.
+     *
+     * @return a new bulk loader.
+     */
+    public SqlgBulkLoader bulkLoader() {
+        return bulkLoader(this.configuration.getInt(SqlgBulkLoader.BULK_LOAD_PARALLELISM, 4));
+    }
+
+    /**
+     * @param parallelism the number of connections that copy concurrently.
+     * @return a new bulk loader.
+     */
+    public SqlgBulkLoader bulkLoader(int parallelism) {
+        return new SqlgBulkLoader(this, parallelism, this.configuration.getInt(SqlgBulkLoader.BULK_LOAD_CHUNK_SIZE, 10_000));
+    }
+
     public void streamVertex(String label) {
         this.streamVertex(label, new LinkedHashMap<>());
     }
@@ -500,7 +593,7 @@ public class SqlgGraph implements Graph {
 
     private <T extends Element> Iterator<T> createElementIterator(final Class<T> clazz, final Object... ids) {
         if (0 == ids.length) {
-            return (Iterator<T>) elements(Vertex.class.isAssignableFrom(clazz), Collections.EMPTY_LIST).iterator();
+            return SqlgElementIterator.all(this, Vertex.class.isAssignableFrom(clazz));
         } else {
             if (clazz.isAssignableFrom(ids[0].getClass())) {
                 // based on the first item assume all vertices in the argument list
@@ -514,8 +607,7 @@ public class SqlgGraph implements Graph {
                     throw Graph.Exceptions.idArgsMustBeEitherIdOrElement();
 
                 List<RecordId> recordIds = RecordId.from(ids);
-                Iterable<T> elementIterable = elements(Vertex.class.isAssignableFrom(clazz), recordIds);
-                return elementIterable.iterator();
+                return SqlgElementIterator.of(this, Vertex.class.isAssignableFrom(clazz), recordIds);
             }
         }
     }
@@ -535,7 +627,13 @@ public class SqlgGraph implements Graph {
         logger.debug(String.format("Closing graph. Connection url = %s, maxPoolSize = %d", this.configuration.getString(JDBC_URL), configuration.getInt("maxPoolSize", 100)));
         if (this.tx().isOpen())
             this.tx().close();
+        synchronized (this) {
+            if (this.queryExecutorService != null) {
+                this.queryExecutorService.shutdownNow();
+            }
+        }
         this.topology.close();
+        this.sqlgTransaction.closePreparedStatementCaches();
         this.sqlgDataSource.close();
     }
 
@@ -1095,45 +1193,154 @@ public class SqlgGraph implements Graph {
         vertexLabel.ensureIndexExists(IndexType.NON_UNIQUE, properties);
     }
 
+    /**
+     * Counts the rows of all the vertex tables. If the transaction's query parallelism, see
+     * {@link SqlgTransaction#setQueryParallelism(int)}, is greater than 1 and the transaction has not written to the graph
+     * the tables are counted concurrently on pooled connections.
+     */
     public long countVertices() {
         this.tx().readWrite();
-        return countElements(true);
+        return countElements(elementTables(true));
     }
 
+    /**
+     * Counts the rows of all the edge tables, see {@link #countVertices()}.
+     */
     public long countEdges() {
         this.tx().readWrite();
-        return countElements(false);
+        return countElements(elementTables(false));
     }
 
-    private long countElements(boolean returnVertices) {
-        long count = 0;
-        Set<String> tables = this.getTopology().getAllTables().keySet();
-        for (String table : tables) {
+    /**
+     * Estimates the number of vertices from the db's table statistics instead of counting the rows.
+     * Tables without statistics, or all of them if the dialect has none, are counted as by {@link #countVertices()}.
+     * See {@link SqlDialect#sqlToEstimateRowCounts()}.
+     */
+    public long estimateVertexCount() {
+        this.tx().readWrite();
+        return estimateElements(elementTables(true));
+    }
+
+    /**
+     * Estimates the number of edges, see {@link #estimateVertexCount()}.
+     */
+    public long estimateEdgeCount() {
+        this.tx().readWrite();
+        return estimateElements(elementTables(false));
+    }
+
+    private List<SchemaTable> elementTables(boolean returnVertices) {
+        List<SchemaTable> schemaTables = new ArrayList<>();
+        for (String table : this.getTopology().getAllTables().keySet()) {
             SchemaTable schemaTable = SchemaTable.from(this, table);
             if (returnVertices ? schemaTable.isVertexTable() : !schemaTable.isVertexTable()) {
-                StringBuilder sql = new StringBuilder("SELECT COUNT(1) FROM ");
-                sql.append(getSqlDialect().maybeWrapInQoutes(schemaTable.getSchema()));
-                sql.append(".");
-                sql.append(getSqlDialect().maybeWrapInQoutes(schemaTable.getTable()));
-                if (this.getSqlDialect().needsSemicolon()) {
-                    sql.append(";");
-                }
-                Connection conn = this.tx().getConnection();
-                if (logger.isDebugEnabled()) {
-                    logger.debug(sql.toString());
-                }
-                try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
-                    ResultSet rs = preparedStatement.executeQuery();
-                    rs.next();
-                    count += rs.getLong(1);
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
+                schemaTables.add(schemaTable);
+            }
+        }
+        return schemaTables;
+    }
+
+    private long estimateElements(List<SchemaTable> schemaTables) {
+        if (this.tx().isInBatchMode()) {
+            this.tx().flush();
+        }
+        this.tx().flushPropertyUpdates();
+        String sql = getSqlDialect().sqlToEstimateRowCounts();
+        if (sql == null) {
+            return countElements(schemaTables);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        Map<SchemaTable, Long> estimates = new HashMap<>();
+        Connection conn = this.tx().getConnection();
+        try (Statement statement = conn.createStatement()) {
+            ResultSet rs = statement.executeQuery(sql);
+            while (rs.next()) {
+                estimates.put(SchemaTable.of(rs.getString(1), rs.getString(2)), rs.getLong(3));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        long count = 0;
+        List<SchemaTable> notEstimated = new ArrayList<>();
+        for (SchemaTable schemaTable : schemaTables) {
+            Long estimate = estimates.get(schemaTable);
+            if (estimate != null && estimate >= 0) {
+                count += estimate;
+            } else {
+                notEstimated.add(schemaTable);
+            }
+        }
+        return count + countElements(notEstimated);
+    }
+
+    private long countElements(List<SchemaTable> schemaTables) {
+        if (this.tx().isInBatchMode()) {
+            this.tx().flush();
+        }
+        this.tx().flushPropertyUpdates();
+        int parallelism = Math.min(Math.min(this.tx().getQueryParallelism(), getMaxQueryParallelism()), schemaTables.size());
+        //the pooled connections do not see the transaction's own writes
+        if (parallelism <= 1 || this.tx().hasWrites()) {
+            long count = 0;
+            Connection conn = this.tx().getConnection();
+            for (SchemaTable schemaTable : schemaTables) {
+                count += countTable(conn, schemaTable);
+            }
+            return count;
+        }
+        //Every task counts the tables it takes from the queue on its own pooled connection.
+        Queue<SchemaTable> queue = new ConcurrentLinkedQueue<>(schemaTables);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            futures.add(getQueryExecutorService().submit(() -> {
+                long count = 0;
+                try (Connection conn = getConnection()) {
+                    SchemaTable schemaTable;
+                    while ((schemaTable = queue.poll()) != null) {
+                        count += countTable(conn, schemaTable);
+                    }
                 }
+                return count;
+            }));
+        }
+        long count = 0;
+        try {
+            for (Future<Long> future : futures) {
+                count += future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            queue.clear();
         }
         return count;
     }
 
+    private long countTable(Connection conn, SchemaTable schemaTable) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(1) FROM ");
+        sql.append(getSqlDialect().maybeWrapInQoutes(schemaTable.getSchema()));
+        sql.append(".");
+        sql.append(getSqlDialect().maybeWrapInQoutes(schemaTable.getTable()));
+        if (this.getSqlDialect().needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            ResultSet rs = preparedStatement.executeQuery();
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 //    public boolean isImplementForeignKeys() {
 //        return this.implementForeignKeys;
 //    }
@@ -1159,103 +1366,6 @@ public class SqlgGraph implements Graph {
         return null;
     }
 
-    private <T extends Element> Iterable<T> elements(boolean returnVertices, final List<RecordId> elementIds) {
-        List<T> sqlgElements = new ArrayList<>();
-        if (elementIds.size() > 0) {
-            Map<SchemaTable, List<Long>> distinctTableIdMap = RecordId.normalizeIds(elementIds);
-            for (Map.Entry<SchemaTable, List<Long>> schemaTableListEntry : distinctTableIdMap.entrySet()) {
-                SchemaTable schemaTable = schemaTableListEntry.getKey();
-                String tableName = (returnVertices ? VERTEX_PREFIX : EDGE_PREFIX) + schemaTable.getTable();
-                if (this.getTopology().getAllTables().containsKey(schemaTable.getSchema() + "." + tableName)) {
-                    List<Long> schemaTableIds = schemaTableListEntry.getValue();
-                    StringBuilder sql = new StringBuilder("SELECT * FROM ");
-                    sql.append(this.sqlDialect.maybeWrapInQoutes(schemaTable.getSchema()));
-                    sql.append(".");
-                    String table = "";
-                    if (returnVertices) {
-                        table += VERTEX_PREFIX;
-                    } else {
-                        table += EDGE_PREFIX;
-                    }
-                    table += schemaTable.getTable();
-                    sql.append(this.sqlDialect.maybeWrapInQoutes(table));
-                    sql.append(" WHERE ");
-                    sql.append(this.sqlDialect.maybeWrapInQoutes("ID"));
-                    sql.append(" IN (");
-                    int count = 1;
-                    for (Long id : schemaTableIds) {
-                        sql.append(id.toString());
-                        if (count++ < schemaTableIds.size()) {
-                            sql.append(",");
-                        }
-                    }
-                    sql.append(")");
-                    if (this.getSqlDialect().needsSemicolon()) {
-                        sql.append(";");
-                    }
-                    Connection conn = this.tx().getConnection();
-                    if (logger.isDebugEnabled()) {
-                        logger.debug(sql.toString());
-                    }
-                    try (Statement statement = conn.createStatement()) {
-                        statement.execute(sql.toString());
-                        ResultSet resultSet = statement.getResultSet();
-                        while (resultSet.next()) {
-                            long id = resultSet.getLong("ID");
-                            SqlgElement sqlgElement;
-                            if (returnVertices) {
-                                sqlgElement = SqlgVertex.of(this, id, schemaTable.getSchema(), schemaTable.getTable());
-                            } else {
-                                sqlgElement = new SqlgEdge(this, id, schemaTable.getSchema(), schemaTable.getTable());
-                            }
-                            sqlgElement.loadResultSet(resultSet);
-                            sqlgElements.add((T) sqlgElement);
-                        }
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            }
-        } else {
-            //TODO use a union query
-            Set<String> tables = this.getTopology().getAllTables().keySet();
-            for (String table : tables) {
-                SchemaTable schemaTable = SchemaTable.from(this, table);
-                if (returnVertices ? schemaTable.isVertexTable() : !schemaTable.isVertexTable()) {
-                    StringBuilder sql = new StringBuilder("SELECT * FROM ");
-                    sql.append(sqlDialect.maybeWrapInQoutes(schemaTable.getSchema()));
-                    sql.append(".");
-                    sql.append(sqlDialect.maybeWrapInQoutes(schemaTable.getTable()));
-                    if (this.getSqlDialect().needsSemicolon()) {
-                        sql.append(";");
-                    }
-                    Connection conn = this.tx().getConnection();
-                    if (logger.isDebugEnabled()) {
-                        logger.debug(sql.toString());
-                    }
-                    try (Statement statement = conn.createStatement()) {
-                        statement.execute(sql.toString());
-                        ResultSet resultSet = statement.getResultSet();
-                        while (resultSet.next()) {
-                            long id = resultSet.getLong("ID");
-                            SqlgElement sqlgElement;
-                            if (returnVertices) {
-                                sqlgElement = SqlgVertex.of(this, id, schemaTable.getSchema(), schemaTable.getTable().substring(VERTEX_PREFIX.length()));
-                            } else {
-                                sqlgElement = new SqlgEdge(this, id, schemaTable.getSchema(), schemaTable.getTable().substring(EDGE_PREFIX.length()));
-                            }
-                            sqlgElement.loadResultSet(resultSet);
-                            sqlgElements.add((T) sqlgElement);
-                        }
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            }
-        }
-        return sqlgElements;
-    }
-
     public Connection getConnection() throws SQLException {
         return this.sqlgDataSource.getDatasource().getConnection();
     }
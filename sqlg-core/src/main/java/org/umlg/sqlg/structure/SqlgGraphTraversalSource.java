@@ -11,6 +11,15 @@ import org.apache.tinkerpop.gremlin.structure.Graph;
 @SuppressWarnings("ALL")
 public class SqlgGraphTraversalSource extends GraphTraversalSource {
 
+    /**
+     * The side effect key that overrides the transaction's fetch size for a single traversal.
+     */
+    public static final String FETCH_SIZE = "sqlg.fetchSize";
+    /**
+     * The side effect key that overrides the transaction's query parallelism for a single traversal.
+     */
+    public static final String QUERY_PARALLELISM = "sqlg.queryParallelism";
+
     public SqlgGraphTraversalSource(Graph graph) {
         super(graph, TraversalStrategies.GlobalCache.getStrategies(graph.getClass()));
     }
@@ -18,4 +27,24 @@ public class SqlgGraphTraversalSource extends GraphTraversalSource {
     public SqlgGraphTraversalSource(Graph graph, TraversalStrategies traversalStrategies) {
         super(graph, traversalStrategies);
     }
+
+    /**
+     * Overrides {@link SqlgTransaction#getFetchSize()} for traversals spawned from the returned source.
+     * This is the same as {@code withSideEffect("sqlg.fetchSize", fetchSize)}.
+     *
+     * @param fetchSize The number of rows to fetch per round trip, 0 for the jdbc driver's default.
+     */
+    public SqlgGraphTraversalSource withFetchSize(int fetchSize) {
+        return (SqlgGraphTraversalSource) this.withSideEffect(FETCH_SIZE, fetchSize);
+    }
+
+    /**
+     * Overrides {@link SqlgTransaction#getQueryParallelism()} for traversals spawned from the returned source.
+     * This is the same as {@code withSideEffect("sqlg.queryParallelism", queryParallelism)}.
+     *
+     * @param queryParallelism The number of distinct queries to execute concurrently, 1 for sequential execution.
+     */
+    public SqlgGraphTraversalSource withQueryParallelism(int queryParallelism) {
+        return (SqlgGraphTraversalSource) this.withSideEffect(QUERY_PARALLELISM, queryParallelism);
+    }
 }
@@ -0,0 +1,264 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.sql.parse.AliasMapHolder;
+import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Executes the distinct query stacks of a step's root {@link SchemaTableTree}s concurrently, each on its own pooled
+ * connection. The sql of all the stacks is constructed up front on the calling thread as it populates the root's
+ * column alias maps. The alias maps of a stack are restored when its result set is returned, the results are returned
+ * in the order of the query stacks.
+ * At most parallelism connections are in use, the next query is started when a result set is closed.
+ * <p>
+ * If the dialect supports it the transaction's snapshot is exported and imported by every parallel query so that
+ * they all read the same committed data.
+ * <p>
+ * Date: 2018/01/25
+ */
+class SqlgParallelQueries implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlgParallelQueries.class);
+
+    private final SqlgGraph sqlgGraph;
+    private final int parallelism;
+    private final int fetchSize;
+    private final String snapshotId;
+    private final Iterator<ParallelQuery> queries;
+    private final LinkedList<ParallelQuery> started = new LinkedList<>();
+    private ParallelQuery current;
+
+    /**
+     * @param distinctQueryStacks the root {@link SchemaTableTree} and distinct query stacks in the order of execution.
+     */
+    SqlgParallelQueries(SqlgGraph sqlgGraph, List<Pair<SchemaTableTree, LinkedList<SchemaTableTree>>> distinctQueryStacks, int parallelism, int fetchSize) {
+        Preconditions.checkArgument(parallelism > 1, "parallelism must be > 1, found %s", parallelism);
+        this.sqlgGraph = sqlgGraph;
+        this.parallelism = parallelism;
+        this.fetchSize = fetchSize;
+        if (sqlgGraph.tx().isInBatchMode()) {
+            sqlgGraph.tx().flush();
+        }
+        sqlgGraph.tx().flushPropertyUpdates();
+        List<ParallelQuery> parallelQueries = new ArrayList<>();
+        for (Pair<SchemaTableTree, LinkedList<SchemaTableTree>> distinctQueryStack : distinctQueryStacks) {
+            SchemaTableTree rootSchemaTableTree = distinctQueryStack.getLeft();
+            rootSchemaTableTree.resetColumnAliasMaps();
+            String sql = rootSchemaTableTree.constructSql(distinctQueryStack.getRight());
+            parallelQueries.add(new ParallelQuery(rootSchemaTableTree, distinctQueryStack.getRight(), sql, rootSchemaTableTree.copyColumnAliasMaps()));
+            rootSchemaTableTree.resetColumnAliasMaps();
+        }
+        this.queries = parallelQueries.iterator();
+        this.snapshotId = exportSnapshot();
+        sqlgGraph.tx().addParallelQueries(this);
+        startQueries();
+    }
+
+    boolean hasNext() {
+        return !this.started.isEmpty() || this.queries.hasNext();
+    }
+
+    /**
+     * Waits for the next query's result set and restores the column alias maps of its query stack.
+     * The previous result set must be closed via {@link #closeCurrent()}.
+     */
+    Triple<ResultSet, ResultSetMetaData, PreparedStatement> next() {
+        Preconditions.checkState(this.current == null, "The current parallel query must be closed before the next one is read.");
+        startQueries();
+        this.current = this.started.removeFirst();
+        this.current.rootSchemaTableTree.restoreColumnAliasMaps(this.current.aliasMapHolder);
+        try {
+            this.current.resultSet = this.current.future.get();
+            return Triple.of(this.current.resultSet, this.current.resultSet.getMetaData(), this.current.preparedStatement);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    SchemaTableTree currentRootSchemaTableTree() {
+        return this.current.rootSchemaTableTree;
+    }
+
+    LinkedList<SchemaTableTree> currentDistinctQueryStack() {
+        return this.current.distinctQueryStack;
+    }
+
+    /**
+     * Closes the current result set, returns its connection to the pool and starts the next query.
+     */
+    void closeCurrent() {
+        if (this.current != null) {
+            try {
+                this.current.close();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } finally {
+                this.current = null;
+            }
+            if (hasNext()) {
+                startQueries();
+            } else {
+                this.sqlgGraph.tx().removeParallelQueries(this);
+            }
+        }
+    }
+
+    /**
+     * Cancels the queries that are still executing and returns all connections to the pool.
+     * Called when the transaction ends before all the results have been read.
+     */
+    @Override
+    public void close() {
+        if (this.current != null) {
+            this.started.addFirst(this.current);
+            this.current = null;
+        }
+        for (ParallelQuery parallelQuery : this.started) {
+            parallelQuery.cancel();
+        }
+        this.started.clear();
+        this.sqlgGraph.tx().removeParallelQueries(this);
+    }
+
+    private void startQueries() {
+        while ((this.current != null ? 1 : 0) + this.started.size() < this.parallelism && this.queries.hasNext()) {
+            ParallelQuery parallelQuery = this.queries.next();
+            try {
+                parallelQuery.start();
+            } catch (SQLException e) {
+                parallelQuery.cancel();
+                throw new RuntimeException(e);
+            }
+            this.started.add(parallelQuery);
+        }
+    }
+
+    private String exportSnapshot() {
+        String sql = this.sqlgGraph.getSqlDialect().sqlToExportSnapshot();
+        if (sql == null || !this.sqlgGraph.getConfiguration().getBoolean(SqlgTransaction.QUERY_PARALLELISM_SNAPSHOT, true)) {
+            return null;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (Statement statement = conn.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(sql);
+            Preconditions.checkState(resultSet.next(), "%s returned no snapshot", sql);
+            return resultSet.getString(1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private class ParallelQuery {
+
+        private final SchemaTableTree rootSchemaTableTree;
+        private final LinkedList<SchemaTableTree> distinctQueryStack;
+        private final String sql;
+        private final AliasMapHolder aliasMapHolder;
+        private Connection connection;
+        private int transactionIsolation = -1;
+        private PreparedStatement preparedStatement;
+        private Future<ResultSet> future;
+        private ResultSet resultSet;
+
+        private ParallelQuery(SchemaTableTree rootSchemaTableTree, LinkedList<SchemaTableTree> distinctQueryStack, String sql, AliasMapHolder aliasMapHolder) {
+            this.rootSchemaTableTree = rootSchemaTableTree;
+            this.distinctQueryStack = distinctQueryStack;
+            this.sql = sql;
+            this.aliasMapHolder = aliasMapHolder;
+        }
+
+        private void start() throws SQLException {
+            SqlgGraph sqlgGraph = SqlgParallelQueries.this.sqlgGraph;
+            SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
+            if (this.distinctQueryStack.peekFirst().getStepType() != SchemaTableTree.STEP_TYPE.GRAPH_STEP) {
+                Preconditions.checkState(!this.distinctQueryStack.peekFirst().getParentIdsAndIndexes().isEmpty());
+            }
+            this.connection = sqlgGraph.getConnection();
+            //Postgresql only streams the result set with a fetch size when auto commit is off.
+            this.connection.setAutoCommit(false);
+            if (SqlgParallelQueries.this.snapshotId != null) {
+                this.transactionIsolation = this.connection.getTransactionIsolation();
+                this.connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                try (Statement statement = this.connection.createStatement()) {
+                    statement.execute(sqlDialect.sqlToImportSnapshot(SqlgParallelQueries.this.snapshotId));
+                }
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug(this.sql);
+            }
+            this.preparedStatement = this.connection.prepareStatement(this.sql);
+            SqlgUtil.setParametersOnStatement(sqlgGraph, this.distinctQueryStack, this.preparedStatement, 1);
+            this.preparedStatement.setFetchSize(SqlgParallelQueries.this.fetchSize);
+            Callable<ResultSet> executeQuery = this.preparedStatement::executeQuery;
+            this.future = sqlgGraph.getQueryExecutorService().submit(executeQuery);
+        }
+
+        private void cancel() {
+            if (this.future != null && !this.future.isDone()) {
+                try {
+                    this.preparedStatement.cancel();
+                } catch (SQLException e) {
+                    logger.debug("error cancelling parallel query", e);
+                }
+            }
+            if (this.future != null) {
+                try {
+                    this.resultSet = this.future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    logger.debug("cancelled parallel query failed", e.getCause());
+                }
+            }
+            try {
+                close();
+            } catch (SQLException e) {
+                logger.debug("error closing parallel query", e);
+            }
+        }
+
+        private void close() throws SQLException {
+            try {
+                if (this.resultSet != null) {
+                    this.resultSet.close();
+                }
+                if (this.preparedStatement != null) {
+                    this.preparedStatement.close();
+                }
+            } finally {
+                if (this.connection != null) {
+                    try {
+                        this.connection.rollback();
+                        this.connection.setAutoCommit(true);
+                        if (this.transactionIsolation != -1) {
+                            this.connection.setTransactionIsolation(this.transactionIsolation);
+                        }
+                    } finally {
+                        this.connection.close();
+                        this.connection = null;
+                    }
+                }
+            }
+        }
+    }
+}
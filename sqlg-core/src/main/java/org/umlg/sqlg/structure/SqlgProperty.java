@@ -59,12 +59,18 @@ public class SqlgProperty<V> implements Property<V>, Serializable {
     @Override
     public void remove() {
         this.element.properties.remove(this.key);
+        this.sqlgGraph.tx().written(this.element.getSchemaTablePrefixed());
+        if (this.element instanceof SqlgVertex) {
+            this.sqlgGraph.tx().elementCacheWrite(SchemaTable.of(this.element.schema, this.element.table), this.element.recordId);
+        }
         boolean elementInInsertedCache = false;
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
             elementInInsertedCache = this.sqlgGraph.tx().getBatchManager().removeProperty(this, key);
         }
 
         if (!elementInInsertedCache) {
+            //a buffered update of the property must not overwrite the null
+            this.sqlgGraph.tx().flushPropertyUpdates();
             PropertyType propertyType = PropertyType.from(value);
             String[] postfixes = propertyType.getPostFixes();
 
@@ -90,14 +90,19 @@ class SqlgStartupManager {
             } else {
                 // make sure the index edge index property exist, this if for upgrading from 1.3.4 to 1.4.0
                 upgradeIndexEdgeSequenceToExist();
+                // make sure the index valid property exist, this is for upgrading to online indexes
+                upgradeIndexValidToExist();
+                // make sure the vertex and edge partition properties exist, this is for upgrading to partitioned labels
+                upgradePartitionColumnsToExist();
                 //make sure the sqlg_schema.graph exists.
                 String version = getBuildVersion();
                 String oldVersion = createOrUpdateGraph(version);
                 if (oldVersion==null || !oldVersion.equals(version)) {
                     updateTopology(oldVersion);
                 }
-                this.sqlgGraph.tx().commit();
             }
+            //the sqlg_schema.graph row must be committed before cacheTopology, a distributed graph's topology lock locks it.
+            this.sqlgGraph.tx().commit();
             cacheTopology();
             if (this.sqlgGraph.configuration().getBoolean("validate.topology", false)) {
                 validateTopology();
@@ -201,6 +206,45 @@ class SqlgStartupManager {
         }
     }
 
+    private void upgradeIndexValidToExist() {
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try {
+            DatabaseMetaData metadata = conn.getMetaData();
+            String catalog = null;
+            String schemaPattern = "sqlg_schema";
+            @SuppressWarnings("ConstantConditions")
+            List<Triple<String, Integer, String>> columns = this.sqlDialect.getTableColumns(metadata, catalog, schemaPattern, "V_index", SQLG_SCHEMA_INDEX_VALID);
+            if (columns.isEmpty()) {
+                try (Statement statement = conn.createStatement()) {
+                    String sql = this.sqlDialect.sqlgAddIndexValidColumn();
+                    statement.execute(sql);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error upgrading index to include a valid column. Error swallowed.", e);
+        }
+    }
+
+    private void upgradePartitionColumnsToExist() {
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try {
+            DatabaseMetaData metadata = conn.getMetaData();
+            String catalog = null;
+            String schemaPattern = "sqlg_schema";
+            @SuppressWarnings("ConstantConditions")
+            List<Triple<String, Integer, String>> columns = this.sqlDialect.getTableColumns(metadata, catalog, schemaPattern, "V_vertex", SQLG_SCHEMA_PARTITION_TYPE);
+            if (columns.isEmpty()) {
+                try (Statement statement = conn.createStatement()) {
+                    for (String sql : this.sqlDialect.sqlgAddPartitionColumns()) {
+                        statement.execute(sql);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error upgrading vertex and edge labels to include the partition columns. Error swallowed.", e);
+        }
+    }
+
     @SuppressWarnings("ConstantConditions")
     private void loadSqlgSchemaFromInformationSchema() {
         Connection conn = this.sqlgGraph.tx().getConnection();
@@ -219,6 +263,8 @@ class SqlgStartupManager {
                 TopologyManager.addSchema(this.sqlgGraph, schemaName);
             }
             Map<String, Set<IndexRef>> indices = this.sqlDialect.extractIndices(conn, catalog, schemaPattern);
+            //read all the columns up front, one catalog query per table is too slow for large topologies
+            Map<String, List<Triple<String, Integer, String>>> allTableColumns = this.sqlDialect.getAllTableColumns(metadata);
 
             //load the vertices
             List<Triple<String, String, String>> vertexTables = this.sqlDialect.getVertexTables(metadata);
@@ -239,7 +285,7 @@ class SqlgStartupManager {
                     continue;
                 }
                 Map<String, PropertyType> columns = new ConcurrentHashMap<>();
-                List<Triple<String, Integer, String>> metaDatas = this.sqlDialect.getTableColumns(metadata, tblCat, schema, table, null);
+                List<Triple<String, Integer, String>> metaDatas = allTableColumns.getOrDefault(schema + "." + table, Collections.emptyList());
                 ListIterator<Triple<String, Integer, String>> metaDataIter = metaDatas.listIterator();
                 while (metaDataIter.hasNext()) {
                     Triple<String, Integer, String> tripple = metaDataIter.next();
@@ -286,7 +332,7 @@ class SqlgStartupManager {
                 Map<SchemaTable, MutablePair<SchemaTable, SchemaTable>> inOutSchemaTableMap = new HashMap<>();
                 Map<String, PropertyType> columns = Collections.emptyMap();
                 //get the columns
-                List<Triple<String, Integer, String>> tableColumns = this.sqlDialect.getTableColumns(metadata, edgCat, schema, table, null);
+                List<Triple<String, Integer, String>> tableColumns = allTableColumns.getOrDefault(schema + "." + table, Collections.emptyList());
                 SchemaTable edgeSchemaTable = SchemaTable.of(schema, table);
                 boolean edgeAdded = false;
                 for (Triple<String, Integer, String> tableColumn : tableColumns) {
@@ -363,7 +409,7 @@ class SqlgStartupManager {
                 Map<String, PropertyType> columns = new HashMap<>();
                 //get the columns
 
-                List<Triple<String, Integer, String>> metaDatas = this.sqlDialect.getTableColumns(metadata, edgCat, schema, table, null);
+                List<Triple<String, Integer, String>> metaDatas = allTableColumns.getOrDefault(schema + "." + table, Collections.emptyList());
                 ListIterator<Triple<String, Integer, String>> metaDataIter = metaDatas.listIterator();
                 while (metaDataIter.hasNext()) {
                     Triple<String, Integer, String> tripple = metaDataIter.next();
@@ -8,10 +8,18 @@ import org.apache.tinkerpop.gremlin.structure.util.TransactionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
+import org.umlg.sqlg.sql.dialect.SqlSchemaChangeDialect;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is a singleton. Instantiated and owned by SqlGraph.
@@ -24,7 +32,46 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
     private static final String BATCH_MODE_NOT_SUPPORTED = "Batch mode not supported!";
     @SuppressWarnings("WeakerAccess")
     public static final String QUERY_LAZY = "query.lazy";
-    
+    /**
+     * The number of rows fetched per round trip when iterating a query's result set. 0 leaves it to the jdbc driver.
+     * On postgresql a positive fetch size makes the driver use a server side cursor instead of reading the whole
+     * result set into memory.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String QUERY_FETCH_SIZE = "query.fetchSize";
+    /**
+     * The number of distinct query stacks of a traversal step that are executed concurrently, each on its own pooled
+     * connection. 1, the default, executes them one after the other on the transaction's connection.
+     * The pooled connections do not see the transaction's uncommitted changes, only use it for read only transactions.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String QUERY_PARALLELISM = "query.parallelism";
+    /**
+     * The number of threads that execute the parallel queries of the graph, shared by all its transactions.
+     * It also caps the query parallelism of a transaction or traversal. Defaults to 8 and never exceeds the connection
+     * pool's maxPoolSize.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String QUERY_PARALLELISM_MAX = "query.parallelism.max";
+    /**
+     * If true, the default, and the dialect supports it the parallel queries read the transaction's exported snapshot.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String QUERY_PARALLELISM_SNAPSHOT = "query.parallelism.snapshot";
+    /**
+     * If true property updates outside of batch mode are buffered per element and label instead of being executed one
+     * by one. The buffered updates are flushed as one multi row update per label before the transaction's next query
+     * and before commit. Defaults to false.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String UPDATE_WRITE_BEHIND = "update.writeBehind";
+    /**
+     * The maximum number of query prepared statements cached per physical connection. 0 disables the cache.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String PREPARED_STATEMENT_CACHE_SIZE = "cache.preparedStatement.size";
+    private static final int DEFAULT_PREPARED_STATEMENT_CACHE_SIZE = 100;
+
     private SqlgGraph sqlgGraph;
     private BeforeCommit beforeCommitFunction;
     private AfterCommit afterCommitFunction;
@@ -34,12 +81,22 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
 
     private final ThreadLocal<TransactionCache> threadLocalTx = ThreadLocal.withInitial(() -> null);
 
-    private final ThreadLocal<PreparedStatementCache> threadLocalPreparedStatementTx = ThreadLocal.withInitial(PreparedStatementCache::new);
+    //The cache of the physical connection the current thread's transaction is using.
+    private final ThreadLocal<PreparedStatementCache> threadLocalPreparedStatementTx = new ThreadLocal<>();
+    //The pool hands a physical connection to one transaction at a time, its cache outlives the transaction.
+    private final Map<Connection, PreparedStatementCache> preparedStatementCaches = new IdentityHashMap<>();
+    private final int preparedStatementCacheSize;
+
+    //Incremented on every topology change. Cached prepared statements from an older version are discarded.
+    private final AtomicLong topologyVersion = new AtomicLong();
+    private final AtomicLong preparedStatementCacheHits = new AtomicLong();
+    private final AtomicLong preparedStatementCacheMisses = new AtomicLong();
 
     SqlgTransaction(Graph sqlgGraph, boolean cacheVertices) {
         super(sqlgGraph);
         this.sqlgGraph = (SqlgGraph) sqlgGraph;
         this.cacheVertices = cacheVertices;
+        this.preparedStatementCacheSize = this.sqlgGraph.getConfiguration().getInt(PREPARED_STATEMENT_CACHE_SIZE, DEFAULT_PREPARED_STATEMENT_CACHE_SIZE);
     }
 
     @Override
@@ -60,6 +117,10 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
                 } else {
                     this.threadLocalTx.set(TransactionCache.of(this.cacheVertices, connection, lazy));
                 }
+                this.threadLocalTx.get().setFetchSize(this.sqlgGraph.getConfiguration().getInt(QUERY_FETCH_SIZE, 0));
+                this.threadLocalTx.get().setQueryParallelism(this.sqlgGraph.getConfiguration().getInt(QUERY_PARALLELISM, 1));
+                this.threadLocalTx.get().setWriteBehind(this.sqlgGraph.getConfiguration().getBoolean(UPDATE_WRITE_BEHIND, false));
+                this.threadLocalTx.get().setElementCacheVersion(this.sqlgGraph.getElementCache().getVersion());
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -75,16 +136,30 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
             if (supportsBatchMode() && this.threadLocalTx.get().getBatchManager().isInBatchMode()) {
                 getBatchManager().flush();
             }
+            flushPropertyUpdates();
             Connection connection = this.threadLocalTx.get().getConnection();
             if (this.beforeCommitFunction != null) {
                 this.beforeCommitFunction.doBeforeCommit();
             }
+            Set<RecordId> elementCacheInvalidatedVertices = this.threadLocalTx.get().getElementCacheInvalidatedVertices();
+            Set<SchemaTable> elementCacheInvalidatedLabels = this.threadLocalTx.get().getElementCacheInvalidatedLabels();
+            boolean invalidateElementCache = !elementCacheInvalidatedVertices.isEmpty() || !elementCacheInvalidatedLabels.isEmpty();
+            if (invalidateElementCache && this.sqlgGraph.configuration().getBoolean(SqlgGraph.DISTRIBUTED, false)) {
+                //The notifications are delivered to the other graphs on commit.
+                ((SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect()).notifyElementCacheInvalidation(
+                        this.sqlgGraph,
+                        ElementCache.toNotifications(elementCacheInvalidatedVertices, elementCacheInvalidatedLabels, ElementCache.MAX_NOTIFICATION_LENGTH)
+                );
+            }
             connection.commit();
+            if (invalidateElementCache) {
+                this.sqlgGraph.getElementCache().invalidate(elementCacheInvalidatedVertices, elementCacheInvalidatedLabels);
+            }
             connection.setAutoCommit(true);
             if (this.afterCommitFunction != null) {
                 this.afterCommitFunction.doAfterCommit();
             }
-            this.threadLocalPreparedStatementTx.get().close();
+            closePreparedStatementCache();
             connection.close();
         } catch (Exception e) {
             this.rollback();
@@ -98,7 +173,6 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
                 this.threadLocalTx.get().clear();
                 this.threadLocalTx.remove();
             }
-            this.threadLocalPreparedStatementTx.remove();
         }
     }
 
@@ -126,7 +200,7 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
             for (ElementPropertyRollback elementPropertyRollback : threadLocalTx.get().getElementPropertyRollback().keySet()) {
                 elementPropertyRollback.clearProperties();
             }
-            this.threadLocalPreparedStatementTx.get().close();
+            closePreparedStatementCache();
             connection.close();
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -134,8 +208,8 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
             if (isOpen()) {
                 this.threadLocalTx.get().clear();
                 this.threadLocalTx.remove();
-                this.threadLocalPreparedStatementTx.remove();
             }
+            this.threadLocalPreparedStatementTx.remove();
         }
     }
 
@@ -143,6 +217,7 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         if (supportsBatchMode()) {
             readWrite();
             this.threadLocalTx.get().getBatchManager().batchModeOn(BatchManager.BatchModeType.STREAMING_WITH_LOCK);
+            written();
         } else {
             throw new IllegalStateException(BATCH_MODE_NOT_SUPPORTED);
         }
@@ -152,6 +227,7 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         if (supportsBatchMode()) {
             readWrite();
             this.threadLocalTx.get().getBatchManager().batchModeOn(BatchManager.BatchModeType.STREAMING);
+            written();
         } else {
             throw new IllegalStateException(BATCH_MODE_NOT_SUPPORTED);
         }
@@ -183,6 +259,7 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         if (supportsBatchMode()) {
             readWrite();
             this.threadLocalTx.get().getBatchManager().batchModeOn(BatchManager.BatchModeType.NORMAL);
+            written();
         } else {
             throw new IllegalStateException(BATCH_MODE_NOT_SUPPORTED);
         }
@@ -239,6 +316,127 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         }
     }
 
+    /**
+     * @return true if property updates are buffered and flushed before the next query or commit.
+     * Batch mode takes precedence, its own caches hold the updates.
+     */
+    public boolean isInWriteBehindMode() {
+        return supportsBatchMode() && isOpen() && this.threadLocalTx.get().isWriteBehind() && !this.threadLocalTx.get().getBatchManager().isInBatchMode();
+    }
+
+    /**
+     * Sets whether this transaction's property updates are buffered and flushed before the next query or commit.
+     * Turning it off flushes the buffered updates.
+     * Dialects without batch mode support always execute the updates immediately.
+     *
+     * @param writeBehind true to buffer the property updates.
+     */
+    public void setWriteBehind(boolean writeBehind) {
+        readWrite();
+        if (!writeBehind) {
+            flushPropertyUpdates();
+        }
+        this.threadLocalTx.get().setWriteBehind(writeBehind);
+    }
+
+    /**
+     * Executes the property updates buffered in write behind mode.
+     */
+    public void flushPropertyUpdates() {
+        if (isInWriteBehindMode() && !this.getBatchManager().isBusyFlushing()) {
+            this.getBatchManager().flushPropertyUpdates();
+        }
+    }
+
+    /**
+     * Registers that the transaction wrote to the graph. Its queries are no longer executed in parallel on pooled
+     * connections as these do not see the uncommitted writes, see {@link #setQueryParallelism(int)}.
+     */
+    public void written() {
+        if (isOpen()) {
+            this.threadLocalTx.get().setWritten();
+        }
+    }
+
+    /**
+     * Registers that the transaction wrote to the tables, see {@link #written()}.
+     * The transaction holds locks on them until it ends.
+     *
+     * @param schemaTables The prefixed tables written to.
+     */
+    public void written(SchemaTable... schemaTables) {
+        if (isOpen()) {
+            this.threadLocalTx.get().setWritten();
+            Collections.addAll(this.threadLocalTx.get().getWrittenTables(), schemaTables);
+        }
+    }
+
+    /**
+     * @param schemaTable The prefixed table.
+     * @return true if the transaction wrote to the table, see {@link #written(SchemaTable...)}.
+     */
+    public boolean hasWritten(SchemaTable schemaTable) {
+        return isOpen() && this.threadLocalTx.get().getWrittenTables().contains(schemaTable);
+    }
+
+    /**
+     * @return true if the transaction wrote to the graph, see {@link #written()}.
+     */
+    public boolean hasWrites() {
+        return isOpen() && this.threadLocalTx.get().isWritten();
+    }
+
+    /**
+     * Registers a write to a vertex. The transaction stops using the element cache for the vertex's label.
+     *
+     * @param schemaTable The unprefixed vertex label.
+     * @param recordId    The id of an updated or removed vertex to invalidate on commit, null for a new vertex.
+     */
+    public void elementCacheWrite(SchemaTable schemaTable, RecordId recordId) {
+        if (isOpen() && this.sqlgGraph.getElementCache().isCached(schemaTable)) {
+            this.threadLocalTx.get().getElementCacheWrittenLabels().add(schemaTable);
+            if (recordId != null) {
+                this.threadLocalTx.get().getElementCacheInvalidatedVertices().add(recordId);
+            }
+        }
+    }
+
+    /**
+     * Registers a drop of vertices or properties of a vertex label whose ids are not known.
+     * All the cached vertices of the label are invalidated on commit.
+     *
+     * @param schemaTable The unprefixed vertex label.
+     */
+    public void elementCacheDrop(SchemaTable schemaTable) {
+        if (isOpen() && this.sqlgGraph.getElementCache().isCached(schemaTable)) {
+            this.threadLocalTx.get().getElementCacheWrittenLabels().add(schemaTable);
+            this.threadLocalTx.get().getElementCacheInvalidatedLabels().add(schemaTable);
+        }
+    }
+
+    /**
+     * @return the vertex's properties from the element cache or null if they are not cached or the transaction wrote
+     * to the vertex's label.
+     */
+    Map<String, Object> getCachedVertex(SqlgVertex sqlgVertex) {
+        SchemaTable schemaTable = sqlgVertex.recordId.getSchemaTable();
+        if (isOpen() && this.sqlgGraph.getElementCache().isCached(schemaTable) && !this.threadLocalTx.get().getElementCacheWrittenLabels().contains(schemaTable)) {
+            return this.sqlgGraph.getElementCache().get(sqlgVertex.recordId);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Adds the fully loaded vertex to the element cache unless the transaction wrote to the vertex's label.
+     */
+    public void cacheVertex(SqlgVertex sqlgVertex) {
+        SchemaTable schemaTable = sqlgVertex.recordId.getSchemaTable();
+        if (isOpen() && this.sqlgGraph.getElementCache().isCached(schemaTable) && !this.threadLocalTx.get().getElementCacheWrittenLabels().contains(schemaTable)) {
+            this.sqlgGraph.getElementCache().put(sqlgVertex.recordId, sqlgVertex.properties, this.threadLocalTx.get().getElementCacheVersion());
+        }
+    }
+
     void addElementPropertyRollback(ElementPropertyRollback elementPropertyRollback) {
         if (!isOpen()) {
             throw new IllegalStateException("A transaction must be in progress to add a elementPropertyRollback function!");
@@ -272,18 +470,153 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         return this.threadLocalTx.get().putVertexIfAbsent(sqlgVertex);
     }
 
+    //Called for elements instantiated from their id only
+    void addUnloaded(SchemaTable prefixedSchemaTable, SqlgElement sqlgElement) {
+        this.threadLocalTx.get().addUnloaded(prefixedSchemaTable, sqlgElement);
+    }
+
+    List<SqlgElement> pollUnloaded(SchemaTable prefixedSchemaTable, int max) {
+        return this.threadLocalTx.get().pollUnloaded(prefixedSchemaTable, max);
+    }
+
+    void addParallelQueries(SqlgParallelQueries sqlgParallelQueries) {
+        this.threadLocalTx.get().addParallelQueries(sqlgParallelQueries);
+    }
+
+    void removeParallelQueries(SqlgParallelQueries sqlgParallelQueries) {
+        if (isOpen()) {
+            this.threadLocalTx.get().removeParallelQueries(sqlgParallelQueries);
+        }
+    }
+
     //Called for new vertices
     void add(SqlgVertex sqlgVertex) {
         this.threadLocalTx.get().add(sqlgVertex);
     }
 
     public void add(PreparedStatement preparedStatement) {
-        this.threadLocalPreparedStatementTx.get().add(preparedStatement);
+        getPreparedStatementCache().add(preparedStatement);
+    }
+
+    /**
+     * Returns a prepared statement for the query's sql. If the statement is in the {@link PreparedStatementCache} of
+     * the transaction's physical connection it is reused else it is prepared on that connection.
+     * The statement must be returned via {@link #release(PreparedStatement)}.
+     *
+     * @param sql The query's sql.
+     * @return The prepared statement.
+     */
+    public PreparedStatement prepareQuery(String sql) throws SQLException {
+        return getPreparedStatementCache().prepare(sql, this.topologyVersion.get());
+    }
+
+    /**
+     * Releases a statement obtained via {@link #prepareQuery(String)}. Cached statements are kept open for reuse.
+     *
+     * @param preparedStatement The statement to release.
+     */
+    public void release(PreparedStatement preparedStatement) throws SQLException {
+        getPreparedStatementCache().release(preparedStatement);
+    }
+
+    /**
+     * Called on every topology change. All threads' cached prepared statements are invalidated on their next access.
+     */
+    void invalidatePreparedStatementCache() {
+        this.topologyVersion.incrementAndGet();
+    }
+
+    /**
+     * Ends the transaction's use of its connection's cache. The cached statements stay open for the next transaction
+     * on the same physical connection.
+     */
+    private void closePreparedStatementCache() throws SQLException {
+        PreparedStatementCache preparedStatementCache = this.threadLocalPreparedStatementTx.get();
+        if (preparedStatementCache != null) {
+            this.threadLocalPreparedStatementTx.remove();
+            this.preparedStatementCacheHits.addAndGet(preparedStatementCache.getHits());
+            this.preparedStatementCacheMisses.addAndGet(preparedStatementCache.getMisses());
+            preparedStatementCache.endTransaction();
+        }
+    }
+
+    private PreparedStatementCache checkOutPreparedStatementCache() {
+        Connection physicalConnection = physicalConnection(getConnection());
+        synchronized (this.preparedStatementCaches) {
+            PreparedStatementCache preparedStatementCache = this.preparedStatementCaches.get(physicalConnection);
+            if (preparedStatementCache == null) {
+                //A new physical connection, the pool might have closed some of the known ones.
+                for (Iterator<Map.Entry<Connection, PreparedStatementCache>> iterator = this.preparedStatementCaches.entrySet().iterator(); iterator.hasNext(); ) {
+                    Map.Entry<Connection, PreparedStatementCache> entry = iterator.next();
+                    if (isClosed(entry.getKey())) {
+                        entry.getValue().close();
+                        iterator.remove();
+                    }
+                }
+                preparedStatementCache = new PreparedStatementCache(physicalConnection, this.preparedStatementCacheSize, this.topologyVersion.get());
+                this.preparedStatementCaches.put(physicalConnection, preparedStatementCache);
+            }
+            return preparedStatementCache;
+        }
+    }
+
+    /**
+     * Statements prepared on the pool's logical connection are closed when the connection is returned to the pool,
+     * so they are prepared on the physical connection. If the pool does not allow unwrapping the logical connection is
+     * used and the cache only lives as long as the transaction.
+     */
+    private static Connection physicalConnection(Connection connection) {
+        try {
+            if (connection.isWrapperFor(Connection.class)) {
+                return connection.unwrap(Connection.class);
+            }
+        } catch (SQLException e) {
+            logger.debug("could not unwrap the pooled connection", e);
+        }
+        return connection;
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Called when the graph closes. Closes the statements cached on all physical connections.
+     */
+    void closePreparedStatementCaches() {
+        synchronized (this.preparedStatementCaches) {
+            for (PreparedStatementCache preparedStatementCache : this.preparedStatementCaches.values()) {
+                preparedStatementCache.close();
+            }
+            this.preparedStatementCaches.clear();
+        }
+    }
+
+    /**
+     * @return The number of query prepared statements reused from the cache by all committed or rolled back transactions.
+     */
+    public long getPreparedStatementCacheHits() {
+        return this.preparedStatementCacheHits.get();
+    }
+
+    /**
+     * @return The number of query prepared statements prepared by all committed or rolled back transactions.
+     */
+    public long getPreparedStatementCacheMisses() {
+        return this.preparedStatementCacheMisses.get();
     }
 
-    // only used for tests
     public PreparedStatementCache getPreparedStatementCache() {
-        return threadLocalPreparedStatementTx.get();
+        PreparedStatementCache preparedStatementCache = this.threadLocalPreparedStatementTx.get();
+        if (preparedStatementCache == null) {
+            preparedStatementCache = checkOutPreparedStatementCache();
+            this.threadLocalPreparedStatementTx.set(preparedStatementCache);
+        }
+        return preparedStatementCache;
     }
     
     /**
@@ -303,4 +636,44 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
     	readWrite();
     	this.threadLocalTx.get().setLazyQueries(lazy);
     }
+
+    /**
+     * @return the fetch size set on query statements, 0 for the jdbc driver's default.
+     */
+    public int getFetchSize() {
+        return this.threadLocalTx.get().getFetchSize();
+    }
+
+    /**
+     * Sets the number of rows fetched per round trip for the queries of this transaction.
+     * A traversal can override it via {@link SqlgGraphTraversalSource#withFetchSize(int)}.
+     *
+     * @param fetchSize the fetch size, 0 for the jdbc driver's default.
+     */
+    public void setFetchSize(int fetchSize) {
+        Preconditions.checkArgument(fetchSize >= 0, "fetchSize must be >= 0, found %s", fetchSize);
+        readWrite();
+        this.threadLocalTx.get().setFetchSize(fetchSize);
+    }
+
+    /**
+     * @return the number of distinct query stacks executed concurrently, 1 for sequential execution.
+     */
+    public int getQueryParallelism() {
+        return this.threadLocalTx.get().getQueryParallelism();
+    }
+
+    /**
+     * Sets the number of distinct query stacks of a traversal step that are executed concurrently on pooled connections.
+     * The pooled connections do not see this transaction's uncommitted changes, once the transaction wrote to the graph
+     * its queries are executed sequentially.
+     * A traversal can override it via {@link SqlgGraphTraversalSource#withQueryParallelism(int)}.
+     *
+     * @param queryParallelism the number of concurrent queries, 1 for sequential execution.
+     */
+    public void setQueryParallelism(int queryParallelism) {
+        Preconditions.checkArgument(queryParallelism >= 1, "queryParallelism must be >= 1, found %s", queryParallelism);
+        readWrite();
+        this.threadLocalTx.get().setQueryParallelism(queryParallelism);
+    }
 }
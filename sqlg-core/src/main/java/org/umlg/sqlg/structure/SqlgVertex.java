@@ -55,7 +55,11 @@ public class SqlgVertex extends SqlgElement implements Vertex {
 
     public static SqlgVertex of(SqlgGraph sqlgGraph, Long id, String schema, String table) {
         if (!sqlgGraph.tx().isInBatchMode()) {
-            return sqlgGraph.tx().putVertexIfAbsent(sqlgGraph, schema, table, id);
+            SqlgVertex sqlgVertex = sqlgGraph.tx().putVertexIfAbsent(sqlgGraph, schema, table, id);
+            if (sqlgVertex.properties.isEmpty()) {
+                sqlgVertex.registerUnloaded();
+            }
+            return sqlgVertex;
         } else {
             return new SqlgVertex(sqlgGraph, id, schema, table);
         }
@@ -171,6 +175,7 @@ public class SqlgVertex extends SqlgElement implements Vertex {
                 if (sqlgVertex != this) {
                     //sync the properties
                     this.properties = sqlgVertex.properties;
+                    this.loadedPropertyKeys = sqlgVertex.loadedPropertyKeys;
                 }
             }
             return (VertexProperty<V>) super.property(key);
@@ -237,6 +242,7 @@ public class SqlgVertex extends SqlgElement implements Vertex {
         if (this.removed)
             throw Element.Exceptions.elementAlreadyRemoved(this.getClass(), this.id());
 
+        this.sqlgGraph.tx().elementCacheWrite(SchemaTable.of(this.schema, this.table), this.recordId);
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
             this.sqlgGraph.tx().getBatchManager().removeVertex(this.schema, this.table, this);
         } else {
@@ -263,6 +269,7 @@ public class SqlgVertex extends SqlgElement implements Vertex {
     }
 
     private void deleteEdges(Direction direction, SchemaTable edgeSchemaTable) {
+        this.sqlgGraph.tx().written(edgeSchemaTable);
         StringBuilder sql = new StringBuilder("DELETE FROM ");
         sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(edgeSchemaTable.getSchema()));
         sql.append(".");
@@ -288,6 +295,10 @@ public class SqlgVertex extends SqlgElement implements Vertex {
     private void insertVertex(boolean temporary, boolean streaming, Pair<Map<String, Object>, Map<String, Object>> keyValueMapPair) {
         Map<String, Object> keyAllValueMap = keyValueMapPair.getLeft();
         Map<String, Object> keyNotNullValueMap = keyValueMapPair.getRight();
+        this.sqlgGraph.tx().written(getSchemaTablePrefixed());
+        if (!temporary) {
+            this.sqlgGraph.tx().elementCacheWrite(SchemaTable.of(this.schema, this.table), null);
+        }
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
             internalBatchAddVertex(temporary, streaming, keyAllValueMap);
         } else {
@@ -379,8 +390,8 @@ public class SqlgVertex extends SqlgElement implements Vertex {
     protected void load() {
         //if in batch mode, only load vertexes that are not new.
         //new vertexes have no id, impossible to load, but then all its properties are already cached.
-        if ((this.properties.isEmpty() && !this.sqlgGraph.tx().isInBatchMode()) ||
-                (this.properties.isEmpty() && this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode() &&
+        if ((isNotLoaded() && !this.sqlgGraph.tx().isInBatchMode()) ||
+                (isNotLoaded() && this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode() &&
                         !this.sqlgGraph.tx().getBatchManager().vertexIsCached(this))) {
 
             if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isOpen() && this.sqlgGraph.tx().getBatchManager().isStreaming()) {
@@ -409,26 +420,9 @@ public class SqlgVertex extends SqlgElement implements Vertex {
             sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.schema));
             sql.append(".");
             sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(VERTEX_PREFIX + this.table));
-            sql.append("\nWHERE\n\t");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
-            sql.append(" = ?");
-            if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
-                sql.append(";");
-            }
-            Connection conn = this.sqlgGraph.tx().getConnection();
-            if (logger.isDebugEnabled()) {
-                logger.debug(sql.toString());
-            }
-            try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
-                preparedStatement.setLong(1, this.recordId.getId());
-                ResultSet resultSet = preparedStatement.executeQuery();
-                if (resultSet.next()) {
-                    loadResultSet(resultSet);
-                } else {
-                    throw new IllegalStateException(String.format("Vertex with label %s and id %d does not exist.", new Object[]{this.schema + "." + this.table, this.recordId.getId()}));
-                }
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+            //Load the other vertices of this label that were instantiated from their id only in the same round trip.
+            if (!loadElements(sql, elementsToLoad()).contains(this.recordId.getId())) {
+                throw new IllegalStateException(String.format("Vertex with label %s and id %d does not exist.", new Object[]{this.schema + "." + this.table, this.recordId.getId()}));
             }
         }
     }
@@ -1,9 +1,10 @@
 package org.umlg.sqlg.structure;
 
+import com.google.common.collect.MapMaker;
+
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.*;
 
 /**
  * A transaction scoped cache.
@@ -17,12 +18,52 @@ class TransactionCache {
     private BatchManager batchManager;
     private boolean cacheVertices = false;
     private Map<RecordId, SqlgVertex> vertexCache = new WeakHashMap<>();
+    /**
+     * Elements instantiated from their id only, per prefixed table. They are loaded together with the first of them
+     * whose properties are accessed. The elements are weakly referenced and compared by identity.
+     */
+    private Map<SchemaTable, Set<SqlgElement>> unloadedElements = new HashMap<>();
 
     /**
      * are query result processed lazily or not?
      */
     private boolean lazyQueries;
 
+    /**
+     * the number of rows the jdbc driver fetches per round trip, 0 for the driver's default.
+     */
+    private int fetchSize;
+
+    /**
+     * the number of distinct query stacks executed concurrently on pooled connections, 1 for none.
+     */
+    private int queryParallelism = 1;
+
+    /**
+     * are property updates outside of batch mode buffered and flushed before the next read or commit?
+     */
+    private boolean writeBehind;
+    /**
+     * did the transaction write to the graph? Its writes are not visible to pooled connections.
+     */
+    private boolean written;
+    //The prefixed tables the transaction wrote to, it holds locks on them until it ends.
+    private Set<SchemaTable> writtenTables = new HashSet<>();
+    /**
+     * The version of the element cache when the transaction started, see {@link ElementCache#put}.
+     */
+    private long elementCacheVersion;
+    //The cached labels the transaction wrote to. The transaction does not use the element cache for them.
+    private Set<SchemaTable> elementCacheWrittenLabels = new HashSet<>();
+    //The cached vertices the transaction updated or removed, invalidated on commit.
+    private Set<RecordId> elementCacheInvalidatedVertices = new HashSet<>();
+    //The cached labels the transaction dropped vertices or properties of, invalidated on commit.
+    private Set<SchemaTable> elementCacheInvalidatedLabels = new HashSet<>();
+
+    /**
+     * Parallel queries that still hold pooled connections. Closed when the transaction ends.
+     */
+    private Set<SqlgParallelQueries> parallelQueries = Collections.newSetFromMap(new IdentityHashMap<>());
 
 	static TransactionCache of(boolean cacheVertices, Connection connection, BatchManager batchManager,boolean lazyQueries) {
         return new TransactionCache(cacheVertices, connection, batchManager,lazyQueries);
@@ -72,6 +113,11 @@ class TransactionCache {
         if (this.cacheVertices) {
             this.vertexCache.clear();
         }
+        this.unloadedElements.clear();
+        for (SqlgParallelQueries sqlgParallelQueries : new ArrayList<>(this.parallelQueries)) {
+            sqlgParallelQueries.close();
+        }
+        this.parallelQueries.clear();
         try {
             this.connection.close();
         } catch (SQLException e) {
@@ -135,6 +181,33 @@ class TransactionCache {
         }
     }
     
+    void addUnloaded(SchemaTable prefixedSchemaTable, SqlgElement sqlgElement) {
+        this.unloadedElements.computeIfAbsent(
+                prefixedSchemaTable,
+                k -> Collections.newSetFromMap(new MapMaker().weakKeys().makeMap())
+        ).add(sqlgElement);
+    }
+
+    /**
+     * Removes and returns up to max elements of the table that are still not loaded.
+     * Elements that have been loaded or removed in the meantime are discarded.
+     */
+    List<SqlgElement> pollUnloaded(SchemaTable prefixedSchemaTable, int max) {
+        List<SqlgElement> result = new ArrayList<>();
+        Set<SqlgElement> sqlgElements = this.unloadedElements.get(prefixedSchemaTable);
+        if (sqlgElements != null) {
+            Iterator<SqlgElement> iterator = sqlgElements.iterator();
+            while (result.size() < max && iterator.hasNext()) {
+                SqlgElement sqlgElement = iterator.next();
+                iterator.remove();
+                if (sqlgElement.properties.isEmpty() && !sqlgElement.removed) {
+                    result.add(sqlgElement);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * are we reading the SQL query results laszily?
      * @return true if we are processing the results lazily, false otherwise
@@ -151,4 +224,74 @@ class TransactionCache {
 		this.lazyQueries = lazyQueries;
 	}
 
+    /**
+     * @return the fetch size set on query statements, 0 for the driver's default.
+     */
+    int getFetchSize() {
+        return this.fetchSize;
+    }
+
+    void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @return the number of distinct query stacks executed concurrently, 1 for sequential execution.
+     */
+    int getQueryParallelism() {
+        return this.queryParallelism;
+    }
+
+    void setQueryParallelism(int queryParallelism) {
+        this.queryParallelism = queryParallelism;
+    }
+
+    boolean isWriteBehind() {
+        return this.writeBehind;
+    }
+
+    void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    boolean isWritten() {
+        return this.written;
+    }
+
+    void setWritten() {
+        this.written = true;
+    }
+
+    Set<SchemaTable> getWrittenTables() {
+        return this.writtenTables;
+    }
+
+    long getElementCacheVersion() {
+        return this.elementCacheVersion;
+    }
+
+    void setElementCacheVersion(long elementCacheVersion) {
+        this.elementCacheVersion = elementCacheVersion;
+    }
+
+    Set<SchemaTable> getElementCacheWrittenLabels() {
+        return this.elementCacheWrittenLabels;
+    }
+
+    Set<RecordId> getElementCacheInvalidatedVertices() {
+        return this.elementCacheInvalidatedVertices;
+    }
+
+    Set<SchemaTable> getElementCacheInvalidatedLabels() {
+        return this.elementCacheInvalidatedLabels;
+    }
+
+    void addParallelQueries(SqlgParallelQueries sqlgParallelQueries) {
+        this.parallelQueries.add(sqlgParallelQueries);
+    }
+
+    void removeParallelQueries(SqlgParallelQueries sqlgParallelQueries) {
+        this.parallelQueries.remove(sqlgParallelQueries);
+    }
+
 }
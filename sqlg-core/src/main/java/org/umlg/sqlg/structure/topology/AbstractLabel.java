@@ -9,6 +9,7 @@ import org.apache.commons.text.RandomStringGenerator;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
 import org.umlg.sqlg.structure.*;
 
 import java.sql.*;
@@ -37,6 +38,11 @@ public abstract class AbstractLabel implements TopologyInf {
     private Map<String, Index> indexes = new HashMap<>();
     private Map<String, Index> uncommittedIndexes = new HashMap<>();
     private Set<String> uncommittedRemovedIndexes = new HashSet<>();
+    //the committed online indexes whose build is done
+    private Set<String> uncommittedValidatedIndexes = new HashSet<>();
+
+    private PartitionType partitionType = PartitionType.NONE;
+    private String partitionKey;
 
     //Yet another cache to speed meta data up.
     private Map<String, PropertyType> propertyTypeMap;
@@ -68,6 +74,41 @@ public abstract class AbstractLabel implements TopologyInf {
     }
 
     public Index ensureIndexExists(final IndexType indexType, final List<PropertyColumn> properties) {
+        return ensureIndexExists(indexType, properties, false);
+    }
+
+    /**
+     * Creates the index without blocking writes to the label for the duration of the build, if the dialect supports
+     * it, see {@link org.umlg.sqlg.sql.dialect.SqlDialect#supportsOnlineIndexCreation()}.
+     * The index is committed as pending in a transaction of its own, then built without a transaction and without
+     * holding the topology lock and finally marked as valid, see {@link Index#isValid()}.
+     * If the dialect does not support online index creation the index is created and committed as with
+     * {@link #ensureIndexExists(IndexType, List)}.
+     * <p>
+     * Must be called outside of a transaction.
+     *
+     * @return the index, it is not valid yet if it is still being built by another thread.
+     */
+    public Index ensureOnlineIndexExists(final IndexType indexType, final List<PropertyColumn> properties) {
+        Preconditions.checkState(!this.sqlgGraph.tx().isOpen(), "An online index must be created outside of a transaction.");
+        boolean online = this.sqlgGraph.getSqlDialect().supportsOnlineIndexCreation();
+        Index index;
+        boolean created;
+        try {
+            index = ensureIndexExists(indexType, properties, online);
+            created = !index.isCommitted();
+            this.sqlgGraph.tx().commit();
+        } catch (RuntimeException e) {
+            this.sqlgGraph.tx().rollback();
+            throw e;
+        }
+        if (online && created) {
+            index.buildOnline(this.sqlgGraph);
+        }
+        return index;
+    }
+
+    private Index ensureIndexExists(final IndexType indexType, final List<PropertyColumn> properties, boolean online) {
         String prefix = this instanceof VertexLabel ? VERTEX_PREFIX : EDGE_PREFIX;
         SchemaTable schemaTable = SchemaTable.of(this.getSchema().getName(), this.getLabel());
 
@@ -90,7 +131,7 @@ public abstract class AbstractLabel implements TopologyInf {
                     .withinRange('a', 'z').build();
             indexName = generator.generate(this.sqlgGraph.getSqlDialect().getMaximumIndexNameLength());
             
-            return this.createIndex(indexName, indexType, properties);
+            return this.createIndex(indexName, indexType, properties, online);
             
         } else {
 
@@ -99,7 +140,7 @@ public abstract class AbstractLabel implements TopologyInf {
 	            this.getSchema().getTopology().lock();
 	            indexOptional = this.getIndex(indexName);
 	            if (!indexOptional.isPresent()) {
-	                return this.createIndex(indexName, indexType, properties);
+	                return this.createIndex(indexName, indexType, properties, online);
 	            } else {
 	                return indexOptional.get();
 	            }
@@ -109,13 +150,23 @@ public abstract class AbstractLabel implements TopologyInf {
         }
     }
 
-    private Index createIndex(String indexName, IndexType indexType, List<PropertyColumn> properties) {
-        Index index = Index.createIndex(this.sqlgGraph, this, indexName, indexType, properties);
+    private Index createIndex(String indexName, IndexType indexType, List<PropertyColumn> properties, boolean online) {
+        Index index = Index.createIndex(this.sqlgGraph, this, indexName, indexType, properties, online);
         this.uncommittedIndexes.put(indexName, index);
         this.getSchema().getTopology().fire(index, "", TopologyChangeAction.CREATE);
         return index;
     }
 
+    /**
+     * Marks the built online index as valid, the other graphs are notified on commit.
+     * No event is fired, the index's creation was already fired when it was registered.
+     */
+    void validateIndex(Index index) {
+        this.getSchema().getTopology().lock();
+        TopologyManager.validateIndex(this.sqlgGraph, index);
+        this.uncommittedValidatedIndexes.add(index.getName());
+    }
+
     void addIndex(Index i) {
         this.indexes.put(i.getName(), i);
     }
@@ -328,6 +379,13 @@ public abstract class AbstractLabel implements TopologyInf {
             this.indexes.remove(prop);
             it.remove();
         }
+        for (Iterator<String> it = this.uncommittedValidatedIndexes.iterator(); it.hasNext(); ) {
+            Index index = this.indexes.get(it.next());
+            if (index != null) {
+                index.setValid(true);
+            }
+            it.remove();
+        }
         for (Iterator<Map.Entry<String, PropertyColumn>> it = this.properties.entrySet().iterator(); it.hasNext(); ) {
             Map.Entry<String, PropertyColumn> entry = it.next();
             entry.getValue().afterCommit();
@@ -354,6 +412,7 @@ public abstract class AbstractLabel implements TopologyInf {
             it.remove();
         }
         this.uncommittedRemovedIndexes.clear();
+        this.uncommittedValidatedIndexes.clear();
         for (Iterator<Map.Entry<String, PropertyColumn>> it = this.properties.entrySet().iterator(); it.hasNext(); ) {
             Map.Entry<String, PropertyColumn> entry = it.next();
             entry.getValue().afterRollback();
@@ -387,6 +446,12 @@ public abstract class AbstractLabel implements TopologyInf {
                 //noinspection OptionalGetWithoutIsPresent
                 indexArrayNode.add(indexJsonOptional.get());
             }
+            for (String indexName : this.uncommittedValidatedIndexes) {
+                Index index = this.indexes.get(indexName);
+                if (index != null) {
+                    indexArrayNode.add(index.toValidatedNotifyJson());
+                }
+            }
             ArrayNode removedIndexArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
             for (String property : this.uncommittedRemovedIndexes) {
                 removedIndexArrayNode.add(property);
@@ -404,6 +469,22 @@ public abstract class AbstractLabel implements TopologyInf {
         }
     }
 
+    /**
+     * Adds the committed properties and indexes to the snapshot, see {@link Topology#toSnapshotJson()}.
+     */
+    void propertiesToSnapshotJson(ObjectNode labelNode) {
+        ArrayNode propertyArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        for (PropertyColumn property : this.properties.values()) {
+            propertyArrayNode.add(property.toNotifyJson());
+        }
+        ArrayNode indexArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        for (Index index : this.indexes.values()) {
+            indexArrayNode.add(index.toSnapshotJson());
+        }
+        labelNode.set("uncommittedProperties", propertyArrayNode);
+        labelNode.set("uncommittedIndexes", indexArrayNode);
+    }
+
     /**
      * @param vertexLabelJson
      * @param fire            should we fire topology events
@@ -433,8 +514,14 @@ public abstract class AbstractLabel implements TopologyInf {
         if (indexNodes != null) {
             for (JsonNode indexNode : indexNodes) {
                 Index index = Index.fromNotifyJson(this, indexNode);
-                this.indexes.put(index.getName(), index);
-                this.getSchema().getTopology().fire(index, "", TopologyChangeAction.CREATE);
+                Index old = this.indexes.get(index.getName());
+                if (old != null) {
+                    //an online index that finished building, only its validity changed
+                    old.setValid(index.isValid());
+                } else {
+                    this.indexes.put(index.getName(), index);
+                    this.getSchema().getTopology().fire(index, "", TopologyChangeAction.CREATE);
+                }
             }
         }
         ArrayNode removedIndexArrayNode = (ArrayNode) vertexLabelJson.get("uncommittedRemovedIndexes");
@@ -468,6 +555,273 @@ public abstract class AbstractLabel implements TopologyInf {
         this.uncommittedGlobalUniqueIndexProperties.put(propertyColumn.getName(), propertyColumn);
     }
 
+    public PartitionType getPartitionType() {
+        return this.partitionType;
+    }
+
+    /**
+     * @return the name of the property the label is partitioned on, null if the label is not partitioned.
+     */
+    public String getPartitionKey() {
+        return this.partitionKey;
+    }
+
+    public boolean isPartitioned() {
+        return !this.partitionType.isNone();
+    }
+
+    void setPartitioning(PartitionType partitionType, String partitionKey) {
+        this.partitionType = partitionType;
+        this.partitionKey = partitionKey;
+    }
+
+    /**
+     * @param labelVertex The label's vertex in sqlg_schema.
+     */
+    void loadPartitioning(Vertex labelVertex) {
+        setPartitioning(
+                PartitionType.from(labelVertex.<String>property(SQLG_SCHEMA_PARTITION_TYPE).orElse(null)),
+                labelVertex.<String>property(SQLG_SCHEMA_PARTITION_KEY).orElse(null)
+        );
+    }
+
+    void partitioningToNotifyJson(ObjectNode labelNode) {
+        if (isPartitioned()) {
+            labelNode.put("partitionType", this.partitionType.name());
+            labelNode.put("partitionKey", this.partitionKey);
+        }
+    }
+
+    void partitioningFromNotifyJson(JsonNode labelJson) {
+        JsonNode partitionTypeNode = labelJson.get("partitionType");
+        if (partitionTypeNode != null) {
+            setPartitioning(PartitionType.from(partitionTypeNode.asText()), labelJson.get("partitionKey").asText());
+        }
+    }
+
+    /**
+     * Validates the partitioning a new label is declared with.
+     */
+    static void checkPartitioning(SqlgGraph sqlgGraph, Map<String, PropertyType> columns, PartitionType partitionType, String partitionKey) {
+        if (!partitionType.isNone()) {
+            Preconditions.checkState(sqlgGraph.getSqlDialect().supportsPartitioning(), "Partitioning is not supported for %s", sqlgGraph.getSqlDialect().dialectName());
+            Preconditions.checkArgument(partitionKey != null && columns.containsKey(partitionKey), "The partition key must be one of the label's properties, found \"%s\"", partitionKey);
+        }
+    }
+
+    /**
+     * Ensures that a partition holding the partition key's values from {@code from}, inclusive, to {@code to}, exclusive,
+     * exists. The label must be {@link PartitionType#RANGE} partitioned.
+     * Like any other ddl the partition is created in the current transaction.
+     *
+     * @param name The partition's table name, in the label's schema.
+     * @param from The lower bound, a value of the partition key's type, i.e. a {@link java.time.LocalDate}, or null
+     *             for no lower bound.
+     * @param to   The upper bound, or null for no upper bound.
+     */
+    public void ensureRangePartitionExists(String name, Object from, Object to) {
+        ensurePartitionExists(PartitionType.RANGE, name, rangePartitionBound(from, to));
+    }
+
+    /**
+     * Ensures that a partition holding the given values of the partition key exists.
+     * The label must be {@link PartitionType#LIST} partitioned.
+     *
+     * @param name The partition's table name, in the label's schema.
+     * @param in   The values of the partition key's type.
+     */
+    public void ensureListPartitionExists(String name, Object... in) {
+        ensurePartitionExists(PartitionType.LIST, name, listPartitionBound(in));
+    }
+
+    /**
+     * Ensures that the partition holding the rows whose partition key's hash modulo {@code modulus} is {@code remainder}
+     * exists. The label must be {@link PartitionType#HASH} partitioned.
+     *
+     * @param name The partition's table name, in the label's schema.
+     */
+    public void ensureHashPartitionExists(String name, int modulus, int remainder) {
+        ensurePartitionExists(PartitionType.HASH, name, hashPartitionBound(modulus, remainder));
+    }
+
+    /**
+     * Ensures that the partition holding the rows that no other partition holds exists.
+     * The label must be {@link PartitionType#RANGE} or {@link PartitionType#LIST} partitioned.
+     *
+     * @param name The partition's table name, in the label's schema.
+     */
+    public void ensureDefaultPartitionExists(String name) {
+        ensurePartitionExists(this.partitionType, name, defaultPartitionBound());
+    }
+
+    /**
+     * Attaches an existing table, i.e. one detached with {@link #detachPartition(String)}, as the partition holding the
+     * partition key's values from {@code from}, inclusive, to {@code to}, exclusive.
+     * The table must have the label's columns. The rdbms checks that its rows are within the bounds.
+     *
+     * @param name The table's name, in the label's schema.
+     * @param from The lower bound, or null for no lower bound.
+     * @param to   The upper bound, or null for no upper bound.
+     */
+    public void attachRangePartition(String name, Object from, Object to) {
+        attachPartition(PartitionType.RANGE, name, rangePartitionBound(from, to));
+    }
+
+    /**
+     * Attaches an existing table as the partition holding the given values of the partition key,
+     * see {@link #attachRangePartition(String, Object, Object)}.
+     */
+    public void attachListPartition(String name, Object... in) {
+        attachPartition(PartitionType.LIST, name, listPartitionBound(in));
+    }
+
+    /**
+     * Attaches an existing table as a hash partition, see {@link #attachRangePartition(String, Object, Object)}.
+     */
+    public void attachHashPartition(String name, int modulus, int remainder) {
+        attachPartition(PartitionType.HASH, name, hashPartitionBound(modulus, remainder));
+    }
+
+    /**
+     * Attaches an existing table as the default partition, see {@link #attachRangePartition(String, Object, Object)}.
+     */
+    public void attachDefaultPartition(String name) {
+        attachPartition(this.partitionType, name, defaultPartitionBound());
+    }
+
+    private String rangePartitionBound(Object from, Object to) {
+        PropertyType propertyType = partitionKeyType(PartitionType.RANGE);
+        checkPartitionValue(propertyType, from);
+        checkPartitionValue(propertyType, to);
+        return this.sqlgGraph.getSqlDialect().rangePartitionBound(propertyType, from, to);
+    }
+
+    private String listPartitionBound(Object... in) {
+        Preconditions.checkArgument(in.length > 0, "A list partition must hold at least one value");
+        PropertyType propertyType = partitionKeyType(PartitionType.LIST);
+        for (Object value : in) {
+            checkPartitionValue(propertyType, value);
+        }
+        return this.sqlgGraph.getSqlDialect().listPartitionBound(propertyType, Arrays.asList(in));
+    }
+
+    private String hashPartitionBound(int modulus, int remainder) {
+        checkPartitionType(PartitionType.HASH);
+        Preconditions.checkArgument(modulus > 0 && remainder >= 0 && remainder < modulus, "The remainder must be between 0 and the modulus, found modulus %s and remainder %s", modulus, remainder);
+        return this.sqlgGraph.getSqlDialect().hashPartitionBound(modulus, remainder);
+    }
+
+    private String defaultPartitionBound() {
+        checkPartitionType(this.partitionType);
+        Preconditions.checkState(this.partitionType != PartitionType.HASH, "A hash partitioned label can not have a default partition");
+        return this.sqlgGraph.getSqlDialect().defaultPartitionBound();
+    }
+
+    private PropertyType partitionKeyType(PartitionType partitionType) {
+        checkPartitionType(partitionType);
+        Optional<PropertyColumn> partitionKeyColumn = getProperty(this.partitionKey);
+        Preconditions.checkState(partitionKeyColumn.isPresent(), "BUG: the partition key %s of %s is not a property", this.partitionKey, getFullName());
+        return partitionKeyColumn.get().getPropertyType();
+    }
+
+    private void checkPartitionValue(PropertyType propertyType, Object value) {
+        Preconditions.checkArgument(value == null || PropertyType.from(value) == propertyType, "A bound of %s must be a %s, found %s", getFullName(), propertyType.name(), value);
+    }
+
+    private void checkPartitionType(PartitionType partitionType) {
+        Preconditions.checkState(this.partitionType == partitionType && !partitionType.isNone(), "%s is not %s partitioned, found %s", getFullName(), partitionType, this.partitionType);
+    }
+
+    private void checkPartitionName(String name) {
+        Objects.requireNonNull(name, "The partition's name may not be null");
+        Preconditions.checkArgument(!name.startsWith(VERTEX_PREFIX) && !name.startsWith(EDGE_PREFIX), "A partition's name may not start with %s or %s", VERTEX_PREFIX, EDGE_PREFIX);
+    }
+
+    private void ensurePartitionExists(PartitionType partitionType, String name, String bound) {
+        checkPartitionType(partitionType);
+        checkPartitionName(name);
+        if (!getPartitions().containsKey(name)) {
+            executePartitionSql(this.sqlgGraph.getSqlDialect().sqlToCreatePartition(getSchema().getName(), getPrefix() + getLabel(), name, bound));
+        }
+    }
+
+    private void attachPartition(PartitionType partitionType, String name, String bound) {
+        checkPartitionType(partitionType);
+        checkPartitionName(name);
+        Preconditions.checkState(!getPartitions().containsKey(name), "%s is already a partition of %s", name, getFullName());
+        executePartitionSql(this.sqlgGraph.getSqlDialect().sqlToAttachPartition(getSchema().getName(), getPrefix() + getLabel(), name, bound));
+    }
+
+    /**
+     * Reads the partitions from the rdbms' catalog, they are not part of sqlg's topology.
+     *
+     * @return the partitions' names and their bounds.
+     */
+    public Map<String, String> getPartitions() {
+        if (!isPartitioned()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> result = new TreeMap<>();
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = conn.prepareStatement(this.sqlgGraph.getSqlDialect().sqlToListPartitions())) {
+            preparedStatement.setString(1, getSchema().getName());
+            preparedStatement.setString(2, getPrefix() + getLabel());
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                result.put(resultSet.getString(1), resultSet.getString(2));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
+    /**
+     * Detaches the partition from the label. Its rows are no longer part of the label but remain in the partition's
+     * table, i.e. to archive them.
+     *
+     * @param name The partition's table name.
+     */
+    public void detachPartition(String name) {
+        checkPartitionExists(name);
+        executePartitionSql(this.sqlgGraph.getSqlDialect().sqlToDetachPartition(getSchema().getName(), getPrefix() + getLabel(), name));
+        partitionRowsRemoved();
+    }
+
+    /**
+     * Drops the partition and with it all its rows. Retiring old rows this way is much cheaper than deleting them.
+     *
+     * @param name The partition's table name.
+     */
+    public void dropPartition(String name) {
+        checkPartitionExists(name);
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        executePartitionSql("DROP TABLE " + sqlDialect.maybeWrapInQoutes(getSchema().getName()) + "." + sqlDialect.maybeWrapInQoutes(name) + (sqlDialect.needsSemicolon() ? ";" : ""));
+        partitionRowsRemoved();
+    }
+
+    private void checkPartitionExists(String name) {
+        Preconditions.checkState(getPartitions().containsKey(name), "%s is not a partition of %s", name, getFullName());
+    }
+
+    private void partitionRowsRemoved() {
+        if (getPrefix().equals(VERTEX_PREFIX)) {
+            this.sqlgGraph.tx().elementCacheDrop(SchemaTable.of(getSchema().getName(), getLabel()));
+        }
+    }
+
+    private void executePartitionSql(String sql) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     void addGlobalUniqueIndexToProperties(PropertyColumn propertyColumn) {
         this.globalUniqueIndexProperties.put(propertyColumn.getName(), propertyColumn);
     }
@@ -42,10 +42,11 @@ public class EdgeLabel extends AbstractLabel {
         return new EdgeLabel(true, edgeLabelName, outVertexLabel, inVertexLabel, properties);
     }
 
-    static EdgeLabel createEdgeLabel(String edgeLabelName, VertexLabel outVertexLabel, VertexLabel inVertexLabel, Map<String, PropertyType> properties, Properties additional) {
+    static EdgeLabel createEdgeLabel(String edgeLabelName, VertexLabel outVertexLabel, VertexLabel inVertexLabel, Map<String, PropertyType> properties, Properties additional, PartitionType partitionType, String partitionKey) {
         Preconditions.checkState(!inVertexLabel.getSchema().isSqlgSchema(), "You may not create an edge to %s", Topology.SQLG_SCHEMA);
         //edges are created in the out vertex's schema.
         EdgeLabel edgeLabel = new EdgeLabel(false, edgeLabelName, outVertexLabel, inVertexLabel, properties);
+        edgeLabel.setPartitioning(partitionType, partitionKey);
         edgeLabel.createEdgeTable(outVertexLabel, inVertexLabel, properties, additional);
         edgeLabel.committed = false;
         return edgeLabel;
@@ -125,11 +126,23 @@ public class EdgeLabel extends AbstractLabel {
         sql.append("(");
         sql.append(sqlDialect.maybeWrapInQoutes("ID"));
         sql.append(" ");
-        sql.append(sqlDialect.getAutoIncrementPrimaryKeyConstruct());
+        if (isPartitioned()) {
+            sql.append(sqlDialect.getPartitionedAutoIncrementConstruct());
+        } else {
+            sql.append(sqlDialect.getAutoIncrementPrimaryKeyConstruct());
+        }
         if (columns.size() > 0) {
             sql.append(", ");
         }
         buildColumns(this.sqlgGraph, columns, sql, additional);
+        if (isPartitioned()) {
+            //the primary key of a partitioned table must include the partition key
+            sql.append(", PRIMARY KEY (");
+            sql.append(sqlDialect.maybeWrapInQoutes("ID"));
+            sql.append(", ");
+            sql.append(sqlDialect.maybeWrapInQoutes(getPartitionKey()));
+            sql.append(")");
+        }
         sql.append(", ");
         sql.append(sqlDialect.maybeWrapInQoutes(inVertexLabel.getFullName() + Topology.IN_VERTEX_COLUMN_END));
         sql.append(" ");
@@ -141,30 +154,34 @@ public class EdgeLabel extends AbstractLabel {
 
         //foreign key definition start
         if (this.sqlgGraph.getTopology().isImplementingForeignKeys()) {
-            sql.append(", ");
-            sql.append("FOREIGN KEY (");
-            sql.append(sqlDialect.maybeWrapInQoutes(inVertexLabel.getSchema().getName() + "." + inVertexLabel.getLabel() + Topology.IN_VERTEX_COLUMN_END));
-            sql.append(") REFERENCES ");
-            sql.append(sqlDialect.maybeWrapInQoutes(inVertexLabel.getSchema().getName()));
-            sql.append(".");
-            sql.append(sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + inVertexLabel.getLabel()));
-            sql.append(" (");
-            sql.append(sqlDialect.maybeWrapInQoutes("ID"));
-            sql.append(") ");
-            if (sqlDialect.supportsDeferrableForeignKey()) {
-                sql.append("DEFERRABLE");
+            //The "ID" of a partitioned vertex label is not unique on its own, it can not be referenced.
+            if (!inVertexLabel.isPartitioned()) {
+                sql.append(", FOREIGN KEY (");
+                sql.append(sqlDialect.maybeWrapInQoutes(inVertexLabel.getSchema().getName() + "." + inVertexLabel.getLabel() + Topology.IN_VERTEX_COLUMN_END));
+                sql.append(") REFERENCES ");
+                sql.append(sqlDialect.maybeWrapInQoutes(inVertexLabel.getSchema().getName()));
+                sql.append(".");
+                sql.append(sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + inVertexLabel.getLabel()));
+                sql.append(" (");
+                sql.append(sqlDialect.maybeWrapInQoutes("ID"));
+                sql.append(") ");
+                if (sqlDialect.supportsDeferrableForeignKey()) {
+                    sql.append("DEFERRABLE");
+                }
             }
-            sql.append(", FOREIGN KEY (");
-            sql.append(sqlDialect.maybeWrapInQoutes(outVertexLabel.getSchema().getName() + "." + outVertexLabel.getLabel() + Topology.OUT_VERTEX_COLUMN_END));
-            sql.append(") REFERENCES ");
-            sql.append(sqlDialect.maybeWrapInQoutes(outVertexLabel.getSchema().getName()));
-            sql.append(".");
-            sql.append(sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + outVertexLabel.getLabel()));
-            sql.append(" (");
-            sql.append(sqlDialect.maybeWrapInQoutes("ID"));
-            sql.append(") ");
-            if (sqlDialect.supportsDeferrableForeignKey()) {
-                sql.append("DEFERRABLE");
+            if (!outVertexLabel.isPartitioned()) {
+                sql.append(", FOREIGN KEY (");
+                sql.append(sqlDialect.maybeWrapInQoutes(outVertexLabel.getSchema().getName() + "." + outVertexLabel.getLabel() + Topology.OUT_VERTEX_COLUMN_END));
+                sql.append(") REFERENCES ");
+                sql.append(sqlDialect.maybeWrapInQoutes(outVertexLabel.getSchema().getName()));
+                sql.append(".");
+                sql.append(sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + outVertexLabel.getLabel()));
+                sql.append(" (");
+                sql.append(sqlDialect.maybeWrapInQoutes("ID"));
+                sql.append(") ");
+                if (sqlDialect.supportsDeferrableForeignKey()) {
+                    sql.append("DEFERRABLE");
+                }
             }
             if (sqlDialect.needForeignKeyIndex() && sqlDialect.isIndexPartOfCreateTable()) {
                 //This is true for Cockroachdb
@@ -178,6 +195,9 @@ public class EdgeLabel extends AbstractLabel {
         //foreign key definition end
 
         sql.append(")");
+        if (isPartitioned()) {
+            sql.append(sqlDialect.partitionByClause(getPartitionType(), getPartitionKey()));
+        }
         if (sqlDialect.needsSemicolon()) {
             sql.append(";");
         }
@@ -423,13 +443,13 @@ public class EdgeLabel extends AbstractLabel {
                     vertexLabel.addToUncommittedOutEdgeLabels(schema, this);
                 }
                 SchemaTable vertexSchemaTable = SchemaTable.of(vertexLabel.getSchema().getName(), vertexLabel.getLabel());
-                addEdgeForeignKey(schema.getName(), EDGE_PREFIX + getLabel(), foreignKey, vertexSchemaTable);
+                addEdgeForeignKey(schema.getName(), EDGE_PREFIX + getLabel(), foreignKey, vertexSchemaTable, vertexLabel.isPartitioned());
                 this.getSchema().getTopology().fire(this, vertexSchemaTable.toString(), TopologyChangeAction.ADD_IN_VERTEX_LABELTO_EDGE);
             }
         }
     }
 
-    private void addEdgeForeignKey(String schema, String table, SchemaTable foreignKey, SchemaTable otherVertex) {
+    private void addEdgeForeignKey(String schema, String table, SchemaTable foreignKey, SchemaTable otherVertex, boolean otherVertexPartitioned) {
         Preconditions.checkState(!this.getSchema().isSqlgSchema(), "BUG: ensureEdgeVertexLabelExist may not be called for %s", SQLG_SCHEMA);
         String sqlStr = this.sqlgGraph.getSqlDialect().addColumnStatement(schema, table,
                 foreignKey.getSchema() + "." + foreignKey.getTable(), this.sqlgGraph.getSqlDialect().getForeignKeyTypeDefinition());
@@ -444,7 +464,7 @@ public class EdgeLabel extends AbstractLabel {
         }
         StringBuilder sql = new StringBuilder();
         //foreign key definition start
-        if (this.sqlgGraph.getTopology().isImplementingForeignKeys()) {
+        if (this.sqlgGraph.getTopology().isImplementingForeignKeys() && !otherVertexPartitioned) {
             sql.append(" ALTER TABLE ");
             sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(schema));
             sql.append(".");
@@ -631,6 +651,22 @@ public class EdgeLabel extends AbstractLabel {
         return edgeLabelNode;
     }
 
+    /**
+     * The committed edge label in the notification format, see {@link Topology#toSnapshotJson()}.
+     *
+     * @param withProperties false if the edge label has already been written for another out vertex label.
+     */
+    JsonNode toSnapshotJson(boolean withProperties) {
+        ObjectNode edgeLabelNode = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        edgeLabelNode.put("schema", getSchema().getName());
+        edgeLabelNode.put("label", getLabel());
+        partitioningToNotifyJson(edgeLabelNode);
+        if (withProperties) {
+            propertiesToSnapshotJson(edgeLabelNode);
+        }
+        return edgeLabelNode;
+    }
+
     @Override
     protected Optional<JsonNode> toNotifyJson() {
 
@@ -638,6 +674,7 @@ public class EdgeLabel extends AbstractLabel {
         ObjectNode edgeLabelNode = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
         edgeLabelNode.put("schema", getSchema().getName());
         edgeLabelNode.put("label", getLabel());
+        partitioningToNotifyJson(edgeLabelNode);
 
         Optional<JsonNode> abstractLabelNode = super.toNotifyJson();
         if (abstractLabelNode.isPresent()) {
@@ -8,7 +8,6 @@ import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.SqlgGraph;
 import org.umlg.sqlg.structure.TopologyInf;
 
-import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -75,7 +74,7 @@ public class GlobalUniqueIndex implements TopologyInf {
     }
 
     /**
-     * Called from {@link Topology#fromNotifyJson(int, LocalDateTime)}
+     * Called when the topology is loaded and when the logs of other graphs are loaded, see {@link Topology#fromNotifyLogs()}.
      *
      * @param properties The properties.
      */
@@ -147,6 +146,23 @@ public class GlobalUniqueIndex implements TopologyInf {
         return Optional.of(result);
     }
 
+    /**
+     * The committed global unique index in the notification format, see {@link Topology#toSnapshotJson()}.
+     */
+    JsonNode toSnapshotJson() {
+        ObjectNode result = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        ArrayNode propertyArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        for (PropertyColumn property : this.properties) {
+            ObjectNode objectNode = property.toNotifyJson();
+            objectNode.put("schemaName", property.getParentLabel().getSchema().getName());
+            objectNode.put("abstractLabelLabel", property.getParentLabel().getLabel());
+            propertyArrayNode.add(objectNode);
+        }
+        result.put("name", getName());
+        result.set("uncommittedProperties", propertyArrayNode);
+        return result;
+    }
+
     /**
      * JSON representation of committed state
      * @return
@@ -29,6 +29,8 @@ public class Index implements TopologyInf {
     private List<PropertyColumn> properties = new ArrayList<>();
     private IndexType uncommittedIndexType;
     private List<PropertyColumn> uncommittedProperties = new ArrayList<>();
+    //false while an online index is being built
+    private volatile boolean valid = true;
 
     /**
      * create uncommitted index
@@ -95,6 +97,20 @@ public class Index implements TopologyInf {
         return indexType;
     }
 
+    /**
+     * An index created via {@link AbstractLabel#ensureOnlineIndexExists(IndexType, List)} is only valid once it is built.
+     * Until then the database does not use it and, for a unique index, does not enforce it.
+     *
+     * @return true if the index is built.
+     */
+    public boolean isValid() {
+        return this.valid;
+    }
+
+    void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
     /**
      * add a committed property (when loading topology from existing schema)
      *
@@ -123,13 +139,78 @@ public class Index implements TopologyInf {
     }
 
     private void addIndex(SqlgGraph sqlgGraph, SchemaTable schemaTable) {
+        String sql = createIndexSql(sqlgGraph, schemaTable, false);
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        Connection conn = sqlgGraph.tx().getConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Builds the committed pending index outside of any transaction, on a connection of its own in auto commit mode,
+     * and then marks it as valid.
+     * If the build fails the index is removed from the topology, the database has not built it.
+     * Partitioned tables can not be indexed online, their index is built with a plain create index on the parent table.
+     */
+    void buildOnline(SqlgGraph sqlgGraph) {
+        Preconditions.checkState(!this.valid, "Index %s is already valid", this.name);
+        SchemaTable schemaTable = SchemaTable.of(this.abstractLabel.getSchema().getName(), this.abstractLabel.getLabel());
+        boolean online = !this.abstractLabel.isPartitioned();
+        String sql = createIndexSql(sqlgGraph, schemaTable, online);
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        try (Connection conn = sqlgGraph.getConnection()) {
+            conn.setAutoCommit(true);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            if (online && sqlgGraph.getSqlDialect().onlineIndexCreationLeavesInvalidIndex()) {
+                try (Connection conn = sqlgGraph.getConnection()) {
+                    conn.setAutoCommit(true);
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute(dropIndexSql(sqlgGraph.getSqlDialect()));
+                    }
+                } catch (SQLException dropException) {
+                    e.addSuppressed(dropException);
+                }
+            }
+            try {
+                remove(true);
+                sqlgGraph.tx().commit();
+            } catch (RuntimeException removeException) {
+                sqlgGraph.tx().rollback();
+                e.addSuppressed(removeException);
+            }
+            throw new RuntimeException(e);
+        }
+        try {
+            this.abstractLabel.validateIndex(this);
+            sqlgGraph.tx().commit();
+        } catch (RuntimeException e) {
+            sqlgGraph.tx().rollback();
+            throw e;
+        }
+    }
+
+    private String createIndexSql(SqlgGraph sqlgGraph, SchemaTable schemaTable, boolean online) {
         String prefix = this.abstractLabel instanceof VertexLabel ? VERTEX_PREFIX : EDGE_PREFIX;
+        SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
         StringBuilder sql = new StringBuilder("CREATE ");
         if (IndexType.UNIQUE.equals(getIndexType())) {
             sql.append("UNIQUE ");
         }
         sql.append("INDEX ");
-        SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
+        if (online && !sqlDialect.onlineIndexCreationModifier().isEmpty()) {
+            sql.append(sqlDialect.onlineIndexCreationModifier());
+            sql.append(" ");
+        }
         sql.append(sqlDialect.maybeWrapInQoutes(getName()));
         sql.append(" ON ");
         sql.append(sqlDialect.maybeWrapInQoutes(schemaTable.getSchema()));
@@ -176,24 +257,21 @@ public class Index implements TopologyInf {
         }
 
         sql.append(")");
+        if (online && !sqlDialect.onlineIndexCreationOption().isEmpty()) {
+            sql.append(" ");
+            sql.append(sqlDialect.onlineIndexCreationOption());
+        }
         if (sqlDialect.needsSemicolon()) {
             sql.append(";");
         }
-        if (logger.isDebugEnabled()) {
-            logger.debug(sql.toString());
-        }
-        Connection conn = sqlgGraph.tx().getConnection();
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(sql.toString());
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return sql.toString();
     }
 
     protected Optional<JsonNode> toNotifyJson() {
         Preconditions.checkState(this.abstractLabel.getSchema().getTopology().isSqlWriteLockHeldByCurrentThread() && !this.uncommittedProperties.isEmpty());
         ObjectNode result = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
         result.put("name", this.name);
+        result.put("valid", this.valid);
         result.set("indexType", this.uncommittedIndexType.toNotifyJson());
         ArrayNode propertyArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
         for (PropertyColumn property : this.uncommittedProperties) {
@@ -203,6 +281,31 @@ public class Index implements TopologyInf {
         return Optional.of(result);
     }
 
+    /**
+     * The committed index in the notification format, see {@link Topology#toSnapshotJson()}.
+     */
+    JsonNode toSnapshotJson() {
+        ObjectNode result = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        result.put("name", this.name);
+        result.put("valid", this.valid);
+        result.set("indexType", this.indexType.toNotifyJson());
+        ArrayNode propertyArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        for (PropertyColumn property : this.properties) {
+            propertyArrayNode.add(property.toNotifyJson());
+        }
+        result.set("uncommittedProperties", propertyArrayNode);
+        return result;
+    }
+
+    /**
+     * The committed index once its online build is done, see {@link AbstractLabel#validateIndex(Index)}.
+     */
+    JsonNode toValidatedNotifyJson() {
+        ObjectNode result = (ObjectNode) toSnapshotJson();
+        result.put("valid", true);
+        return result;
+    }
+
     public static Index fromNotifyJson(AbstractLabel abstractLabel, JsonNode indexNode) {
         IndexType indexType = IndexType.fromNotifyJson(indexNode.get("indexType"));
         String name = indexNode.get("name").asText();
@@ -217,13 +320,23 @@ public class Index implements TopologyInf {
             properties.add(propertyColumnOptional.get());
         }
         Index index = new Index(name, indexType, abstractLabel, properties);
+        //absent in the notifications of older versions
+        index.valid = !indexNode.has("valid") || indexNode.get("valid").asBoolean();
         return index;
     }
 
-    static Index createIndex(SqlgGraph sqlgGraph, AbstractLabel abstractLabel, String indexName, IndexType indexType, List<PropertyColumn> properties) {
+    /**
+     * @param online If true the index is only registered as pending, it is built by {@link #buildOnline(SqlgGraph)}
+     *               once committed.
+     */
+    static Index createIndex(SqlgGraph sqlgGraph, AbstractLabel abstractLabel, String indexName, IndexType indexType, List<PropertyColumn> properties, boolean online) {
         Index index = new Index(indexName, indexType, abstractLabel, properties);
-        SchemaTable schemaTable = SchemaTable.of(abstractLabel.getSchema().getName(), abstractLabel.getLabel());
-        index.addIndex(sqlgGraph, schemaTable);
+        if (online) {
+            index.valid = false;
+        } else {
+            SchemaTable schemaTable = SchemaTable.of(abstractLabel.getSchema().getName(), abstractLabel.getLabel());
+            index.addIndex(sqlgGraph, schemaTable);
+        }
         TopologyManager.addIndex(sqlgGraph, index);
         index.committed = false;
         return index;
@@ -271,8 +384,17 @@ public class Index implements TopologyInf {
      * @param sqlgGraph
      */
     void delete(SqlgGraph sqlgGraph) {
+        String sql = dropIndexSql(sqlgGraph.getSqlDialect());
+        Connection conn = sqlgGraph.tx().getConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String dropIndexSql(SqlDialect sqlDialect) {
         StringBuilder sql = new StringBuilder("DROP INDEX IF EXISTS ");
-        SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
         sql.append(sqlDialect.maybeWrapInQoutes(getParentLabel().getSchema().getName()));
         sql.append(".");
         sql.append(sqlDialect.maybeWrapInQoutes(getName()));
@@ -282,12 +404,7 @@ public class Index implements TopologyInf {
         if (logger.isDebugEnabled()) {
             logger.debug(sql.toString());
         }
-        Connection conn = sqlgGraph.tx().getConnection();
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(sql.toString());
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return sql.toString();
     }
 
     @Override
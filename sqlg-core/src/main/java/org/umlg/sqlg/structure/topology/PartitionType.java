@@ -0,0 +1,38 @@
+package org.umlg.sqlg.structure.topology;
+
+/**
+ * How the rows of a partitioned vertex or edge label are distributed over its partitions.
+ * A label is partitioned on one of its properties, the partition key.
+ *
+ * Date: 2018/02/05
+ */
+public enum PartitionType {
+
+    /**
+     * The label's table is not partitioned.
+     */
+    NONE,
+    /**
+     * Each partition holds a range of the partition key's values, e.g. a month of a timestamp.
+     */
+    RANGE,
+    /**
+     * Each partition holds an explicit list of the partition key's values.
+     */
+    LIST,
+    /**
+     * The rows are distributed by the hash of the partition key, modulo the number of partitions.
+     */
+    HASH;
+
+    public boolean isNone() {
+        return this == NONE;
+    }
+
+    /**
+     * @param partitionType The persisted name, null for labels created before partitioning was supported.
+     */
+    public static PartitionType from(String partitionType) {
+        return partitionType == null ? NONE : PartitionType.valueOf(partitionType);
+    }
+}
@@ -6,7 +6,6 @@ import com.google.common.base.Preconditions;
 import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.TopologyInf;
 
-import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -76,7 +75,7 @@ public class PropertyColumn implements TopologyInf {
     }
 
     /**
-     * Only called from {@link Topology#fromNotifyJson(int, LocalDateTime)}
+     * Only called when the topology is loaded and when the logs of other graphs are loaded, see {@link Topology#fromNotifyLogs()}.
      *
      * @param globalUniqueIndex The {@link GlobalUniqueIndex} to add.
      */
@@ -17,7 +17,6 @@ import org.umlg.sqlg.strategy.BaseStrategy;
 import org.umlg.sqlg.structure.*;
 
 import java.sql.*;
-import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
@@ -110,7 +109,7 @@ public class Schema implements TopologyInf {
     }
 
     /**
-     * Only called from {@link Topology#fromNotifyJson(int, LocalDateTime)}
+     * Only called when loading the logs of other graphs, see {@link Topology#fromNotifyLogs()}.
      *
      * @param topology   The {@link Topology}
      * @param schemaName The schema's name
@@ -179,7 +178,62 @@ public class Schema implements TopologyInf {
         return ensureVertexLabelExist(label, columns, new Properties());
     }
 
+    /**
+     * Ensures that the partitioned vertex label exists. Its table is created as partitioned on the partition key, the
+     * partitions themselves are created with {@link AbstractLabel#ensureRangePartitionExists(String, Object, Object)},
+     * {@link AbstractLabel#ensureListPartitionExists(String, Object...)} or
+     * {@link AbstractLabel#ensureHashPartitionExists(String, int, int)}.
+     * If the label already exists it must have been created with the same partitioning.
+     *
+     * @param label         The vertex label.
+     * @param columns       The vertex label's properties, they must include the partition key.
+     * @param partitionType How the vertices are distributed over the partitions.
+     * @param partitionKey  The property the label is partitioned on.
+     * @return The {@link VertexLabel}.
+     */
+    public VertexLabel ensurePartitionedVertexLabelExist(final String label, final Map<String, PropertyType> columns, PartitionType partitionType, String partitionKey) {
+        Objects.requireNonNull(label, "Given table must not be null");
+        Objects.requireNonNull(partitionType, "Given partitionType must not be null");
+        Preconditions.checkArgument(!label.startsWith(VERTEX_PREFIX), "label may not be prefixed with %s", VERTEX_PREFIX);
+
+        Optional<VertexLabel> vertexLabelOptional = this.getVertexLabel(label);
+        if (!vertexLabelOptional.isPresent()) {
+            AbstractLabel.checkPartitioning(this.sqlgGraph, columns, partitionType, partitionKey);
+            this.topology.lock();
+            vertexLabelOptional = this.getVertexLabel(label);
+            if (!vertexLabelOptional.isPresent()) {
+                return this.createVertexLabel(label, columns, new Properties(), partitionType, partitionKey);
+            }
+        }
+        VertexLabel vertexLabel = vertexLabelOptional.get();
+        checkSamePartitioning(vertexLabel, partitionType, partitionKey);
+        vertexLabel.ensurePropertiesExist(columns);
+        return vertexLabel;
+    }
+
     public EdgeLabel ensureEdgeLabelExist(final String edgeLabelName, final VertexLabel outVertexLabel, final VertexLabel inVertexLabel, Map<String, PropertyType> columns, Properties additional) {
+        return ensureEdgeLabelExist(edgeLabelName, outVertexLabel, inVertexLabel, columns, additional, PartitionType.NONE, null);
+    }
+
+    /**
+     * Ensures that the partitioned edge label exists, see {@link #ensurePartitionedVertexLabelExist(String, Map, PartitionType, String)}.
+     *
+     * @param edgeLabelName  The edge label.
+     * @param outVertexLabel The edge's out {@link VertexLabel}.
+     * @param inVertexLabel  The edge's in {@link VertexLabel}.
+     * @param columns        The edge label's properties, they must include the partition key.
+     * @param partitionType  How the edges are distributed over the partitions.
+     * @param partitionKey   The property the label is partitioned on.
+     * @return The {@link EdgeLabel}.
+     */
+    public EdgeLabel ensurePartitionedEdgeLabelExist(final String edgeLabelName, final VertexLabel outVertexLabel, final VertexLabel inVertexLabel, Map<String, PropertyType> columns, PartitionType partitionType, String partitionKey) {
+        Objects.requireNonNull(partitionType, "Given partitionType must not be null");
+        EdgeLabel edgeLabel = ensureEdgeLabelExist(edgeLabelName, outVertexLabel, inVertexLabel, columns, new Properties(), partitionType, partitionKey);
+        checkSamePartitioning(edgeLabel, partitionType, partitionKey);
+        return edgeLabel;
+    }
+
+    private EdgeLabel ensureEdgeLabelExist(final String edgeLabelName, final VertexLabel outVertexLabel, final VertexLabel inVertexLabel, Map<String, PropertyType> columns, Properties additional, PartitionType partitionType, String partitionKey) {
         Objects.requireNonNull(edgeLabelName, "Given edgeLabelName may not be null");
         Objects.requireNonNull(outVertexLabel, "Given outVertexLabel may not be null");
         Objects.requireNonNull(inVertexLabel, "Given inVertexLabel may not be null");
@@ -190,7 +244,8 @@ public class Schema implements TopologyInf {
             this.topology.lock();
             edgeLabelOptional = this.getEdgeLabel(edgeLabelName);
             if (!edgeLabelOptional.isPresent()) {
-                edgeLabel = this.createEdgeLabel(edgeLabelName, outVertexLabel, inVertexLabel, columns, additional);
+                AbstractLabel.checkPartitioning(this.sqlgGraph, columns, partitionType, partitionKey);
+                edgeLabel = this.createEdgeLabel(edgeLabelName, outVertexLabel, inVertexLabel, columns, additional, partitionType, partitionKey);
                 this.uncommittedRemovedEdgeLabels.remove(this.name + "." + EDGE_PREFIX + edgeLabelName);
                 this.uncommittedOutEdgeLabels.put(this.name + "." + EDGE_PREFIX + edgeLabelName, edgeLabel);
                 this.getTopology().fire(edgeLabel, "", TopologyChangeAction.CREATE);
@@ -216,7 +271,12 @@ public class Schema implements TopologyInf {
     }
 
     @SuppressWarnings("OptionalGetWithoutIsPresent")
-    private EdgeLabel createEdgeLabel(final String edgeLabelName, final VertexLabel outVertexLabel, final VertexLabel inVertexLabel, final Map<String, PropertyType> columns, Properties additional) {
+    private static void checkSamePartitioning(AbstractLabel abstractLabel, PartitionType partitionType, String partitionKey) {
+        Preconditions.checkState(abstractLabel.getPartitionType() == partitionType && Objects.equals(abstractLabel.getPartitionKey(), partitionKey),
+                "%s already exists with partition type %s on %s", abstractLabel.getFullName(), abstractLabel.getPartitionType(), abstractLabel.getPartitionKey());
+    }
+
+    private EdgeLabel createEdgeLabel(final String edgeLabelName, final VertexLabel outVertexLabel, final VertexLabel inVertexLabel, final Map<String, PropertyType> columns, Properties additional, PartitionType partitionType, String partitionKey) {
         Preconditions.checkArgument(this.topology.isSqlWriteLockHeldByCurrentThread(), "Lock must be held by the thread to call createEdgeLabel");
         Preconditions.checkArgument(!edgeLabelName.startsWith(EDGE_PREFIX), "edgeLabelName may not start with " + EDGE_PREFIX);
         Preconditions.checkState(!this.isSqlgSchema(), "createEdgeLabel may not be called for \"%s\"", SQLG_SCHEMA);
@@ -229,7 +289,7 @@ public class Schema implements TopologyInf {
         SchemaTable foreignKeyOut = SchemaTable.of(this.name, outVertexLabel.getLabel());
         SchemaTable foreignKeyIn = SchemaTable.of(inVertexSchema.name, inVertexLabel.getLabel());
 
-        TopologyManager.addEdgeLabel(this.sqlgGraph, this.getName(), EDGE_PREFIX + edgeLabelName, foreignKeyOut, foreignKeyIn, columns);
+        TopologyManager.addEdgeLabel(this.sqlgGraph, this.getName(), EDGE_PREFIX + edgeLabelName, foreignKeyOut, foreignKeyIn, columns, partitionType, partitionKey);
         if (this.sqlgGraph.getSqlDialect().needsSchemaCreationPrecommit()) {
             try {
                 this.sqlgGraph.tx().getConnection().commit();
@@ -237,7 +297,7 @@ public class Schema implements TopologyInf {
                 throw new RuntimeException(e);
             }
         }
-        return outVertexLabel.addEdgeLabel(edgeLabelName, inVertexLabel, columns, additional);
+        return outVertexLabel.addEdgeLabel(edgeLabelName, inVertexLabel, columns, additional, partitionType, partitionKey);
     }
 
     VertexLabel createSqlgSchemaVertexLabel(String vertexLabelName, Map<String, PropertyType> columns) {
@@ -249,10 +309,14 @@ public class Schema implements TopologyInf {
     }
 
     private VertexLabel createVertexLabel(String vertexLabelName, Map<String, PropertyType> columns, Properties additional) {
+        return createVertexLabel(vertexLabelName, columns, additional, PartitionType.NONE, null);
+    }
+
+    private VertexLabel createVertexLabel(String vertexLabelName, Map<String, PropertyType> columns, Properties additional, PartitionType partitionType, String partitionKey) {
         Preconditions.checkState(!this.isSqlgSchema(), "createVertexLabel may not be called for \"%s\"", SQLG_SCHEMA);
         Preconditions.checkArgument(!vertexLabelName.startsWith(VERTEX_PREFIX), "vertex label may not start with " + VERTEX_PREFIX);
         this.uncommittedRemovedVertexLabels.remove(this.name + "." + VERTEX_PREFIX + vertexLabelName);
-        VertexLabel vertexLabel = VertexLabel.createVertexLabel(this.sqlgGraph, this, vertexLabelName, columns, additional);
+        VertexLabel vertexLabel = VertexLabel.createVertexLabel(this.sqlgGraph, this, vertexLabelName, columns, additional, partitionType, partitionKey);
         this.uncommittedVertexLabels.put(this.name + "." + VERTEX_PREFIX + vertexLabelName, vertexLabel);
         this.getTopology().fire(vertexLabel, "", TopologyChangeAction.CREATE);
         return vertexLabel;
@@ -727,6 +791,7 @@ public class Schema implements TopologyInf {
             VertexLabel vertexLabel = this.vertexLabels.get(schemaName + "." + VERTEX_PREFIX + tableName);
             if (vertexLabel == null) {
                 vertexLabel = new VertexLabel(this, tableName);
+                vertexLabel.loadPartitioning(vertexVertex);
                 this.vertexLabels.put(schemaName + "." + VERTEX_PREFIX + tableName, vertexLabel);
             }
             if (propertyVertex != null) {
@@ -785,6 +850,7 @@ public class Schema implements TopologyInf {
                 EdgeLabel edgeLabel;
                 if (!edgeLabelOptional.isPresent()) {
                     edgeLabel = EdgeLabel.loadFromDb(vertexLabel.getSchema().getTopology(), edgeLabelName);
+                    edgeLabel.loadPartitioning(outEdgeVertex);
                     vertexLabel.addToOutEdgeLabels(schemaName, edgeLabel);
                 } else {
                     edgeLabel = edgeLabelOptional.get();
@@ -858,6 +924,7 @@ public class Schema implements TopologyInf {
                     idx = oidx.get();
                 } else {
                     idx = new Index(indexName, IndexType.fromString(vertexIndex.value(SQLG_SCHEMA_INDEX_INDEX_TYPE)), vertexLabel);
+                    idx.setValid(vertexIndex.<Boolean>property(SQLG_SCHEMA_INDEX_VALID).orElse(true));
                     vertexLabel.addIndex(idx);
                 }
                 if (propertyIndex != null) {
@@ -1010,6 +1077,7 @@ public class Schema implements TopologyInf {
                             idx = oidx.get();
                         } else {
                             idx = new Index(indexName, IndexType.fromString(vertexIndex.value(SQLG_SCHEMA_INDEX_INDEX_TYPE)), edgeLabel);
+                            idx.setValid(vertexIndex.<Boolean>property(SQLG_SCHEMA_INDEX_VALID).orElse(true));
                             edgeLabel.addIndex(idx);
                         }
                         if (propertyIndex != null) {
@@ -1034,6 +1102,25 @@ public class Schema implements TopologyInf {
         return schemaNode;
     }
 
+    /**
+     * The committed schema in the notification format, see {@link Topology#toSnapshotJson()}.
+     */
+    JsonNode toSnapshotJson(Set<EdgeLabel> writtenEdgeLabels) {
+        ObjectNode schemaNode = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        schemaNode.put("name", this.getName());
+        ArrayNode vertexLabelArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        for (VertexLabel vertexLabel : this.vertexLabels.values()) {
+            vertexLabelArrayNode.add(vertexLabel.toSnapshotJson(writtenEdgeLabels));
+        }
+        schemaNode.set("vertexLabels", vertexLabelArrayNode);
+        ArrayNode globalUniqueIndexArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        for (GlobalUniqueIndex globalUniqueIndex : this.globalUniqueIndexes.values()) {
+            globalUniqueIndexArrayNode.add(globalUniqueIndex.toSnapshotJson());
+        }
+        schemaNode.set("uncommittedGlobalUniqueIndexes", globalUniqueIndexArrayNode);
+        return schemaNode;
+    }
+
     Optional<JsonNode> toNotifyJson() {
         boolean foundVertexLabels = false;
         ObjectNode schemaNode = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
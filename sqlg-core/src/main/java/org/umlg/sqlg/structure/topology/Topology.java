@@ -5,25 +5,34 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
-import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
-import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.umlg.sqlg.sql.dialect.SqlDialect;
 import org.umlg.sqlg.sql.dialect.SqlSchemaChangeDialect;
 import org.umlg.sqlg.structure.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
 
 /**
  * Date: 2016/09/04
@@ -48,11 +57,14 @@ public class Topology {
     public static final String DURATION_NANOS = "~~~NANOS";
     public static final String BULK_TEMP_EDGE = "BULK_TEMP_EDGE";
 
+    private static Logger logger = LoggerFactory.getLogger(Topology.class);
     private SqlgGraph sqlgGraph;
     private boolean distributed;
 
     //Used to ensure that only one thread can modify the topology.
     private ReentrantLock topologySqlWriteLock;
+    //Runs the topology transactions of SqlgGraph.TOPOLOGY_AUTONOMOUS, null if it is not configured.
+    private ExecutorService autonomousExecutorService;
     //Used to protect the topology maps.
     //The maps are only updated during afterCommit.
     //afterCommit locks access to the map
@@ -72,22 +84,32 @@ public class Topology {
     private Map<String, Schema> metaSchemas = new HashMap<>();
     //A cache of just the sqlg_schema's AbstractLabels
     private Set<TopologyInf> sqlgSchemaAbstractLabels = new HashSet<>();
+    //An immutable copy of the committed topology maps, republished whenever the maps change.
+    //Threads that are not changing the topology read it without taking the topologyMapLock.
+    private volatile TopologySnapshot snapshot;
+    //true while the topology is being loaded from the snapshot file, listeners are not fired for loading.
+    private boolean loadingSnapshotFile = false;
 
     static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     public static final String SQLG_NOTIFICATION_CHANNEL = "SQLG_NOTIFY";
 
-    //ownPids are the pids to ignore as it is what the graph sent a notification for.
-    private Set<ImmutablePair<Integer, LocalDateTime>> ownPids = Collections.synchronizedSet(new HashSet<>());
+    //The ids of the logs this graph wrote itself, they are skipped when the logs are loaded.
+    private Set<Long> ownLogIds = ConcurrentHashMap.newKeySet();
 
-    //every notification will have a unique timestamp.
-    //This is so because modification happen one at a time via the lock.
-    private SortedSet<LocalDateTime> notificationTimestamps = new TreeSet<>();
+    //The id of the last loaded log, -1 until the topology is cached.
+    //The logs are written while the topology lock is held, so the ids the db assigns increase in commit order whatever
+    //the clocks of the graphs that wrote them.
+    private volatile long lastLogId = -1;
 
     private List<TopologyValidationError> validationErrors = new ArrayList<>();
     private List<TopologyListener> topologyListeners = new ArrayList<>();
 
     private static final int LOCK_TIMEOUT = 2;
+    //How long an autonomous topology transaction waits for a table lock, in milliseconds.
+    private static final long AUTONOMOUS_LOCK_TIMEOUT = 1000;
+    //The number of threads making autonomous topology changes, so that one change waiting for a lock does not queue the others.
+    private static final int AUTONOMOUS_THREADS = 4;
 
     @SuppressWarnings("WeakerAccess")
     public static final String CREATED_ON = "createdOn";
@@ -139,6 +161,14 @@ public class Topology {
      */
     @SuppressWarnings("WeakerAccess")
     public static final String SQLG_SCHEMA_EDGE_LABEL_NAME = "name";
+    /**
+     * VertexLabel and EdgeLabel's partition type property, see {@link PartitionType}.
+     */
+    public static final String SQLG_SCHEMA_PARTITION_TYPE = "partitionType";
+    /**
+     * VertexLabel and EdgeLabel's partition key property, the name of the property the label is partitioned on.
+     */
+    public static final String SQLG_SCHEMA_PARTITION_KEY = "partitionKey";
     /**
      * Table storing the graphs element properties.
      */
@@ -188,6 +218,10 @@ public class Topology {
      */
     @SuppressWarnings("WeakerAccess")
     public static final String SQLG_SCHEMA_INDEX_INDEX_TYPE = "index_type";
+    /**
+     * Index table's valid property, false while an online index is being built.
+     */
+    public static final String SQLG_SCHEMA_INDEX_VALID = "valid";
     /**
      * Edge table for the VertexLabel to Index.
      */
@@ -269,6 +303,19 @@ public class Topology {
         this.distributed = sqlgGraph.configuration().getBoolean(SqlgGraph.DISTRIBUTED, false);
         this.topologySqlWriteLock = new ReentrantLock(true);
         this.topologyMapLock = new ReentrantReadWriteLock(true);
+        if (sqlgGraph.configuration().getBoolean(SqlgGraph.TOPOLOGY_AUTONOMOUS, false)) {
+            //a schema change that gives up must leave nothing behind
+            Preconditions.checkState(sqlgGraph.getSqlDialect().supportsLockTimeout() && sqlgGraph.getSqlDialect().supportsTransactionalSchema(),
+                    "%s does not support %s", sqlgGraph.getSqlDialect().dialectName(), SqlgGraph.TOPOLOGY_AUTONOMOUS);
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(AUTONOMOUS_THREADS, AUTONOMOUS_THREADS,
+                    60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "Sqlg autonomous topology " + sqlgGraph.toString());
+                thread.setDaemon(true);
+                return thread;
+            });
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            this.autonomousExecutorService = threadPoolExecutor;
+        }
 
         //Pre-create the meta topology.
         Schema sqlgSchema = Schema.instantiateSqlgSchema(this);
@@ -289,11 +336,15 @@ public class Topology {
         VertexLabel schemaVertexLabel = sqlgSchema.createSqlgSchemaVertexLabel(SQLG_SCHEMA_SCHEMA, columns);
         this.sqlgSchemaAbstractLabels.add(schemaVertexLabel);
         columns.put(SCHEMA_VERTEX_DISPLAY, PropertyType.STRING);
+        columns.put(SQLG_SCHEMA_PARTITION_TYPE, PropertyType.STRING);
+        columns.put(SQLG_SCHEMA_PARTITION_KEY, PropertyType.STRING);
         VertexLabel vertexVertexLabel = sqlgSchema.createSqlgSchemaVertexLabel(SQLG_SCHEMA_VERTEX_LABEL, columns);
         this.sqlgSchemaAbstractLabels.add(vertexVertexLabel);
         columns.remove(SCHEMA_VERTEX_DISPLAY);
         VertexLabel edgeVertexLabel = sqlgSchema.createSqlgSchemaVertexLabel(SQLG_SCHEMA_EDGE_LABEL, columns);
         this.sqlgSchemaAbstractLabels.add(edgeVertexLabel);
+        columns.remove(SQLG_SCHEMA_PARTITION_TYPE);
+        columns.remove(SQLG_SCHEMA_PARTITION_KEY);
 
         columns.put(SQLG_SCHEMA_PROPERTY_TYPE, PropertyType.STRING);
         VertexLabel propertyVertexLabel = sqlgSchema.createSqlgSchemaVertexLabel(SQLG_SCHEMA_PROPERTY, columns);
@@ -302,6 +353,7 @@ public class Topology {
         columns.clear();
         columns.put(SQLG_SCHEMA_INDEX_NAME, PropertyType.STRING);
         columns.put(SQLG_SCHEMA_INDEX_INDEX_TYPE, PropertyType.STRING);
+        columns.put(SQLG_SCHEMA_INDEX_VALID, PropertyType.BOOLEAN);
         columns.put(CREATED_ON, PropertyType.LOCALDATETIME);
         VertexLabel indexVertexLabel = sqlgSchema.createSqlgSchemaVertexLabel(SQLG_SCHEMA_INDEX, columns);
         this.sqlgSchemaAbstractLabels.add(indexVertexLabel);
@@ -361,6 +413,7 @@ public class Topology {
         });
 
         this.edgeForeignKeyCache = sqlgSchema.getAllEdgeForeignKeys();
+        publishSnapshot();
 
         if (this.distributed) {
             ((SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect()).registerListener(sqlgGraph);
@@ -391,6 +444,9 @@ public class Topology {
         if (this.distributed) {
             ((SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect()).unregisterListener();
         }
+        if (this.autonomousExecutorService != null) {
+            this.autonomousExecutorService.shutdownNow();
+        }
     }
 
     public List<TopologyValidationError> getValidationErrors() {
@@ -412,21 +468,8 @@ public class Topology {
             if (this.distributed) {
                 ((SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect()).lock(this.sqlgGraph);
                 //load the log to see if the schema has not already been created.
-                //the last loaded log
-                if (!this.notificationTimestamps.isEmpty()) {
-                    LocalDateTime timestamp = this.notificationTimestamps.last();
-                    List<Vertex> logs = this.sqlgGraph.topology().V()
-                            .hasLabel(SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG)
-                            .has(SQLG_SCHEMA_LOG_TIMESTAMP, P.gt(timestamp))
-                            .toList();
-                    for (Vertex logVertex : logs) {
-                        int pid = logVertex.value("pid");
-                        LocalDateTime timestamp2 = logVertex.value("timestamp");
-                        if (!ownPids.contains(new ImmutablePair<>(pid, timestamp2))) {
-                            ObjectNode log = logVertex.value("log");
-                            fromNotifyJson(timestamp, log);
-                        }
-                    }
+                if (this.lastLogId != -1) {
+                    fromNotifyJson(loadLogsAfter(this.lastLogId));
                 }
             }
         }
@@ -471,7 +514,7 @@ public class Topology {
     }
 
     /**
-     * Called from {@link Topology#afterCommit()} and {@link Topology#fromNotifyJson(LocalDateTime, ObjectNode)}
+     * Called from {@link Topology#afterCommit()} and {@link Topology#fromNotifyJson(List)}
      * These two methods are the only places where the topology maps are updated and therefore write locked.
      */
     private void z_internalTopologyMapWriteLock() {
@@ -483,7 +526,7 @@ public class Topology {
     }
 
     /**
-     * Called from {@link Topology#afterCommit()} and {@link Topology#fromNotifyJson(LocalDateTime, ObjectNode)}
+     * Called from {@link Topology#afterCommit()} and {@link Topology#fromNotifyJson(List)}
      * These two methods are the only places where the topology maps are updated and therefore write unlocked.
      */
     private void z_internalInternalTopologyMapWriteUnLock() {
@@ -497,10 +540,91 @@ public class Topology {
         return this.topologySqlWriteLock.isHeldByCurrentThread();
     }
 
+    /**
+     * @return true if any thread owns the sql write lock, i.e. there are uncommitted topology changes.
+     */
+    public boolean isSqlWriteLocked() {
+        return this.topologySqlWriteLock.isLocked();
+    }
+
     boolean isTopologyMapWriteLockHeldByCurrentThread() {
         return this.topologyMapLock.writeLock().isHeldByCurrentThread();
     }
 
+    /**
+     * Copies the committed topology maps into a new {@link TopologySnapshot}.
+     * Must be called whenever the committed maps have changed, with the lock that protected the change still held.
+     */
+    private void publishSnapshot() {
+        this.snapshot = new TopologySnapshot(
+                this.schemas,
+                this.metaSchemas,
+                this.allTableCache,
+                this.schemaTableForeignKeyCache,
+                this.edgeForeignKeyCache
+        );
+    }
+
+    /**
+     * The snapshot is only valid for threads that are not themselves changing the topology.
+     * Those must see their uncommitted changes and read the maps under the topologyMapLock.
+     *
+     * @return the committed snapshot or null if the current thread must read the maps.
+     */
+    private TopologySnapshot committedSnapshot() {
+        if (isSqlWriteLockHeldByCurrentThread() || isTopologyMapWriteLockHeldByCurrentThread()) {
+            return null;
+        }
+        return this.snapshot;
+    }
+
+    /**
+     * With {@link SqlgGraph#TOPOLOGY_AUTONOMOUS} a missing label or property is created and committed in a short
+     * transaction of its own. The topology locks are then released straight away instead of being held until the
+     * calling transaction commits, so writers adding unrelated labels no longer wait for each other.
+     * The change is not rolled back with the calling transaction.
+     * <p>
+     * If the calling transaction already wrote to a table the change alters the change would only wait on the calling
+     * transaction's own locks while holding the topology lock, it is then left to the calling transaction straight away.
+     * If the change still has to wait for a table lock held by the calling transaction it gives up after
+     * {@link #AUTONOMOUS_LOCK_TIMEOUT} and is left to the calling transaction, as without the option. The timeout does
+     * not apply to taking the topology lock, which is taken first.
+     *
+     * @param exists       Checks the committed topology for the label or property.
+     * @param change       Makes the change, it runs on another thread.
+     * @param schemaTables The prefixed tables the change alters or references.
+     */
+    private void ensureAutonomously(BooleanSupplier exists, Runnable change, SchemaTable... schemaTables) {
+        if (this.autonomousExecutorService == null || isSqlWriteLockHeldByCurrentThread() || exists.getAsBoolean()) {
+            return;
+        }
+        for (SchemaTable schemaTable : schemaTables) {
+            if (this.sqlgGraph.tx().hasWritten(schemaTable)) {
+                return;
+            }
+        }
+        Future<?> future = this.autonomousExecutorService.submit(() -> {
+            try {
+                this.sqlgGraph.tx().readWrite();
+                //the topology lock is taken without the timeout, only the schema change's table locks may give up.
+                lock();
+                ((SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect()).setLockTimeout(this.sqlgGraph, AUTONOMOUS_LOCK_TIMEOUT);
+                change.run();
+                this.sqlgGraph.tx().commit();
+            } catch (RuntimeException e) {
+                this.sqlgGraph.tx().rollback();
+                throw e;
+            }
+        });
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.debug("autonomous topology change failed, it is left to the calling transaction", e.getCause());
+        }
+    }
+
     /**
      * Ensures that the schema exists.
      *
@@ -584,6 +708,11 @@ public class Topology {
         Objects.requireNonNull(label, "Given table must not be null");
         Preconditions.checkArgument(!label.startsWith(VERTEX_PREFIX), "label may not be prefixed with %s", VERTEX_PREFIX);
 
+        ensureAutonomously(
+                () -> getVertexLabel(schemaName, label).filter(v -> v.getProperties().keySet().containsAll(properties.keySet())).isPresent(),
+                () -> this.ensureSchemaExist(schemaName).ensureVertexLabelExist(label, properties, additional),
+                SchemaTable.of(schemaName, VERTEX_PREFIX + label)
+        );
         Schema schema = this.ensureSchemaExist(schemaName);
         Preconditions.checkState(schema != null, "Schema must be present after calling ensureSchemaExist");
         return schema.ensureVertexLabelExist(label, properties, additional);
@@ -593,6 +722,23 @@ public class Topology {
         return ensureVertexLabelExist(schemaName, label, properties, new Properties());
     }
 
+    /**
+     * Ensures that the schema and the partitioned vertex label exist, see
+     * {@link Schema#ensurePartitionedVertexLabelExist(String, Map, PartitionType, String)}.
+     *
+     * @param schemaName    The schema the vertex label is in.
+     * @param label         The vertex's label.
+     * @param properties    The properties with their types, they must include the partition key.
+     * @param partitionType How the vertices are distributed over the partitions.
+     * @param partitionKey  The property the label is partitioned on.
+     */
+    public VertexLabel ensurePartitionedVertexLabelExist(final String schemaName, final String label, final Map<String, PropertyType> properties, PartitionType partitionType, String partitionKey) {
+        Objects.requireNonNull(schemaName, "Given tables must not be null");
+        Schema schema = this.ensureSchemaExist(schemaName);
+        Preconditions.checkState(schema != null, "Schema must be present after calling ensureSchemaExist");
+        return schema.ensurePartitionedVertexLabelExist(label, properties, partitionType, partitionKey);
+    }
+
     public void ensureTemporaryVertexTableExist(final String schema, final String label, final Map<String, PropertyType> properties) {
         Objects.requireNonNull(schema, "Given schema may not be null");
         Preconditions.checkState(schema.equals(this.sqlgGraph.getSqlDialect().getPublicSchema()), "Temporary vertices may only be created in the '" + this.sqlgGraph.getSqlDialect().getPublicSchema() + "' schema. Found + " + schema);
@@ -619,6 +765,16 @@ public class Topology {
         Objects.requireNonNull(outVertexLabel, "Given outVertexLabel must not be null");
         Objects.requireNonNull(inVertexLabel, "Given inVertexLabel must not be null");
         Schema outVertexSchema = outVertexLabel.getSchema();
+        ensureAutonomously(
+                () -> outVertexSchema.getEdgeLabel(edgeLabelName)
+                        .filter(e -> e.getOutVertexLabels().contains(outVertexLabel) && e.getInVertexLabels().contains(inVertexLabel))
+                        .filter(e -> e.getProperties().keySet().containsAll(properties.keySet()))
+                        .isPresent(),
+                () -> outVertexSchema.ensureEdgeLabelExist(edgeLabelName, outVertexLabel, inVertexLabel, properties, additional),
+                SchemaTable.of(outVertexSchema.getName(), EDGE_PREFIX + edgeLabelName),
+                SchemaTable.of(outVertexSchema.getName(), VERTEX_PREFIX + outVertexLabel.getLabel()),
+                SchemaTable.of(inVertexLabel.getSchema().getName(), VERTEX_PREFIX + inVertexLabel.getLabel())
+        );
         return outVertexSchema.ensureEdgeLabelExist(edgeLabelName, outVertexLabel, inVertexLabel, properties, additional);
     }
 
@@ -692,6 +848,11 @@ public class Topology {
             if (!schemaOptional.isPresent()) {
                 throw new IllegalStateException(String.format("BUG: schema \"%s\" can not be null", schemaName));
             }
+            ensureAutonomously(
+                    () -> schemaOptional.get().getVertexLabel(label).map(v -> v.getProperties().keySet().containsAll(properties.keySet())).orElse(true),
+                    () -> schemaOptional.get().ensureVertexColumnsExist(label, properties),
+                    SchemaTable.of(schemaName, VERTEX_PREFIX + label)
+            );
             //createVertexLabel the table
             schemaOptional.get().ensureVertexColumnsExist(label, properties);
         }
@@ -728,6 +889,11 @@ public class Topology {
             if (!schemaOptional.isPresent()) {
                 throw new IllegalStateException(String.format("BUG: schema %s can not be null", schemaName));
             }
+            ensureAutonomously(
+                    () -> schemaOptional.get().getEdgeLabel(label).map(e -> e.getProperties().keySet().containsAll(properties.keySet())).orElse(true),
+                    () -> schemaOptional.get().ensureEdgeColumnsExist(label, properties),
+                    SchemaTable.of(schemaName, EDGE_PREFIX + label)
+            );
             schemaOptional.get().ensureEdgeColumnsExist(label, properties);
         }
     }
@@ -744,9 +910,10 @@ public class Topology {
             Optional<JsonNode> jsonNodeOptional = this.toNotifyJson();
             if (jsonNodeOptional.isPresent()) {
                 SqlSchemaChangeDialect sqlSchemaChangeDialect = (SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect();
-                LocalDateTime timestamp = LocalDateTime.now();
-                int pid = sqlSchemaChangeDialect.notifyChange(sqlgGraph, timestamp, jsonNodeOptional.get());
-                this.ownPids.add(new ImmutablePair<>(pid, timestamp));
+                //mariadb and mssql store the timestamp to the millisecond, so the read back timestamp equals the written one
+                LocalDateTime timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+                long logId = sqlSchemaChangeDialect.notifyChange(sqlgGraph, timestamp, jsonNodeOptional.get());
+                this.ownLogIds.add(logId);
             }
         }
     }
@@ -807,8 +974,12 @@ public class Topology {
                 for (Schema schema : this.schemas.values()) {
                     schema.afterCommit();
                 }
+                publishSnapshot();
             } finally {
                 z_internalInternalTopologyMapWriteUnLock();
+                if (this.distributed) {
+                    ((SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect()).unlock(this.sqlgGraph);
+                }
                 z_internalSqlWriteUnlock();
             }
         }
@@ -826,6 +997,16 @@ public class Topology {
             for (Schema schema : this.schemas.values()) {
                 schema.afterRollback();
             }
+            //Removing labels updates the committed maps before the commit.
+            z_internalTopologyMapWriteLock();
+            try {
+                publishSnapshot();
+            } finally {
+                z_internalInternalTopologyMapWriteUnLock();
+            }
+            if (this.distributed) {
+                ((SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect()).unlock(this.sqlgGraph);
+            }
             z_internalSqlWriteUnlock();
         }
     }
@@ -849,24 +1030,53 @@ public class Topology {
     public void cacheTopology() {
         this.lock();
         GraphTraversalSource traversalSource = this.sqlgGraph.topology();
-        //load the last log
-        //the last timestamp is needed when just after obtaining the lock the log table is queried again to ensure that the last log is indeed
-        //loaded as the notification might not have been received yet.
-        List<Vertex> logs = traversalSource.V()
-                .hasLabel(SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG)
-                .order().by(SQLG_SCHEMA_LOG_TIMESTAMP, Order.decr)
-                .limit(1)
-                .toList();
-        Preconditions.checkState(logs.size() <= 1, "must load one or zero logs in cacheTopology");
+        //the id of the last log is needed when just after obtaining the lock the log table is queried again to ensure that
+        //the last log is indeed loaded as the notification might not have been received yet.
+        long lastLogId = loadLastLogId();
+        this.lastLogId = lastLogId;
+
+        Long snapshotLogId = loadTopologySnapshotFile(traversalSource);
+        if (snapshotLogId == null) {
+            loadTopology(traversalSource);
+        }
 
-        if (!logs.isEmpty()) {
-            Vertex log = logs.get(0);
-            LocalDateTime timestamp = log.value("timestamp");
-            this.notificationTimestamps.add(timestamp);
-        } else {
-            this.notificationTimestamps.add(LocalDateTime.now());
+        //populate the allTablesCache
+        for (Schema schema : this.schemas.values()) {
+            if (!schema.isSqlgSchema()) {
+                this.allTableCache.putAll(schema.getAllTables());
+            }
         }
+        //populate the schemaTableForeignKeyCache
+        this.schemaTableForeignKeyCache.putAll(loadTableLabels());
+        //populate the edgeForeignKey cache
+        this.edgeForeignKeyCache.putAll(loadAllEdgeForeignKeys());
 
+        if (lastLogId > 0 && !Long.valueOf(lastLogId).equals(snapshotLogId)) {
+            writeTopologySnapshotFile(lastLogId);
+        }
+    }
+
+    /**
+     * @return the id of the last log or 0 if there is none.
+     */
+    private long loadLastLogId() {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        String sql = "SELECT MAX(" + sqlDialect.maybeWrapInQoutes(ID) + ") FROM " +
+                sqlDialect.maybeWrapInQoutes(SQLG_SCHEMA) + "." + sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + SQLG_SCHEMA_LOG) +
+                (sqlDialect.needsSemicolon() ? ";" : "");
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (Statement statement = conn.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(sql);
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void loadTopology(GraphTraversalSource traversalSource) {
         //First load all VertexLabels, their out edges and properties
         List<Vertex> schemaVertices = traversalSource.V().hasLabel(SQLG_SCHEMA + "." + SQLG_SCHEMA_SCHEMA).toList();
         for (Vertex schemaVertex : schemaVertices) {
@@ -945,17 +1155,103 @@ public class Topology {
             }
             globalUniqueIndex.addGlobalUniqueProperties(guiPropertyColumns);
         }
+    }
 
-        //populate the allTablesCache
-        for (Schema schema : this.schemas.values()) {
-            if (!schema.isSqlgSchema()) {
-                this.allTableCache.putAll(schema.getAllTables());
+    /**
+     * Loads the topology from the file configured with {@link SqlgGraph#TOPOLOGY_SNAPSHOT_FILE} and then replays the logs
+     * written after it. The snapshot is only used on a distributed graph as only then does the log record every topology change.
+     * A snapshot of another database, or one whose log is no longer present, is ignored.
+     *
+     * @param traversalSource The sqlg_schema traversal source.
+     * @return The id of the last log of the snapshot that was loaded or null if the topology still needs to be loaded from sqlg_schema.
+     */
+    private Long loadTopologySnapshotFile(GraphTraversalSource traversalSource) {
+        String snapshotFile = this.sqlgGraph.configuration().getString(SqlgGraph.TOPOLOGY_SNAPSHOT_FILE, null);
+        if (snapshotFile == null || !this.distributed || !Files.exists(Paths.get(snapshotFile))) {
+            return null;
+        }
+        JsonNode snapshotJson;
+        try {
+            snapshotJson = OBJECT_MAPPER.readTree(Paths.get(snapshotFile).toFile());
+        } catch (IOException e) {
+            logger.warn(String.format("Failed to read the topology snapshot file %s, loading the topology from %s", snapshotFile, SQLG_SCHEMA), e);
+            return null;
+        }
+        if (snapshotJson == null || !snapshotJson.has("jdbcUrl") || !snapshotJson.has("logId") || !snapshotJson.has("topology") ||
+                !snapshotJson.get("jdbcUrl").asText().equals(this.sqlgGraph.getJdbcUrl())) {
+            return null;
+        }
+        long snapshotLogId = snapshotJson.get("logId").asLong();
+        List<Vertex> logs = loadLogsAfter(snapshotLogId - 1);
+        //The snapshot's own log must still be there, else there is no telling what changed since.
+        if (logs.isEmpty() || ((RecordId) logs.get(0).id()).getId() != snapshotLogId) {
+            return null;
+        }
+        z_internalTopologyMapWriteLock();
+        this.loadingSnapshotFile = true;
+        try {
+            applyNotifyJson((ObjectNode) snapshotJson.get("topology"));
+            for (Vertex logVertex : logs.subList(1, logs.size())) {
+                applyNotifyJson(logVertex.value(SQLG_SCHEMA_LOG_LOG));
             }
+            publishSnapshot();
+        } finally {
+            this.loadingSnapshotFile = false;
+            z_internalInternalTopologyMapWriteUnLock();
+        }
+        return snapshotLogId;
+    }
+
+    private void writeTopologySnapshotFile(long logId) {
+        String snapshotFile = this.sqlgGraph.configuration().getString(SqlgGraph.TOPOLOGY_SNAPSHOT_FILE, null);
+        if (snapshotFile == null || !this.distributed) {
+            return;
+        }
+        ObjectNode snapshotJson = new ObjectNode(OBJECT_MAPPER.getNodeFactory());
+        snapshotJson.put("jdbcUrl", this.sqlgGraph.getJdbcUrl());
+        snapshotJson.put("logId", logId);
+        snapshotJson.set("topology", toSnapshotJson());
+        Path path = Paths.get(snapshotFile).toAbsolutePath();
+        try {
+            //write and rename so that a graph starting up concurrently never reads a partially written snapshot.
+            Path tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                OBJECT_MAPPER.writeValue(tmp.toFile(), snapshotJson);
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            logger.warn(String.format("Failed to write the topology snapshot file %s", snapshotFile), e);
+        }
+    }
+
+    /**
+     * The committed topology in the notification format so that it can be loaded with {@link #applyNotifyJson(ObjectNode)}.
+     * The global unique index schema is written last as its indexes refer to the properties of the other schemas.
+     *
+     * @return The json.
+     */
+    private ObjectNode toSnapshotJson() {
+        z_internalTopologyMapReadLock();
+        try {
+            Set<EdgeLabel> writtenEdgeLabels = new HashSet<>();
+            ArrayNode schemaArrayNode = new ArrayNode(OBJECT_MAPPER.getNodeFactory());
+            for (Schema schema : this.schemas.values()) {
+                if (!schema.getName().equals(Schema.GLOBAL_UNIQUE_INDEX_SCHEMA)) {
+                    schemaArrayNode.add(schema.toSnapshotJson(writtenEdgeLabels));
+                }
+            }
+            Schema globalUniqueIndexSchema = this.schemas.get(Schema.GLOBAL_UNIQUE_INDEX_SCHEMA);
+            if (globalUniqueIndexSchema != null) {
+                schemaArrayNode.add(globalUniqueIndexSchema.toSnapshotJson(writtenEdgeLabels));
+            }
+            ObjectNode topologyNode = new ObjectNode(OBJECT_MAPPER.getNodeFactory());
+            topologyNode.set("schemas", schemaArrayNode);
+            return topologyNode;
+        } finally {
+            z_internalTopologyMapReadUnLock();
         }
-        //populate the schemaTableForeignKeyCache
-        this.schemaTableForeignKeyCache.putAll(loadTableLabels());
-        //populate the edgeForeignKey cache
-        this.edgeForeignKeyCache.putAll(loadAllEdgeForeignKeys());
     }
 
     public void validateTopology() {
@@ -1061,88 +1357,108 @@ public class Topology {
         }
     }
 
-    public void fromNotifyJson(int pid, LocalDateTime notifyTimestamp) {
+    /**
+     * Loads every log written since the last loaded log. Called once for a burst of notifications, the logs are loaded in
+     * id order under one acquisition of the topology lock.
+     *
+     * @return true if a log of another graph was loaded.
+     */
+    public boolean fromNotifyLogs() {
         try {
-            ImmutablePair<Integer, LocalDateTime> p = new ImmutablePair<>(pid, notifyTimestamp);
-            if (!this.ownPids.contains(p)) {
-                List<Vertex> logs = this.sqlgGraph.topology().V()
-                        .hasLabel(SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG)
-                        .has(SQLG_SCHEMA_LOG_TIMESTAMP, notifyTimestamp)
-                        .toList();
-                Preconditions.checkState(logs.size() == 1, "There must be one and only be one log, found %d", logs.size());
-                LocalDateTime timestamp = logs.get(0).value("timestamp");
-                Preconditions.checkState(timestamp.equals(notifyTimestamp), "notify log's timestamp does not match.");
-                int backEndPid = logs.get(0).value("pid");
-                Preconditions.checkState(backEndPid == pid, "notify pids do not match.");
-                ObjectNode log = logs.get(0).value("log");
-                fromNotifyJson(timestamp, log);
-            } else {
-                // why? we get notifications for our own things
-                //this.ownPids.remove(p);
-            }
+            return this.lastLogId != -1 && fromNotifyJson(loadLogsAfter(this.lastLogId));
         } finally {
             this.sqlgGraph.tx().rollback();
         }
     }
 
-    @SuppressWarnings("OptionalGetWithoutIsPresent")
-    private void fromNotifyJson(LocalDateTime timestamp, ObjectNode log) {
+    /**
+     * @return the logs whose id is greater than logId in id order.
+     */
+    private List<Vertex> loadLogsAfter(long logId) {
+        List<Vertex> logs = this.sqlgGraph.topology().V()
+                .hasLabel(SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG)
+                .has(T.id, P.gt(RecordId.from(SchemaTable.of(SQLG_SCHEMA, SQLG_SCHEMA_LOG), logId)))
+                .toList();
+        logs.sort(Comparator.comparingLong(log -> ((RecordId) log.id()).getId()));
+        return logs;
+    }
+
+    private boolean fromNotifyJson(List<Vertex> logs) {
+        if (logs.isEmpty()) {
+            return false;
+        }
+        boolean loaded = false;
         z_internalTopologyMapWriteLock();
         try {
-            //First do all the out edges. The in edge logic assumes the out edges are present.
-            for (String s : Arrays.asList("uncommittedSchemas", "schemas")) {
-                ArrayNode schemas = (ArrayNode) log.get(s);
-                if (schemas != null) {
-                    //first load all the schema as they might be required later
-                    for (JsonNode jsonSchema : schemas) {
-                        String schemaName = jsonSchema.get("name").asText();
-                        Optional<Schema> schemaOptional = getSchema(schemaName);
-                        Schema schema;
-                        if (!schemaOptional.isPresent()) {
-                            //add to map
-                            schema = Schema.instantiateSchema(this, schemaName);
-                            this.schemas.put(schemaName, schema);
-                            fire(schema, "", TopologyChangeAction.CREATE);
-                        }
-                    }
-                    for (JsonNode jsonSchema : schemas) {
-                        String schemaName = jsonSchema.get("name").asText();
-                        Optional<Schema> schemaOptional = getSchema(schemaName);
-                        Preconditions.checkState(schemaOptional.isPresent(), "Schema must be present here");
-                        @SuppressWarnings("OptionalGetWithoutIsPresent")
-                        Schema schema = schemaOptional.get();
-                        schema.fromNotifyJsonOutEdges(jsonSchema);
+            for (Vertex logVertex : logs) {
+                long logId = ((RecordId) logVertex.id()).getId();
+                //skip what has already been loaded and what this graph wrote itself.
+                if (logId > this.lastLogId) {
+                    if (!this.ownLogIds.remove(logId)) {
+                        applyNotifyJson(logVertex.value(SQLG_SCHEMA_LOG_LOG));
+                        loaded = true;
                     }
+                    this.lastLogId = logId;
                 }
             }
-            for (String s : Arrays.asList("uncommittedSchemas", "schemas")) {
-                ArrayNode schemas = (ArrayNode) log.get(s);
-                if (schemas != null) {
-                    for (JsonNode jsonSchema : schemas) {
-                        String schemaName = jsonSchema.get("name").asText();
-                        Optional<Schema> schemaOptional = getSchema(schemaName);
-                        Preconditions.checkState(schemaOptional.isPresent(), "Schema must be present here");
-                        @SuppressWarnings("OptionalGetWithoutIsPresent")
-                        Schema schema = schemaOptional.get();
-                        schema.fromNotifyJsonInEdges(jsonSchema);
+            publishSnapshot();
+        } finally {
+            z_internalInternalTopologyMapWriteUnLock();
+        }
+        return loaded;
+    }
+
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    private void applyNotifyJson(ObjectNode log) {
+        Preconditions.checkState(isTopologyMapWriteLockHeldByCurrentThread(), "the topology map write lock must be held to apply a log");
+        //First do all the out edges. The in edge logic assumes the out edges are present.
+        for (String s : Arrays.asList("uncommittedSchemas", "schemas")) {
+            ArrayNode schemas = (ArrayNode) log.get(s);
+            if (schemas != null) {
+                //first load all the schema as they might be required later
+                for (JsonNode jsonSchema : schemas) {
+                    String schemaName = jsonSchema.get("name").asText();
+                    Optional<Schema> schemaOptional = getSchema(schemaName);
+                    Schema schema;
+                    if (!schemaOptional.isPresent()) {
+                        //add to map
+                        schema = Schema.instantiateSchema(this, schemaName);
+                        this.schemas.put(schemaName, schema);
+                        fire(schema, "", TopologyChangeAction.CREATE);
                     }
                 }
+                for (JsonNode jsonSchema : schemas) {
+                    String schemaName = jsonSchema.get("name").asText();
+                    Optional<Schema> schemaOptional = getSchema(schemaName);
+                    Preconditions.checkState(schemaOptional.isPresent(), "Schema must be present here");
+                    @SuppressWarnings("OptionalGetWithoutIsPresent")
+                    Schema schema = schemaOptional.get();
+                    schema.fromNotifyJsonOutEdges(jsonSchema);
+                }
             }
-            ArrayNode rem = (ArrayNode) log.get("uncommittedRemovedSchemas");
-            if (rem != null) {
-                for (JsonNode jsonSchema : rem) {
-                    String name = jsonSchema.asText();
-                    Schema s = removeSchemaFromCaches(name);
-                    if (s != null) {
-                        fire(s, "", TopologyChangeAction.DELETE);
-                    }
+        }
+        for (String s : Arrays.asList("uncommittedSchemas", "schemas")) {
+            ArrayNode schemas = (ArrayNode) log.get(s);
+            if (schemas != null) {
+                for (JsonNode jsonSchema : schemas) {
+                    String schemaName = jsonSchema.get("name").asText();
+                    Optional<Schema> schemaOptional = getSchema(schemaName);
+                    Preconditions.checkState(schemaOptional.isPresent(), "Schema must be present here");
+                    @SuppressWarnings("OptionalGetWithoutIsPresent")
+                    Schema schema = schemaOptional.get();
+                    schema.fromNotifyJsonInEdges(jsonSchema);
+                }
+            }
+        }
+        ArrayNode rem = (ArrayNode) log.get("uncommittedRemovedSchemas");
+        if (rem != null) {
+            for (JsonNode jsonSchema : rem) {
+                String name = jsonSchema.asText();
+                Schema s = removeSchemaFromCaches(name);
+                if (s != null) {
+                    fire(s, "", TopologyChangeAction.DELETE);
                 }
             }
-
-            this.notificationTimestamps.add(timestamp);
-        } finally {
-            z_internalInternalTopologyMapWriteUnLock();
-
         }
     }
 
@@ -1191,6 +1507,10 @@ public class Topology {
     }
 
     public Set<Schema> getSchemas() {
+        TopologySnapshot committedSnapshot = committedSnapshot();
+        if (committedSnapshot != null) {
+            return committedSnapshot.schemaSet;
+        }
         z_internalTopologyMapReadLock();
         try {
             Set<Schema> result = new HashSet<>();
@@ -1227,6 +1547,10 @@ public class Topology {
     }
 
     public Optional<Schema> getSchema(String schema) {
+        TopologySnapshot committedSnapshot = committedSnapshot();
+        if (committedSnapshot != null) {
+            return Optional.ofNullable(committedSnapshot.schemas.get(schema));
+        }
         if (isSqlWriteLockHeldByCurrentThread() && this.uncommittedRemovedSchemas.contains(schema)) {
             return Optional.empty();
         }
@@ -1347,6 +1671,10 @@ public class Topology {
      * @return
      */
     public Map<String, Map<String, PropertyType>> getAllTables(boolean withSqlgSchema) {
+        TopologySnapshot committedSnapshot = committedSnapshot();
+        if (committedSnapshot != null) {
+            return withSqlgSchema ? committedSnapshot.allTables : committedSnapshot.allTablesWithoutSqlgSchema;
+        }
         z_internalTopologyMapReadLock();
         try {
             //Need to make a copy so as not to corrupt the allTableCache with uncommitted schema elements
@@ -1452,6 +1780,11 @@ public class Topology {
     }
 
     public Map<String, PropertyType> getTableFor(SchemaTable schemaTable) {
+        TopologySnapshot committedSnapshot = committedSnapshot();
+        if (committedSnapshot != null) {
+            //the snapshot's property maps are already unmodifiable
+            return committedSnapshot.allTables.getOrDefault(schemaTable.toString(), Collections.emptyMap());
+        }
         Map<String, PropertyType> result = getAllTables(true).get(schemaTable.toString());
         if (result != null) {
             return Collections.unmodifiableMap(result);
@@ -1466,6 +1799,10 @@ public class Topology {
     }
 
     public Map<SchemaTable, Pair<Set<SchemaTable>, Set<SchemaTable>>> getTableLabels() {
+        TopologySnapshot committedSnapshot = committedSnapshot();
+        if (committedSnapshot != null) {
+            return committedSnapshot.tableLabels;
+        }
         z_internalTopologyMapReadLock();
         try {
             if (this.isSqlWriteLockHeldByCurrentThread()) {
@@ -1513,6 +1850,10 @@ public class Topology {
     }
 
     public Map<String, Set<String>> getAllEdgeForeignKeys() {
+        TopologySnapshot committedSnapshot = committedSnapshot();
+        if (committedSnapshot != null) {
+            return committedSnapshot.edgeForeignKeys;
+        }
         z_internalTopologyMapReadLock();
         try {
             if (this.isSqlWriteLockHeldByCurrentThread()) {
@@ -1678,6 +2019,9 @@ public class Topology {
     }
 
     void fire(TopologyInf topologyInf, String oldValue, TopologyChangeAction action) {
+        if (this.loadingSnapshotFile) {
+            return;
+        }
         for (TopologyListener topologyListener : this.topologyListeners) {
             topologyListener.change(topologyInf, oldValue, action);
         }
@@ -1722,6 +2066,58 @@ public class Topology {
         }
     }
 
+    /**
+     * An immutable copy of the committed topology maps.
+     * It is replaced as a whole, never updated, so readers need neither a lock nor a defensive copy.
+     */
+    private static final class TopologySnapshot {
+        private final Map<String, Schema> schemas;
+        private final Set<Schema> schemaSet;
+        private final Map<String, Map<String, PropertyType>> allTables;
+        private final Map<String, Map<String, PropertyType>> allTablesWithoutSqlgSchema;
+        private final Map<SchemaTable, Pair<Set<SchemaTable>, Set<SchemaTable>>> tableLabels;
+        private final Map<String, Set<String>> edgeForeignKeys;
+
+        private TopologySnapshot(
+                Map<String, Schema> schemas,
+                Map<String, Schema> metaSchemas,
+                Map<String, Map<String, PropertyType>> allTableCache,
+                Map<SchemaTable, Pair<Set<SchemaTable>, Set<SchemaTable>>> schemaTableForeignKeyCache,
+                Map<String, Set<String>> edgeForeignKeyCache) {
+
+            //the regular schemas take precedence over the meta schemas, as in getSchema
+            Map<String, Schema> allSchemas = new HashMap<>(metaSchemas);
+            allSchemas.putAll(schemas);
+            this.schemas = Collections.unmodifiableMap(allSchemas);
+            this.schemaSet = Collections.unmodifiableSet(new HashSet<>(schemas.values()));
+
+            Map<String, Map<String, PropertyType>> tables = new HashMap<>();
+            for (Map.Entry<String, Map<String, PropertyType>> entry : allTableCache.entrySet()) {
+                tables.put(entry.getKey(), Collections.unmodifiableMap(new HashMap<>(entry.getValue())));
+            }
+            this.allTables = Collections.unmodifiableMap(tables);
+            Map<String, Map<String, PropertyType>> tablesWithoutSqlgSchema = new HashMap<>(tables);
+            for (String sqlgSchemaSchemaTable : SQLG_SCHEMA_SCHEMA_TABLES) {
+                tablesWithoutSqlgSchema.remove(sqlgSchemaSchemaTable);
+            }
+            this.allTablesWithoutSqlgSchema = Collections.unmodifiableMap(tablesWithoutSqlgSchema);
+
+            Map<SchemaTable, Pair<Set<SchemaTable>, Set<SchemaTable>>> labels = new HashMap<>();
+            for (Map.Entry<SchemaTable, Pair<Set<SchemaTable>, Set<SchemaTable>>> entry : schemaTableForeignKeyCache.entrySet()) {
+                labels.put(entry.getKey(), Pair.of(
+                        Collections.unmodifiableSet(new HashSet<>(entry.getValue().getLeft())),
+                        Collections.unmodifiableSet(new HashSet<>(entry.getValue().getRight()))));
+            }
+            this.tableLabels = Collections.unmodifiableMap(labels);
+
+            Map<String, Set<String>> foreignKeys = new HashMap<>();
+            for (Map.Entry<String, Set<String>> entry : edgeForeignKeyCache.entrySet()) {
+                foreignKeys.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<>(entry.getValue())));
+            }
+            this.edgeForeignKeys = Collections.unmodifiableMap(foreignKeys);
+        }
+    }
+
     public static class TopologyValidationError {
         private TopologyInf error;
 
@@ -145,6 +145,10 @@ public class TopologyManager {
     }
 
     public static void addVertexLabel(SqlgGraph sqlgGraph, String schema, String tableName, Map<String, PropertyType> columns) {
+        addVertexLabel(sqlgGraph, schema, tableName, columns, PartitionType.NONE, null);
+    }
+
+    static void addVertexLabel(SqlgGraph sqlgGraph, String schema, String tableName, Map<String, PropertyType> columns, PartitionType partitionType, String partitionKey) {
         BatchManager.BatchModeType batchModeType = flushAndSetTxToNone(sqlgGraph);
         try {
             //get the schema vertex
@@ -164,6 +168,10 @@ public class TopologyManager {
                     SCHEMA_VERTEX_DISPLAY, schema + "." + VERTEX_PREFIX + tableName, //this is here for display when in pgadmin
                     CREATED_ON, LocalDateTime.now()
             );
+            if (!partitionType.isNone()) {
+                vertex.property(SQLG_SCHEMA_PARTITION_TYPE, partitionType.name());
+                vertex.property(SQLG_SCHEMA_PARTITION_KEY, partitionKey);
+            }
             schemaVertex.addEdge(SQLG_SCHEMA_SCHEMA_VERTEX_EDGE, vertex);
             for (Map.Entry<String, PropertyType> columnEntry : columns.entrySet()) {
                 Vertex property = sqlgGraph.addVertex(
@@ -207,6 +215,10 @@ public class TopologyManager {
     }
 
     public static void addEdgeLabel(SqlgGraph sqlgGraph, String schema, String prefixedTable, SchemaTable foreignKeyOut, SchemaTable foreignKeyIn, Map<String, PropertyType> columns) {
+        addEdgeLabel(sqlgGraph, schema, prefixedTable, foreignKeyOut, foreignKeyIn, columns, PartitionType.NONE, null);
+    }
+
+    static void addEdgeLabel(SqlgGraph sqlgGraph, String schema, String prefixedTable, SchemaTable foreignKeyOut, SchemaTable foreignKeyIn, Map<String, PropertyType> columns, PartitionType partitionType, String partitionKey) {
         BatchManager.BatchModeType batchModeType = flushAndSetTxToNone(sqlgGraph);
         try {
             GraphTraversalSource traversalSource = sqlgGraph.topology();
@@ -249,6 +261,10 @@ public class TopologyManager {
                     "name", prefixedTable.substring(EDGE_PREFIX.length()),
                     CREATED_ON, LocalDateTime.now()
             );
+            if (!partitionType.isNone()) {
+                edgeVertex.property(SQLG_SCHEMA_PARTITION_TYPE, partitionType.name());
+                edgeVertex.property(SQLG_SCHEMA_PARTITION_KEY, partitionKey);
+            }
 
             outVertex.addEdge(SQLG_SCHEMA_OUT_EDGES_EDGE, edgeVertex);
             inVertex.addEdge(SQLG_SCHEMA_IN_EDGES_EDGE, edgeVertex);
@@ -467,6 +483,7 @@ public class TopologyManager {
                     T.label, SQLG_SCHEMA + "." + SQLG_SCHEMA_INDEX,
                     SQLG_SCHEMA_INDEX_NAME, index.getName(),
                     SQLG_SCHEMA_INDEX_INDEX_TYPE, index.getIndexType().toString(),
+                    SQLG_SCHEMA_INDEX_VALID, index.isValid(),
                     CREATED_ON, LocalDateTime.now()
             );
 
@@ -491,6 +508,45 @@ public class TopologyManager {
         }
     }
 
+    /**
+     * Marks the online index as built.
+     */
+    static void validateIndex(SqlgGraph sqlgGraph, Index index) {
+        BatchManager.BatchModeType batchModeType = flushAndSetTxToNone(sqlgGraph);
+        try {
+            GraphTraversalSource traversalSource = sqlgGraph.topology();
+            List<Vertex> abstractLabelVertexes;
+
+            AbstractLabel abstractLabel = index.getParentLabel();
+            if (abstractLabel instanceof VertexLabel) {
+                abstractLabelVertexes = traversalSource.V()
+                        .hasLabel(SQLG_SCHEMA + "." + SQLG_SCHEMA_SCHEMA)
+                        .has(SQLG_SCHEMA_SCHEMA_NAME, abstractLabel.getSchema().getName())
+                        .out(SQLG_SCHEMA_SCHEMA_VERTEX_EDGE)
+                        .has("name", abstractLabel.getLabel())
+                        .toList();
+            } else {
+                abstractLabelVertexes = traversalSource.V()
+                        .hasLabel(SQLG_SCHEMA + "." + SQLG_SCHEMA_SCHEMA)
+                        .has(SQLG_SCHEMA_SCHEMA_NAME, abstractLabel.getSchema().getName())
+                        .out(SQLG_SCHEMA_SCHEMA_VERTEX_EDGE)
+                        .out(SQLG_SCHEMA_OUT_EDGES_EDGE)
+                        .has("name", abstractLabel.getLabel())
+                        .dedup()
+                        .toList();
+            }
+            Preconditions.checkState(!abstractLabelVertexes.isEmpty(), "AbstractLabel %s.%s does not exists", abstractLabel.getSchema().getName(), abstractLabel.getLabel());
+            List<Vertex> indexVertexes = traversalSource.V(abstractLabelVertexes.get(0).id())
+                    .out(abstractLabel instanceof VertexLabel ? SQLG_SCHEMA_VERTEX_INDEX_EDGE : SQLG_SCHEMA_EDGE_INDEX_EDGE)
+                    .has(SQLG_SCHEMA_INDEX_NAME, index.getName())
+                    .toList();
+            Preconditions.checkState(indexVertexes.size() == 1, "Index %s for AbstractLabel %s.%s does not exists", index.getName(), abstractLabel.getSchema().getName(), abstractLabel.getLabel());
+            indexVertexes.get(0).property(SQLG_SCHEMA_INDEX_VALID, true);
+        } finally {
+            sqlgGraph.tx().batchMode(batchModeType);
+        }
+    }
+
     public static void removeIndex(SqlgGraph sqlgGraph, Index index) {
         BatchManager.BatchModeType batchModeType = flushAndSetTxToNone(sqlgGraph);
         try {
@@ -591,6 +647,7 @@ public class TopologyManager {
                             T.label, SQLG_SCHEMA + "." + SQLG_SCHEMA_INDEX,
                             SQLG_SCHEMA_INDEX_NAME, index,
                             SQLG_SCHEMA_INDEX_INDEX_TYPE, indexType.toString(),
+                            SQLG_SCHEMA_INDEX_VALID, true,
                             CREATED_ON, LocalDateTime.now()
                     );
                     if (vertex) {
@@ -59,11 +59,12 @@ public class VertexLabel extends AbstractLabel {
         return vertexLabel;
     }
 
-    static VertexLabel createVertexLabel(SqlgGraph sqlgGraph, Schema schema, String label, Map<String, PropertyType> columns, Properties additional) {
+    static VertexLabel createVertexLabel(SqlgGraph sqlgGraph, Schema schema, String label, Map<String, PropertyType> columns, Properties additional, PartitionType partitionType, String partitionKey) {
         Preconditions.checkArgument(!schema.isSqlgSchema(), "createVertexLabel may not be called for \"%s\"", SQLG_SCHEMA);
         VertexLabel vertexLabel = new VertexLabel(schema, label, columns);
+        vertexLabel.setPartitioning(partitionType, partitionKey);
         vertexLabel.createVertexLabelOnDb(columns, additional);
-        TopologyManager.addVertexLabel(sqlgGraph, schema.getName(), label, columns);
+        TopologyManager.addVertexLabel(sqlgGraph, schema.getName(), label, columns, partitionType, partitionKey);
         vertexLabel.committed = false;
         return vertexLabel;
     }
@@ -249,6 +250,22 @@ public class VertexLabel extends AbstractLabel {
         return this.getSchema().ensureEdgeLabelExist(edgeLabelName, this, inVertexLabel, properties);
     }
 
+    /**
+     * Ensures that the partitioned {@link EdgeLabel} exists. It will be created if it does not exists.
+     * "this" is the out {@link VertexLabel} and inVertexLabel is the inVertexLabel
+     * This method is equivalent to {@link Schema#ensurePartitionedEdgeLabelExist(String, VertexLabel, VertexLabel, Map, PartitionType, String)}
+     *
+     * @param edgeLabelName The EdgeLabel's label's name.
+     * @param inVertexLabel The edge's in VertexLabel.
+     * @param properties    The EdgeLabel's properties
+     * @param partitionType How the edges are distributed over the partitions.
+     * @param partitionKey  The property the EdgeLabel is partitioned on.
+     * @return The {@link EdgeLabel}.
+     */
+    public EdgeLabel ensurePartitionedEdgeLabelExist(final String edgeLabelName, final VertexLabel inVertexLabel, Map<String, PropertyType> properties, PartitionType partitionType, String partitionKey) {
+        return this.getSchema().ensurePartitionedEdgeLabelExist(edgeLabelName, this, inVertexLabel, properties, partitionType, partitionKey);
+    }
+
     /**
      * Called via {@link Schema#ensureEdgeLabelExist(String, VertexLabel, VertexLabel, Map)}
      * This is called when the {@link EdgeLabel} does not exist and needs to be created.
@@ -258,8 +275,8 @@ public class VertexLabel extends AbstractLabel {
      * @param properties
      * @return
      */
-    EdgeLabel addEdgeLabel(String edgeLabelName, VertexLabel inVertexLabel, Map<String, PropertyType> properties, Properties additional) {
-        EdgeLabel edgeLabel = EdgeLabel.createEdgeLabel(edgeLabelName, this, inVertexLabel, properties, additional);
+    EdgeLabel addEdgeLabel(String edgeLabelName, VertexLabel inVertexLabel, Map<String, PropertyType> properties, Properties additional, PartitionType partitionType, String partitionKey) {
+        EdgeLabel edgeLabel = EdgeLabel.createEdgeLabel(edgeLabelName, this, inVertexLabel, properties, additional, partitionType, partitionKey);
         if (this.schema.isSqlgSchema()) {
             this.outEdgeLabels.put(this.schema.getName() + "." + edgeLabel.getLabel(), edgeLabel);
             inVertexLabel.inEdgeLabels.put(this.schema.getName() + "." + edgeLabel.getLabel(), edgeLabel);
@@ -297,12 +314,27 @@ public class VertexLabel extends AbstractLabel {
         sql.append(" (");
         sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
         sql.append(" ");
-        sql.append(this.sqlgGraph.getSqlDialect().getAutoIncrementPrimaryKeyConstruct());
+        if (isPartitioned()) {
+            sql.append(this.sqlgGraph.getSqlDialect().getPartitionedAutoIncrementConstruct());
+        } else {
+            sql.append(this.sqlgGraph.getSqlDialect().getAutoIncrementPrimaryKeyConstruct());
+        }
         if (columns.size() > 0) {
             sql.append(", ");
         }
         buildColumns(this.sqlgGraph, columns, sql, additional);
+        if (isPartitioned()) {
+            //the primary key of a partitioned table must include the partition key
+            sql.append(", PRIMARY KEY (");
+            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
+            sql.append(", ");
+            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(getPartitionKey()));
+            sql.append(")");
+        }
         sql.append(")");
+        if (isPartitioned()) {
+            sql.append(this.sqlgGraph.getSqlDialect().partitionByClause(getPartitionType(), getPartitionKey()));
+        }
         if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
             sql.append(";");
         }
@@ -473,9 +505,39 @@ public class VertexLabel extends AbstractLabel {
         return vertexLabelNode;
     }
 
+    /**
+     * The committed vertex label in the notification format, see {@link Topology#toSnapshotJson()}.
+     *
+     * @param writtenEdgeLabels The edge labels whose properties have already been written, an edge label can have many out vertex labels.
+     */
+    JsonNode toSnapshotJson(Set<EdgeLabel> writtenEdgeLabels) {
+        ObjectNode vertexLabelNode = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        vertexLabelNode.put("label", getLabel());
+        partitioningToNotifyJson(vertexLabelNode);
+        propertiesToSnapshotJson(vertexLabelNode);
+        ArrayNode outEdgeLabelsArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        for (EdgeLabel edgeLabel : this.outEdgeLabels.values()) {
+            outEdgeLabelsArrayNode.add(edgeLabel.toSnapshotJson(writtenEdgeLabels.add(edgeLabel)));
+        }
+        vertexLabelNode.set("outEdgeLabels", outEdgeLabelsArrayNode);
+        //the in edge labels only need to be referenced, their out vertex label writes them.
+        ArrayNode inEdgeLabelsArrayNode = new ArrayNode(Topology.OBJECT_MAPPER.getNodeFactory());
+        for (EdgeLabel edgeLabel : this.inEdgeLabels.values()) {
+            if (edgeLabel.isValid()) {
+                ObjectNode edgeLabelNode = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
+                edgeLabelNode.put("schema", edgeLabel.getSchema().getName());
+                edgeLabelNode.put("label", edgeLabel.getLabel());
+                inEdgeLabelsArrayNode.add(edgeLabelNode);
+            }
+        }
+        vertexLabelNode.set("inEdgeLabels", inEdgeLabelsArrayNode);
+        return vertexLabelNode;
+    }
+
     protected Optional<JsonNode> toNotifyJson() {
         ObjectNode vertexLabelNode = new ObjectNode(Topology.OBJECT_MAPPER.getNodeFactory());
         vertexLabelNode.put("label", getLabel());
+        partitioningToNotifyJson(vertexLabelNode);
 
         Optional<JsonNode> abstractLabelNode = super.toNotifyJson();
         if (abstractLabelNode.isPresent()) {
@@ -567,6 +629,7 @@ public class VertexLabel extends AbstractLabel {
      * @param fire should we fire topology events
      */
     void fromNotifyJsonOutEdge(JsonNode vertexLabelJson,boolean fire) {
+        partitioningFromNotifyJson(vertexLabelJson);
         super.fromPropertyNotifyJson(vertexLabelJson,fire);
         for (String s : Arrays.asList("uncommittedOutEdgeLabels", "outEdgeLabels")) {
             ArrayNode uncommittedOutEdgeLabels = (ArrayNode) vertexLabelJson.get(s);
@@ -582,6 +645,7 @@ public class VertexLabel extends AbstractLabel {
                     } else {
                         edgeLabel = edgeLabelOptional.get();
                     }
+                    edgeLabel.partitioningFromNotifyJson(uncommittedOutEdgeLabel);
                     edgeLabel.addToOutVertexLabel(this);
                     this.outEdgeLabels.put(schemaName + "." + edgeLabel.getLabel(), edgeLabel);
                     // fire if we didn't create the edge label
@@ -2,10 +2,13 @@ package org.umlg.sqlg.util;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalSideEffects;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgGraphTraversalSource;
 
 import java.util.List;
 import java.util.function.Predicate;
@@ -25,6 +28,33 @@ public class SqlgTraversalUtil {
         return traversal.hasNext(); // filter
     }
 
+    /**
+     * @return The fetch size set on the traversal via {@link SqlgGraphTraversalSource#withFetchSize(int)},
+     * else the transaction's fetch size.
+     */
+    public static int fetchSize(SqlgGraph sqlgGraph, Traversal.Admin<?, ?> traversal) {
+        TraversalSideEffects sideEffects = traversal.getSideEffects();
+        if (sideEffects.exists(SqlgGraphTraversalSource.FETCH_SIZE)) {
+            return ((Number) sideEffects.get(SqlgGraphTraversalSource.FETCH_SIZE)).intValue();
+        }
+        return sqlgGraph.tx().getFetchSize();
+    }
+
+    /**
+     * @return The query parallelism set on the traversal via {@link SqlgGraphTraversalSource#withQueryParallelism(int)},
+     * else the transaction's query parallelism. Capped at {@link SqlgGraph#getMaxQueryParallelism()}.
+     */
+    public static int queryParallelism(SqlgGraph sqlgGraph, Traversal.Admin<?, ?> traversal) {
+        TraversalSideEffects sideEffects = traversal.getSideEffects();
+        int queryParallelism;
+        if (sideEffects.exists(SqlgGraphTraversalSource.QUERY_PARALLELISM)) {
+            queryParallelism = ((Number) sideEffects.get(SqlgGraphTraversalSource.QUERY_PARALLELISM)).intValue();
+        } else {
+            queryParallelism = sqlgGraph.tx().getQueryParallelism();
+        }
+        return Math.min(queryParallelism, sqlgGraph.getMaxQueryParallelism());
+    }
+
     public static boolean hasOneBulkRequirement(Traversal.Admin<?, ?> traversal) {
         List<Step> steps = TraversalHelper.getStepsOfAssignableClassRecursively(Step.class, traversal);
         for (Step step : steps) {
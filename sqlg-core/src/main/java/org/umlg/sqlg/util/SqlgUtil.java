@@ -49,6 +49,13 @@ public class SqlgUtil {
     //This is the default count to indicate whether to use in statement or join onto a temp table.
     //As it happens postgres join to temp is always faster except for count = 1 when in is not used but '='
     private final static int BULK_WITHIN_COUNT = 1;
+    /**
+     * On dialects that support it, see {@link SqlDialect#supportsBulkWithinOutAsArray()}, bind the values of a bulk
+     * P.within/P.without and the SqlgVertexStep's parent ids as array parameters instead of inlining them as literals
+     * in a VALUES expression. Defaults to true.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String BULK_WITHIN_ARRAY = "bulk.within.array";
     private static final String PROPERTY_ARRAY_VALUE_ELEMENTS_MAY_NOT_BE_NULL = "Property array value elements may not be null.";
 
     private SqlgUtil() {
@@ -247,27 +254,97 @@ public class SqlgUtil {
         return (E) sqlgElement;
     }
 
-    public static boolean isBulkWithinAndOut(SqlgGraph sqlgGraph, HasContainer hasContainer) {
+    /**
+     * @return true if the P.within/P.without values are joined on as a VALUES expression or temporary table.
+     */
+    public static boolean isBulkWithinAndOut(SqlgGraph sqlgGraph, SchemaTableTree schemaTableTree, HasContainer hasContainer) {
         BiPredicate p = hasContainer.getPredicate().getBiPredicate();
-        return (p == Contains.within || p == Contains.without) && ((Collection) hasContainer.getPredicate().getValue()).size() > sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT);
+        return (p == Contains.within || p == Contains.without) && ((Collection) hasContainer.getPredicate().getValue()).size() > sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT) &&
+                !isBulkWithinAndOutAsArray(sqlgGraph, schemaTableTree, hasContainer);
     }
 
-    public static boolean isBulkWithin(SqlgGraph sqlgGraph, HasContainer hasContainer) {
+    public static boolean isBulkWithin(SqlgGraph sqlgGraph, SchemaTableTree schemaTableTree, HasContainer hasContainer) {
         BiPredicate p = hasContainer.getPredicate().getBiPredicate();
-        return p == Contains.within && ((Collection) hasContainer.getPredicate().getValue()).size() > sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT);
+        return p == Contains.within && ((Collection) hasContainer.getPredicate().getValue()).size() > sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT) &&
+                !isBulkWithinAndOutAsArray(sqlgGraph, schemaTableTree, hasContainer);
+    }
+
+    /**
+     * @return true if the P.within/P.without values are bound as one array parameter, 'col = ANY(?)' or 'col <> ALL(?)'.
+     */
+    public static boolean isBulkWithinAndOutAsArray(SqlgGraph sqlgGraph, SchemaTableTree schemaTableTree, HasContainer hasContainer) {
+        BiPredicate p = hasContainer.getPredicate().getBiPredicate();
+        return (p == Contains.within || p == Contains.without) &&
+                ((Collection) hasContainer.getPredicate().getValue()).size() > sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT) &&
+                useArrayParameters(sqlgGraph) &&
+                schemaTableTree.withInOutAsArray(hasContainer) != null;
+    }
+
+    public static boolean useArrayParameters(SqlgGraph sqlgGraph) {
+        return sqlgGraph.getSqlDialect().supportsBulkWithinOutAsArray() && sqlgGraph.configuration().getBoolean(BULK_WITHIN_ARRAY, true);
+    }
+
+    /**
+     * Converts the P.within/P.without values to a typed array, RecordIds are converted to their long id.
+     * Floats are excluded as the driver binds them as double precision which does not compare equal to a real.
+     *
+     * @return the typed array or null if the values are not all of the same supported type.
+     * The query computes it once per has container, see {@link SchemaTableTree#withInOutAsArray(HasContainer)}.
+     */
+    public static Object[] withInOutAsArray(HasContainer hasContainer) {
+        Collection<?> values = (Collection<?>) hasContainer.getPredicate().getValue();
+        boolean isId = hasContainer.getKey().equals(T.id.getAccessor());
+        Class<?> componentType = null;
+        Object[] result = null;
+        int i = 0;
+        for (Object value : values) {
+            if (value instanceof RecordId) {
+                value = ((RecordId) value).getId();
+            } else if (isId && !(value instanceof Long)) {
+                value = RecordId.from(value).getId();
+            }
+            if (value == null) {
+                return null;
+            }
+            if (componentType == null) {
+                componentType = value.getClass();
+                if (componentType != Long.class && componentType != Integer.class && componentType != Short.class &&
+                        componentType != String.class && componentType != Double.class && componentType != Boolean.class) {
+                    return null;
+                }
+                result = (Object[]) Array.newInstance(componentType, values.size());
+            } else if (componentType != value.getClass()) {
+                return null;
+            }
+            result[i++] = value;
+        }
+        return result;
     }
 
     public static void setParametersOnStatement(SqlgGraph sqlgGraph, LinkedList<SchemaTableTree> schemaTableTreeStack, PreparedStatement preparedStatement, int parameterIndex) throws SQLException {
+        //The SqlgVertexStep's parent ids and indexes are joined on first.
+        if (!schemaTableTreeStack.isEmpty() && schemaTableTreeStack.getFirst().bindsParentIdsAsArrays()) {
+            List<Pair<Long, Long>> parentIdsAndIndexes = schemaTableTreeStack.getFirst().getParentIdsAndIndexes();
+            Long[] parentIds = new Long[parentIdsAndIndexes.size()];
+            Long[] indexes = new Long[parentIdsAndIndexes.size()];
+            int i = 0;
+            for (Pair<Long, Long> parentIdAndIndex : parentIdsAndIndexes) {
+                parentIds[i] = parentIdAndIndex.getLeft();
+                indexes[i++] = parentIdAndIndex.getRight();
+            }
+            sqlgGraph.getSqlDialect().setArray(preparedStatement, parameterIndex++, PropertyType.LONG_ARRAY, parentIds);
+            sqlgGraph.getSqlDialect().setArray(preparedStatement, parameterIndex++, PropertyType.LONG_ARRAY, indexes);
+        }
         Multimap<String, Object> keyValueMap = LinkedListMultimap.create();
         for (SchemaTableTree schemaTableTree : schemaTableTreeStack) {
             for (HasContainer hasContainer : schemaTableTree.getHasContainers()) {
-                if (!sqlgGraph.getSqlDialect().supportsBulkWithinOut() || !isBulkWithinAndOut(sqlgGraph, hasContainer)) {
+                if (!sqlgGraph.getSqlDialect().supportsBulkWithinOut() || !isBulkWithinAndOut(sqlgGraph, schemaTableTree, hasContainer)) {
                     WhereClause whereClause = WhereClause.from(hasContainer.getPredicate());
-                    whereClause.putKeyValueMap(hasContainer, keyValueMap);
+                    whereClause.putKeyValueMap(sqlgGraph, schemaTableTree, hasContainer, keyValueMap);
                 }
             }
             for (AndOrHasContainer andOrHasContainer : schemaTableTree.getAndOrHasContainers()) {
-                andOrHasContainer.setParameterOnStatement(keyValueMap);
+                andOrHasContainer.setParameterOnStatement(sqlgGraph, schemaTableTree, keyValueMap);
             }
         }
         List<ImmutablePair<PropertyType, Object>> typeAndValues = SqlgUtil.transformToTypeAndValue(keyValueMap);
@@ -692,6 +769,9 @@ public class SqlgUtil {
             if (key.equals(T.id.getAccessor()) || "ID".equals(key)) {
                 if (value instanceof Long) {
                     result.add(ImmutablePair.of(PropertyType.LONG, (Long) value));
+                } else if (value instanceof Long[]) {
+                    //a bulk within/without bound as an array
+                    result.add(ImmutablePair.of(PropertyType.LONG_ARRAY, value));
                 } else {
                     RecordId id;
                     if (!(value instanceof RecordId)) {
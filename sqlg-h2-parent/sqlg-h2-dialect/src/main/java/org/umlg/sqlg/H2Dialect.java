@@ -7,11 +7,15 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableSet;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.util.tools.MultiMap;
 import org.h2.jdbc.JdbcArray;
 import org.umlg.sqlg.sql.dialect.BaseSqlDialect;
+import org.umlg.sqlg.structure.IndexRef;
 import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.SchemaTable;
 import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.IndexType;
+import org.umlg.sqlg.structure.topology.Schema;
 import org.umlg.sqlg.util.SqlgUtil;
 
 import java.io.IOException;
@@ -574,10 +578,10 @@ public class H2Dialect extends BaseSqlDialect {
 
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_graph\" (\"ID\" IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP, \"updatedOn\" TIMESTAMP, \"version\" VARCHAR);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_schema\" (\"ID\" IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP, \"name\" VARCHAR);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_vertex\" (\"ID\" IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP, \"name\" VARCHAR, \"schemaVertex\" VARCHAR);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_edge\" (\"ID\" IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP, \"name\" VARCHAR);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_vertex\" (\"ID\" IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP, \"name\" VARCHAR, \"schemaVertex\" VARCHAR, \"partitionType\" VARCHAR, \"partitionKey\" VARCHAR);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_edge\" (\"ID\" IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP, \"name\" VARCHAR, \"partitionType\" VARCHAR, \"partitionKey\" VARCHAR);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_property\" (\"ID\" IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP, \"name\" VARCHAR, \"type\" VARCHAR);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_index\" (\"ID\" IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP, \"name\" VARCHAR, \"index_type\" VARCHAR);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_index\" (\"ID\" IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP, \"name\" VARCHAR, \"index_type\" VARCHAR, \"valid\" BOOLEAN);");
 
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_globalUniqueIndex\" (" +
                 "\"ID\" IDENTITY PRIMARY KEY, " +
@@ -608,6 +612,21 @@ public class H2Dialect extends BaseSqlDialect {
     public String sqlgAddIndexEdgeSequenceColumn() {
         return "ALTER TABLE \"sqlg_schema\".\"E_index_property\" ADD COLUMN \"sequence\" INTEGER DEFAULT 0;";
     }
+
+    @Override
+    public String sqlgAddIndexValidColumn() {
+        return "ALTER TABLE \"sqlg_schema\".\"V_index\" ADD COLUMN \"valid\" BOOLEAN DEFAULT TRUE;";
+    }
+
+    @Override
+    public List<String> sqlgAddPartitionColumns() {
+        List<String> result = new ArrayList<>();
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD COLUMN \"partitionType\" VARCHAR;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD COLUMN \"partitionKey\" VARCHAR;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD COLUMN \"partitionType\" VARCHAR;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD COLUMN \"partitionKey\" VARCHAR;");
+        return result;
+    }
     
     @Override
     public Object convertArray(PropertyType propertyType, java.sql.Array array) throws SQLException {
@@ -686,6 +705,47 @@ public class H2Dialect extends BaseSqlDialect {
         return indexName.startsWith("PRIMARY_KEY_") || indexName.startsWith("CONSTRAINT_INDEX_");
     }
 
+    /**
+     * Reads the indices of all tables from H2's INFORMATION_SCHEMA in one query.
+     */
+    @Override
+    public Map<String, Set<IndexRef>> extractIndices(Connection conn, String catalog, String schema) throws SQLException {
+        String sql = "SELECT TABLE_CATALOG, TABLE_SCHEMA, TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME " +
+                "FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE TABLE_SCHEMA <> 'INFORMATION_SCHEMA' AND TABLE_SCHEMA <> '" + Schema.SQLG_SCHEMA + "' AND TABLE_SCHEMA <> '" + Schema.GLOBAL_UNIQUE_INDEX_SCHEMA + "'";
+        if (schema != null && !"".equals(schema)) {
+            sql += " AND TABLE_SCHEMA = '" + schema + "'";
+        }
+        sql += " ORDER BY TABLE_SCHEMA, TABLE_NAME, INDEX_NAME, ORDINAL_POSITION";
+        Map<String, Set<IndexRef>> result = new HashMap<>();
+        try (Statement statement = conn.createStatement()) {
+            try (ResultSet indexRs = statement.executeQuery(sql)) {
+                String lastKey = null;
+                String lastIndexName = null;
+                IndexType lastIndexType = null;
+                List<String> lastColumns = new ArrayList<>();
+                while (indexRs.next()) {
+                    String key = indexRs.getString("TABLE_CATALOG") + "." + indexRs.getString("TABLE_SCHEMA") + "." + indexRs.getString("TABLE_NAME");
+                    String indexName = indexRs.getString("INDEX_NAME");
+                    if (lastIndexName != null && (!lastIndexName.equals(indexName) || !lastKey.equals(key))) {
+                        if (!isSystemIndex(lastIndexName)) {
+                            MultiMap.put(result, lastKey, new IndexRef(lastIndexName, lastIndexType, lastColumns));
+                        }
+                        lastColumns.clear();
+                    }
+                    lastKey = key;
+                    lastIndexName = indexName;
+                    lastIndexType = indexRs.getBoolean("NON_UNIQUE") ? IndexType.NON_UNIQUE : IndexType.UNIQUE;
+                    lastColumns.add(indexRs.getString("COLUMN_NAME"));
+                }
+                if (lastIndexName != null && !isSystemIndex(lastIndexName)) {
+                    MultiMap.put(result, lastKey, new IndexRef(lastIndexName, lastIndexType, lastColumns));
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean supportsFullValueExpression() {
         return false;
@@ -773,4 +833,14 @@ public class H2Dialect extends BaseSqlDialect {
     public String sqlToTurnOnReferentialConstraintCheck(String tableName) {
         return "SET REFERENTIAL_INTEGRITY TRUE";
     }
+
+    @Override
+    public boolean supportsRecursiveCte() {
+        return true;
+    }
+
+    @Override
+    public String sqlToEstimateRowCounts() {
+        return "SELECT TABLE_SCHEMA, TABLE_NAME, ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_TYPE = 'TABLE'";
+    }
 }
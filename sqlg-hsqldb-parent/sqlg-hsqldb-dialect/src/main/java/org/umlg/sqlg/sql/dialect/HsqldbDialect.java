@@ -5,13 +5,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.util.tools.MultiMap;
 import org.hsqldb.jdbc.JDBCArrayBasic;
 import org.hsqldb.lib.StringConverter;
 import org.hsqldb.types.Type;
+import org.umlg.sqlg.structure.IndexRef;
 import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.SchemaTable;
 import org.umlg.sqlg.structure.SqlgExceptions;
 import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.IndexType;
+import org.umlg.sqlg.structure.topology.Schema;
 import org.umlg.sqlg.util.SqlgUtil;
 
 import java.io.IOException;
@@ -743,10 +747,10 @@ public class HsqldbDialect extends BaseSqlDialect implements SqlBulkDialect {
 
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_graph\" (\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"updatedOn\" TIMESTAMP WITH TIME ZONE, \"version\" LONGVARCHAR);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_schema\" (\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" LONGVARCHAR);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_vertex\" (\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" LONGVARCHAR, \"schemaVertex\" LONGVARCHAR);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_edge\" (\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" LONGVARCHAR);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_vertex\" (\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" LONGVARCHAR, \"schemaVertex\" LONGVARCHAR, \"partitionType\" LONGVARCHAR, \"partitionKey\" LONGVARCHAR);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_edge\" (\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" LONGVARCHAR, \"partitionType\" LONGVARCHAR, \"partitionKey\" LONGVARCHAR);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_property\" (\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" LONGVARCHAR, \"type\" LONGVARCHAR, \"index_type\" LONGVARCHAR DEFAULT 'NONE');");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_index\" (\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" LONGVARCHAR, \"index_type\" LONGVARCHAR);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_index\" (\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" LONGVARCHAR, \"index_type\" LONGVARCHAR, \"valid\" BOOLEAN);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_globalUniqueIndex\" (" +
                 "\"ID\" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
                 "\"createdOn\" TIMESTAMP WITH TIME ZONE, " +
@@ -776,6 +780,21 @@ public class HsqldbDialect extends BaseSqlDialect implements SqlBulkDialect {
     public String sqlgAddIndexEdgeSequenceColumn() {
         return "ALTER TABLE \"sqlg_schema\".\"E_index_property\" ADD COLUMN \"sequence\" INTEGER DEFAULT 0;";
     }
+
+    @Override
+    public String sqlgAddIndexValidColumn() {
+        return "ALTER TABLE \"sqlg_schema\".\"V_index\" ADD COLUMN \"valid\" BOOLEAN DEFAULT TRUE;";
+    }
+
+    @Override
+    public List<String> sqlgAddPartitionColumns() {
+        List<String> result = new ArrayList<>();
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD COLUMN \"partitionType\" LONGVARCHAR;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD COLUMN \"partitionKey\" LONGVARCHAR;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD COLUMN \"partitionType\" LONGVARCHAR;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD COLUMN \"partitionKey\" LONGVARCHAR;");
+        return result;
+    }
     
 
     @Override
@@ -914,6 +933,47 @@ public class HsqldbDialect extends BaseSqlDialect implements SqlBulkDialect {
         return indexName.startsWith("SYS_IDX_") || indexName.startsWith("SYS_PK") || indexName.endsWith("SYS_FK");
     }
 
+    /**
+     * Reads the indices of all tables from HSQLDB's INFORMATION_SCHEMA.SYSTEM_INDEXINFO in one query.
+     */
+    @Override
+    public Map<String, Set<IndexRef>> extractIndices(Connection conn, String catalog, String schema) throws SQLException {
+        String sql = "SELECT TABLE_CAT, TABLE_SCHEM, TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME " +
+                "FROM INFORMATION_SCHEMA.SYSTEM_INDEXINFO " +
+                "WHERE TABLE_SCHEM <> 'INFORMATION_SCHEMA' AND TABLE_SCHEM <> 'SYSTEM_LOBS' AND TABLE_SCHEM <> '" + Schema.SQLG_SCHEMA + "' AND TABLE_SCHEM <> '" + Schema.GLOBAL_UNIQUE_INDEX_SCHEMA + "'";
+        if (schema != null && !"".equals(schema)) {
+            sql += " AND TABLE_SCHEM = '" + schema + "'";
+        }
+        sql += " ORDER BY TABLE_SCHEM, TABLE_NAME, INDEX_NAME, ORDINAL_POSITION";
+        Map<String, Set<IndexRef>> result = new HashMap<>();
+        try (Statement statement = conn.createStatement()) {
+            try (ResultSet indexRs = statement.executeQuery(sql)) {
+                String lastKey = null;
+                String lastIndexName = null;
+                IndexType lastIndexType = null;
+                List<String> lastColumns = new ArrayList<>();
+                while (indexRs.next()) {
+                    String key = indexRs.getString("TABLE_CAT") + "." + indexRs.getString("TABLE_SCHEM") + "." + indexRs.getString("TABLE_NAME");
+                    String indexName = indexRs.getString("INDEX_NAME");
+                    if (lastIndexName != null && (!lastIndexName.equals(indexName) || !lastKey.equals(key))) {
+                        if (!isSystemIndex(lastIndexName)) {
+                            MultiMap.put(result, lastKey, new IndexRef(lastIndexName, lastIndexType, lastColumns));
+                        }
+                        lastColumns.clear();
+                    }
+                    lastKey = key;
+                    lastIndexName = indexName;
+                    lastIndexType = indexRs.getBoolean("NON_UNIQUE") ? IndexType.NON_UNIQUE : IndexType.UNIQUE;
+                    lastColumns.add(indexRs.getString("COLUMN_NAME"));
+                }
+                if (lastIndexName != null && !isSystemIndex(lastIndexName)) {
+                    MultiMap.put(result, lastKey, new IndexRef(lastIndexName, lastIndexType, lastColumns));
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean supportsJsonArrayValues() {
         return true;
@@ -1004,4 +1064,9 @@ public class HsqldbDialect extends BaseSqlDialect implements SqlBulkDialect {
     public String sqlToTurnOnReferentialConstraintCheck(String tableName) {
         return "SET DATABASE REFERENTIAL INTEGRITY TRUE";
     }
+
+    @Override
+    public String sqlToEstimateRowCounts() {
+        return "SELECT TABLE_SCHEMA, TABLE_NAME, CARDINALITY FROM INFORMATION_SCHEMA.SYSTEM_TABLESTATS WHERE TABLE_TYPE = 'TABLE'";
+    }
 }
@@ -3,7 +3,10 @@ package org.umlg.sqlg.sql.dialect;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.util.tools.MultiMap;
 import org.umlg.sqlg.structure.*;
+import org.umlg.sqlg.structure.topology.IndexType;
+import org.umlg.sqlg.structure.topology.Schema;
 import org.umlg.sqlg.structure.topology.Topology;
 import org.umlg.sqlg.util.SqlgUtil;
 
@@ -143,6 +146,25 @@ public class MariadbDialect extends BaseSqlDialect {
         return columns;
     }
 
+    @Override
+    public Map<String, List<Triple<String, Integer, String>>> getAllTableColumns(DatabaseMetaData metaData) {
+        Map<String, List<Triple<String, Integer, String>>> columns = new HashMap<>();
+        try (ResultSet rs = metaData.getColumns(null, null, "%", null)) {
+            while (rs.next()) {
+                //MariaDb does not support schemas, the database is the catalog.
+                String schema = rs.getString(1);
+                String table = rs.getString(3);
+                String columnName = rs.getString(4);
+                int columnType = rs.getInt(5);
+                String typeName = rs.getString("TYPE_NAME");
+                columns.computeIfAbsent(schema + "." + table, k -> new ArrayList<>()).add(Triple.of(columnName, columnType, typeName));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return columns;
+    }
+
     @Override
     public List<Triple<String, Boolean, String>> getIndexInfo(DatabaseMetaData metaData, String catalog,
                                                               String schema, String table, boolean unique, boolean approximate) {
@@ -632,10 +654,10 @@ public class MariadbDialect extends BaseSqlDialect {
         //SERIAL is an alias for BIGINT UNSIGNED NOT NULL AUTO_INCREMENT UNIQUE
         result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_graph` (`ID` SERIAL PRIMARY KEY, `createdOn` DATETIME, `updatedOn` DATETIME, `version` TEXT);");
         result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_schema` (`ID` SERIAL PRIMARY KEY, `createdOn` DATETIME, `name` TEXT);");
-        result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_vertex` (`ID` SERIAL PRIMARY KEY, `createdOn` DATETIME, `name` TEXT, `schemaVertex` TEXT);");
-        result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_edge` (`ID` SERIAL PRIMARY KEY, `createdOn` DATETIME, `name` TEXT);");
+        result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_vertex` (`ID` SERIAL PRIMARY KEY, `createdOn` DATETIME, `name` TEXT, `schemaVertex` TEXT, `partitionType` TEXT, `partitionKey` TEXT);");
+        result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_edge` (`ID` SERIAL PRIMARY KEY, `createdOn` DATETIME, `name` TEXT, `partitionType` TEXT, `partitionKey` TEXT);");
         result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_property` (`ID` SERIAL PRIMARY KEY, `createdOn` DATETIME, `name` TEXT, `type` TEXT);");
-        result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_index` (`ID` SERIAL PRIMARY KEY, `createdOn` DATETIME, `name` TEXT, `index_type` TEXT);");
+        result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_index` (`ID` SERIAL PRIMARY KEY, `createdOn` DATETIME, `name` TEXT, `index_type` TEXT, `valid` BOOLEAN);");
         result.add("CREATE TABLE IF NOT EXISTS `sqlg_schema`.`V_globalUniqueIndex` (" +
                 "`ID` SERIAL PRIMARY KEY, " +
                 "`createdOn` DATETIME, " +
@@ -729,6 +751,21 @@ public class MariadbDialect extends BaseSqlDialect {
         return "ALTER TABLE `sqlg_schema`.`E_index_property` ADD COLUMN `sequence` INTEGER DEFAULT 0;";
     }
 
+    @Override
+    public String sqlgAddIndexValidColumn() {
+        return "ALTER TABLE `sqlg_schema`.`V_index` ADD COLUMN `valid` BOOLEAN DEFAULT TRUE;";
+    }
+
+    @Override
+    public List<String> sqlgAddPartitionColumns() {
+        List<String> result = new ArrayList<>();
+        result.add("ALTER TABLE `sqlg_schema`.`V_vertex` ADD COLUMN `partitionType` TEXT;");
+        result.add("ALTER TABLE `sqlg_schema`.`V_vertex` ADD COLUMN `partitionKey` TEXT;");
+        result.add("ALTER TABLE `sqlg_schema`.`V_edge` ADD COLUMN `partitionType` TEXT;");
+        result.add("ALTER TABLE `sqlg_schema`.`V_edge` ADD COLUMN `partitionKey` TEXT;");
+        return result;
+    }
+
     private Array createArrayOf(Connection conn, PropertyType propertyType, Object[] data) {
         try {
             switch (propertyType) {
@@ -814,6 +851,52 @@ public class MariadbDialect extends BaseSqlDialect {
                 indexName.endsWith(Topology.IN_VERTEX_COLUMN_END) || indexName.endsWith(Topology.OUT_VERTEX_COLUMN_END);
     }
 
+    /**
+     * Reads the indices of all tables from information_schema.STATISTICS in one query.
+     * MariaDb does not support schemas, the database is the schema and the catalog is null as in {@link #getVertexTables(DatabaseMetaData)}.
+     */
+    @Override
+    public Map<String, Set<IndexRef>> extractIndices(Connection conn, String catalog, String schema) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT TABLE_SCHEMA, TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME " +
+                "FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA <> '" + Schema.SQLG_SCHEMA + "' AND TABLE_SCHEMA <> '" + Schema.GLOBAL_UNIQUE_INDEX_SCHEMA + "'");
+        for (String internalSchema : getInternalSchemas()) {
+            sql.append(" AND TABLE_SCHEMA <> '").append(internalSchema).append("'");
+        }
+        if (schema != null && !"".equals(schema)) {
+            sql.append(" AND TABLE_SCHEMA = '").append(schema).append("'");
+        }
+        sql.append(" ORDER BY TABLE_SCHEMA, TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX");
+        Map<String, Set<IndexRef>> result = new HashMap<>();
+        try (Statement statement = conn.createStatement()) {
+            try (ResultSet indexRs = statement.executeQuery(sql.toString())) {
+                String lastKey = null;
+                String lastIndexName = null;
+                IndexType lastIndexType = null;
+                List<String> lastColumns = new ArrayList<>();
+                while (indexRs.next()) {
+                    String tblCat = null;
+                    String key = tblCat + "." + indexRs.getString("TABLE_SCHEMA") + "." + indexRs.getString("TABLE_NAME");
+                    String indexName = indexRs.getString("INDEX_NAME");
+                    if (lastIndexName != null && (!lastIndexName.equals(indexName) || !lastKey.equals(key))) {
+                        if (!isSystemIndex(lastIndexName)) {
+                            MultiMap.put(result, lastKey, new IndexRef(lastIndexName, lastIndexType, lastColumns));
+                        }
+                        lastColumns.clear();
+                    }
+                    lastKey = key;
+                    lastIndexName = indexName;
+                    lastIndexType = indexRs.getInt("NON_UNIQUE") != 0 ? IndexType.NON_UNIQUE : IndexType.UNIQUE;
+                    lastColumns.add(indexRs.getString("COLUMN_NAME"));
+                }
+                if (lastIndexName != null && !isSystemIndex(lastIndexName)) {
+                    MultiMap.put(result, lastKey, new IndexRef(lastIndexName, lastIndexType, lastColumns));
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean supportsBooleanArrayValues() {
         return false;
@@ -914,4 +997,12 @@ public class MariadbDialect extends BaseSqlDialect {
         return "SET FOREIGN_KEY_CHECKS=1";
     }
 
+    /**
+     * TABLE_ROWS is an estimate for InnoDB tables.
+     */
+    @Override
+    public String sqlToEstimateRowCounts() {
+        return "SELECT TABLE_SCHEMA, TABLE_NAME, TABLE_ROWS FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_TYPE = 'BASE TABLE'";
+    }
+
 }
@@ -12,6 +12,7 @@ import org.apache.commons.lang3.Range;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.util.tools.MultiMap;
 import org.umlg.sqlg.sql.dialect.BaseSqlDialect;
 import org.umlg.sqlg.sql.parse.SchemaTableTree;
 import org.umlg.sqlg.strategy.SqlgSqlExecutor;
@@ -34,10 +35,30 @@ import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
  */
 public class MSSqlServerDialect extends BaseSqlDialect {
 
+    //set from the engine edition in prepareDB
+    private boolean onlineIndexCreation;
+
     public MSSqlServerDialect() {
         super();
     }
 
+    /**
+     * Online index operations are only available in the Enterprise and Developer editions (engine edition 3), in
+     * Azure SQL Database (5) and in Azure SQL Managed Instance (8).
+     */
+    @Override
+    public void prepareDB(Connection conn) {
+        try (Statement statement = conn.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT CAST(SERVERPROPERTY('EngineEdition') AS INT)");
+            if (resultSet.next()) {
+                int engineEdition = resultSet.getInt(1);
+                this.onlineIndexCreation = engineEdition == 3 || engineEdition == 5 || engineEdition == 8;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public boolean requiresIndexName() {
         return true;
@@ -517,10 +538,10 @@ public class MSSqlServerDialect extends BaseSqlDialect {
         List<String> result = new ArrayList<>();
         result.add("CREATE TABLE \"sqlg_schema\".\"V_graph\" (\"ID\" BIGINT IDENTITY PRIMARY KEY, \"createdOn\" DATETIME, \"updatedOn\" DATETIME, \"version\" VARCHAR(255));");
         result.add("CREATE TABLE \"sqlg_schema\".\"V_schema\" (\"ID\" BIGINT IDENTITY PRIMARY KEY, \"createdOn\" DATETIME, \"name\" VARCHAR(255));");
-        result.add("CREATE TABLE \"sqlg_schema\".\"V_vertex\" (\"ID\" BIGINT IDENTITY PRIMARY KEY, \"createdOn\" DATETIME, \"name\" VARCHAR(255), \"schemaVertex\" VARCHAR(255));");
-        result.add("CREATE TABLE \"sqlg_schema\".\"V_edge\" (\"ID\" BIGINT IDENTITY PRIMARY KEY, \"createdOn\" DATETIME, \"name\" VARCHAR(255));");
+        result.add("CREATE TABLE \"sqlg_schema\".\"V_vertex\" (\"ID\" BIGINT IDENTITY PRIMARY KEY, \"createdOn\" DATETIME, \"name\" VARCHAR(255), \"schemaVertex\" VARCHAR(255), \"partitionType\" VARCHAR(255), \"partitionKey\" VARCHAR(255));");
+        result.add("CREATE TABLE \"sqlg_schema\".\"V_edge\" (\"ID\" BIGINT IDENTITY PRIMARY KEY, \"createdOn\" DATETIME, \"name\" VARCHAR(255), \"partitionType\" VARCHAR(255), \"partitionKey\" VARCHAR(255));");
         result.add("CREATE TABLE \"sqlg_schema\".\"V_property\" (\"ID\" BIGINT IDENTITY PRIMARY KEY, \"createdOn\" DATETIME, \"name\" VARCHAR(255), \"type\" VARCHAR(255));");
-        result.add("CREATE TABLE \"sqlg_schema\".\"V_index\" (\"ID\" BIGINT IDENTITY PRIMARY KEY, \"createdOn\" DATETIME, \"name\" VARCHAR(255), \"index_type\" VARCHAR(255));");
+        result.add("CREATE TABLE \"sqlg_schema\".\"V_index\" (\"ID\" BIGINT IDENTITY PRIMARY KEY, \"createdOn\" DATETIME, \"name\" VARCHAR(255), \"index_type\" VARCHAR(255), \"valid\" BIT);");
         result.add("CREATE TABLE \"sqlg_schema\".\"V_globalUniqueIndex\" (" +
                 "\"ID\" BIGINT IDENTITY PRIMARY KEY, " +
                 "\"createdOn\" DATETIME, " +
@@ -552,6 +573,35 @@ public class MSSqlServerDialect extends BaseSqlDialect {
 
     }
 
+    @Override
+    public String sqlgAddIndexValidColumn() {
+        return "ALTER TABLE \"sqlg_schema\".\"V_index\" ADD \"valid\" BIT DEFAULT 1 WITH VALUES;";
+    }
+
+    @Override
+    public List<String> sqlgAddPartitionColumns() {
+        List<String> result = new ArrayList<>();
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD \"partitionType\" VARCHAR(255);");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD \"partitionKey\" VARCHAR(255);");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD \"partitionType\" VARCHAR(255);");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD \"partitionKey\" VARCHAR(255);");
+        return result;
+    }
+
+    /**
+     * Other editions create the index as {@link org.umlg.sqlg.structure.topology.AbstractLabel#ensureIndexExists} does,
+     * see {@link #prepareDB(Connection)}.
+     */
+    @Override
+    public boolean supportsOnlineIndexCreation() {
+        return this.onlineIndexCreation;
+    }
+
+    @Override
+    public String onlineIndexCreationOption() {
+        return "WITH (ONLINE = ON)";
+    }
+
     @Override
     public Object convertArray(PropertyType propertyType, java.sql.Array array) throws SQLException {
         switch (propertyType) {
@@ -627,6 +677,57 @@ public class MSSqlServerDialect extends BaseSqlDialect {
         return indexName.startsWith("PK_") || indexName.startsWith("FK_") || indexName.endsWith("_idx");
     }
 
+    /**
+     * Reads the indices of all tables from sys.indexes and sys.index_columns in one query.
+     * Heaps, primary keys and included columns are not indices of the topology.
+     */
+    @Override
+    public Map<String, Set<IndexRef>> extractIndices(Connection conn, String catalog, String schema) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT DB_NAME() AS TABLE_CAT, s.name AS TABLE_SCHEM, t.name AS TABLE_NAME, " +
+                "i.name AS INDEX_NAME, i.is_unique AS IS_UNIQUE, c.name AS COLUMN_NAME " +
+                "FROM sys.indexes i " +
+                "JOIN sys.tables t ON t.object_id = i.object_id " +
+                "JOIN sys.schemas s ON s.schema_id = t.schema_id " +
+                "JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id " +
+                "JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id " +
+                "WHERE i.type > 0 AND i.is_primary_key = 0 AND ic.is_included_column = 0 " +
+                "AND s.name <> '" + Schema.SQLG_SCHEMA + "' AND s.name <> '" + Schema.GLOBAL_UNIQUE_INDEX_SCHEMA + "'");
+        for (String internalSchema : getInternalSchemas()) {
+            sql.append(" AND s.name <> '").append(internalSchema).append("'");
+        }
+        if (schema != null && !"".equals(schema)) {
+            sql.append(" AND s.name = '").append(schema).append("'");
+        }
+        sql.append(" ORDER BY s.name, t.name, i.name, ic.key_ordinal");
+        Map<String, Set<IndexRef>> result = new HashMap<>();
+        try (Statement statement = conn.createStatement()) {
+            try (ResultSet indexRs = statement.executeQuery(sql.toString())) {
+                String lastKey = null;
+                String lastIndexName = null;
+                IndexType lastIndexType = null;
+                List<String> lastColumns = new ArrayList<>();
+                while (indexRs.next()) {
+                    String key = indexRs.getString("TABLE_CAT") + "." + indexRs.getString("TABLE_SCHEM") + "." + indexRs.getString("TABLE_NAME");
+                    String indexName = indexRs.getString("INDEX_NAME");
+                    if (lastIndexName != null && (!lastIndexName.equals(indexName) || !lastKey.equals(key))) {
+                        if (!isSystemIndex(lastIndexName)) {
+                            MultiMap.put(result, lastKey, new IndexRef(lastIndexName, lastIndexType, lastColumns));
+                        }
+                        lastColumns.clear();
+                    }
+                    lastKey = key;
+                    lastIndexName = indexName;
+                    lastIndexType = indexRs.getBoolean("IS_UNIQUE") ? IndexType.UNIQUE : IndexType.NON_UNIQUE;
+                    lastColumns.add(indexRs.getString("COLUMN_NAME"));
+                }
+                if (lastIndexName != null && !isSystemIndex(lastIndexName)) {
+                    MultiMap.put(result, lastKey, new IndexRef(lastIndexName, lastIndexType, lastColumns));
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean supportsType(PropertyType propertyType) {
         switch (propertyType) {
@@ -1110,4 +1211,15 @@ public class MSSqlServerDialect extends BaseSqlDialect {
         return sql.toString();
     }
 
+    /**
+     * The row counts of the heap or clustered index partitions.
+     */
+    @Override
+    public String sqlToEstimateRowCounts() {
+        return "SELECT s.name, t.name, SUM(p.rows) FROM sys.tables t " +
+                "JOIN sys.schemas s ON s.schema_id = t.schema_id " +
+                "JOIN sys.partitions p ON p.object_id = t.object_id AND p.index_id IN (0, 1) " +
+                "GROUP BY s.name, t.name";
+    }
+
 }
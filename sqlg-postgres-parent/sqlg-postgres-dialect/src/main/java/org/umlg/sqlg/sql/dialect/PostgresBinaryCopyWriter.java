@@ -0,0 +1,515 @@
+package org.umlg.sqlg.sql.dialect;
+
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgExceptions;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Writes rows in postgres' binary copy format, i.e. for a "COPY ... FROM STDIN (FORMAT binary)" command.
+ * The values are encoded as the column's binary representation straight into a {@link ByteBuffer} that is reused for
+ * all rows and flushed to the copy stream when full.
+ * <p>
+ * The values are encoded according to the column's {@link PropertyType}, see
+ * {@link PostgresDialect#propertyTypeToSqlDefinition(PropertyType)}.
+ * Types without a binary mapping, see {@link #supports(PropertyType)}, must be copied in the text format.
+ * <p>
+ * It is a {@link Writer} so that it can take the place of the text format's writer in streaming batch mode. Rows must
+ * be written with the row methods, characters written to it are sent as is, utf-8 encoded.
+ * <p>
+ * Null elements of object arrays are written as null array elements.
+ * <p>
+ * Date: 2018/01/26
+ */
+class PostgresBinaryCopyWriter extends Writer {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+    private static final int BUFFER_SIZE = 64 * 1024;
+    //postgres' epoch is 2000-01-01
+    private static final long POSTGRES_EPOCH_SECONDS = 946684800L;
+    private static final long POSTGRES_EPOCH_DAYS = 10957L;
+
+    private static final int BOOL_OID = 16;
+    private static final int INT8_OID = 20;
+    private static final int INT2_OID = 21;
+    private static final int INT4_OID = 23;
+    private static final int TEXT_OID = 25;
+    private static final int FLOAT4_OID = 700;
+    private static final int FLOAT8_OID = 701;
+    private static final int DATE_OID = 1082;
+    private static final int TIMESTAMPTZ_OID = 1184;
+    private static final int JSONB_OID = 3802;
+    private static final byte JSONB_VERSION = 1;
+    private static final IntPredicate NO_NULLS = i -> false;
+
+    private final OutputStream outputStream;
+    //The property columns of the copy command in order.
+    private final LinkedHashMap<String, PropertyType> columns;
+    private final int numberOfColumns;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    //The text format sends date times without an offset, postgres interprets them in the session's time zone which
+    //the jdbc driver sets to the jvm's time zone.
+    private final ZoneId sessionZoneId = TimeZone.getDefault().toZoneId();
+
+    /**
+     * @param columns the copy command's property columns in order. If empty the copy command has the single integer
+     *                dummy column.
+     */
+    PostgresBinaryCopyWriter(OutputStream outputStream, LinkedHashMap<String, PropertyType> columns) {
+        this.outputStream = outputStream;
+        this.columns = columns;
+        int numberOfColumns = 0;
+        for (PropertyType propertyType : columns.values()) {
+            numberOfColumns += propertyType.getPostFixes().length + 1;
+        }
+        this.numberOfColumns = numberOfColumns;
+        this.buffer.put(SIGNATURE);
+        //flags
+        this.buffer.putInt(0);
+        //header extension length
+        this.buffer.putInt(0);
+    }
+
+    /**
+     * @return true if the values of the property type can be written in the binary format.
+     * {@link PropertyType#LOCALTIME} is written in the text format as its value is shifted for daylight saving time
+     * and the gis types have no binary mapping.
+     */
+    static boolean supports(PropertyType propertyType) {
+        switch (propertyType) {
+            case BOOLEAN:
+            case SHORT:
+            case INTEGER:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+            case STRING:
+            case LOCALDATE:
+            case LOCALDATETIME:
+            case ZONEDDATETIME:
+            case PERIOD:
+            case DURATION:
+            case JSON:
+            case byte_ARRAY:
+            case BYTE_ARRAY:
+            case boolean_ARRAY:
+            case BOOLEAN_ARRAY:
+            case short_ARRAY:
+            case SHORT_ARRAY:
+            case int_ARRAY:
+            case INTEGER_ARRAY:
+            case long_ARRAY:
+            case LONG_ARRAY:
+            case float_ARRAY:
+            case FLOAT_ARRAY:
+            case double_ARRAY:
+            case DOUBLE_ARRAY:
+            case STRING_ARRAY:
+            case LOCALDATE_ARRAY:
+            case LOCALDATETIME_ARRAY:
+            case ZONEDDATETIME_ARRAY:
+            case DURATION_ARRAY:
+            case PERIOD_ARRAY:
+            case JSON_ARRAY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Writes a vertex row, absent keys are written as nulls.
+     */
+    void writeRow(Map<String, Object> keyValueMap) throws IOException {
+        if (this.columns.isEmpty()) {
+            startRow(1);
+            writeInt(1);
+        } else {
+            startRow(this.numberOfColumns);
+            writeProperties(keyValueMap);
+        }
+    }
+
+    /**
+     * Writes a vertex row with its id, absent keys are written as nulls.
+     */
+    void writeRow(long id, Map<String, Object> keyValueMap) throws IOException {
+        startRow(1 + this.numberOfColumns);
+        writeLong(id);
+        writeProperties(keyValueMap);
+    }
+
+    /**
+     * Writes an edge row, the out and in vertex ids precede the properties.
+     */
+    void writeEdgeRow(long outId, long inId, Map<String, Object> keyValueMap) throws IOException {
+        startRow(2 + this.numberOfColumns);
+        writeLong(outId);
+        writeLong(inId);
+        writeProperties(keyValueMap);
+    }
+
+    private void writeProperties(Map<String, Object> keyValueMap) throws IOException {
+        for (Map.Entry<String, PropertyType> column : this.columns.entrySet()) {
+            write(column.getValue(), keyValueMap.get(column.getKey()));
+        }
+    }
+
+    private void startRow(int numberOfColumns) throws IOException {
+        ensure(2);
+        this.buffer.putShort((short) numberOfColumns);
+    }
+
+    private void writeLong(long value) throws IOException {
+        ensure(12);
+        this.buffer.putInt(8);
+        this.buffer.putLong(value);
+    }
+
+    private void writeInt(int value) throws IOException {
+        ensure(8);
+        this.buffer.putInt(4);
+        this.buffer.putInt(value);
+    }
+
+    /**
+     * Writes the value to all the columns of the property type, a null value writes a null to each of them.
+     */
+    private void write(PropertyType propertyType, Object value) throws IOException {
+        if (value == null) {
+            int columns = propertyType.getPostFixes().length + 1;
+            ensure(4 * columns);
+            for (int i = 0; i < columns; i++) {
+                this.buffer.putInt(-1);
+            }
+            return;
+        }
+        switch (propertyType) {
+            case BOOLEAN:
+                ensure(5);
+                this.buffer.putInt(1);
+                this.buffer.put((Boolean) value ? (byte) 1 : (byte) 0);
+                break;
+            case SHORT:
+                ensure(6);
+                this.buffer.putInt(2);
+                this.buffer.putShort(((Number) value).shortValue());
+                break;
+            case INTEGER:
+                writeInt(((Number) value).intValue());
+                break;
+            case LONG:
+                writeLong(((Number) value).longValue());
+                break;
+            case FLOAT:
+                ensure(8);
+                this.buffer.putInt(4);
+                this.buffer.putFloat(((Number) value).floatValue());
+                break;
+            case DOUBLE:
+                ensure(12);
+                this.buffer.putInt(8);
+                this.buffer.putDouble(((Number) value).doubleValue());
+                break;
+            case STRING:
+                writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+                break;
+            case LOCALDATE:
+                writeInt(toPostgresDays((LocalDate) value));
+                break;
+            case LOCALDATETIME:
+                writeLong(toPostgresMicros((LocalDateTime) value));
+                break;
+            case ZONEDDATETIME:
+                ZonedDateTime zonedDateTime = (ZonedDateTime) value;
+                writeLong(toPostgresMicros(zonedDateTime.toLocalDateTime()));
+                writeBytes(zoneId(zonedDateTime).getBytes(StandardCharsets.UTF_8));
+                break;
+            case PERIOD:
+                Period period = (Period) value;
+                writeInt(period.getYears());
+                writeInt(period.getMonths());
+                writeInt(period.getDays());
+                break;
+            case DURATION:
+                Duration duration = (Duration) value;
+                writeLong(duration.getSeconds());
+                writeInt(duration.getNano());
+                break;
+            case JSON:
+                writeJsonb(value.toString().getBytes(StandardCharsets.UTF_8));
+                break;
+            case byte_ARRAY:
+                writeBytes((byte[]) value);
+                break;
+            case BYTE_ARRAY:
+                writeBytes((byte[]) SqlgUtil.convertByteArrayToPrimitiveArray((Byte[]) value));
+                break;
+            case boolean_ARRAY:
+                boolean[] booleans = (boolean[]) value;
+                writeFixedArray(BOOL_OID, 1, booleans.length, i -> this.buffer.put(booleans[i] ? (byte) 1 : (byte) 0));
+                break;
+            case BOOLEAN_ARRAY:
+                Boolean[] objectBooleans = (Boolean[]) value;
+                writeFixedArray(BOOL_OID, 1, objectBooleans.length, isNull(objectBooleans), i -> this.buffer.put(objectBooleans[i] ? (byte) 1 : (byte) 0));
+                break;
+            case short_ARRAY:
+                short[] shorts = (short[]) value;
+                writeFixedArray(INT2_OID, 2, shorts.length, i -> this.buffer.putShort(shorts[i]));
+                break;
+            case SHORT_ARRAY:
+                Short[] objectShorts = (Short[]) value;
+                writeFixedArray(INT2_OID, 2, objectShorts.length, isNull(objectShorts), i -> this.buffer.putShort(objectShorts[i]));
+                break;
+            case int_ARRAY:
+                int[] ints = (int[]) value;
+                writeFixedArray(INT4_OID, 4, ints.length, i -> this.buffer.putInt(ints[i]));
+                break;
+            case INTEGER_ARRAY:
+                Integer[] integers = (Integer[]) value;
+                writeFixedArray(INT4_OID, 4, integers.length, isNull(integers), i -> this.buffer.putInt(integers[i]));
+                break;
+            case long_ARRAY:
+                long[] longs = (long[]) value;
+                writeFixedArray(INT8_OID, 8, longs.length, i -> this.buffer.putLong(longs[i]));
+                break;
+            case LONG_ARRAY:
+                Long[] objectLongs = (Long[]) value;
+                writeFixedArray(INT8_OID, 8, objectLongs.length, isNull(objectLongs), i -> this.buffer.putLong(objectLongs[i]));
+                break;
+            case float_ARRAY:
+                float[] floats = (float[]) value;
+                writeFixedArray(FLOAT4_OID, 4, floats.length, i -> this.buffer.putFloat(floats[i]));
+                break;
+            case FLOAT_ARRAY:
+                Float[] objectFloats = (Float[]) value;
+                writeFixedArray(FLOAT4_OID, 4, objectFloats.length, isNull(objectFloats), i -> this.buffer.putFloat(objectFloats[i]));
+                break;
+            case double_ARRAY:
+                double[] doubles = (double[]) value;
+                writeFixedArray(FLOAT8_OID, 8, doubles.length, i -> this.buffer.putDouble(doubles[i]));
+                break;
+            case DOUBLE_ARRAY:
+                Double[] objectDoubles = (Double[]) value;
+                writeFixedArray(FLOAT8_OID, 8, objectDoubles.length, isNull(objectDoubles), i -> this.buffer.putDouble(objectDoubles[i]));
+                break;
+            case STRING_ARRAY:
+                String[] strings = (String[]) value;
+                byte[][] stringBytes = new byte[strings.length][];
+                for (int i = 0; i < strings.length; i++) {
+                    stringBytes[i] = strings[i] == null ? null : strings[i].getBytes(StandardCharsets.UTF_8);
+                }
+                writeVariableArray(TEXT_OID, stringBytes, false);
+                break;
+            case LOCALDATE_ARRAY:
+                LocalDate[] localDates = (LocalDate[]) value;
+                writeFixedArray(DATE_OID, 4, localDates.length, isNull(localDates), i -> this.buffer.putInt(toPostgresDays(localDates[i])));
+                break;
+            case LOCALDATETIME_ARRAY:
+                LocalDateTime[] localDateTimes = (LocalDateTime[]) value;
+                writeFixedArray(TIMESTAMPTZ_OID, 8, localDateTimes.length, isNull(localDateTimes), i -> this.buffer.putLong(toPostgresMicros(localDateTimes[i])));
+                break;
+            case ZONEDDATETIME_ARRAY:
+                ZonedDateTime[] zonedDateTimes = (ZonedDateTime[]) value;
+                writeFixedArray(TIMESTAMPTZ_OID, 8, zonedDateTimes.length, isNull(zonedDateTimes), i -> this.buffer.putLong(toPostgresMicros(zonedDateTimes[i].toLocalDateTime())));
+                byte[][] zoneIds = new byte[zonedDateTimes.length][];
+                for (int i = 0; i < zonedDateTimes.length; i++) {
+                    zoneIds[i] = zonedDateTimes[i] == null ? null : zoneId(zonedDateTimes[i]).getBytes(StandardCharsets.UTF_8);
+                }
+                writeVariableArray(TEXT_OID, zoneIds, false);
+                break;
+            case DURATION_ARRAY:
+                Duration[] durations = (Duration[]) value;
+                writeFixedArray(INT8_OID, 8, durations.length, isNull(durations), i -> this.buffer.putLong(durations[i].getSeconds()));
+                writeFixedArray(INT4_OID, 4, durations.length, isNull(durations), i -> this.buffer.putInt(durations[i].getNano()));
+                break;
+            case PERIOD_ARRAY:
+                Period[] periods = (Period[]) value;
+                writeFixedArray(INT4_OID, 4, periods.length, isNull(periods), i -> this.buffer.putInt(periods[i].getYears()));
+                writeFixedArray(INT4_OID, 4, periods.length, isNull(periods), i -> this.buffer.putInt(periods[i].getMonths()));
+                writeFixedArray(INT4_OID, 4, periods.length, isNull(periods), i -> this.buffer.putInt(periods[i].getDays()));
+                break;
+            case JSON_ARRAY:
+                Object[] jsons = (Object[]) value;
+                byte[][] jsonBytes = new byte[jsons.length][];
+                for (int i = 0; i < jsons.length; i++) {
+                    jsonBytes[i] = jsons[i] == null ? null : jsons[i].toString().getBytes(StandardCharsets.UTF_8);
+                }
+                writeVariableArray(JSONB_OID, jsonBytes, true);
+                break;
+            default:
+                throw SqlgExceptions.invalidPropertyType(propertyType);
+        }
+    }
+
+    /**
+     * Sends the characters utf-8 encoded as is, the caller is responsible for them being valid in the binary format.
+     */
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        put(new String(cbuf, off, len).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        this.outputStream.flush();
+    }
+
+    /**
+     * Writes the trailer, flushes the buffer and closes the copy stream which completes the copy command.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            ensure(2);
+            this.buffer.putShort((short) -1);
+            flushBuffer();
+        } finally {
+            this.outputStream.close();
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensure(4);
+        this.buffer.putInt(bytes.length);
+        put(bytes);
+    }
+
+    private void writeJsonb(byte[] json) throws IOException {
+        ensure(5);
+        this.buffer.putInt(json.length + 1);
+        this.buffer.put(JSONB_VERSION);
+        put(json);
+    }
+
+    private void writeFixedArray(int elementOid, int elementSize, int length, IntConsumer elementWriter) throws IOException {
+        writeFixedArray(elementOid, elementSize, length, NO_NULLS, elementWriter);
+    }
+
+    /**
+     * Writes a one dimensional array of fixed size elements, elementWriter puts the i'th element in the buffer.
+     * Elements for which isNull holds are written as nulls.
+     */
+    private void writeFixedArray(int elementOid, int elementSize, int length, IntPredicate isNull, IntConsumer elementWriter) throws IOException {
+        int size = 20;
+        boolean hasNulls = false;
+        for (int i = 0; i < length; i++) {
+            if (isNull.test(i)) {
+                hasNulls = true;
+                size += 4;
+            } else {
+                size += 4 + elementSize;
+            }
+        }
+        writeArrayHeader(elementOid, length, size, hasNulls);
+        for (int i = 0; i < length; i++) {
+            if (hasNulls && isNull.test(i)) {
+                ensure(4);
+                this.buffer.putInt(-1);
+            } else {
+                ensure(4 + elementSize);
+                this.buffer.putInt(elementSize);
+                elementWriter.accept(i);
+            }
+        }
+    }
+
+    private void writeVariableArray(int elementOid, byte[][] elements, boolean jsonb) throws IOException {
+        int size = 20;
+        boolean hasNulls = false;
+        for (byte[] element : elements) {
+            if (element == null) {
+                hasNulls = true;
+                size += 4;
+            } else {
+                size += 4 + element.length + (jsonb ? 1 : 0);
+            }
+        }
+        writeArrayHeader(elementOid, elements.length, size, hasNulls);
+        for (byte[] element : elements) {
+            if (element == null) {
+                ensure(4);
+                this.buffer.putInt(-1);
+            } else if (jsonb) {
+                writeJsonb(element);
+            } else {
+                writeBytes(element);
+            }
+        }
+    }
+
+    /**
+     * An empty array has no dimensions.
+     *
+     * @param size the size of the array including the dimension, if any.
+     */
+    private void writeArrayHeader(int elementOid, int length, int size, boolean hasNulls) throws IOException {
+        ensure(24);
+        if (length == 0) {
+            this.buffer.putInt(12);
+            this.buffer.putInt(0);
+            this.buffer.putInt(0);
+            this.buffer.putInt(elementOid);
+        } else {
+            this.buffer.putInt(size);
+            //number of dimensions
+            this.buffer.putInt(1);
+            //has nulls
+            this.buffer.putInt(hasNulls ? 1 : 0);
+            this.buffer.putInt(elementOid);
+            this.buffer.putInt(length);
+            //lower bound
+            this.buffer.putInt(1);
+        }
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (bytes.length > this.buffer.capacity()) {
+            flushBuffer();
+            this.outputStream.write(bytes);
+        } else {
+            ensure(bytes.length);
+            this.buffer.put(bytes);
+        }
+    }
+
+    private void ensure(int size) throws IOException {
+        if (this.buffer.remaining() < size) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        this.outputStream.write(this.buffer.array(), 0, this.buffer.position());
+        this.buffer.clear();
+    }
+
+    private long toPostgresMicros(LocalDateTime localDateTime) {
+        Instant instant = localDateTime.atZone(this.sessionZoneId).toInstant();
+        return (instant.getEpochSecond() - POSTGRES_EPOCH_SECONDS) * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private static IntPredicate isNull(Object[] array) {
+        return i -> array[i] == null;
+    }
+
+    private static int toPostgresDays(LocalDate localDate) {
+        return (int) (localDate.toEpochDay() - POSTGRES_EPOCH_DAYS);
+    }
+
+    private static String zoneId(ZonedDateTime zonedDateTime) {
+        return TimeZone.getTimeZone(zonedDateTime.getZone()).getID();
+    }
+}
@@ -4,12 +4,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.tinkerpop.gremlin.structure.Property;
-import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.util.tools.MultiMap;
 import org.postgis.*;
 import org.postgresql.PGConnection;
@@ -32,12 +32,11 @@ import java.security.SecureRandom;
 import java.sql.*;
 import java.sql.Date;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.umlg.sqlg.structure.PropertyType.*;
 import static org.umlg.sqlg.structure.topology.Topology.*;
 
@@ -56,9 +55,17 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
     private static final char ESCAPE = '\\';
     private static final int PARAMETER_LIMIT = 32767;
     private static final String COPY_DUMMY = "_copy_dummy";
+    /**
+     * Batch mode flushes vertices and edges with the binary copy format, false to always use the text format.
+     */
+    private static final String BULK_COPY_BINARY = "bulk.copy.binary";
+    /**
+     * How long the listener blocks waiting for a notification before checking whether it has been stopped.
+     */
+    private static final int NOTIFICATION_TIMEOUT = 500;
     private PropertyType postGisType;
 
-    private ScheduledFuture<?> future;
+    private Future<?> future;
     private ExecutorService executorService;
     private ScheduledExecutorService scheduledExecutorService;
     private TopologyChangeListener listener;
@@ -72,6 +79,11 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsLockTimeout() {
+        return true;
+    }
+
     @Override
     public String dialectName() {
         return "Postgresql";
@@ -208,20 +220,33 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         Connection con = sqlgGraph.tx().getConnection();
         for (SchemaTable schemaTable : vertexCache.keySet()) {
             Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>> vertices = vertexCache.get(schemaTable);
-            String sql = internalConstructCompleteCopyCommandSqlVertex(sqlgGraph, schemaTable.isTemporary(), schemaTable.getSchema(), schemaTable.getTable(), vertices.getLeft());
+            Map<String, PropertyType> propertyTypeMap = copyPropertyTypes(sqlgGraph, schemaTable.isTemporary(), schemaTable.getSchema(), schemaTable.getTable());
+            boolean binary = useBinaryCopy(sqlgGraph, vertices.getLeft(), propertyTypeMap);
+            String sql = internalConstructCompleteCopyCommandSqlVertex(sqlgGraph, schemaTable.isTemporary(), schemaTable.getSchema(), schemaTable.getTable(), vertices.getLeft(), binary);
             int numberInserted = 0;
-            try (Writer writer = streamSql(sqlgGraph, sql)) {
-                for (Map<String, Object> keyValueMap : vertices.getRight().values()) {
-                    //The map must contain all the keys, so make a copy with it all.
-                    LinkedHashMap<String, Object> values = new LinkedHashMap<>();
-                    for (String key : vertices.getLeft()) {
-                        values.put(key, keyValueMap.get(key));
+            if (binary) {
+                try (PostgresBinaryCopyWriter writer = streamBinarySql(sqlgGraph, sql, copyColumns(vertices.getLeft(), propertyTypeMap))) {
+                    for (Map<String, Object> keyValueMap : vertices.getRight().values()) {
+                        writer.writeRow(keyValueMap);
+                        numberInserted++;
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            } else {
+                try (Writer writer = streamSql(sqlgGraph, sql)) {
+                    for (Map<String, Object> keyValueMap : vertices.getRight().values()) {
+                        //The map must contain all the keys, so make a copy with it all.
+                        LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+                        for (String key : vertices.getLeft()) {
+                            values.put(key, keyValueMap.get(key));
+                        }
+                        writeStreamingVertex(writer, values);
+                        numberInserted++;
                     }
-                    writeStreamingVertex(writer, values);
-                    numberInserted++;
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
                 }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
             }
             if (!schemaTable.isTemporary() && numberInserted > 0) {
                 long endHigh;
@@ -338,6 +363,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                 Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>> triples = edgeCache.get(metaEdge);
                 Map<String, PropertyType> propertyTypeMap = sqlgGraph.getTopology().getTableFor(metaEdge.getSchemaTable().withPrefix(EDGE_PREFIX));
 
+                boolean binary = useBinaryCopy(sqlgGraph, triples.getLeft(), propertyTypeMap);
                 StringBuilder sql = new StringBuilder();
                 sql.append("COPY ");
                 sql.append(maybeWrapInQoutes(metaEdge.getSchemaTable().getSchema()));
@@ -360,28 +386,45 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                 }
                 sql.append(") ");
 
-                sql.append(" FROM stdin CSV DELIMITER '");
-                sql.append(COPY_COMMAND_DELIMITER);
-                sql.append("' ");
-                sql.append("QUOTE ");
-                sql.append(COPY_COMMAND_QUOTE);
-                sql.append(" ESCAPE '");
-                sql.append(ESCAPE);
-                sql.append("';");
+                if (binary) {
+                    sql.append(" FROM stdin (FORMAT binary);");
+                } else {
+                    sql.append(" FROM stdin CSV DELIMITER '");
+                    sql.append(COPY_COMMAND_DELIMITER);
+                    sql.append("' ");
+                    sql.append("QUOTE ");
+                    sql.append(COPY_COMMAND_QUOTE);
+                    sql.append(" ESCAPE '");
+                    sql.append(ESCAPE);
+                    sql.append("';");
+                }
                 if (logger.isDebugEnabled()) {
                     logger.debug(sql.toString());
                 }
                 long numberInserted = 0;
-                try (Writer writer = streamSql(sqlgGraph, sql.toString())) {
-                    for (Map.Entry<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> sqlgEdgeTripleEntry : triples.getRight().entrySet()) {
-                        SqlgEdge sqlgEdge = sqlgEdgeTripleEntry.getKey();
-                        Triple<SqlgVertex, SqlgVertex, Map<String, Object>> outInVertexKeyValueMap = sqlgEdgeTripleEntry.getValue();
-                        LinkedHashMap<String, Object> values = new LinkedHashMap<>();
-                        for (String key : triples.getLeft()) {
-                            values.put(key, outInVertexKeyValueMap.getRight().get(key));
+                if (binary) {
+                    try (PostgresBinaryCopyWriter writer = streamBinarySql(sqlgGraph, sql.toString(), copyColumns(triples.getLeft(), propertyTypeMap))) {
+                        for (Triple<SqlgVertex, SqlgVertex, Map<String, Object>> outInVertexKeyValueMap : triples.getRight().values()) {
+                            writer.writeEdgeRow(
+                                    ((RecordId) outInVertexKeyValueMap.getLeft().id()).getId(),
+                                    ((RecordId) outInVertexKeyValueMap.getMiddle().id()).getId(),
+                                    outInVertexKeyValueMap.getRight()
+                            );
+                            numberInserted++;
+                        }
+                    }
+                } else {
+                    try (Writer writer = streamSql(sqlgGraph, sql.toString())) {
+                        for (Map.Entry<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> sqlgEdgeTripleEntry : triples.getRight().entrySet()) {
+                            SqlgEdge sqlgEdge = sqlgEdgeTripleEntry.getKey();
+                            Triple<SqlgVertex, SqlgVertex, Map<String, Object>> outInVertexKeyValueMap = sqlgEdgeTripleEntry.getValue();
+                            LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+                            for (String key : triples.getLeft()) {
+                                values.put(key, outInVertexKeyValueMap.getRight().get(key));
+                            }
+                            writeStreamingEdge(writer, sqlgEdge, outInVertexKeyValueMap.getLeft(), outInVertexKeyValueMap.getMiddle(), values);
+                            numberInserted++;
                         }
-                        writeStreamingEdge(writer, sqlgEdge, outInVertexKeyValueMap.getLeft(), outInVertexKeyValueMap.getMiddle(), values);
-                        numberInserted++;
                     }
                 }
                 long endHigh;
@@ -481,11 +524,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                         int countProperties = 1;
                         Object value = properties.get(propertyColumn.getName());
                         if (value == null) {
-                            if (sqlgElement.property(propertyColumn.getName()).isPresent()) {
-                                value = sqlgElement.value(propertyColumn.getName());
-                            } else {
-                                value = null;
-                            }
+                            value = sqlgElement.getLoadedValue(propertyColumn.getName());
                         }
                         PropertyType propertyType = propertyColumn.getPropertyType();
                         appendSqlValue(sql, value, propertyType);
@@ -1178,11 +1217,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                 for (String key : keys) {
                     Object value = properties.get(key);
                     if (value == null) {
-                        if (sqlgElement.property(key).isPresent()) {
-                            value = sqlgElement.value(key);
-                        } else {
-                            value = null;
-                        }
+                        value = sqlgElement.getLoadedValue(key);
                     }
                     PropertyType propertyType = keyPropertyTypeMap.get(key);
                     appendSqlValue(sql, value, propertyType);
@@ -1239,12 +1274,11 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
     }
 
     private String internalConstructCompleteCopyCommandSqlVertex(SqlgGraph sqlgGraph, boolean isTemp, String schema, String table, Set<String> keys) {
-        Map<String, PropertyType> propertyTypeMap;
-        if (isTemp) {
-            propertyTypeMap = sqlgGraph.getTopology().getPublicSchema().getTemporaryTable(VERTEX_PREFIX + table);
-        } else {
-            propertyTypeMap = sqlgGraph.getTopology().getTableFor(SchemaTable.of(schema, VERTEX_PREFIX + table));
-        }
+        return internalConstructCompleteCopyCommandSqlVertex(sqlgGraph, isTemp, schema, table, keys, false);
+    }
+
+    private String internalConstructCompleteCopyCommandSqlVertex(SqlgGraph sqlgGraph, boolean isTemp, String schema, String table, Set<String> keys, boolean binary) {
+        Map<String, PropertyType> propertyTypeMap = copyPropertyTypes(sqlgGraph, isTemp, schema, table);
         StringBuilder sql = new StringBuilder();
         sql.append("COPY ");
         if (!isTemp) {
@@ -1275,25 +1309,201 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
             }
         }
         sql.append(")");
-        sql.append(" FROM stdin CSV DELIMITER '");
-        sql.append(COPY_COMMAND_DELIMITER);
-        sql.append("' ");
-        sql.append("QUOTE ");
-        sql.append(COPY_COMMAND_QUOTE);
-        sql.append(" ESCAPE '");
-        sql.append(ESCAPE);
-        sql.append("'");
-        sql.append(" NULL'");
-        sql.append(BATCH_NULL);
-        sql.append("';");
+        if (binary) {
+            sql.append(" FROM stdin (FORMAT binary);");
+        } else {
+            sql.append(" FROM stdin CSV DELIMITER '");
+            sql.append(COPY_COMMAND_DELIMITER);
+            sql.append("' ");
+            sql.append("QUOTE ");
+            sql.append(COPY_COMMAND_QUOTE);
+            sql.append(" ESCAPE '");
+            sql.append(ESCAPE);
+            sql.append("'");
+            sql.append(" NULL'");
+            sql.append(BATCH_NULL);
+            sql.append("';");
+        }
         if (logger.isDebugEnabled()) {
             logger.debug(sql.toString());
         }
         return sql.toString();
     }
 
+    private Map<String, PropertyType> copyPropertyTypes(SqlgGraph sqlgGraph, boolean isTemp, String schema, String table) {
+        if (isTemp) {
+            return sqlgGraph.getTopology().getPublicSchema().getTemporaryTable(VERTEX_PREFIX + table);
+        } else {
+            return sqlgGraph.getTopology().getTableFor(SchemaTable.of(schema, VERTEX_PREFIX + table));
+        }
+    }
+
+    /**
+     * The binary copy format is used if it is enabled, see {@link #BULK_COPY_BINARY}, and all the columns have a binary
+     * mapping. Else the text format is used.
+     */
+    private boolean useBinaryCopy(SqlgGraph sqlgGraph, Set<String> keys, Map<String, PropertyType> propertyTypeMap) {
+        if (!sqlgGraph.configuration().getBoolean(BULK_COPY_BINARY, true)) {
+            return false;
+        }
+        for (String key : keys) {
+            PropertyType propertyType = propertyTypeMap.get(key);
+            if (propertyType == null || !PostgresBinaryCopyWriter.supports(propertyType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private LinkedHashMap<String, PropertyType> copyColumns(Set<String> keys, Map<String, PropertyType> propertyTypeMap) {
+        LinkedHashMap<String, PropertyType> columns = new LinkedHashMap<>();
+        for (String key : keys) {
+            columns.put(key, propertyTypeMap.get(key));
+        }
+        return columns;
+    }
+
+    @Override
+    public Writer streamSqlVertex(SqlgGraph sqlgGraph, SqlgVertex vertex, Map<String, Object> keyValueMap) {
+        Map<String, PropertyType> propertyTypeMap = copyPropertyTypes(sqlgGraph, false, vertex.getSchema(), vertex.getTable());
+        if (useBinaryCopy(sqlgGraph, keyValueMap.keySet(), propertyTypeMap)) {
+            String sql = internalConstructCompleteCopyCommandSqlVertex(sqlgGraph, false, vertex.getSchema(), vertex.getTable(), keyValueMap.keySet(), true);
+            return streamBinarySql(sqlgGraph, sql, copyColumns(keyValueMap.keySet(), propertyTypeMap));
+        } else {
+            return streamSql(sqlgGraph, constructCompleteCopyCommandSqlVertex(sqlgGraph, vertex, keyValueMap));
+        }
+    }
+
+    @Override
+    public Writer streamSqlEdge(SqlgGraph sqlgGraph, SqlgEdge sqlgEdge, SqlgVertex outVertex, SqlgVertex inVertex, Map<String, Object> keyValueMap) {
+        Map<String, PropertyType> propertyTypeMap = sqlgGraph.getTopology().getTableFor(SchemaTable.of(sqlgEdge.getSchema(), EDGE_PREFIX + sqlgEdge.getTable()));
+        if (useBinaryCopy(sqlgGraph, keyValueMap.keySet(), propertyTypeMap)) {
+            String sql = internalConstructCompleteCopyCommandSqlEdge(sqlgGraph, sqlgEdge, outVertex, inVertex, keyValueMap, true);
+            return streamBinarySql(sqlgGraph, sql, copyColumns(keyValueMap.keySet(), propertyTypeMap));
+        } else {
+            return streamSql(sqlgGraph, constructCompleteCopyCommandSqlEdge(sqlgGraph, sqlgEdge, outVertex, inVertex, keyValueMap));
+        }
+    }
+
+    @Override
+    public void bulkLoadVertices(SqlgGraph sqlgGraph, SchemaTable schemaTable, SortedSet<String> keys, List<Pair<Long, Map<String, Object>>> vertices) {
+        Map<String, PropertyType> propertyTypeMap = copyPropertyTypes(sqlgGraph, false, schemaTable.getSchema(), schemaTable.getTable());
+        boolean binary = useBinaryCopy(sqlgGraph, keys, propertyTypeMap);
+        StringBuilder sql = new StringBuilder();
+        sql.append("COPY ");
+        sql.append(maybeWrapInQoutes(schemaTable.getSchema()));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(VERTEX_PREFIX + schemaTable.getTable()));
+        sql.append(" (");
+        sql.append(maybeWrapInQoutes(Topology.ID));
+        for (String key : keys) {
+            sql.append(", ");
+            appendKeyForStream(propertyTypeMap.get(key), sql, key);
+        }
+        sql.append(")");
+        appendBulkLoadCopyFormat(sql, binary);
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        try {
+            if (binary) {
+                try (PostgresBinaryCopyWriter writer = streamBinarySql(sqlgGraph, sql.toString(), copyColumns(keys, propertyTypeMap))) {
+                    for (Pair<Long, Map<String, Object>> vertex : vertices) {
+                        writer.writeRow(vertex.getLeft(), vertex.getRight());
+                    }
+                }
+            } else {
+                try (Writer writer = streamSql(sqlgGraph, sql.toString())) {
+                    for (Pair<Long, Map<String, Object>> vertex : vertices) {
+                        writer.write(vertex.getLeft().toString());
+                        writeBulkLoadProperties(writer, keys, propertyTypeMap, vertex.getRight());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void bulkLoadEdges(SqlgGraph sqlgGraph, SchemaTable schemaTable, SchemaTable outSchemaTable, SchemaTable inSchemaTable, SortedSet<String> keys, List<Triple<Long, Long, Map<String, Object>>> edges) {
+        Map<String, PropertyType> propertyTypeMap = sqlgGraph.getTopology().getTableFor(schemaTable.withPrefix(EDGE_PREFIX));
+        boolean binary = useBinaryCopy(sqlgGraph, keys, propertyTypeMap);
+        StringBuilder sql = new StringBuilder();
+        sql.append("COPY ");
+        sql.append(maybeWrapInQoutes(schemaTable.getSchema()));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(EDGE_PREFIX + schemaTable.getTable()));
+        sql.append(" (");
+        sql.append(maybeWrapInQoutes(outSchemaTable.getSchema() + "." + outSchemaTable.getTable() + Topology.OUT_VERTEX_COLUMN_END));
+        sql.append(", ");
+        sql.append(maybeWrapInQoutes(inSchemaTable.getSchema() + "." + inSchemaTable.getTable() + Topology.IN_VERTEX_COLUMN_END));
+        for (String key : keys) {
+            sql.append(", ");
+            appendKeyForStream(propertyTypeMap.get(key), sql, key);
+        }
+        sql.append(")");
+        appendBulkLoadCopyFormat(sql, binary);
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        try {
+            if (binary) {
+                try (PostgresBinaryCopyWriter writer = streamBinarySql(sqlgGraph, sql.toString(), copyColumns(keys, propertyTypeMap))) {
+                    for (Triple<Long, Long, Map<String, Object>> edge : edges) {
+                        writer.writeEdgeRow(edge.getLeft(), edge.getMiddle(), edge.getRight());
+                    }
+                }
+            } else {
+                try (Writer writer = streamSql(sqlgGraph, sql.toString())) {
+                    for (Triple<Long, Long, Map<String, Object>> edge : edges) {
+                        writer.write(edge.getLeft().toString());
+                        writer.write(COPY_COMMAND_DELIMITER);
+                        writer.write(edge.getMiddle().toString());
+                        writeBulkLoadProperties(writer, keys, propertyTypeMap, edge.getRight());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void appendBulkLoadCopyFormat(StringBuilder sql, boolean binary) {
+        if (binary) {
+            sql.append(" FROM stdin (FORMAT binary);");
+        } else {
+            sql.append(" FROM stdin CSV DELIMITER '");
+            sql.append(COPY_COMMAND_DELIMITER);
+            sql.append("' ");
+            sql.append("QUOTE ");
+            sql.append(COPY_COMMAND_QUOTE);
+            sql.append(" ESCAPE '");
+            sql.append(ESCAPE);
+            sql.append("'");
+            sql.append(" NULL'");
+            sql.append(BATCH_NULL);
+            sql.append("';");
+        }
+    }
+
+    /**
+     * Writes the properties of a text format row that already has its id columns, absent keys are written as nulls.
+     */
+    private void writeBulkLoadProperties(Writer writer, SortedSet<String> keys, Map<String, PropertyType> propertyTypeMap, Map<String, Object> keyValueMap) throws IOException {
+        for (String key : keys) {
+            writer.write(COPY_COMMAND_DELIMITER);
+            valueToStreamBytes(writer, propertyTypeMap.get(key), keyValueMap.get(key));
+        }
+        writer.write("\n");
+    }
+
     @Override
     public String constructCompleteCopyCommandSqlEdge(SqlgGraph sqlgGraph, SqlgEdge sqlgEdge, SqlgVertex outVertex, SqlgVertex inVertex, Map<String, Object> keyValueMap) {
+        return internalConstructCompleteCopyCommandSqlEdge(sqlgGraph, sqlgEdge, outVertex, inVertex, keyValueMap, false);
+    }
+
+    private String internalConstructCompleteCopyCommandSqlEdge(SqlgGraph sqlgGraph, SqlgEdge sqlgEdge, SqlgVertex outVertex, SqlgVertex inVertex, Map<String, Object> keyValueMap, boolean binary) {
         Map<String, PropertyType> propertyTypeMap = sqlgGraph.getTopology().getTableFor(SchemaTable.of(sqlgEdge.getSchema(), EDGE_PREFIX + sqlgEdge.getTable()));
         StringBuilder sql = new StringBuilder();
         sql.append("COPY ");
@@ -1314,12 +1524,16 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         }
         sql.append(") ");
 
-        sql.append(" FROM stdin CSV DELIMITER '");
-        sql.append(COPY_COMMAND_DELIMITER);
-        sql.append("' ");
-        sql.append("QUOTE ");
-        sql.append(COPY_COMMAND_QUOTE);
-        sql.append(";");
+        if (binary) {
+            sql.append(" FROM stdin (FORMAT binary);");
+        } else {
+            sql.append(" FROM stdin CSV DELIMITER '");
+            sql.append(COPY_COMMAND_DELIMITER);
+            sql.append("' ");
+            sql.append("QUOTE ");
+            sql.append(COPY_COMMAND_QUOTE);
+            sql.append(";");
+        }
         if (logger.isDebugEnabled()) {
             logger.debug(sql.toString());
         }
@@ -1406,6 +1620,10 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
     @Override
     public void writeStreamingVertex(Writer writer, Map<String, Object> keyValueMap) {
         try {
+            if (writer instanceof PostgresBinaryCopyWriter) {
+                ((PostgresBinaryCopyWriter) writer).writeRow(keyValueMap);
+                return;
+            }
             int countKeys = 1;
             if (keyValueMap.isEmpty()) {
                 writer.write(Integer.toString(1));
@@ -1434,6 +1652,10 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
     @Override
     public void writeStreamingEdge(Writer writer, SqlgEdge sqlgEdge, SqlgVertex outVertex, SqlgVertex inVertex, Map<String, Object> keyValueMap) {
         try {
+            if (writer instanceof PostgresBinaryCopyWriter) {
+                ((PostgresBinaryCopyWriter) writer).writeEdgeRow(((RecordId) outVertex.id()).getId(), ((RecordId) inVertex.id()).getId(), keyValueMap);
+                return;
+            }
             String encoding = "UTF-8";
             writer.write(((RecordId) outVertex.id()).getId().toString());
             writer.write(COPY_COMMAND_DELIMITER);
@@ -2535,6 +2757,16 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         }
     }
 
+    private PostgresBinaryCopyWriter streamBinarySql(SqlgGraph sqlgGraph, String sql, LinkedHashMap<String, PropertyType> columns) {
+        Connection conn = sqlgGraph.tx().getConnection();
+        try {
+            PGConnection pgConnection = conn.unwrap(PGConnection.class);
+            return new PostgresBinaryCopyWriter(new PGCopyOutputStream(pgConnection, sql), columns);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private <L, R> void copyInBulkTempEdges(SqlgGraph sqlgGraph, SchemaTable schemaTable, Collection<Pair<L, R>> uids, PropertyType inPropertyType, PropertyType outPropertyType) {
         try {
             StringBuilder sql = new StringBuilder();
@@ -2710,6 +2942,29 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         return result;
     }
 
+    @Override
+    public long[] nextSequenceVals(SqlgGraph sqlgGraph, SchemaTable schemaTable, String prefix, int count) {
+        Preconditions.checkArgument(prefix.equals(VERTEX_PREFIX) || prefix.equals(EDGE_PREFIX), "prefix must be " + VERTEX_PREFIX + " or " + EDGE_PREFIX);
+        long[] result = new long[count];
+        Connection conn = sqlgGraph.tx().getConnection();
+        String sql = "SELECT NEXTVAL('\"" + schemaTable.getSchema() + "\".\"" + prefix + schemaTable.getTable() + "_ID_seq\"') FROM generate_series(1, ?) ORDER BY 1;";
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+            preparedStatement.setInt(1, count);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            int i = 0;
+            while (resultSet.next()) {
+                result[i++] = resultSet.getLong(1);
+            }
+            resultSet.close();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
     @Override
     public long currSequenceVal(SqlgGraph sqlgGraph, SchemaTable schemaTable, String prefix) {
         Preconditions.checkArgument(prefix.equals(VERTEX_PREFIX) || prefix.equals(EDGE_PREFIX), "prefix must be " + VERTEX_PREFIX + " or " + EDGE_PREFIX);
@@ -2761,6 +3016,29 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsBulkWithinOutAsArray() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsDistinctOn() {
+        return true;
+    }
+
+    @Override
+    public String unnestArrayParameters(int count) {
+        StringBuilder sb = new StringBuilder("unnest(");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("?");
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+
     @Override
     public boolean isPostgresql() {
         return true;
@@ -2788,10 +3066,10 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         List<String> result = new ArrayList<>();
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_graph\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"updatedOn\" TIMESTAMP WITH TIME ZONE, \"version\" TEXT);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_schema\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_vertex\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"schemaVertex\" TEXT);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_edge\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_vertex\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"schemaVertex\" TEXT, \"partitionType\" TEXT, \"partitionKey\" TEXT);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_edge\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"partitionType\" TEXT, \"partitionKey\" TEXT);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_property\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"type\" TEXT);");
-        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_index\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"index_type\" TEXT);");
+        result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_index\" (\"ID\" SERIAL PRIMARY KEY, \"createdOn\" TIMESTAMP WITH TIME ZONE, \"name\" TEXT, \"index_type\" TEXT, \"valid\" BOOLEAN);");
         result.add("CREATE TABLE IF NOT EXISTS \"sqlg_schema\".\"V_globalUniqueIndex\" (" +
                 "\"ID\" SERIAL PRIMARY KEY, " +
                 "\"createdOn\" TIMESTAMP WITH TIME ZONE, " +
@@ -2847,6 +3125,124 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
 
     }
 
+    @Override
+    public String sqlgAddIndexValidColumn() {
+        return "ALTER TABLE \"sqlg_schema\".\"V_index\" ADD COLUMN \"valid\" BOOLEAN DEFAULT TRUE;";
+    }
+
+    @Override
+    public List<String> sqlgAddPartitionColumns() {
+        List<String> result = new ArrayList<>();
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD COLUMN \"partitionType\" TEXT;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_vertex\" ADD COLUMN \"partitionKey\" TEXT;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD COLUMN \"partitionType\" TEXT;");
+        result.add("ALTER TABLE \"sqlg_schema\".\"V_edge\" ADD COLUMN \"partitionKey\" TEXT;");
+        return result;
+    }
+
+    @Override
+    public boolean supportsOnlineIndexCreation() {
+        return true;
+    }
+
+    @Override
+    public String onlineIndexCreationModifier() {
+        return "CONCURRENTLY";
+    }
+
+    @Override
+    public boolean onlineIndexCreationLeavesInvalidIndex() {
+        return true;
+    }
+
+    /**
+     * Declarative partitioning, hash partitions and primary keys on partitioned tables require postgresql 11.
+     */
+    @Override
+    public boolean supportsPartitioning() {
+        return true;
+    }
+
+    @Override
+    public String getPartitionedAutoIncrementConstruct() {
+        return "BIGSERIAL";
+    }
+
+    @Override
+    public String partitionByClause(PartitionType partitionType, String partitionKey) {
+        return " PARTITION BY " + partitionType.name() + " (" + maybeWrapInQoutes(partitionKey) + ")";
+    }
+
+    @Override
+    public String rangePartitionBound(PropertyType propertyType, Object from, Object to) {
+        return "FOR VALUES FROM (" + (from == null ? "MINVALUE" : partitionBoundLiteral(propertyType, from)) +
+                ") TO (" + (to == null ? "MAXVALUE" : partitionBoundLiteral(propertyType, to)) + ")";
+    }
+
+    @Override
+    public String listPartitionBound(PropertyType propertyType, Collection<?> in) {
+        return "FOR VALUES IN (" + in.stream().map(v -> v == null ? "NULL" : partitionBoundLiteral(propertyType, v)).collect(Collectors.joining(", ")) + ")";
+    }
+
+    /**
+     * Postgresql 11 only takes plain literals as partition bounds, no casts as {@link #valueToValuesString} renders.
+     */
+    private String partitionBoundLiteral(PropertyType propertyType, Object value) {
+        switch (propertyType) {
+            case SHORT:
+            case INTEGER:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return value.toString();
+            case STRING:
+            case LOCALDATE:
+            case LOCALDATETIME:
+                return "'" + escapeQuotes(value) + "'";
+            case LOCALTIME:
+                return "'" + escapeQuotes(shiftDST((LocalTime) value)) + "'";
+            default:
+                throw new IllegalArgumentException(String.format("%s can not be a partition key", propertyType.name()));
+        }
+    }
+
+    @Override
+    public String hashPartitionBound(int modulus, int remainder) {
+        return "FOR VALUES WITH (MODULUS " + modulus + ", REMAINDER " + remainder + ")";
+    }
+
+    @Override
+    public String defaultPartitionBound() {
+        return "DEFAULT";
+    }
+
+    @Override
+    public String sqlToCreatePartition(String schema, String table, String partition, String bound) {
+        return "CREATE TABLE IF NOT EXISTS " + maybeWrapInQoutes(schema) + "." + maybeWrapInQoutes(partition) +
+                " PARTITION OF " + maybeWrapInQoutes(schema) + "." + maybeWrapInQoutes(table) + " " + bound + ";";
+    }
+
+    @Override
+    public String sqlToAttachPartition(String schema, String table, String partition, String bound) {
+        return "ALTER TABLE " + maybeWrapInQoutes(schema) + "." + maybeWrapInQoutes(table) +
+                " ATTACH PARTITION " + maybeWrapInQoutes(schema) + "." + maybeWrapInQoutes(partition) + " " + bound + ";";
+    }
+
+    @Override
+    public String sqlToDetachPartition(String schema, String table, String partition) {
+        return "ALTER TABLE " + maybeWrapInQoutes(schema) + "." + maybeWrapInQoutes(table) +
+                " DETACH PARTITION " + maybeWrapInQoutes(schema) + "." + maybeWrapInQoutes(partition) + ";";
+    }
+
+    @Override
+    public String sqlToListPartitions() {
+        return "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "JOIN pg_namespace n ON n.oid = p.relnamespace " +
+                "WHERE n.nspname = ? AND p.relname = ?";
+    }
+
     private Array createArrayOf(Connection conn, PropertyType propertyType, Object[] data) {
         try {
             switch (propertyType) {
@@ -3053,6 +3449,20 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         }
     }
 
+    @Override
+    public void setLockTimeout(SqlgGraph sqlgGraph, long millis) {
+        String sql = "SET LOCAL lock_timeout = " + millis;
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        Connection conn = sqlgGraph.tx().getConnection();
+        try (Statement statement = conn.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public void registerListener(SqlgGraph sqlgGraph) {
         this.executorService = Executors.newSingleThreadExecutor(r -> new Thread(r, "Sqlg notification merge " + sqlgGraph.toString()));
@@ -3061,7 +3471,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         try {
             Semaphore listeningSemaphore = new Semaphore(1);
             listener = new TopologyChangeListener(sqlgGraph, listeningSemaphore);
-            this.future = scheduledExecutorService.schedule(listener, 500, MILLISECONDS);
+            this.future = scheduledExecutorService.submit(listener);
             //block here to only return once the listener is listening.
             listeningSemaphore.acquire();
             listeningSemaphore.tryAcquire(5, TimeUnit.MINUTES);
@@ -3082,44 +3492,45 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
     }
 
     @Override
-    public int notifyChange(SqlgGraph sqlgGraph, LocalDateTime timestamp, JsonNode jsonNode) {
+    public long notifyChange(SqlgGraph sqlgGraph, LocalDateTime timestamp, JsonNode jsonNode) {
         Connection connection = sqlgGraph.tx().getConnection();
         try {
 
             PGConnection pgConnection = connection.unwrap(PGConnection.class);
             int pid = pgConnection.getBackendPID();
-            if (sqlgGraph.tx().isInBatchMode()) {
-                BatchManager.BatchModeType batchModeType = sqlgGraph.tx().getBatchModeType();
-                sqlgGraph.tx().flush();
-                sqlgGraph.tx().batchMode(BatchManager.BatchModeType.NONE);
-                sqlgGraph.addVertex(
-                        T.label,
-                        SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG,
-                        "timestamp", timestamp,
-                        "pid", pid,
-                        "log", jsonNode
-                );
-                sqlgGraph.tx().batchMode(batchModeType);
-            } else {
-                sqlgGraph.addVertex(
-                        T.label,
-                        SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG,
-                        "timestamp", timestamp,
-                        "pid", pid,
-                        "log", jsonNode
-                );
-            }
+            long logId = addTopologyLog(sqlgGraph, timestamp, pid, jsonNode);
             try (Statement statement = connection.createStatement()) {
-                statement.execute("NOTIFY " + SQLG_NOTIFICATION_CHANNEL + ", '" + timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "'");
+                statement.execute("NOTIFY " + SQLG_NOTIFICATION_CHANNEL + ", '" + logId + "'");
+            }
+            return logId;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean supportsElementCacheInvalidation() {
+        return true;
+    }
+
+    @Override
+    public void notifyElementCacheInvalidation(SqlgGraph sqlgGraph, List<String> notifications) {
+        Connection connection = sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String notification : notifications) {
+                preparedStatement.setString(1, ElementCache.NOTIFICATION_CHANNEL);
+                preparedStatement.setString(2, notification);
+                preparedStatement.executeQuery().close();
             }
-            return pid;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Listens to topology changes notifications from the database and loads the changes into our own version of the schema
+     * Listens to topology changes notifications from the database and loads the changes into our own version of the schema.
+     * The listener blocks on its own connection until notifications arrive. A burst of topology notifications is merged
+     * into one load of the logs written since the last loaded log.
      */
     private class TopologyChangeListener implements Runnable {
 
@@ -3129,6 +3540,10 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
          * should we keep running?
          */
         private AtomicBoolean run = new AtomicBoolean(true);
+        /**
+         * true while a load of the logs is waiting on the merge executor, it will load the logs of any later notification too.
+         */
+        private AtomicBoolean loadPending = new AtomicBoolean(false);
 
         TopologyChangeListener(SqlgGraph sqlgGraph, Semaphore semaphore) throws SQLException {
             this.sqlgGraph = sqlgGraph;
@@ -3141,63 +3556,71 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
 
         @Override
         public void run() {
-            try {
-                Connection connection = this.sqlgGraph.tx().getConnection();
-                while (run.get()) {
-                    PGConnection pgConnection = connection.unwrap(org.postgresql.PGConnection.class);
-                    Statement stmt = connection.createStatement();
+            try (Connection connection = listenerConnection()) {
+                PGConnection pgConnection = connection.unwrap(org.postgresql.PGConnection.class);
+                try (Statement stmt = connection.createStatement()) {
                     stmt.execute("LISTEN " + SQLG_NOTIFICATION_CHANNEL);
-                    stmt.close();
-                    connection.commit();
-                    this.semaphore.release();
-                    // issue a dummy query to contact the backend
-                    // and receive any pending notifications.
-                    stmt = connection.createStatement();
-                    ResultSet rs = stmt.executeQuery("SELECT 1");
-                    rs.close();
-                    stmt.close();
-                    //Does not work while in a transaction.
-                    connection.rollback();
-                    PGNotification notifications[] = pgConnection.getNotifications();
-                    if (notifications != null) {
-                        for (int i = 0; i < notifications.length; i++) {
-                            int pid = notifications[i].getPID();
-                            String notify = notifications[i].getParameter();
-                            LocalDateTime timestamp = LocalDateTime.parse(notify, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                            PostgresDialect.this.executorService.submit(() -> {
-                                try {
-                                    Topology topology = this.sqlgGraph.getTopology();
-                                    //It is possible for the topology to be null when a notification is received just
-                                    // after the connection pool is setup but before the topology is created.
-                                    if (topology != null) {
-                                        topology.fromNotifyJson(pid, timestamp);
-                                    }
-                                } catch (Exception e) {
-                                    // we may get InterruptedException when we shut down
-                                    if (run.get()) {
-                                        logger.error("Error in Postgresql notification", e);
-                                    }
-                                } finally {
-                                    this.sqlgGraph.tx().rollback();
-                                }
-                            });
+                    stmt.execute("LISTEN " + ElementCache.NOTIFICATION_CHANNEL);
+                }
+                this.semaphore.release();
+                while (run.get() && !Thread.currentThread().isInterrupted()) {
+                    //returns as soon as a notification arrives
+                    PGNotification notifications[] = pgConnection.getNotifications(NOTIFICATION_TIMEOUT);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    boolean topologyChanged = false;
+                    for (PGNotification notification : notifications) {
+                        if (ElementCache.NOTIFICATION_CHANNEL.equals(notification.getName())) {
+                            this.sqlgGraph.getElementCache().invalidate(notification.getParameter());
+                        } else {
+                            topologyChanged = true;
                         }
                     }
-                    Thread.sleep(500);
+                    if (topologyChanged && this.loadPending.compareAndSet(false, true)) {
+                        PostgresDialect.this.executorService.submit(() -> {
+                            //reset before loading, a notification arriving while loading needs another load.
+                            this.loadPending.set(false);
+                            try {
+                                Topology topology = this.sqlgGraph.getTopology();
+                                //It is possible for the topology to be null when a notification is received just
+                                // after the connection pool is setup but before the topology is created.
+                                if (topology != null) {
+                                    topology.fromNotifyLogs();
+                                }
+                            } catch (Exception e) {
+                                // we may get InterruptedException when we shut down
+                                if (run.get()) {
+                                    logger.error("Error in Postgresql notification", e);
+                                }
+                            } finally {
+                                this.sqlgGraph.tx().rollback();
+                            }
+                        });
+                    }
                 }
-                this.sqlgGraph.tx().rollback();
             } catch (SQLException e) {
-                logger.error(String.format("change listener on graph %s error", this.sqlgGraph.toString()), e);
-                this.sqlgGraph.tx().rollback();
-                throw new RuntimeException(e);
-            } catch (InterruptedException e) {
                 if (run.get()) {
-                    logger.warn(String.format("change listener on graph %s interrupted.", this.sqlgGraph.toString()));
+                    logger.error(String.format("change listener on graph %s error", this.sqlgGraph.toString()), e);
+                    throw new RuntimeException(e);
                 }
-                this.sqlgGraph.tx().rollback();
-                //swallow
             }
         }
+
+        /**
+         * LISTEN is per session, the listener keeps a connection of its own outside of the pool when it can.
+         */
+        private Connection listenerConnection() throws SQLException {
+            Configuration configuration = this.sqlgGraph.configuration();
+            Connection connection;
+            if (configuration.containsKey("jdbc.username") && configuration.containsKey("jdbc.password")) {
+                connection = DriverManager.getConnection(this.sqlgGraph.getJdbcUrl(), configuration.getString("jdbc.username"), configuration.getString("jdbc.password"));
+            } else {
+                connection = this.sqlgGraph.getSqlgDataSource().getDatasource().getConnection();
+            }
+            connection.setAutoCommit(true);
+            return connection;
+        }
     }
 
     /**
@@ -3840,4 +4263,30 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
     public boolean supportsTruncateMultipleTablesTogether() {
         return true;
     }
+
+    @Override
+    public boolean supportsRecursiveCte() {
+        return true;
+    }
+
+    @Override
+    public String sqlToExportSnapshot() {
+        return "SELECT pg_export_snapshot()";
+    }
+
+    @Override
+    public String sqlToImportSnapshot(String snapshotId) {
+        return "SET TRANSACTION SNAPSHOT '" + snapshotId + "'";
+    }
+
+    /**
+     * reltuples is maintained by VACUUM, ANALYZE and CREATE INDEX. A table that has never been analyzed has -1, or 0
+     * before Postgresql 14, so an estimate of 0 or less is returned as -1 and the table is counted.
+     * Partitioned tables ('p') have the sum of their partitions after they are analyzed.
+     */
+    @Override
+    public String sqlToEstimateRowCounts() {
+        return "SELECT n.nspname, c.relname, CASE WHEN c.reltuples > 0 THEN c.reltuples::BIGINT ELSE -1 END FROM pg_class c " +
+                "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE c.relkind IN ('r', 'p')";
+    }
 }
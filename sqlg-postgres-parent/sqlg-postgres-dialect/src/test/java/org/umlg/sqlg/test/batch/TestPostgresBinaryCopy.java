@@ -0,0 +1,201 @@
+package org.umlg.sqlg.test.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgVertex;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.time.*;
+import java.util.*;
+
+/**
+ * Date: 2018/01/26
+ */
+public class TestPostgresBinaryCopy extends BaseTest {
+
+    @Test
+    public void testBinaryCopyVertexAndEdge() {
+        assertCopy(this.sqlgGraph);
+    }
+
+    @Test
+    public void testTextCopyVertexAndEdge() throws Exception {
+        configuration.setProperty("bulk.copy.binary", false);
+        try (SqlgGraph sqlgGraph = SqlgGraph.open(configuration)) {
+            assertCopy(sqlgGraph);
+        } finally {
+            configuration.clearProperty("bulk.copy.binary");
+        }
+    }
+
+    @Test
+    public void testBinaryCopyStreaming() {
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        for (int i = 0; i < 100; i++) {
+            this.sqlgGraph.streamVertex(T.label, "A", "name", "a" + i, "localDateTime", LocalDateTime.of(2018, 1, 26, 10, i % 60), "ints", new int[]{i});
+        }
+        this.sqlgGraph.tx().flush();
+        for (int i = 0; i < 10; i++) {
+            this.sqlgGraph.streamVertex(T.label, "B");
+        }
+        this.sqlgGraph.tx().flush();
+        List<Vertex> as = this.sqlgGraph.traversal().V().hasLabel("A").toList();
+        List<Vertex> bs = this.sqlgGraph.traversal().V().hasLabel("B").toList();
+        for (int i = 0; i < 10; i++) {
+            ((SqlgVertex) as.get(i)).streamEdge("ab", (SqlgVertex) bs.get(i), new LinkedHashMap<>(Collections.singletonMap("period", Period.of(i, 1, 1))));
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+        Vertex a = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a61").next();
+        Assert.assertEquals(LocalDateTime.of(2018, 1, 26, 10, 1), a.value("localDateTime"));
+        Assert.assertArrayEquals(new int[]{61}, a.value("ints"));
+        List<Edge> edges = this.sqlgGraph.traversal().E().hasLabel("ab").toList();
+        Assert.assertEquals(10, edges.size());
+        for (Edge edge : edges) {
+            Assert.assertEquals(1, ((Period) edge.value("period")).getMonths());
+        }
+    }
+
+    @Test
+    public void testBinaryCopyNullsAndEmptyArrays() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a", "zonedDateTime", ZonedDateTime.now(), "period", Period.of(1, 2, 3), "ints", new int[]{1, 2});
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "ints", new int[0], "strings", new String[0]);
+        this.sqlgGraph.tx().commit();
+        a = this.sqlgGraph.traversal().V(a.id()).next();
+        Assert.assertFalse(a.property("name").isPresent());
+        Assert.assertFalse(a.property("zonedDateTime").isPresent());
+        Assert.assertFalse(a.property("period").isPresent());
+        Assert.assertArrayEquals(new int[0], a.value("ints"));
+        Assert.assertArrayEquals(new String[0], a.value("strings"));
+    }
+
+    @Test
+    public void testBinaryCopyNullArrayElements() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A",
+                "integers", new Integer[]{1, null, 3},
+                "longs", new Long[]{null, 2L},
+                "strings", new String[]{"a", null},
+                "localDates", new LocalDate[]{null, LocalDate.of(2018, 1, 26)}
+        );
+        this.sqlgGraph.tx().commit();
+        a = this.sqlgGraph.traversal().V(a.id()).next();
+        Assert.assertArrayEquals(new Integer[]{1, null, 3}, a.value("integers"));
+        Assert.assertArrayEquals(new Long[]{null, 2L}, a.value("longs"));
+        Assert.assertArrayEquals(new String[]{"a", null}, a.value("strings"));
+        Assert.assertArrayEquals(new LocalDate[]{null, LocalDate.of(2018, 1, 26)}, a.value("localDates"));
+    }
+
+    @Test
+    public void testBinaryCopyLargeValues() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            sb.append("ö");
+        }
+        byte[] bytes = new byte[200_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", sb.toString(), "bytes", bytes, "index", i);
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").toList();
+        Assert.assertEquals(10, vertices.size());
+        for (Vertex vertex : vertices) {
+            Assert.assertEquals(sb.toString(), vertex.value("name"));
+            Assert.assertArrayEquals(bytes, vertex.value("bytes"));
+        }
+    }
+
+    private void assertCopy(SqlgGraph sqlgGraph) {
+        ObjectNode json = new ObjectMapper().createObjectNode();
+        json.put("username", "john");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("boolean", true);
+        properties.put("short", (short) 1);
+        properties.put("integer", 2);
+        properties.put("long", 3L);
+        properties.put("float", 4.4F);
+        properties.put("double", 5.5D);
+        properties.put("string", "a\tb\n'c'\\");
+        properties.put("localDate", LocalDate.of(1999, 12, 31));
+        properties.put("localDateTime", LocalDateTime.of(2018, 1, 26, 10, 30, 15, 123_000_000));
+        properties.put("zonedDateTime", ZonedDateTime.of(LocalDateTime.of(2018, 1, 26, 10, 30), ZoneId.of("Asia/Tokyo")));
+        properties.put("period", Period.of(1, 2, 3));
+        properties.put("duration", Duration.ofSeconds(5, 6));
+        properties.put("json", json);
+        properties.put("bytes", new byte[]{1, 2, 3});
+        properties.put("booleans", new boolean[]{true, false});
+        properties.put("shorts", new short[]{1, 2});
+        properties.put("ints", new int[]{1, 2});
+        properties.put("longs", new long[]{1L, 2L});
+        properties.put("floats", new float[]{1.1F, 2.2F});
+        properties.put("doubles", new double[]{1.1D, 2.2D});
+        properties.put("Integers", new Integer[]{1, 2});
+        properties.put("strings", new String[]{"a", "b\"c"});
+        properties.put("localDates", new LocalDate[]{LocalDate.of(2018, 1, 26), LocalDate.of(1970, 1, 1)});
+        properties.put("localDateTimes", new LocalDateTime[]{LocalDateTime.of(2018, 1, 26, 10, 30), LocalDateTime.of(1970, 1, 1, 0, 0)});
+        properties.put("zonedDateTimes", new ZonedDateTime[]{ZonedDateTime.of(LocalDateTime.of(2018, 1, 26, 10, 30), ZoneId.of("Asia/Tokyo"))});
+        properties.put("durations", new Duration[]{Duration.ofSeconds(1, 2), Duration.ofSeconds(3, 4)});
+        properties.put("periods", new Period[]{Period.of(1, 2, 3), Period.of(4, 5, 6)});
+
+        List<Object> keyValues = new ArrayList<>();
+        properties.forEach((k, v) -> {
+            keyValues.add(k);
+            keyValues.add(v);
+        });
+
+        sqlgGraph.tx().normalBatchModeOn();
+        Vertex a = sqlgGraph.addVertex("A", properties);
+        Vertex b = sqlgGraph.addVertex(T.label, "B");
+        Edge e = a.addEdge("ab", b, keyValues.toArray());
+        //LocalTime has no binary mapping, the label is copied in the text format
+        Vertex c = sqlgGraph.addVertex(T.label, "C", "localTime", LocalTime.of(10, 30, 15), "string", "a\tb");
+        sqlgGraph.tx().commit();
+
+        c = sqlgGraph.traversal().V(c.id()).next();
+        Assert.assertEquals(LocalTime.of(10, 30, 15), c.value("localTime"));
+        Assert.assertEquals("a\tb", c.value("string"));
+
+        a = sqlgGraph.traversal().V(a.id()).next();
+        e = sqlgGraph.traversal().E(e.id()).next();
+        Assert.assertEquals(b, e.inVertex());
+        Assert.assertEquals(a, e.outVertex());
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            assertValue(property.getKey(), property.getValue(), a.value(property.getKey()));
+            assertValue(property.getKey(), property.getValue(), e.value(property.getKey()));
+        }
+    }
+
+    private static void assertValue(String key, Object expected, Object actual) {
+        if (expected instanceof boolean[]) {
+            Assert.assertArrayEquals(key, (boolean[]) expected, (boolean[]) actual);
+        } else if (expected instanceof byte[]) {
+            Assert.assertArrayEquals(key, (byte[]) expected, (byte[]) actual);
+        } else if (expected instanceof short[]) {
+            Assert.assertArrayEquals(key, (short[]) expected, (short[]) actual);
+        } else if (expected instanceof int[]) {
+            Assert.assertArrayEquals(key, (int[]) expected, (int[]) actual);
+        } else if (expected instanceof long[]) {
+            Assert.assertArrayEquals(key, (long[]) expected, (long[]) actual);
+        } else if (expected instanceof float[]) {
+            Assert.assertArrayEquals(key, (float[]) expected, (float[]) actual, 0F);
+        } else if (expected instanceof double[]) {
+            Assert.assertArrayEquals(key, (double[]) expected, (double[]) actual, 0D);
+        } else if (expected instanceof Object[]) {
+            Assert.assertArrayEquals(key, (Object[]) expected, (Object[]) actual);
+        } else {
+            Assert.assertEquals(key, expected, actual);
+        }
+    }
+}
@@ -40,11 +40,16 @@ import org.umlg.sqlg.test.localvertexstep.*;
 import org.umlg.sqlg.test.match.TestMatch;
 import org.umlg.sqlg.test.memory.TestMemoryUsage;
 import org.umlg.sqlg.test.mod.*;
+import org.umlg.sqlg.test.preparedStatement.TestPreparedStatementCache;
+import org.umlg.sqlg.test.preparedStatement.TestFetchSize;
+import org.umlg.sqlg.test.preparedStatement.TestQueryParallelism;
+import org.umlg.sqlg.test.preparedStatement.TestQueryPlanCache;
 import org.umlg.sqlg.test.process.dropstep.TestDropStep;
 import org.umlg.sqlg.test.process.dropstep.TestDropStepBarrier;
 import org.umlg.sqlg.test.process.dropstep.TestDropStepTruncate;
 import org.umlg.sqlg.test.properties.TestEscapedValues;
 import org.umlg.sqlg.test.remove.TestRemoveEdge;
+import org.umlg.sqlg.test.repeatstep.TestRecursiveRepeatStep;
 import org.umlg.sqlg.test.repeatstep.TestUnoptimizedRepeatStep;
 import org.umlg.sqlg.test.rollback.TestRollback;
 import org.umlg.sqlg.test.sack.TestSack;
@@ -92,6 +97,7 @@ import org.umlg.sqlg.test.where.TestTraversalFilterStepBarrier;
         TestEdgeHas.class,
         TestBatch.class,
         TestBatchNormalUpdate.class,
+        TestWriteBehindUpdate.class,
         TestMultiThreadedBatch.class,
         TestMultiThread.class,
         TestMultipleThreadMultipleJvm.class,
@@ -103,6 +109,7 @@ import org.umlg.sqlg.test.where.TestTraversalFilterStepBarrier;
         TestNewVertex.class,
         TestEdgeCache.class,
         TestVertexCache.class,
+        TestElementCache.class,
         TestTinkerpopBug.class,
         TestLoadSchemaViaNotify.class,
         TestCreateEdgeBetweenVertices.class,
@@ -152,6 +159,11 @@ import org.umlg.sqlg.test.where.TestTraversalFilterStepBarrier;
         TestGremlinMod.class,
         TestTopologyUpgrade.class,
         TestTopologyMultipleGraphs.class,
+        TestPartitioning.class,
+        TestTopologySnapshot.class,
+        TestTopologySnapshotFile.class,
+        TestTopologyLogPolling.class,
+        TestTopologyAutonomous.class,
         TestTraversals.class,
         TestGremlinOptional.class,
         TestAlias.class,
@@ -235,7 +247,18 @@ import org.umlg.sqlg.test.where.TestTraversalFilterStepBarrier;
         TestDropStepTruncate.class,
         TestTopologyGraph.class,
         TestUnoptimizedRepeatStep.class,
-        TestPropertyReference.class
+        TestPropertyReference.class,
+        TestPreparedStatementCache.class,
+        TestQueryPlanCache.class,
+        TestFetchSize.class,
+        TestRecursiveRepeatStep.class,
+        TestQueryParallelism.class,
+        TestBulkLoader.class,
+        TestBulkWithinArray.class,
+        TestAggregatePushdown.class,
+        TestGroupByPushdown.class,
+        TestPropertiesRestriction.class,
+        TestDedupPushdown.class
 
 })
 public class AllTest {
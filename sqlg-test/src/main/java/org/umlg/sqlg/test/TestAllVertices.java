@@ -4,11 +4,12 @@ import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Transaction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import org.junit.Assert;
 import org.junit.Test;
 import org.umlg.sqlg.structure.SqlgGraph;
 
-import java.util.List;
+import java.util.*;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertThat;
@@ -62,6 +63,34 @@ public class TestAllVertices extends BaseTest {
         }
     }
 
+    @Test
+    public void testVerticesWithMoreIdsThanTheInParameterLimit() {
+        int count = this.sqlgGraph.getSqlDialect().sqlInParameterLimit() * 2 + 10;
+        List<Object> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(this.sqlgGraph.addVertex(T.label, i % 2 == 0 ? "A" : "B", "index", i).id());
+        }
+        this.sqlgGraph.tx().commit();
+        Set<Object> found = new HashSet<>();
+        this.sqlgGraph.vertices(ids.toArray()).forEachRemaining(v -> found.add(v.id()));
+        Assert.assertEquals(new HashSet<>(ids), found);
+        Assert.assertEquals(count, IteratorUtils.count(this.sqlgGraph.vertices()));
+    }
+
+    @Test
+    public void testVerticesIteratesLazily() {
+        for (int i = 0; i < 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "index", i);
+            this.sqlgGraph.addVertex(T.label, "B", "index", i);
+        }
+        this.sqlgGraph.tx().commit();
+        Iterator<Vertex> vertices = this.sqlgGraph.vertices();
+        Vertex first = vertices.next();
+        Assert.assertNotNull(first.value("index"));
+        Assert.assertEquals(19, IteratorUtils.count(vertices));
+        Assert.assertFalse(vertices.hasNext());
+    }
+
     public static void validateException(final Throwable expected, final Throwable actual) {
         assertThat(actual, instanceOf(expected.getClass()));
     }
@@ -5,6 +5,9 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.sql.SQLException;
+import java.sql.Statement;
+
 /**
  * Date: 2014/07/21
  * Time: 7:25 PM
@@ -41,4 +44,57 @@ public class TestCountVerticesAndEdges extends BaseTest {
         this.sqlgGraph.tx().commit();
         Assert.assertEquals(9L, this.sqlgGraph.countEdges(), 0);
     }
+
+    @Test
+    public void testCountInParallel() {
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B" + i);
+            a.addEdge("ab" + i, b);
+            a.addEdge("ab" + i, b);
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setQueryParallelism(4);
+        Assert.assertEquals(20L, this.sqlgGraph.countVertices());
+        Assert.assertEquals(20L, this.sqlgGraph.countEdges());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testCountInParallelSeesTheTransactionsWrites() {
+        for (int i = 0; i < 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "A" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setQueryParallelism(4);
+        Assert.assertEquals(10L, this.sqlgGraph.countVertices());
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A1");
+        a.addEdge("aa", this.sqlgGraph.addVertex(T.label, "A2"));
+        Assert.assertEquals(12L, this.sqlgGraph.countVertices());
+        Assert.assertEquals(1L, this.sqlgGraph.countEdges());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testEstimateCount() throws SQLException {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        a1.addEdge("ab", b1);
+        a2.addEdge("ab", b1);
+        this.sqlgGraph.tx().commit();
+        //tables that were never analyzed are counted
+        Assert.assertEquals(3L, this.sqlgGraph.estimateVertexCount());
+        Assert.assertEquals(2L, this.sqlgGraph.estimateEdgeCount());
+        this.sqlgGraph.tx().rollback();
+        if (this.sqlgGraph.getSqlDialect().isPostgresql()) {
+            try (Statement statement = this.sqlgGraph.tx().getConnection().createStatement()) {
+                statement.execute("ANALYZE");
+            }
+            this.sqlgGraph.tx().commit();
+        }
+        Assert.assertEquals(3L, this.sqlgGraph.estimateVertexCount());
+        Assert.assertEquals(2L, this.sqlgGraph.estimateEdgeCount());
+        this.sqlgGraph.tx().rollback();
+    }
 }
@@ -6,6 +6,11 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
 /**
  * Date: 2014/07/13
  * Time: 5:23 PM
@@ -29,4 +34,44 @@ public class TestLoadElementProperties extends BaseTest {
         Assert.assertEquals(1, this.sqlgGraph.traversal().E(friend.id()).next().property("weight").value());
     }
 
+    @Test
+    public void testLoadVertexPropertiesInBatch() throws SQLException {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A");
+        for (int i = 0; i < 100; i++) {
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i));
+        }
+        this.sqlgGraph.tx().commit();
+        //the in vertices of the edges are instantiated from their id only
+        List<Edge> edges = this.sqlgGraph.traversal().E().hasLabel("ab").toList();
+        Assert.assertEquals(100, edges.size());
+        String firstName = edges.get(0).inVertex().value("name");
+        Assert.assertTrue(firstName.startsWith("b"));
+        //the other vertices must have been loaded with the first, i.e. they do not see this update
+        Connection connection = this.sqlgGraph.tx().getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE " + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.sqlgGraph.getSqlDialect().getPublicSchema()) +
+                    "." + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("V_B") + " SET " +
+                    this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("name") + " = 'updated'");
+        }
+        for (Edge edge : edges) {
+            Assert.assertNotEquals("updated", edge.inVertex().value("name"));
+        }
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testLoadVertexPropertiesInBatchWithRemovedVertex() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2");
+        a.addEdge("ab", b1);
+        a.addEdge("ab", b2);
+        this.sqlgGraph.tx().commit();
+        List<Edge> edges = this.sqlgGraph.traversal().E().hasLabel("ab").toList();
+        Vertex removed = this.sqlgGraph.traversal().V(edges.get(1).inVertex().id()).next();
+        removed.remove();
+        Assert.assertNotNull(edges.get(0).inVertex().value("name"));
+        this.sqlgGraph.tx().rollback();
+    }
+
 }
@@ -12,6 +12,9 @@ import org.umlg.sqlg.structure.SqlgGraph;
 import java.nio.charset.StandardCharsets;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 
 /**
  * Date: 2014/07/13
@@ -28,6 +31,39 @@ public class TestSetProperty extends BaseTest {
         assertProperty(marko, "byte", (byte) 1);
     }
 
+    @Test
+    public void testPropertiesOfElementsOfTheSameLabel() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "age", 1);
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "age", 2, "name", "a2");
+        Vertex a3 = this.sqlgGraph.addVertex(T.label, "A", "name", "a3");
+        this.sqlgGraph.tx().commit();
+
+        a1 = this.sqlgGraph.traversal().V(a1).next();
+        a2 = this.sqlgGraph.traversal().V(a2).next();
+        a3 = this.sqlgGraph.traversal().V(a3).next();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("name", "age")), a1.keys());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("name", "age")), a2.keys());
+        Assert.assertEquals(Collections.singleton("name"), a3.keys());
+        Assert.assertEquals(2, a2.<Integer>value("age").intValue());
+        Assert.assertFalse(a3.property("age").isPresent());
+
+        a1.property("age").remove();
+        a3.property("age", 3);
+        a3.property("surname", "s3");
+        Assert.assertEquals(Collections.singleton("name"), a1.keys());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("name", "age", "surname")), a3.keys());
+        a1.property("age", 11);
+        Assert.assertEquals(11, a1.<Integer>value("age").intValue());
+        Assert.assertEquals("a1", a1.value("name"));
+        Assert.assertEquals(2, a2.<Integer>value("age").intValue());
+        Assert.assertFalse(a2.property("surname").isPresent());
+        this.sqlgGraph.tx().commit();
+
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V(a3).next().<Integer>value("age").intValue());
+        Assert.assertEquals("s3", this.sqlgGraph.traversal().V(a3).next().value("surname"));
+        Assert.assertEquals(11, this.sqlgGraph.traversal().V(a1).next().<Integer>value("age").intValue());
+    }
+
     @Test
     public void testSetBooleanArrayProperty() {
         Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBooleanArrayValues());
@@ -22,9 +22,7 @@ public class TestBatchModeMultipleGraphs extends BaseTest {
     @BeforeClass
     public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
         BaseTest.beforeClass();
-        if (isPostgres()) {
-            configuration.addProperty("distributed", true);
-        }
+        configuration.addProperty("distributed", true);
     }
 
     @Before
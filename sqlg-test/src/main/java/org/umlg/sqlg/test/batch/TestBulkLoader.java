@@ -0,0 +1,83 @@
+package org.umlg.sqlg.test.batch;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgBulkLoader;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Date: 2018/01/27
+ */
+public class TestBulkLoader extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
+    }
+
+    @Test
+    public void testBulkLoadVerticesAndEdges() {
+        List<RecordId> aIds = new ArrayList<>();
+        List<RecordId> bIds = new ArrayList<>();
+        try (SqlgBulkLoader bulkLoader = this.sqlgGraph.bulkLoader(3)) {
+            for (int i = 0; i < 25_000; i++) {
+                aIds.add(bulkLoader.addVertex("A", Collections.singletonMap("name", "a" + i)));
+                RecordId bId = bulkLoader.addVertex("B", Collections.emptyMap());
+                bIds.add(bId);
+                //edges are added before their vertices are written
+                Map<String, Object> properties = new HashMap<>();
+                properties.put("index", i);
+                properties.put("created", LocalDateTime.of(2018, 1, 27, 10, 30));
+                bulkLoader.addEdge("ab", aIds.get(i), bId, properties);
+            }
+        }
+        Assert.assertEquals(25_000, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals(25_000, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+        Assert.assertEquals(25_000, this.sqlgGraph.traversal().E().hasLabel("ab").count().next().intValue());
+        for (int i : new int[]{0, 9_999, 10_000, 24_999}) {
+            Vertex a = this.sqlgGraph.traversal().V(aIds.get(i)).next();
+            Assert.assertEquals("a" + i, a.value("name"));
+            Edge edge = this.sqlgGraph.traversal().V(a).outE("ab").next();
+            Assert.assertEquals(i, (int) edge.value("index"));
+            Assert.assertEquals(LocalDateTime.of(2018, 1, 27, 10, 30), edge.value("created"));
+            Assert.assertEquals(bIds.get(i), edge.inVertex().id());
+        }
+    }
+
+    @Test
+    public void testBulkLoadNewProperties() {
+        Vertex existing = this.sqlgGraph.addVertex(T.label, "A", "name", "existing");
+        this.sqlgGraph.tx().commit();
+        SqlgBulkLoader bulkLoader = this.sqlgGraph.bulkLoader();
+        RecordId a1 = bulkLoader.addVertex("A", Collections.singletonMap("name", "a1"));
+        RecordId a2 = bulkLoader.addVertex("A", Collections.singletonMap("surname", "s2"));
+        bulkLoader.addEdge("aa", (RecordId) existing.id(), a1, Collections.emptyMap());
+        bulkLoader.close();
+        Assert.assertEquals(2, bulkLoader.getNumberOfVertices());
+        Assert.assertEquals(1, bulkLoader.getNumberOfEdges());
+        Assert.assertEquals("s2", this.sqlgGraph.traversal().V(a2).next().value("surname"));
+        Assert.assertFalse(this.sqlgGraph.traversal().V(a2).next().property("name").isPresent());
+        Assert.assertEquals(a1, this.sqlgGraph.traversal().V(existing).out("aa").next().id());
+        //the ids are reserved from the sequence, a vertex added afterwards does not collide
+        Vertex a3 = this.sqlgGraph.addVertex(T.label, "A", "name", "a3");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(4, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertNotEquals(a1, a3.id());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBulkLoaderIsClosed() {
+        SqlgBulkLoader bulkLoader = this.sqlgGraph.bulkLoader();
+        bulkLoader.close();
+        bulkLoader.addVertex("A", Collections.emptyMap());
+    }
+}
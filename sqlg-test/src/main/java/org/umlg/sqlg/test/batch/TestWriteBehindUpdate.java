@@ -0,0 +1,189 @@
+package org.umlg.sqlg.test.batch;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Date: 2018/02/01
+ */
+public class TestWriteBehindUpdate extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+    }
+
+    @Test
+    public void testUpdatesAreFlushedBeforeQuery() throws SQLException {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "surname", "s1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "surname", "s2");
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().setWriteBehind(true);
+        Assert.assertTrue(this.sqlgGraph.tx().isInWriteBehindMode());
+        a1.property("name", "a11");
+        a1.property("name", "a111");
+        a1.property("surname", "s11");
+        Assert.assertEquals("a111", a1.value("name"));
+        //the updates are still buffered
+        Assert.assertEquals("a1", selectName(a1));
+        a2.property("age", 2);
+
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a111").has("surname", "s11").toList().size());
+        Assert.assertEquals("a111", selectName(a1));
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V(a2).next().<Integer>value("age").intValue());
+        this.sqlgGraph.tx().commit();
+
+        Assert.assertFalse(this.sqlgGraph.tx().isInWriteBehindMode());
+        a1 = this.sqlgGraph.traversal().V(a1).next();
+        Assert.assertEquals("a111", a1.value("name"));
+        Assert.assertEquals("s11", a1.value("surname"));
+        a2 = this.sqlgGraph.traversal().V(a2).next();
+        Assert.assertEquals("a2", a2.value("name"));
+        Assert.assertEquals("s2", a2.value("surname"));
+    }
+
+    @Test
+    public void testUpdatesAreFlushedBeforeLoadingById() throws SQLException {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "surname", "s1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().setWriteBehind(true);
+        a1.property("name", "a11");
+        a2.property("surname", "s2");
+        Assert.assertEquals("a1", selectName(a1));
+        Iterator<Vertex> vertices = this.sqlgGraph.vertices(a1.id(), a2.id());
+        Assert.assertTrue(vertices.hasNext());
+        Assert.assertEquals("a11", selectName(a1));
+        List<Vertex> loaded = new ArrayList<>();
+        vertices.forEachRemaining(loaded::add);
+        Assert.assertEquals(2, loaded.size());
+        Assert.assertEquals("a11", a1.value("name"));
+        Assert.assertEquals("s1", a1.value("surname"));
+        Assert.assertEquals("s2", a2.value("surname"));
+        this.sqlgGraph.tx().commit();
+    }
+
+    @Test
+    public void testCountSeesTheTransactionsWrites() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().normalBatchModeOn();
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Assert.assertEquals(3, this.sqlgGraph.countVertices());
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(3, this.sqlgGraph.countVertices());
+    }
+
+    @Test
+    public void testUpdatesAreFlushedOnCommit() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Edge e1 = a1.addEdge("ab", b1, "weight", 1);
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().setWriteBehind(true);
+        a1.property("name", "a11");
+        b1.property("name", "b11");
+        e1.property("weight", 2);
+        this.sqlgGraph.tx().commit();
+
+        Assert.assertEquals("a11", this.sqlgGraph.traversal().V(a1).next().value("name"));
+        Assert.assertEquals("b11", this.sqlgGraph.traversal().V(b1).next().value("name"));
+        Assert.assertEquals(2, this.sqlgGraph.traversal().E(e1).next().<Integer>value("weight").intValue());
+    }
+
+    @Test
+    public void testRollbackDiscardsUpdates() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().setWriteBehind(true);
+        a1.property("name", "a11");
+        this.sqlgGraph.tx().rollback();
+
+        Assert.assertEquals("a1", this.sqlgGraph.traversal().V(a1).next().value("name"));
+    }
+
+    @Test
+    public void testRemoveAfterUpdate() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().setWriteBehind(true);
+        a1.property("name", "a11");
+        a2.property("name", "a22");
+        a1.remove();
+        this.sqlgGraph.tx().commit();
+
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals("a22", this.sqlgGraph.traversal().V(a2).next().value("name"));
+    }
+
+    @Test
+    public void testRemovePropertyAfterUpdate() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "surname", "s1");
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().setWriteBehind(true);
+        a1.property("name", "a11");
+        a1.property("surname", "s11");
+        a1.property("name").remove();
+        this.sqlgGraph.tx().commit();
+
+        a1 = this.sqlgGraph.traversal().V(a1).next();
+        Assert.assertFalse(a1.property("name").isPresent());
+        Assert.assertEquals("s11", a1.value("surname"));
+    }
+
+    @Test
+    public void testWriteBehindOff() throws SQLException {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().setWriteBehind(true);
+        a1.property("name", "a11");
+        Assert.assertEquals("a1", selectName(a1));
+        //turning it off flushes the buffered updates
+        this.sqlgGraph.tx().setWriteBehind(false);
+        Assert.assertEquals("a11", selectName(a1));
+        a1.property("name", "a111");
+        Assert.assertEquals("a111", selectName(a1));
+        this.sqlgGraph.tx().commit();
+    }
+
+    private String selectName(Vertex vertex) throws SQLException {
+        RecordId recordId = (RecordId) vertex.id();
+        Connection connection = this.sqlgGraph.tx().getConnection();
+        String sql = "SELECT " + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("name") + " FROM " +
+                this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(recordId.getSchemaTable().getSchema()) + "." +
+                this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(Topology.VERTEX_PREFIX + recordId.getSchemaTable().getTable()) +
+                " WHERE " + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(Topology.ID) + " = ?";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setLong(1, recordId.getId());
+            ResultSet resultSet = preparedStatement.executeQuery();
+            Assert.assertTrue(resultSet.next());
+            return resultSet.getString(1);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.step.SqlgGraphStep;
+import org.umlg.sqlg.strategy.SqlgAggregateHolder;
+import org.umlg.sqlg.test.BaseTest;
+
+/**
+ * Date: 2018/01/28
+ */
+public class TestAggregatePushdown extends BaseTest {
+
+    @Test
+    public void testCount() {
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A");
+            for (int j = 0; j < 5; j++) {
+                a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B"));
+            }
+        }
+        this.sqlgGraph.addVertex(T.label, "C");
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Long> traversal = (DefaultGraphTraversal<Vertex, Long>) this.sqlgGraph.traversal().V().count();
+        Assert.assertEquals(61L, traversal.next().longValue());
+        assertAggregate(traversal, SqlgAggregateHolder.FUNCTION.COUNT, null);
+        Assert.assertEquals(10L, this.sqlgGraph.traversal().V().hasLabel("A").count().next().longValue());
+        Assert.assertEquals(50L, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").count().next().longValue());
+        Assert.assertEquals(50L, this.sqlgGraph.traversal().E().hasLabel("ab").count().next().longValue());
+        Assert.assertEquals(0L, this.sqlgGraph.traversal().V().hasLabel("C").out("ab").count().next().longValue());
+        Assert.assertEquals(0L, this.sqlgGraph.traversal().V().hasLabel("D").count().next().longValue());
+        //duplicate labels in the path, the elements are loaded and counted in memory
+        Assert.assertEquals(250L, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").in("ab").out("ab").count().next().longValue());
+    }
+
+    @Test
+    public void testNumericAggregates() {
+        for (int i = 1; i <= 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "integer", i, "long", (long) i, "double", (double) i, "short", (short) i);
+        }
+        this.sqlgGraph.addVertex(T.label, "A");
+        for (int i = 11; i <= 20; i++) {
+            this.sqlgGraph.addVertex(T.label, "B", "integer", i);
+        }
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Number> traversal = (DefaultGraphTraversal<Vertex, Number>) this.sqlgGraph.traversal().V().hasLabel("A").values("integer").sum();
+        Assert.assertEquals(55L, traversal.next());
+        assertAggregate(traversal, SqlgAggregateHolder.FUNCTION.SUM, "integer");
+        Assert.assertEquals(55L, this.sqlgGraph.traversal().V().hasLabel("A").values("long").sum().next());
+        Assert.assertEquals(55D, this.sqlgGraph.traversal().V().hasLabel("A").values("double").sum().next());
+        Assert.assertEquals(55L, this.sqlgGraph.traversal().V().hasLabel("A").values("short").sum().next());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").values("integer").min().next());
+        Assert.assertEquals(10L, this.sqlgGraph.traversal().V().hasLabel("A").values("long").max().next());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("A").values("short").max().next().intValue());
+        Assert.assertEquals(5.5D, this.sqlgGraph.traversal().V().hasLabel("A").values("integer").mean().next());
+        Assert.assertEquals(10L, this.sqlgGraph.traversal().V().hasLabel("A").values("integer").count().next().longValue());
+
+        //over multiple labels
+        Assert.assertEquals(210L, this.sqlgGraph.traversal().V().values("integer").sum().next());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().values("integer").min().next());
+        Assert.assertEquals(20, this.sqlgGraph.traversal().V().values("integer").max().next());
+        Assert.assertEquals(10.5D, this.sqlgGraph.traversal().V().values("integer").mean().next());
+        Assert.assertEquals(20L, this.sqlgGraph.traversal().V().values("integer").count().next().longValue());
+        //only A has a long property
+        Assert.assertEquals(55L, this.sqlgGraph.traversal().V().values("long").sum().next());
+    }
+
+    @Test
+    public void testAggregateAfterVertexStep() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        for (int i = 1; i <= 5; i++) {
+            a1.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "weight", i));
+            a2.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "weight", i * 10));
+        }
+        this.sqlgGraph.tx().commit();
+
+        Assert.assertEquals(165L, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").values("weight").sum().next());
+        Assert.assertEquals(15L, this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").out("ab").values("weight").sum().next());
+        Assert.assertEquals(50, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").values("weight").max().next());
+        Assert.assertEquals(16.5D, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").values("weight").mean().next());
+        //duplicate labels in the path, the values are loaded and reduced in memory
+        Assert.assertEquals(825L, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").in("ab").out("ab").values("weight").sum().next());
+        Assert.assertEquals(50L, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").in("ab").out("ab").values("weight").count().next().longValue());
+    }
+
+    @Test
+    public void testNotPushedDown() {
+        for (int i = 1; i <= 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "integer", i);
+        }
+        this.sqlgGraph.tx().commit();
+        DefaultGraphTraversal<Vertex, Long> traversal = (DefaultGraphTraversal<Vertex, Long>) this.sqlgGraph.traversal().V().hasLabel("A").limit(5).count();
+        Assert.assertEquals(5L, traversal.next().longValue());
+        Assert.assertNull(((SqlgGraphStep) traversal.getSteps().get(0)).getAggregateHolder());
+        Assert.assertEquals(5L, this.sqlgGraph.traversal().V().hasLabel("A").values("integer").limit(5).count().next().longValue());
+    }
+
+    private void assertAggregate(DefaultGraphTraversal<?, ?> traversal, SqlgAggregateHolder.FUNCTION function, String propertyKey) {
+        Assert.assertEquals(2, traversal.getSteps().size());
+        Assert.assertTrue(traversal.getSteps().get(0) instanceof SqlgGraphStep);
+        SqlgAggregateHolder aggregateHolder = ((SqlgGraphStep) traversal.getSteps().get(0)).getAggregateHolder();
+        Assert.assertNotNull(aggregateHolder);
+        Assert.assertEquals(function, aggregateHolder.getFunction());
+        Assert.assertEquals(propertyKey, aggregateHolder.getPropertyKey());
+    }
+}
@@ -0,0 +1,88 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.test.BaseTest;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Date: 2018/01/28
+ */
+public class TestBulkWithinArray extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBulkWithinOutAsArray());
+    }
+
+    @Test
+    public void testBulkWithinWithoutIds() {
+        List<RecordId> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add((RecordId) this.sqlgGraph.addVertex(T.label, "A", "index", i).id());
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").hasId(P.within(ids.subList(0, 10))).toList();
+        Assert.assertEquals(10, vertices.size());
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").hasId(P.without(ids.subList(0, 10))).toList();
+        Assert.assertEquals(90, vertices.size());
+        vertices = this.sqlgGraph.traversal().V(ids.subList(0, 50).toArray()).toList();
+        Assert.assertEquals(50, vertices.size());
+    }
+
+    @Test
+    public void testBulkWithinWithoutProperties() {
+        for (int i = 0; i < 100; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i, "index", i, "long", (long) i, "double", (double) i);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a1", "a2", "a3", "x")).count().next().intValue());
+        Assert.assertEquals(97, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.without("a1", "a2", "a3")).count().next().intValue());
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("index", P.within(1, 2, 3)).count().next().intValue());
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("long", P.within(1L, 2L, 3L)).count().next().intValue());
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("double", P.within(1D, 2D, 3D)).count().next().intValue());
+        //mixed types are inlined in a VALUES expression
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("index", P.within(1, 2L, 3L)).count().next().intValue());
+    }
+
+    @Test
+    public void testVertexStepParentIds() {
+        List<Vertex> aVertices = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "index", i);
+            aVertices.add(a);
+            for (int j = 0; j < 10; j++) {
+                a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "index", j));
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V(aVertices.toArray()).out("ab").toList();
+        Assert.assertEquals(100, vertices.size());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V(aVertices.subList(0, 5).toArray()).out("ab").has("index", P.within(0, 1)).count().next().intValue());
+    }
+
+    @Test
+    public void testBulkWithinArrayDisabled() {
+        for (int i = 0; i < 100; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.configuration().setProperty(SqlgUtil.BULK_WITHIN_ARRAY, false);
+        try {
+            Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within(Arrays.asList("a1", "a2", "a3"))).count().next().intValue());
+            Assert.assertEquals(97, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.without(Arrays.asList("a1", "a2", "a3"))).count().next().intValue());
+        } finally {
+            this.sqlgGraph.configuration().clearProperty(SqlgUtil.BULK_WITHIN_ARRAY);
+        }
+    }
+}
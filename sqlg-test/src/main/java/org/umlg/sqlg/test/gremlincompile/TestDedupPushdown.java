@@ -0,0 +1,203 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.umlg.sqlg.sql.parse.ReplacedStep;
+import org.umlg.sqlg.step.SqlgGraphStep;
+import org.umlg.sqlg.step.SqlgVertexStep;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Date: 2018/01/31
+ */
+public class TestDedupPushdown extends BaseTest {
+
+    @Test
+    public void testDedup() throws SQLException {
+        List<Vertex> bs = loadFanOut();
+
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A").out("ab").dedup();
+        List<String> sqls = new ArrayList<>();
+        List<Vertex> vertices = captureSql(sqls, traversal::toList);
+        Assert.assertEquals(10, vertices.size());
+        Assert.assertEquals(1, sqls.size());
+        Assert.assertTrue(sqls.get(0), sqls.get(0).contains("DISTINCT"));
+        //the db returns each of the 10 B vertices once instead of once per A vertex
+        Assert.assertEquals(10, countRows(sqls.get(0)));
+        Assert.assertEquals(new HashSet<>(bs), new HashSet<>(vertices));
+        Assert.assertEquals(2, traversal.getSteps().size());
+        Assert.assertTrue(leafReplacedStep(traversal).isDistinct());
+        Assert.assertNull(leafReplacedStep(traversal).getDistinctByKey());
+        Assert.assertTrue(traversal.getSteps().get(1) instanceof DedupGlobalStep);
+
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").out("bc").dedup().toList().size());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("A").outE("ab").inV().dedup().toList().size());
+        //the elements of the different queries are deduplicated by the DedupGlobalStep
+        Assert.assertEquals(11, this.sqlgGraph.traversal().V().out().dedup().toList().size());
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").dedup().values("name").dedup().toList().size());
+    }
+
+    @Test
+    public void testDedupBy() {
+        loadFanOut();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A").out("ab").dedup().by("name");
+        Assert.assertEquals(2, traversal.toList().size());
+        ReplacedStep<?, ?> replacedStep = leafReplacedStep(traversal);
+        if (this.sqlgGraph.getSqlDialect().supportsDistinctOn()) {
+            Assert.assertTrue(replacedStep.isDistinct());
+            Assert.assertEquals("name", replacedStep.getDistinctByKey());
+        } else {
+            Assert.assertFalse(replacedStep.isDistinct());
+        }
+    }
+
+    @Test
+    public void testDedupByOnDb() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsDistinctOn());
+        loadFanOut();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").out("bc").dedup().by("name").toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals("c1", vertices.get(0).value("name"));
+    }
+
+    @Test
+    public void testDedupOnVertexStep() {
+        loadFanOut();
+        //the lambda ends the SqlgGraphStep, out("ab").out("bc") is a SqlgVertexStep
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A").filter(t -> true).out("ab").out("bc").dedup();
+        List<String> sqls = new ArrayList<>();
+        List<Vertex> vertices = captureSql(sqls, traversal::toList);
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals("c1", vertices.get(0).value("name"));
+        SqlgVertexStep<?> sqlgVertexStep = TraversalHelper.getLastStepOfAssignableClass(SqlgVertexStep.class, traversal).get();
+        List<ReplacedStep<?, ?>> replacedSteps = sqlgVertexStep.getReplacedSteps();
+        Assert.assertTrue(replacedSteps.get(replacedSteps.size() - 1).isDistinct());
+        Assert.assertTrue(sqlgVertexStep.getNextStep() instanceof DedupGlobalStep);
+        List<String> vertexStepSqls = sqls.stream().filter(sql -> sql.contains("index")).collect(Collectors.toList());
+        Assert.assertFalse(vertexStepSqls.isEmpty());
+        for (String sql : vertexStepSqls) {
+            Assert.assertTrue(sql, sql.contains("DISTINCT"));
+        }
+
+        //the rows are deduplicated per incoming vertex
+        List<Long> counts = this.sqlgGraph.traversal().V().hasLabel("A").filter(t -> true)
+                .local(__.out("ab").out("bc").dedup().count()).toList();
+        Assert.assertEquals(10, counts.size());
+        for (Long count : counts) {
+            Assert.assertEquals(1L, count.longValue());
+        }
+    }
+
+    @Test
+    public void testDedupNotPushedDown() {
+        loadFanOut();
+
+        //the labeled elements are part of the rows
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A").as("a").out("ab").dedup();
+        Assert.assertEquals(10, traversal.toList().size());
+        Assert.assertFalse(leafReplacedStep(traversal).isDistinct());
+
+        //the range applies before the dedup
+        traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A").out("ab").limit(20).dedup();
+        Assert.assertEquals(10, traversal.toList().size());
+        Assert.assertFalse(leafReplacedStep(traversal).isDistinct());
+
+        //duplicate labels in the path
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").in("ab").out("ab").dedup().toList().size());
+    }
+
+    /**
+     * Collects the sql of the queries executed by the supplier.
+     */
+    private static <T> T captureSql(List<String> sqls, Supplier<T> supplier) {
+        Logger logger = Logger.getLogger(SqlgSqlExecutor.class);
+        Level level = logger.getLevel();
+        AppenderSkeleton appender = new AppenderSkeleton() {
+            @Override
+            protected void append(LoggingEvent event) {
+                sqls.add(event.getRenderedMessage());
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public boolean requiresLayout() {
+                return false;
+            }
+        };
+        logger.addAppender(appender);
+        logger.setLevel(Level.DEBUG);
+        try {
+            return supplier.get();
+        } finally {
+            logger.setLevel(level);
+            logger.removeAppender(appender);
+        }
+    }
+
+    private long countRows(String sql) throws SQLException {
+        long count = 0;
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (Statement statement = conn.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static ReplacedStep<?, ?> leafReplacedStep(DefaultGraphTraversal<?, ?> traversal) {
+        List<ReplacedStep<?, ?>> replacedSteps = ((SqlgGraphStep) traversal.getSteps().get(0)).getReplacedSteps();
+        return replacedSteps.get(replacedSteps.size() - 1);
+    }
+
+    /**
+     * 10 A vertices each linked to the same 10 B vertices that all link to one C vertex.
+     */
+    private List<Vertex> loadFanOut() {
+        List<Vertex> bs = new ArrayList<>();
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        for (int i = 0; i < 10; i++) {
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", i % 2 == 0 ? "even" : "odd");
+            b.addEdge("bc", c1);
+            bs.add(b);
+        }
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            for (Vertex b : bs) {
+                a.addEdge("ab", b);
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        return bs;
+    }
+}
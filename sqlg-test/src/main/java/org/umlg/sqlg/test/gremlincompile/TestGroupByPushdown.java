@@ -0,0 +1,109 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.step.SqlgGraphStep;
+import org.umlg.sqlg.strategy.SqlgAggregateHolder;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.Map;
+
+/**
+ * Date: 2018/01/29
+ */
+public class TestGroupByPushdown extends BaseTest {
+
+    @Test
+    public void testGroupCount() {
+        for (int i = 0; i < 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "Order", "status", i % 3 == 0 ? "open" : "closed", "amount", i);
+        }
+        for (int i = 0; i < 4; i++) {
+            this.sqlgGraph.addVertex(T.label, "Invoice", "status", "open");
+        }
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Map<Object, Long>> traversal = (DefaultGraphTraversal<Vertex, Map<Object, Long>>) this.sqlgGraph.traversal()
+                .V().hasLabel("Order").<Object>groupCount().by("status");
+        Map<Object, Long> groupCount = traversal.next();
+        Assert.assertEquals(1, traversal.getSteps().size());
+        SqlgAggregateHolder aggregateHolder = ((SqlgGraphStep) traversal.getSteps().get(0)).getAggregateHolder();
+        Assert.assertNotNull(aggregateHolder);
+        Assert.assertEquals("status", aggregateHolder.getGroupByKey());
+        Assert.assertEquals(2, groupCount.size());
+        Assert.assertEquals(4L, groupCount.get("open").longValue());
+        Assert.assertEquals(6L, groupCount.get("closed").longValue());
+
+        //the groups of the labels are merged
+        groupCount = this.sqlgGraph.traversal().V().<Object>groupCount().by("status").next();
+        Assert.assertEquals(8L, groupCount.get("open").longValue());
+        Assert.assertEquals(6L, groupCount.get("closed").longValue());
+
+        groupCount = this.sqlgGraph.traversal().V().hasLabel("Order").<Object>groupCount().by("amount").next();
+        Assert.assertEquals(10, groupCount.size());
+        Assert.assertEquals(1L, groupCount.get(0).longValue());
+
+        Assert.assertTrue(this.sqlgGraph.traversal().V().hasLabel("Order").has("status", "unknown").groupCount().by("status").next().isEmpty());
+    }
+
+    @Test
+    public void testGroupByAggregate() {
+        Vertex nl = this.sqlgGraph.addVertex(T.label, "Country", "name", "nl");
+        Vertex za = this.sqlgGraph.addVertex(T.label, "Country", "name", "za");
+        for (int i = 1; i <= 4; i++) {
+            nl.addEdge("customer", this.sqlgGraph.addVertex(T.label, "Customer", "country", "nl", "age", i * 10));
+        }
+        for (int i = 1; i <= 2; i++) {
+            za.addEdge("customer", this.sqlgGraph.addVertex(T.label, "Customer", "country", "za", "age", i));
+        }
+        this.sqlgGraph.tx().commit();
+
+        Map<Object, Long> counts = this.sqlgGraph.traversal().V().hasLabel("Customer").<Object, Long>group().by("country").by(__.count()).next();
+        Assert.assertEquals(4L, counts.get("nl").longValue());
+        Assert.assertEquals(2L, counts.get("za").longValue());
+
+        Map<Object, Number> sums = this.sqlgGraph.traversal().V().hasLabel("Customer").<Object, Number>group().by("country").by(__.values("age").sum()).next();
+        Assert.assertEquals(100L, sums.get("nl"));
+        Assert.assertEquals(3L, sums.get("za"));
+
+        Map<Object, Number> max = this.sqlgGraph.traversal().V().hasLabel("Customer").<Object, Number>group().by("country").by(__.values("age").max()).next();
+        Assert.assertEquals(40, max.get("nl"));
+        Assert.assertEquals(2, max.get("za"));
+
+        Map<Object, Number> mean = this.sqlgGraph.traversal().V().hasLabel("Customer").<Object, Number>group().by("country").by(__.values("age").mean()).next();
+        Assert.assertEquals(25D, mean.get("nl"));
+        Assert.assertEquals(1.5D, mean.get("za"));
+
+        //after a vertex step
+        Map<Object, Long> ages = this.sqlgGraph.traversal().V().hasLabel("Country").has("name", "nl").out("customer").<Object>groupCount().by("age").next();
+        Assert.assertEquals(4, ages.size());
+        Assert.assertEquals(1L, ages.get(10).longValue());
+    }
+
+    @Test
+    public void testGroupByNotPushedDown() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2");
+        a1.addEdge("ab", b1);
+        a1.addEdge("ab", b2);
+        this.sqlgGraph.tx().commit();
+
+        //duplicate labels in the path, the elements are grouped in memory
+        Map<Object, Long> groupCount = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").in("ab").out("ab").<Object>groupCount().by("name").next();
+        Assert.assertEquals(2, groupCount.size());
+        Assert.assertEquals(2L, groupCount.get("b1").longValue());
+
+        //grouping on the label is not pushed down
+        DefaultGraphTraversal<Vertex, Map<Object, Long>> traversal = (DefaultGraphTraversal<Vertex, Map<Object, Long>>) this.sqlgGraph.traversal()
+                .V().<Object>groupCount().by(T.label);
+        groupCount = traversal.next();
+        Assert.assertEquals(2, traversal.getSteps().size());
+        Assert.assertEquals(1L, groupCount.get("A").longValue());
+        Assert.assertEquals(2L, groupCount.get("B").longValue());
+    }
+}
@@ -0,0 +1,112 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.sql.parse.ReplacedStep;
+import org.umlg.sqlg.step.SqlgGraphStep;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.*;
+
+/**
+ * Date: 2018/01/30
+ */
+public class TestPropertiesRestriction extends BaseTest {
+
+    @Test
+    public void testValues() {
+        for (int i = 0; i < 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "Doc", "title", "title" + i, "body", "body" + i, "index", i);
+        }
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Object> traversal = (DefaultGraphTraversal<Vertex, Object>) this.sqlgGraph.traversal()
+                .V().hasLabel("Doc").values("title");
+        List<Object> titles = traversal.toList();
+        Assert.assertEquals(10, titles.size());
+        Assert.assertTrue(titles.contains("title0"));
+        Assert.assertEquals(new HashSet<>(Collections.singletonList("title")), leafRestrictedProperties(traversal));
+
+        List<Map<String, Object>> valueMaps = this.sqlgGraph.traversal().V().hasLabel("Doc").has("index", 1).<Object>valueMap("title", "index").toList();
+        Assert.assertEquals(1, valueMaps.size());
+        Assert.assertEquals(2, valueMaps.get(0).size());
+        Assert.assertEquals(Collections.singletonList("title1"), valueMaps.get(0).get("title"));
+        Assert.assertEquals(Collections.singletonList(1), valueMaps.get(0).get("index"));
+
+        DefaultGraphTraversal<Vertex, Object> idTraversal = (DefaultGraphTraversal<Vertex, Object>) this.sqlgGraph.traversal()
+                .V().hasLabel("Doc").id();
+        Assert.assertEquals(10, idTraversal.toList().size());
+        Assert.assertEquals(Collections.emptySet(), leafRestrictedProperties(idTraversal));
+
+        //all properties are loaded for a traversal that emits the elements
+        DefaultGraphTraversal<Vertex, Vertex> vertexTraversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("Doc");
+        Assert.assertEquals(10, vertexTraversal.toList().size());
+        Assert.assertNull(leafRestrictedProperties(vertexTraversal));
+    }
+
+    @Test
+    public void testLazyLoadOfOtherProperties() {
+        Vertex doc = this.sqlgGraph.addVertex(T.label, "Doc", "title", "title1", "body", "body1");
+        this.sqlgGraph.tx().commit();
+
+        List<? extends Property<Object>> titles = this.sqlgGraph.traversal().V().hasLabel("Doc").properties("title").toList();
+        Assert.assertEquals(1, titles.size());
+        Vertex vertex = (Vertex) titles.get(0).element();
+        Assert.assertEquals(doc, vertex);
+        Assert.assertEquals("title1", vertex.value("title"));
+        Assert.assertEquals("body1", vertex.value("body"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("title", "body")), vertex.keys());
+
+        //A vertex with only null values for the selected properties.
+        Vertex empty = this.sqlgGraph.addVertex(T.label, "Doc", "body", "body2");
+        this.sqlgGraph.tx().commit();
+        List<? extends Property<Object>> properties = this.sqlgGraph.traversal().V(empty).properties("title").toList();
+        Assert.assertTrue(properties.isEmpty());
+        Assert.assertEquals("body2", this.sqlgGraph.traversal().V(empty).next().value("body"));
+
+        //Setting a property on a partially loaded vertex loads it first.
+        titles = this.sqlgGraph.traversal().V(doc).properties("title").toList();
+        vertex = (Vertex) titles.get(0).element();
+        vertex.property("title", "title2");
+        this.sqlgGraph.tx().commit();
+        vertex = this.sqlgGraph.traversal().V(doc).next();
+        Assert.assertEquals("title2", vertex.value("title"));
+        Assert.assertEquals("body1", vertex.value("body"));
+    }
+
+    @Test
+    public void testAfterVertexStep() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        for (int i = 0; i < 5; i++) {
+            a1.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i, "other", "other" + i), "weight", i);
+        }
+        this.sqlgGraph.tx().commit();
+
+        List<Object> names = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").values("name").toList();
+        Assert.assertEquals(5, names.size());
+        Assert.assertTrue(names.contains("b0"));
+        Assert.assertEquals(5, this.sqlgGraph.traversal().V(a1).out("ab").values("name").toList().size());
+        Assert.assertEquals(5, this.sqlgGraph.traversal().V(a1).out("ab").count().next().intValue());
+        Assert.assertEquals(5, this.sqlgGraph.traversal().V(a1).out("ab").label().toList().size());
+        List<Object> weights = this.sqlgGraph.traversal().V(a1).outE("ab").values("weight").toList();
+        Assert.assertEquals(5, weights.size());
+        Assert.assertTrue(weights.contains(4));
+
+        //the labeled elements are loaded completely as they are selected later
+        List<Object> selectedNames = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").as("b").<Vertex>select("b").values("name").toList();
+        Assert.assertEquals(5, selectedNames.size());
+        List<Vertex> bs = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").as("b").values("name").<Vertex>select("b").toList();
+        Assert.assertEquals(5, bs.size());
+        Assert.assertNotNull(bs.get(0).value("other"));
+    }
+
+    private static Set<String> leafRestrictedProperties(DefaultGraphTraversal<?, ?> traversal) {
+        List<ReplacedStep<?, ?>> replacedSteps = ((SqlgGraphStep) traversal.getSteps().get(0)).getReplacedSteps();
+        return replacedSteps.get(replacedSteps.size() - 1).getRestrictedProperties();
+    }
+}
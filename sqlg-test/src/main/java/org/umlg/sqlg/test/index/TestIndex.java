@@ -1,6 +1,7 @@
 package org.umlg.sqlg.test.index;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.tuple.Triple;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
@@ -10,6 +11,7 @@ import org.junit.Test;
 import org.umlg.sqlg.structure.*;
 import org.umlg.sqlg.structure.topology.*;
 import org.umlg.sqlg.test.BaseTest;
+import org.umlg.sqlg.test.topology.TestTopologyChangeListener;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -364,6 +366,79 @@ public class TestIndex extends BaseTest {
     	assertEquals(i1,i3);
     }
     
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    @Test
+    public void testOnlineIndex() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            this.sqlgGraph.addVertex(T.label, "Person", "name", "john" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        VertexLabel personVertexLabel = this.sqlgGraph.getTopology().getVertexLabel(this.sqlgGraph.getSqlDialect().getPublicSchema(), "Person").get();
+        PropertyColumn namePropertyColumn = personVertexLabel.getProperty("name").get();
+        List<Triple<TopologyInf, String, TopologyChangeAction>> topologyListenerTriple = new ArrayList<>();
+        this.sqlgGraph.getTopology().registerListener(new TestTopologyChangeListener.TopologyListenerTest(topologyListenerTriple));
+        Index index = personVertexLabel.ensureOnlineIndexExists(IndexType.UNIQUE, Collections.singletonList(namePropertyColumn));
+        assertTrue(index.isValid());
+        assertTrue(index.isCommitted());
+        //the index's creation is fired once, validating it fires nothing
+        assertEquals(1, topologyListenerTriple.size());
+        assertEquals(index, topologyListenerTriple.get(0).getLeft());
+        assertEquals(TopologyChangeAction.CREATE, topologyListenerTriple.get(0).getRight());
+        Assert.assertFalse(this.sqlgGraph.tx().isOpen());
+        Assert.assertEquals(index, personVertexLabel.ensureOnlineIndexExists(IndexType.UNIQUE, Collections.singletonList(namePropertyColumn)));
+        try {
+            this.sqlgGraph.addVertex(T.label, "Person", "name", "john1");
+            this.sqlgGraph.tx().commit();
+            Assert.fail("Unique index not enforced");
+        } catch (Exception e) {
+            this.sqlgGraph.tx().rollback();
+        }
+        List<Vertex> indexVertices = this.sqlgGraph.topology().V().hasLabel(Topology.SQLG_SCHEMA + "." + Topology.SQLG_SCHEMA_INDEX)
+                .has(Topology.SQLG_SCHEMA_INDEX_NAME, index.getName()).toList();
+        assertEquals(1, indexVertices.size());
+        assertEquals(true, indexVertices.get(0).value(Topology.SQLG_SCHEMA_INDEX_VALID));
+        this.sqlgGraph.tx().rollback();
+
+        this.sqlgGraph.close();
+        this.sqlgGraph = SqlgGraph.open(configuration);
+        index = this.sqlgGraph.getTopology().getVertexLabel(this.sqlgGraph.getSqlDialect().getPublicSchema(), "Person").get().getIndex(index.getName()).get();
+        assertTrue(index.isValid());
+    }
+
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    @Test
+    public void testOnlineIndexFailureRemovesIndex() {
+        this.sqlgGraph.addVertex(T.label, "Person", "name", "john");
+        this.sqlgGraph.addVertex(T.label, "Person", "name", "john");
+        this.sqlgGraph.tx().commit();
+        VertexLabel personVertexLabel = this.sqlgGraph.getTopology().getVertexLabel(this.sqlgGraph.getSqlDialect().getPublicSchema(), "Person").get();
+        PropertyColumn namePropertyColumn = personVertexLabel.getProperty("name").get();
+        try {
+            personVertexLabel.ensureOnlineIndexExists(IndexType.UNIQUE, Collections.singletonList(namePropertyColumn));
+            Assert.fail("A unique index can not be built on duplicate values");
+        } catch (RuntimeException e) {
+            //expected
+        }
+        Assert.assertTrue(personVertexLabel.getIndexes().isEmpty());
+        Assert.assertEquals(0, this.sqlgGraph.topology().V().hasLabel(Topology.SQLG_SCHEMA + "." + Topology.SQLG_SCHEMA_INDEX).count().next().intValue());
+        this.sqlgGraph.tx().rollback();
+        //the index can be created once the duplicate is gone
+        this.sqlgGraph.traversal().V().hasLabel("Person").limit(1).drop().iterate();
+        this.sqlgGraph.tx().commit();
+        Index index = personVertexLabel.ensureOnlineIndexExists(IndexType.UNIQUE, Collections.singletonList(namePropertyColumn));
+        assertTrue(index.isValid());
+    }
+
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    @Test(expected = IllegalStateException.class)
+    public void testOnlineIndexInTransaction() {
+        this.sqlgGraph.addVertex(T.label, "Person", "name", "john");
+        this.sqlgGraph.tx().commit();
+        VertexLabel personVertexLabel = this.sqlgGraph.getTopology().getVertexLabel(this.sqlgGraph.getSqlDialect().getPublicSchema(), "Person").get();
+        this.sqlgGraph.addVertex(T.label, "Person", "name", "joe");
+        personVertexLabel.ensureOnlineIndexExists(IndexType.NON_UNIQUE, Collections.singletonList(personVertexLabel.getProperty("name").get()));
+    }
+
     private String buildShortIndex(SqlgGraph g){
     	Schema sch=g.getTopology().ensureSchemaExist("longIndex");
     	Map<String,PropertyType> columns=new HashMap<String, PropertyType>();
@@ -0,0 +1,109 @@
+package org.umlg.sqlg.test.preparedStatement;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SqlgGraphTraversalSource;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Date: 2018/01/21
+ */
+public class TestFetchSize extends BaseTest {
+
+    @Test
+    public void testFetchSizeDefaultsToTheDriver() {
+        this.sqlgGraph.tx().readWrite();
+        Assert.assertEquals(0, this.sqlgGraph.tx().getFetchSize());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeFetchSize() {
+        this.sqlgGraph.tx().setFetchSize(-1);
+    }
+
+    @Test
+    public void testTransactionFetchSizeLazy() throws SQLException {
+        loadVertices();
+        this.sqlgGraph.tx().setFetchSize(10);
+        Assert.assertEquals(10, this.sqlgGraph.tx().getFetchSize());
+        assertStreamed(this.sqlgGraph.traversal(SqlgGraphTraversalSource.class), 10);
+        this.sqlgGraph.tx().commit();
+        //the fetch size is scoped to the transaction
+        this.sqlgGraph.tx().readWrite();
+        Assert.assertEquals(0, this.sqlgGraph.tx().getFetchSize());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testTransactionFetchSizeEager() throws SQLException {
+        loadVertices();
+        this.sqlgGraph.tx().setLazyQueries(false);
+        this.sqlgGraph.tx().setFetchSize(10);
+        assertStreamed(this.sqlgGraph.traversal(SqlgGraphTraversalSource.class), 10);
+        this.sqlgGraph.tx().commit();
+    }
+
+    @Test
+    public void testTraversalFetchSize() throws SQLException {
+        loadVertices();
+        SqlgGraphTraversalSource g = this.sqlgGraph.traversal(SqlgGraphTraversalSource.class).withFetchSize(7);
+        assertStreamed(g, 7);
+        this.sqlgGraph.tx().setLazyQueries(false);
+        assertStreamed(g, 7);
+        this.sqlgGraph.tx().commit();
+    }
+
+    @Test
+    public void testTraversalFetchSizeOnVertexStep() throws SQLException {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A");
+        for (int i = 0; i < 100; i++) {
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "index", i));
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().readWrite();
+        this.sqlgGraph.tx().getPreparedStatementCache().invalidate();
+        List<Vertex> vertices = this.sqlgGraph.traversal(SqlgGraphTraversalSource.class).withFetchSize(3).V(a).local(__.out("ab")).toList();
+        Assert.assertEquals(100, vertices.size());
+        assertFetchSize(3);
+        this.sqlgGraph.tx().rollback();
+    }
+
+    private void loadVertices() {
+        for (int i = 0; i < 100; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "index", i);
+        }
+        this.sqlgGraph.tx().commit();
+    }
+
+    private void assertStreamed(SqlgGraphTraversalSource g, int fetchSize) throws SQLException {
+        //only the traversal's statements are cached
+        this.sqlgGraph.tx().readWrite();
+        this.sqlgGraph.tx().getPreparedStatementCache().invalidate();
+        List<Vertex> vertices = g.V().hasLabel("A").order().by("index").toList();
+        Assert.assertEquals(100, vertices.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, (int) vertices.get(i).value("index"));
+        }
+        assertFetchSize(fetchSize);
+    }
+
+    /**
+     * The executed statements stay in the prepared statement cache with the fetch size they were executed with.
+     */
+    private void assertFetchSize(int fetchSize) throws SQLException {
+        Collection<PreparedStatement> preparedStatements = this.sqlgGraph.tx().getPreparedStatementCache().getStatements();
+        Assert.assertFalse(preparedStatements.isEmpty());
+        for (PreparedStatement preparedStatement : preparedStatements) {
+            Assert.assertEquals(fetchSize, preparedStatement.getFetchSize());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.umlg.sqlg.test.preparedStatement;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.structure.PreparedStatementCache;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Date: 2018/01/14
+ */
+public class TestPreparedStatementCache extends BaseTest {
+
+    @Test
+    public void testRepeatedTraversalReusesPreparedStatement() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.tx().commit();
+        long totalHits = this.sqlgGraph.tx().getPreparedStatementCacheHits();
+        for (int i = 0; i < 10; i++) {
+            List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").toList();
+            Assert.assertEquals(1, vertices.size());
+        }
+        PreparedStatementCache preparedStatementCache = this.sqlgGraph.tx().getPreparedStatementCache();
+        Assert.assertEquals(1, preparedStatementCache.getMisses());
+        Assert.assertEquals(9, preparedStatementCache.getHits());
+        Assert.assertEquals(1, preparedStatementCache.size());
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(totalHits + 9, this.sqlgGraph.tx().getPreparedStatementCacheHits());
+    }
+
+    @Test
+    public void testCachedStatementsSurviveTheTransaction() throws Exception {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+        PreparedStatementCache preparedStatementCache;
+        Configuration configuration = getConfigurationClone();
+        //every transaction gets the pool's only connection and so its cache
+        configuration.setProperty("maxPoolSize", 1);
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            Assert.assertEquals(1, sqlgGraph1.traversal().V().hasLabel("A").has("name", "a1").toList().size());
+            preparedStatementCache = sqlgGraph1.tx().getPreparedStatementCache();
+            int size = preparedStatementCache.size();
+            Assert.assertTrue(size > 0);
+            //the counters are reset when the transaction ends
+            long misses = preparedStatementCache.getMisses();
+            Assert.assertTrue(misses > 0);
+            Assert.assertEquals(0, preparedStatementCache.getHits());
+            //the graph's totals include the transactions that loaded the topology
+            long totalHits = sqlgGraph1.tx().getPreparedStatementCacheHits();
+            long totalMisses = sqlgGraph1.tx().getPreparedStatementCacheMisses();
+            sqlgGraph1.tx().commit();
+            Assert.assertEquals(size, preparedStatementCache.size());
+            Assert.assertEquals(totalHits, sqlgGraph1.tx().getPreparedStatementCacheHits());
+            Assert.assertEquals(totalMisses + misses, sqlgGraph1.tx().getPreparedStatementCacheMisses());
+
+            //the next transaction reuses the cached statement
+            Assert.assertEquals(1, sqlgGraph1.traversal().V().hasLabel("A").has("name", "a1").toList().size());
+            Assert.assertSame(preparedStatementCache, sqlgGraph1.tx().getPreparedStatementCache());
+            long hits = preparedStatementCache.getHits();
+            Assert.assertTrue(hits > 0);
+            Assert.assertEquals(0, preparedStatementCache.getMisses());
+            sqlgGraph1.tx().rollback();
+            Assert.assertEquals(size, preparedStatementCache.size());
+            Assert.assertEquals(totalHits + hits, sqlgGraph1.tx().getPreparedStatementCacheHits());
+            Assert.assertEquals(totalMisses + misses, sqlgGraph1.tx().getPreparedStatementCacheMisses());
+        }
+        Assert.assertEquals(0, preparedStatementCache.size());
+    }
+
+    @Test
+    public void testNestedIterationOfTheSameSqlDoesNotShareStatements() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.tx().commit();
+        int count = 0;
+        for (Vertex outer : this.sqlgGraph.traversal().V().hasLabel("A").toList()) {
+            Assert.assertNotNull(outer);
+            Iterator<Vertex> first = this.sqlgGraph.traversal().V().hasLabel("A");
+            Iterator<Vertex> second = this.sqlgGraph.traversal().V().hasLabel("A");
+            first.next();
+            while (second.hasNext()) {
+                second.next();
+                count++;
+            }
+            Assert.assertTrue(first.hasNext());
+            first.next();
+            Assert.assertFalse(first.hasNext());
+        }
+        Assert.assertEquals(4, count);
+        this.sqlgGraph.tx().commit();
+    }
+
+    @Test
+    public void testTopologyChangeInvalidatesCache() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("B").toList().size());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("B").toList().size());
+        PreparedStatementCache preparedStatementCache = this.sqlgGraph.tx().getPreparedStatementCache();
+        Assert.assertEquals(1, preparedStatementCache.getMisses());
+        Assert.assertEquals(1, preparedStatementCache.getHits());
+        //adding a property changes the topology
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "surname", "b");
+        long hits = preparedStatementCache.getHits();
+        long misses = preparedStatementCache.getMisses();
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("B").toList().size());
+        Assert.assertEquals(misses + 1, preparedStatementCache.getMisses());
+        Assert.assertEquals(hits, preparedStatementCache.getHits());
+        this.sqlgGraph.tx().commit();
+    }
+}
@@ -0,0 +1,208 @@
+package org.umlg.sqlg.test.preparedStatement;
+
+import com.mchange.v2.c3p0.PooledDataSource;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgGraphTraversalSource;
+import org.umlg.sqlg.structure.SqlgTransaction;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Date: 2018/01/25
+ */
+public class TestQueryParallelism extends BaseTest {
+
+    private static final int NUMBER_OF_LABELS = 10;
+
+    @Test
+    public void testQueryParallelismDefaultsToSequential() {
+        this.sqlgGraph.tx().readWrite();
+        Assert.assertEquals(1, this.sqlgGraph.tx().getQueryParallelism());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testQueryParallelismMustBePositive() {
+        this.sqlgGraph.tx().setQueryParallelism(0);
+    }
+
+    @Test
+    public void testTransactionQueryParallelism() {
+        String[] labels = loadLabels();
+        List<Object> expected = this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).out().id().toList();
+        Assert.assertEquals(NUMBER_OF_LABELS * 10, expected.size());
+        this.sqlgGraph.tx().setQueryParallelism(4);
+        Assert.assertEquals(expected, this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).out().id().toList());
+        this.sqlgGraph.tx().setLazyQueries(false);
+        Assert.assertEquals(expected, this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).out().id().toList());
+        this.sqlgGraph.tx().commit();
+        //the query parallelism is scoped to the transaction
+        this.sqlgGraph.tx().readWrite();
+        Assert.assertEquals(1, this.sqlgGraph.tx().getQueryParallelism());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testTraversalQueryParallelism() {
+        String[] labels = loadLabels();
+        List<String> expected = this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).as("a").out().as("b")
+                .select("a", "b").by("name").toList().stream().map(Object::toString).collect(Collectors.toList());
+        SqlgGraphTraversalSource g = this.sqlgGraph.traversal(SqlgGraphTraversalSource.class).withQueryParallelism(3);
+        List<String> result = g.V().hasLabel(labels[0], others(labels)).as("a").out().as("b")
+                .select("a", "b").by("name").toList().stream().map(Object::toString).collect(Collectors.toList());
+        Assert.assertEquals(expected, result);
+        //the has container value is bound as a parameter on the pooled connection
+        Assert.assertEquals(
+                NUMBER_OF_LABELS,
+                g.V().hasLabel(labels[0], others(labels)).has("name", "a1").out().toList().size()
+        );
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testQueryParallelismOnVertexStep() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A");
+        List<Vertex> expected = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_LABELS; i++) {
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B" + i);
+            a.addEdge("ab" + i, b);
+            expected.add(b);
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal(SqlgGraphTraversalSource.class).withQueryParallelism(4)
+                .V(a).local(__.out()).toList();
+        Assert.assertEquals(NUMBER_OF_LABELS, vertices.size());
+        Assert.assertTrue(vertices.containsAll(expected));
+    }
+
+    @Test
+    public void testPooledConnectionsAreReleased() throws SQLException, InterruptedException {
+        Assume.assumeTrue(this.sqlgGraph.getSqlgDataSource().getDatasource() instanceof PooledDataSource);
+        PooledDataSource pooledDataSource = (PooledDataSource) this.sqlgGraph.getSqlgDataSource().getDatasource();
+        String[] labels = loadLabels();
+        this.sqlgGraph.tx().readWrite();
+        int busyConnections = settledBusyConnections(pooledDataSource);
+
+        this.sqlgGraph.tx().setQueryParallelism(4);
+        GraphTraversal<Vertex, Vertex> traversal = this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).out();
+        Assert.assertTrue(traversal.hasNext());
+        //the first query is being read, the next 3 are executing
+        Assert.assertEquals(busyConnections + 4, pooledDataSource.getNumBusyConnectionsDefaultUser());
+        Assert.assertEquals(NUMBER_OF_LABELS * 10, traversal.toList().size());
+        assertBusyConnections(pooledDataSource, busyConnections);
+
+        //a partially read traversal's connections are released when the transaction ends
+        traversal = this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).out();
+        traversal.next();
+        Assert.assertEquals(busyConnections + 4, pooledDataSource.getNumBusyConnectionsDefaultUser());
+        this.sqlgGraph.tx().rollback();
+        assertBusyConnections(pooledDataSource, busyConnections - 1);
+    }
+
+    @Test
+    public void testQueryParallelismIsCapped() throws Exception {
+        String[] labels = loadLabels();
+        Configuration configuration = getConfigurationClone();
+        configuration.setProperty(SqlgTransaction.QUERY_PARALLELISM_MAX, 2);
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            Assert.assertEquals(2, sqlgGraph1.getMaxQueryParallelism());
+            Assume.assumeTrue(sqlgGraph1.getSqlgDataSource().getDatasource() instanceof PooledDataSource);
+            PooledDataSource pooledDataSource = (PooledDataSource) sqlgGraph1.getSqlgDataSource().getDatasource();
+            sqlgGraph1.tx().readWrite();
+            int busyConnections = settledBusyConnections(pooledDataSource);
+            GraphTraversal<Vertex, Vertex> traversal = sqlgGraph1.traversal(SqlgGraphTraversalSource.class).withQueryParallelism(4)
+                    .V().hasLabel(labels[0], others(labels)).out();
+            Assert.assertTrue(traversal.hasNext());
+            //only 2 of the 4 queries are started
+            Assert.assertEquals(busyConnections + 2, pooledDataSource.getNumBusyConnectionsDefaultUser());
+            Assert.assertEquals(NUMBER_OF_LABELS * 10, traversal.toList().size());
+            sqlgGraph1.tx().rollback();
+        }
+        //the executor never holds more connections than the pool has
+        configuration.setProperty(SqlgTransaction.QUERY_PARALLELISM_MAX, 10);
+        configuration.setProperty("maxPoolSize", 3);
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            Assert.assertEquals(3, sqlgGraph1.getMaxQueryParallelism());
+        }
+    }
+
+    //c3p0 checks connections back into the pool asynchronously.
+    private static int settledBusyConnections(PooledDataSource pooledDataSource) throws SQLException, InterruptedException {
+        int busyConnections = pooledDataSource.getNumBusyConnectionsDefaultUser();
+        for (int stable = 0; stable < 5; stable++) {
+            Thread.sleep(50);
+            int current = pooledDataSource.getNumBusyConnectionsDefaultUser();
+            if (current != busyConnections) {
+                busyConnections = current;
+                stable = 0;
+            }
+        }
+        return busyConnections;
+    }
+
+    private static void assertBusyConnections(PooledDataSource pooledDataSource, int expected) throws SQLException, InterruptedException {
+        for (int i = 0; i < 100 && pooledDataSource.getNumBusyConnectionsDefaultUser() != expected; i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(expected, pooledDataSource.getNumBusyConnectionsDefaultUser());
+    }
+
+    @Test
+    public void testBatchModeIsSequential() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        String[] labels = loadLabels();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        this.sqlgGraph.tx().setQueryParallelism(4);
+        Vertex a = this.sqlgGraph.addVertex(T.label, labels[0], "name", "a");
+        a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b"));
+        //the flushed but uncommitted vertices are not visible to other connections
+        Assert.assertEquals(NUMBER_OF_LABELS * 10 + 1, this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).out().toList().size());
+        this.sqlgGraph.tx().commit();
+    }
+
+    @Test
+    public void testQueriesSeeTheTransactionsWrites() {
+        String[] labels = loadLabels();
+        this.sqlgGraph.tx().setQueryParallelism(4);
+        //no writes yet, the queries run in parallel
+        Assert.assertEquals(NUMBER_OF_LABELS * 10, this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).out().toList().size());
+        Vertex a = this.sqlgGraph.addVertex(T.label, labels[0], "name", "a");
+        a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b"));
+        Vertex a1 = this.sqlgGraph.traversal().V().hasLabel(labels[1]).has("name", "a1").next();
+        a1.property("name", "a11");
+        this.sqlgGraph.traversal().V().hasLabel(labels[2]).has("name", "a2").out().next().remove();
+        Assert.assertEquals(NUMBER_OF_LABELS * 10, this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).out().toList().size());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel(labels[0], others(labels)).has("name", "a11").toList().size());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    private static String[] others(String[] labels) {
+        return Arrays.copyOfRange(labels, 1, labels.length);
+    }
+
+    private String[] loadLabels() {
+        String[] labels = new String[NUMBER_OF_LABELS];
+        for (int i = 0; i < NUMBER_OF_LABELS; i++) {
+            labels[i] = "A" + i;
+            for (int j = 0; j < 10; j++) {
+                Vertex a = this.sqlgGraph.addVertex(T.label, labels[i], "name", "a" + j);
+                a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b" + j));
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        return labels;
+    }
+}
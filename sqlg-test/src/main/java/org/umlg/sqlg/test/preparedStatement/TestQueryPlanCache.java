@@ -0,0 +1,98 @@
+package org.umlg.sqlg.test.preparedStatement;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.umlg.sqlg.sql.parse.QueryPlanCache;
+import org.umlg.sqlg.test.BaseTest;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.util.List;
+
+/**
+ * Date: 2018/01/20
+ */
+public class TestQueryPlanCache extends BaseTest {
+
+    @Test
+    public void testSameShapeDifferentValuesReusesPlan() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.tx().commit();
+        QueryPlanCache queryPlanCache = this.sqlgGraph.getQueryPlanCache();
+        queryPlanCache.clear();
+        long misses = queryPlanCache.getMisses();
+        long hits = queryPlanCache.getHits();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals("a1", vertices.get(0).value("name"));
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a2").toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals("a2", vertices.get(0).value("name"));
+        Assert.assertEquals(misses + 1, queryPlanCache.getMisses());
+        Assert.assertEquals(hits + 1, queryPlanCache.getHits());
+    }
+
+    @Test
+    public void testDifferentWithinSizeIsADifferentPlan() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a3");
+        this.sqlgGraph.tx().commit();
+        QueryPlanCache queryPlanCache = this.sqlgGraph.getQueryPlanCache();
+        queryPlanCache.clear();
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a1", "a2")).toList().size());
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a1", "a2", "a3")).toList().size());
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a2", "a3")).toList().size());
+    }
+
+    @Test
+    public void testArrayBoundWithinOfDifferentSizesReusesPlan() {
+        Assume.assumeTrue(SqlgUtil.useArrayParameters(this.sqlgGraph));
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a3");
+        this.sqlgGraph.tx().commit();
+        QueryPlanCache queryPlanCache = this.sqlgGraph.getQueryPlanCache();
+        queryPlanCache.clear();
+        long misses = queryPlanCache.getMisses();
+        long hits = queryPlanCache.getHits();
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a1", "a2")).toList().size());
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a1", "a2", "a3")).toList().size());
+        Assert.assertEquals(misses + 1, queryPlanCache.getMisses());
+        Assert.assertEquals(hits + 1, queryPlanCache.getHits());
+    }
+
+    @Test
+    public void testTopologyChangeClearsPlans() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+        QueryPlanCache queryPlanCache = this.sqlgGraph.getQueryPlanCache();
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").toList().size());
+        Assert.assertTrue(queryPlanCache.size() > 0);
+        a1.property("surname", "s1");
+        Assert.assertEquals(0, queryPlanCache.size());
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals("s1", vertices.get(0).value("surname"));
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").toList();
+        Assert.assertEquals("s1", vertices.get(0).value("surname"));
+    }
+
+    @Test
+    public void testVertexStepWithLiteralParentIdsIsNotCached() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2");
+        a1.addEdge("ab", b1);
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        a2.addEdge("ab", b2);
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(b1, this.sqlgGraph.traversal().V(a1).out("ab").next());
+        Assert.assertEquals(b2, this.sqlgGraph.traversal().V(a2).out("ab").next());
+    }
+}
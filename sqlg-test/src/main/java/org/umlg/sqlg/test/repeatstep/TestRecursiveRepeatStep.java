@@ -0,0 +1,279 @@
+package org.umlg.sqlg.test.repeatstep;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.umlg.sqlg.step.barrier.SqlgRecursiveRepeatStepBarrier;
+import org.umlg.sqlg.step.barrier.SqlgRepeatStepBarrier;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Date: 2018/01/24
+ */
+public class TestRecursiveRepeatStep extends BaseTest {
+
+    @Test
+    public void testRepeatUntil() {
+        //root -> a1 -> a11 (leaf)
+        //     -> a2 -> a21 -> a211 (leaf)
+        Vertex root = this.sqlgGraph.addVertex(T.label, "Person", "name", "root", "leaf", false);
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a1", "leaf", false);
+        Vertex a11 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a11", "leaf", true);
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a2", "leaf", false);
+        Vertex a21 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a21", "leaf", false);
+        Vertex a211 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a211", "leaf", true);
+        root.addEdge("manages", a1);
+        a1.addEdge("manages", a11);
+        root.addEdge("manages", a2);
+        a2.addEdge("manages", a21);
+        a21.addEdge("manages", a211);
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(root)
+                .repeat(__.out("manages"))
+                .until(__.has("leaf", true));
+        List<Vertex> vertices = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertTrue(vertices.containsAll(Arrays.asList(a11, a211)));
+        Assert.assertEquals("a211", vertices.stream().filter(v -> v.equals(a211)).findAny().get().value("name"));
+
+        vertices = this.sqlgGraph.traversal()
+                .V(a211)
+                .repeat(__.in("manages"))
+                .until(__.has("name", "root"))
+                .toList();
+        Assert.assertEquals(Collections.singletonList(root), vertices);
+    }
+
+    @Test
+    public void testRepeatUntilEmit() {
+        Vertex root = this.sqlgGraph.addVertex(T.label, "Person", "name", "root");
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a1");
+        Vertex a11 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a11");
+        Vertex a111 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a111");
+        root.addEdge("manages", a1);
+        a1.addEdge("manages", a11);
+        a11.addEdge("manages", a111);
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(root)
+                .repeat(__.out("manages"))
+                .until(__.has("name", "a11"))
+                .emit();
+        List<Vertex> vertices = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertTrue(vertices.containsAll(Arrays.asList(a1, a11)));
+    }
+
+    @Test
+    public void testRepeatUntilMultiplePaths() {
+        //a -> b -> d and a -> c -> d, d is reached twice
+        Vertex a = this.sqlgGraph.addVertex(T.label, "Person", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "Person", "name", "b");
+        Vertex c = this.sqlgGraph.addVertex(T.label, "Person", "name", "c");
+        Vertex d = this.sqlgGraph.addVertex(T.label, "Person", "name", "d");
+        a.addEdge("knows", b);
+        a.addEdge("knows", c);
+        b.addEdge("knows", d);
+        c.addEdge("knows", d);
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Path> traversal = (DefaultGraphTraversal<Vertex, Path>) this.sqlgGraph.traversal()
+                .V(a)
+                .repeat(__.out("knows"))
+                .until(__.has("name", "d"))
+                .path();
+        List<Path> paths = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(2, paths.size());
+        Set<List<Object>> expected = new HashSet<>(Arrays.asList(Arrays.asList(a, b, d), Arrays.asList(a, c, d)));
+        Assert.assertEquals(expected, paths.stream().map(Path::objects).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testRepeatUntilWithCycle() {
+        //a -> b -> c -> a and c -> d
+        Vertex a = this.sqlgGraph.addVertex(T.label, "Person", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "Person", "name", "b");
+        Vertex c = this.sqlgGraph.addVertex(T.label, "Person", "name", "c");
+        Vertex d = this.sqlgGraph.addVertex(T.label, "Person", "name", "d");
+        a.addEdge("knows", b);
+        b.addEdge("knows", c);
+        c.addEdge("knows", a);
+        c.addEdge("knows", d);
+        this.sqlgGraph.tx().commit();
+
+        //Without simplePath() the repeat would go around the cycle forever.
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(a)
+                .repeat(__.out("knows").simplePath())
+                .until(__.has("name", "d"));
+        List<Vertex> vertices = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(Collections.singletonList(d), vertices);
+
+        //both directions
+        traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(b)
+                .repeat(__.both("knows").simplePath())
+                .until(__.has("name", "d"));
+        vertices = traversal.toList();
+        assertRecursive(traversal);
+        //b -> c -> d and b -> a -> c -> d
+        Assert.assertEquals(2, vertices.size());
+    }
+
+    @Test
+    public void testSimplePathIncludesThePathBeforeTheRepeat() {
+        //a -> b -> a, b -> d and a -> d
+        Vertex a = this.sqlgGraph.addVertex(T.label, "Person", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "Person", "name", "b");
+        Vertex d = this.sqlgGraph.addVertex(T.label, "Person", "name", "d");
+        a.addEdge("knows", b);
+        b.addEdge("knows", a);
+        b.addEdge("knows", d);
+        a.addEdge("knows", d);
+        this.sqlgGraph.tx().commit();
+
+        //a is on the path before the repeat so b -> a -> d is not simple
+        DefaultGraphTraversal<Vertex, Path> traversal = (DefaultGraphTraversal<Vertex, Path>) this.sqlgGraph.traversal()
+                .V(a).out("knows").has("name", "b")
+                .repeat(__.out("knows").simplePath())
+                .until(__.has("name", "d"))
+                .path();
+        List<Path> paths = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(1, paths.size());
+        Assert.assertEquals(Arrays.asList(a, b, d), paths.get(0).objects());
+    }
+
+    @Test
+    public void testRepeatUntilSeesTheTransactionsUnflushedWrites() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        Vertex root = this.sqlgGraph.addVertex(T.label, "Person", "name", "root", "leaf", false);
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a1", "leaf", false);
+        root.addEdge("manages", a1);
+        this.sqlgGraph.tx().commit();
+
+        //inject() so that the recursive query is the first to hit the database
+        this.sqlgGraph.tx().setWriteBehind(true);
+        a1.property("leaf", true);
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .inject(root)
+                .repeat(__.out("manages"))
+                .until(__.has("leaf", true));
+        List<Vertex> vertices = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(Collections.singletonList(a1), vertices);
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex a11 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a11", "leaf", true);
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "Person", "name", "a2", "leaf", false);
+        root.addEdge("manages", a2);
+        a2.addEdge("manages", a11);
+        traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .inject(root)
+                .repeat(__.out("manages"))
+                .until(__.has("leaf", true));
+        vertices = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertTrue(vertices.containsAll(Arrays.asList(a1, a11)));
+        this.sqlgGraph.tx().commit();
+    }
+
+    @Test
+    public void testRepeatTimes() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "Person", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "Person", "name", "b");
+        Vertex c = this.sqlgGraph.addVertex(T.label, "Person", "name", "c");
+        Vertex d = this.sqlgGraph.addVertex(T.label, "Person", "name", "d");
+        a.addEdge("knows", b);
+        b.addEdge("knows", c);
+        c.addEdge("knows", d);
+        this.sqlgGraph.tx().commit();
+
+        //The lambda step stops the repeat from being folded into the SqlgGraphStep.
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(a).map(t -> t.get())
+                .repeat(__.out("knows"))
+                .times(2);
+        List<Vertex> vertices = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(Collections.singletonList(c), vertices);
+
+        traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(a).map(t -> t.get())
+                .repeat(__.out("knows"))
+                .times(3)
+                .emit();
+        vertices = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(3, vertices.size());
+        Assert.assertTrue(vertices.containsAll(Arrays.asList(b, c, d)));
+    }
+
+    @Test
+    public void testRepeatUntilMoreStartsThanTheInParameterLimit() {
+        if (this.sqlgGraph.getSqlDialect().supportsBatchMode()) {
+            this.sqlgGraph.tx().normalBatchModeOn();
+        }
+        int numberOfStarts = this.sqlgGraph.getSqlDialect().sqlInParameterLimit() + 10;
+        List<Vertex> leafs = new ArrayList<>();
+        for (int i = 0; i < numberOfStarts; i++) {
+            Vertex start = this.sqlgGraph.addVertex(T.label, "Person", "name", "start" + i, "leaf", false);
+            Vertex leaf = this.sqlgGraph.addVertex(T.label, "Person", "name", "leaf" + i, "leaf", true);
+            start.addEdge("manages", leaf);
+            leafs.add(leaf);
+        }
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("Person").has("leaf", false)
+                .repeat(__.out("manages"))
+                .until(__.has("leaf", true));
+        List<Vertex> vertices = traversal.toList();
+        assertRecursive(traversal);
+        Assert.assertEquals(numberOfStarts, vertices.size());
+        //the batch mode vertices have their ids after the commit
+        Assert.assertEquals(new HashSet<>(leafs), new HashSet<>(vertices));
+    }
+
+    @Test
+    public void testDifferentVertexLabelsFallsBackToTheBarrier() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b");
+        a.addEdge("ab", b);
+        this.sqlgGraph.tx().commit();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(a)
+                .repeat(__.out("ab"))
+                .until(__.has("name", "b"));
+        List<Vertex> vertices = traversal.toList();
+        Assert.assertEquals(Collections.singletonList(b), vertices);
+        Assert.assertFalse(TraversalHelper.hasStepOfAssignableClassRecursively(SqlgRecursiveRepeatStepBarrier.class, traversal));
+        Assert.assertTrue(TraversalHelper.hasStepOfAssignableClassRecursively(SqlgRepeatStepBarrier.class, traversal));
+    }
+
+    private void assertRecursive(DefaultGraphTraversal<?, ?> traversal) {
+        if (this.sqlgGraph.getSqlDialect().supportsRecursiveCte()) {
+            List<Step> steps = traversal.getSteps();
+            Assert.assertTrue(steps.stream().anyMatch(s -> s instanceof SqlgRecursiveRepeatStepBarrier));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.umlg.sqlg.test.topology;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.Index;
+import org.umlg.sqlg.structure.topology.IndexType;
+import org.umlg.sqlg.structure.topology.PartitionType;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Date: 2018/02/05
+ */
+public class TestPartitioning extends BaseTest {
+
+    @Test(expected = IllegalStateException.class)
+    public void testPartitioningNotSupported() {
+        Assume.assumeFalse(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("Measurement", measurementColumns(), PartitionType.RANGE, "date");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartitionKeyMustBeAProperty() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("Measurement", measurementColumns(), PartitionType.RANGE, "other");
+    }
+
+    @Test
+    public void testRangePartitionedVertexLabel() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        VertexLabel measurement = this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("Measurement", measurementColumns(), PartitionType.RANGE, "date");
+        measurement.ensureRangePartitionExists("measurement_2016_07", LocalDate.of(2016, 7, 1), LocalDate.of(2016, 8, 1));
+        measurement.ensureRangePartitionExists("measurement_2016_08", LocalDate.of(2016, 8, 1), LocalDate.of(2016, 9, 1));
+        //already exists
+        measurement.ensureRangePartitionExists("measurement_2016_08", LocalDate.of(2016, 8, 1), LocalDate.of(2016, 9, 1));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(PartitionType.RANGE, measurement.getPartitionType());
+        Assert.assertEquals("date", measurement.getPartitionKey());
+        Assert.assertEquals(2, measurement.getPartitions().size());
+
+        for (int i = 1; i <= 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "Measurement", "date", LocalDate.of(2016, 7, i), "temperature", i);
+            this.sqlgGraph.addVertex(T.label, "Measurement", "date", LocalDate.of(2016, 8, i), "temperature", i);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(20, this.sqlgGraph.traversal().V().hasLabel("Measurement").count().next(), 0);
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("Measurement")
+                .has("date", P.gte(LocalDate.of(2016, 8, 1))).toList().size());
+
+        //the rows of the dropped partition are gone without a delete
+        measurement.dropPartition("measurement_2016_07");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1, measurement.getPartitions().size());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("Measurement").count().next(), 0);
+
+        measurement.detachPartition("measurement_2016_08");
+        this.sqlgGraph.tx().commit();
+        Assert.assertTrue(measurement.getPartitions().isEmpty());
+        Assert.assertEquals(0, this.sqlgGraph.traversal().V().hasLabel("Measurement").count().next(), 0);
+
+        //the detached partition is attached again with its rows
+        measurement.attachRangePartition("measurement_2016_08", LocalDate.of(2016, 8, 1), null);
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1, measurement.getPartitions().size());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("Measurement").count().next(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBoundMustHaveThePartitionKeysType() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        VertexLabel measurement = this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("Measurement", measurementColumns(), PartitionType.RANGE, "date");
+        measurement.ensureRangePartitionExists("measurement_2016_07", "'2016-07-01'", "'2016-08-01'");
+    }
+
+    @Test
+    public void testDefaultPartition() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        VertexLabel measurement = this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("Measurement", measurementColumns(), PartitionType.RANGE, "date");
+        measurement.ensureRangePartitionExists("measurement_2016_07", LocalDate.of(2016, 7, 1), LocalDate.of(2016, 8, 1));
+        measurement.ensureDefaultPartitionExists("measurement_other");
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.addVertex(T.label, "Measurement", "date", LocalDate.of(2016, 7, 1), "temperature", 1);
+        this.sqlgGraph.addVertex(T.label, "Measurement", "date", LocalDate.of(2017, 7, 1), "temperature", 2);
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("Measurement").toList().size());
+        Assert.assertEquals("DEFAULT", measurement.getPartitions().get("measurement_other"));
+    }
+
+    @Test
+    public void testListPartitionedEdgeLabel() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        VertexLabel personLabel = this.sqlgGraph.getTopology().ensureVertexLabelExist("Person");
+        VertexLabel cityLabel = this.sqlgGraph.getTopology().ensureVertexLabelExist("City");
+        Map<String, PropertyType> columns = new HashMap<>();
+        columns.put("country", PropertyType.STRING);
+        EdgeLabel livesIn = personLabel.ensurePartitionedEdgeLabelExist("livesIn", cityLabel, columns, PartitionType.LIST, "country");
+        livesIn.ensureListPartitionExists("lives_in_za", "ZA");
+        livesIn.ensureListPartitionExists("lives_in_eu", "NL", "BE");
+        //the values are rendered as literals, not concatenated
+        livesIn.ensureListPartitionExists("lives_in_quoted", "N'L");
+        this.sqlgGraph.tx().commit();
+
+        Vertex person = this.sqlgGraph.addVertex(T.label, "Person");
+        person.addEdge("livesIn", this.sqlgGraph.addVertex(T.label, "City"), "country", "ZA");
+        person.addEdge("livesIn", this.sqlgGraph.addVertex(T.label, "City"), "country", "NL");
+        person.addEdge("livesIn", this.sqlgGraph.addVertex(T.label, "City"), "country", "N'L");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V(person).out("livesIn").toList().size());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().E().hasLabel("livesIn").has("country", "ZA").toList().size());
+
+        livesIn.dropPartition("lives_in_eu");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V(person).out("livesIn").toList().size());
+    }
+
+    @Test
+    public void testHashPartitionedVertexLabelIsReferenced() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        Map<String, PropertyType> columns = new HashMap<>();
+        columns.put("name", PropertyType.STRING);
+        VertexLabel aLabel = this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("A", columns, PartitionType.HASH, "name");
+        for (int i = 0; i < 4; i++) {
+            aLabel.ensureHashPartitionExists("a_" + i, 4, i);
+        }
+        this.sqlgGraph.tx().commit();
+        //edges to and from a partitioned vertex label have no foreign keys
+        for (int i = 0; i < 100; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B"));
+            this.sqlgGraph.addVertex(T.label, "B").addEdge("ba", a);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(4, aLabel.getPartitions().size());
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").toList().size());
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V().hasLabel("A").in("ba").toList().size());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").out("ab").toList().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPartitioningMustMatch() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("Measurement", measurementColumns(), PartitionType.RANGE, "date");
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("Measurement", measurementColumns(), PartitionType.LIST, "date");
+    }
+
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    @Test
+    public void testOnlineIndexOnPartitionedVertexLabel() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        VertexLabel measurement = this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("Measurement", measurementColumns(), PartitionType.RANGE, "date");
+        measurement.ensureRangePartitionExists("measurement_2016_07", LocalDate.of(2016, 7, 1), LocalDate.of(2016, 8, 1));
+        this.sqlgGraph.tx().commit();
+        for (int i = 1; i <= 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "Measurement", "date", LocalDate.of(2016, 7, i), "temperature", i);
+        }
+        this.sqlgGraph.tx().commit();
+        Index index = measurement.ensureOnlineIndexExists(IndexType.NON_UNIQUE, Collections.singletonList(measurement.getProperty("temperature").get()));
+        Assert.assertTrue(index.isValid());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("Measurement").has("temperature", 5).toList().size());
+    }
+
+    @Test
+    public void testPartitioningIsLoaded() throws Exception {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsPartitioning());
+        VertexLabel measurement = this.sqlgGraph.getTopology().getPublicSchema().ensurePartitionedVertexLabelExist("Measurement", measurementColumns(), PartitionType.RANGE, "date");
+        Map<String, PropertyType> columns = new HashMap<>();
+        columns.put("temperature", PropertyType.INTEGER);
+        measurement.ensurePartitionedEdgeLabelExist("next", measurement, columns, PartitionType.HASH, "temperature");
+        this.sqlgGraph.tx().commit();
+        Configuration configuration = getConfigurationClone();
+        configuration.setProperty(SqlgGraph.DISTRIBUTED, this.sqlgGraph.getSqlDialect().supportsDistribution());
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            Optional<VertexLabel> vertexLabelOptional = sqlgGraph1.getTopology().getPublicSchema().getVertexLabel("Measurement");
+            Assert.assertTrue(vertexLabelOptional.isPresent());
+            Assert.assertEquals(PartitionType.RANGE, vertexLabelOptional.get().getPartitionType());
+            Assert.assertEquals("date", vertexLabelOptional.get().getPartitionKey());
+            Optional<EdgeLabel> edgeLabelOptional = sqlgGraph1.getTopology().getPublicSchema().getEdgeLabel("next");
+            Assert.assertTrue(edgeLabelOptional.isPresent());
+            Assert.assertEquals(PartitionType.HASH, edgeLabelOptional.get().getPartitionType());
+            Assert.assertEquals("temperature", edgeLabelOptional.get().getPartitionKey());
+        }
+    }
+
+    private static Map<String, PropertyType> measurementColumns() {
+        Map<String, PropertyType> columns = new HashMap<>();
+        columns.put("date", PropertyType.LOCALDATE);
+        columns.put("temperature", PropertyType.INTEGER);
+        return columns;
+    }
+}
@@ -0,0 +1,112 @@
+package org.umlg.sqlg.test.topology;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date: 2018/02/22
+ */
+public class TestTopologyAutonomous extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsLockTimeout() && this.sqlgGraph.getSqlDialect().supportsTransactionalSchema());
+    }
+
+    @Test
+    public void testNewLabelDoesNotWaitForTheCreatingTransaction() throws Exception {
+        try (SqlgGraph sqlgGraph1 = openAutonomous()) {
+            sqlgGraph1.addVertex(T.label, "A", "name", "a");
+            //the transaction that needed "A" is still open, the label is already committed
+            Assert.assertEquals(1, countCommittedTopology(Topology.SQLG_SCHEMA_VERTEX_LABEL, Topology.SQLG_SCHEMA_VERTEX_LABEL_NAME, "A"));
+            ExecutorService executorService = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> future = executorService.submit(() -> {
+                    sqlgGraph1.addVertex(T.label, "B", "name", "b");
+                    sqlgGraph1.tx().commit();
+                });
+                future.get(30, TimeUnit.SECONDS);
+            } finally {
+                executorService.shutdown();
+            }
+            sqlgGraph1.tx().rollback();
+            //the label was committed on its own, the vertex was rolled back
+            Optional<VertexLabel> vertexLabelOptional = sqlgGraph1.getTopology().getPublicSchema().getVertexLabel("A");
+            Assert.assertTrue(vertexLabelOptional.isPresent());
+            Assert.assertTrue(vertexLabelOptional.get().getProperty("name").isPresent());
+            Assert.assertEquals(0, sqlgGraph1.traversal().V().hasLabel("A").count().next(), 0);
+            Assert.assertEquals(1, sqlgGraph1.traversal().V().hasLabel("B").count().next(), 0);
+        }
+    }
+
+    @Test
+    public void testChangesToTablesTheTransactionWroteTo() throws Exception {
+        try (SqlgGraph sqlgGraph1 = openAutonomous()) {
+            sqlgGraph1.addVertex(T.label, "A", "name", "a");
+            sqlgGraph1.addVertex(T.label, "B", "name", "b");
+            sqlgGraph1.tx().commit();
+            //the open transaction holds locks on the tables the changes need
+            Vertex a = sqlgGraph1.addVertex(T.label, "A", "name", "a");
+            Vertex b = sqlgGraph1.addVertex(T.label, "B", "name", "b");
+            a.property("surname", "s");
+            a.addEdge("ab", b, "weight", 1);
+            //the changes were left to the open transaction, they are not committed yet
+            Assert.assertEquals(0, countCommittedTopology(Topology.SQLG_SCHEMA_PROPERTY, Topology.SQLG_SCHEMA_PROPERTY_NAME, "surname"));
+            Assert.assertEquals(0, countCommittedTopology(Topology.SQLG_SCHEMA_EDGE_LABEL, Topology.SQLG_SCHEMA_EDGE_LABEL_NAME, "ab"));
+            sqlgGraph1.tx().commit();
+            Assert.assertEquals(1, countCommittedTopology(Topology.SQLG_SCHEMA_PROPERTY, Topology.SQLG_SCHEMA_PROPERTY_NAME, "surname"));
+            Assert.assertEquals(1, countCommittedTopology(Topology.SQLG_SCHEMA_EDGE_LABEL, Topology.SQLG_SCHEMA_EDGE_LABEL_NAME, "ab"));
+
+            Assert.assertEquals(1, sqlgGraph1.traversal().V().has("A", "surname", "s").out("ab").count().next(), 0);
+            Optional<EdgeLabel> edgeLabelOptional = sqlgGraph1.getTopology().getPublicSchema().getEdgeLabel("ab");
+            Assert.assertTrue(edgeLabelOptional.isPresent());
+            Assert.assertTrue(edgeLabelOptional.get().getProperty("weight").isPresent());
+            Assert.assertEquals(1, sqlgGraph1.topology().V()
+                    .hasLabel(Topology.SQLG_SCHEMA + "." + Topology.SQLG_SCHEMA_PROPERTY)
+                    .has(Topology.SQLG_SCHEMA_PROPERTY_NAME, "surname")
+                    .count().next(), 0);
+        }
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            Optional<VertexLabel> vertexLabelOptional = sqlgGraph1.getTopology().getPublicSchema().getVertexLabel("A");
+            Assert.assertTrue(vertexLabelOptional.isPresent());
+            Assert.assertTrue(vertexLabelOptional.get().getProperty("surname").isPresent());
+            Assert.assertEquals(1, sqlgGraph1.traversal().V().hasLabel("A").out("ab").count().next(), 0);
+        }
+    }
+
+    /**
+     * Counts the committed sqlg_schema vertices as seen by another graph.
+     */
+    private long countCommittedTopology(String label, String nameKey, String name) {
+        try {
+            return this.sqlgGraph.topology().V()
+                    .hasLabel(Topology.SQLG_SCHEMA + "." + label)
+                    .has(nameKey, name)
+                    .count().next();
+        } finally {
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
+    private SqlgGraph openAutonomous() {
+        Configuration configuration = getConfigurationClone();
+        configuration.setProperty(SqlgGraph.TOPOLOGY_AUTONOMOUS, true);
+        return SqlgGraph.open(configuration);
+    }
+}
@@ -0,0 +1,97 @@
+package org.umlg.sqlg.test.topology;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Date: 2018/02/20
+ */
+public class TestTopologyLogPolling extends BaseTest {
+
+    @SuppressWarnings("Duplicates")
+    @BeforeClass
+    public static void beforeClass() {
+        URL sqlProperties = Thread.currentThread().getContextClassLoader().getResource("sqlg.properties");
+        try {
+            configuration = new PropertiesConfiguration(sqlProperties);
+            configuration.addProperty(SqlgGraph.DISTRIBUTED, true);
+            configuration.addProperty(SqlgGraph.DISTRIBUTED_POLL_MIN, 10);
+            configuration.addProperty(SqlgGraph.DISTRIBUTED_POLL_MAX, 100);
+            if (!configuration.containsKey("jdbc.url"))
+                throw new IllegalArgumentException(String.format("SqlGraph configuration requires that the %s be set", "jdbc.url"));
+        } catch (ConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testTopologyChangesArePolled() throws Exception {
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B.B", "name", "b"), "weight", 1);
+            this.sqlgGraph.tx().commit();
+            waitFor(() -> sqlgGraph1.getTopology().getPublicSchema().getEdgeLabel("ab").isPresent());
+            Assert.assertEquals(this.sqlgGraph.getTopology(), sqlgGraph1.getTopology());
+            Assert.assertEquals(1, sqlgGraph1.traversal().V().hasLabel("A").out("ab").count().next(), 0);
+
+            //and the other way round
+            sqlgGraph1.addVertex(T.label, "A", "name", "a", "surname", "b");
+            sqlgGraph1.tx().commit();
+            waitFor(() -> this.sqlgGraph.getTopology().getPublicSchema().getVertexLabel("A").flatMap(v -> v.getProperty("surname")).isPresent());
+            Assert.assertEquals(this.sqlgGraph.getTopology(), sqlgGraph1.getTopology());
+        }
+    }
+
+    @Test
+    public void testConcurrentEnsureVertexLabelExist() throws Exception {
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            ExecutorService executorService = Executors.newFixedThreadPool(2);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (SqlgGraph sqlgGraph : Arrays.asList(this.sqlgGraph, sqlgGraph1)) {
+                    futures.add(executorService.submit(() -> {
+                        for (int i = 0; i < 10; i++) {
+                            Map<String, PropertyType> columns = new HashMap<>();
+                            columns.put("name" + i, PropertyType.STRING);
+                            sqlgGraph.getTopology().ensureVertexLabelExist("A" + i, columns);
+                            sqlgGraph.tx().commit();
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executorService.shutdown();
+            }
+            waitFor(() -> this.sqlgGraph.getTopology().equals(sqlgGraph1.getTopology()));
+            for (int i = 0; i < 10; i++) {
+                Optional<VertexLabel> vertexLabelOptional = sqlgGraph1.getTopology().getPublicSchema().getVertexLabel("A" + i);
+                Assert.assertTrue(vertexLabelOptional.isPresent());
+                Assert.assertTrue(vertexLabelOptional.get().getProperty("name" + i).isPresent());
+            }
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+    }
+}
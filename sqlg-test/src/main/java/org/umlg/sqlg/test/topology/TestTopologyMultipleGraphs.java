@@ -9,11 +9,16 @@ import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.Index;
+import org.umlg.sqlg.structure.topology.IndexType;
+import org.umlg.sqlg.structure.topology.VertexLabel;
 import org.umlg.sqlg.test.BaseTest;
 
 import java.beans.PropertyVetoException;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -140,6 +145,24 @@ public class TestTopologyMultipleGraphs extends BaseTest {
         }
     }
 
+    @Test
+    public void testBurstOfTopologyChanges() throws Exception {
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A");
+            this.sqlgGraph.tx().commit();
+            for (int i = 0; i < 100; i++) {
+                a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B" + i, "name" + i, "b"));
+                this.sqlgGraph.tx().commit();
+            }
+            //the notifications are merged, wait for the last log to be loaded
+            for (int i = 0; i < 50 && !sqlgGraph1.getTopology().getPublicSchema().getVertexLabel("B99").isPresent(); i++) {
+                Thread.sleep(100);
+            }
+            assertTrue(this.sqlgGraph.getTopology().equals(sqlgGraph1.getTopology()));
+            assertEquals(100, sqlgGraph1.traversal().V(a.id()).out("ab").count().next(), 0);
+        }
+    }
+
     @Test
     public void testModernAcrossGraphs() {
         try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
@@ -161,4 +184,28 @@ public class TestTopologyMultipleGraphs extends BaseTest {
             fail(e.getMessage());
         }
     }
+
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    @Test
+    public void testOnlineIndexIsValidAcrossGraphs() throws Exception {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsOnlineIndexCreation());
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            this.sqlgGraph.addVertex(T.label, "Person", "name", "john");
+            this.sqlgGraph.tx().commit();
+            VertexLabel personVertexLabel = this.sqlgGraph.getTopology().getPublicSchema().getVertexLabel("Person").get();
+            Index index = personVertexLabel.ensureOnlineIndexExists(IndexType.NON_UNIQUE, Collections.singletonList(personVertexLabel.getProperty("name").get()));
+            assertTrue(index.isValid());
+            Optional<Index> indexOptional = Optional.empty();
+            for (int i = 0; i < 50; i++) {
+                indexOptional = sqlgGraph1.getTopology().getPublicSchema().getVertexLabel("Person")
+                        .flatMap(vertexLabel -> vertexLabel.getIndex(index.getName()));
+                if (indexOptional.isPresent() && indexOptional.get().isValid()) {
+                    break;
+                }
+                Thread.sleep(100);
+            }
+            assertTrue(indexOptional.isPresent());
+            assertTrue(indexOptional.get().isValid());
+        }
+    }
 }
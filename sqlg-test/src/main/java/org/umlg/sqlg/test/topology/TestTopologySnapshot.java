@@ -0,0 +1,85 @@
+package org.umlg.sqlg.test.topology;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SchemaTable;
+import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Date: 2018/02/12
+ */
+public class TestTopologySnapshot extends BaseTest {
+
+    @Test
+    public void testUncommittedTopologyIsNotVisibleToOtherThreads() throws InterruptedException {
+        Map<String, PropertyType> columns = new HashMap<>();
+        columns.put("name", PropertyType.STRING);
+        this.sqlgGraph.getTopology().ensureVertexLabelExist("A", columns);
+        String table = this.sqlgGraph.getSqlDialect().getPublicSchema() + "." + Topology.VERTEX_PREFIX + "A";
+        Assert.assertTrue(this.sqlgGraph.getTopology().getAllTables().containsKey(table));
+        Assert.assertTrue(this.sqlgGraph.getTopology().getPublicSchema().getVertexLabel("A").isPresent());
+
+        Assert.assertFalse(readOnOtherThread(() -> this.sqlgGraph.getTopology().getAllTables().containsKey(table)));
+        Assert.assertFalse(readOnOtherThread(() -> this.sqlgGraph.getTopology().getPublicSchema().getVertexLabel("A").isPresent()));
+
+        this.sqlgGraph.tx().commit();
+        Assert.assertTrue(readOnOtherThread(() -> this.sqlgGraph.getTopology().getAllTables().containsKey(table)));
+        Assert.assertTrue(readOnOtherThread(() -> this.sqlgGraph.getTopology().getPublicSchema().getVertexLabel("A").isPresent()));
+    }
+
+    @Test
+    public void testCommittedTopologyIsReplacedNotUpdated() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B"));
+        this.sqlgGraph.tx().commit();
+
+        SchemaTable schemaTable = SchemaTable.of(this.sqlgGraph.getSqlDialect().getPublicSchema(), Topology.VERTEX_PREFIX + "A");
+        Map<String, PropertyType> properties = this.sqlgGraph.getTopology().getTableFor(schemaTable);
+        Map<String, Map<String, PropertyType>> allTables = this.sqlgGraph.getTopology().getAllTables();
+        Pair<Set<SchemaTable>, Set<SchemaTable>> tableLabels = this.sqlgGraph.getTopology().getTableLabels(schemaTable);
+        Assert.assertEquals(1, properties.size());
+        Assert.assertEquals(1, tableLabels.getRight().size());
+
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a", "surname", "b");
+        this.sqlgGraph.addVertex(T.label, "C");
+        a.addEdge("ac", this.sqlgGraph.addVertex(T.label, "C"));
+        this.sqlgGraph.tx().commit();
+
+        //what was read before the commit is left as it was
+        Assert.assertEquals(1, properties.size());
+        Assert.assertFalse(allTables.containsKey(this.sqlgGraph.getSqlDialect().getPublicSchema() + "." + Topology.VERTEX_PREFIX + "C"));
+        Assert.assertEquals(1, tableLabels.getRight().size());
+
+        Assert.assertEquals(2, this.sqlgGraph.getTopology().getTableFor(schemaTable).size());
+        Assert.assertTrue(this.sqlgGraph.getTopology().getAllTables().containsKey(this.sqlgGraph.getSqlDialect().getPublicSchema() + "." + Topology.VERTEX_PREFIX + "C"));
+        Assert.assertEquals(2, this.sqlgGraph.getTopology().getTableLabels(schemaTable).getRight().size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCommittedTopologyIsImmutable() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        this.sqlgGraph.tx().commit();
+        SchemaTable schemaTable = SchemaTable.of(this.sqlgGraph.getSqlDialect().getPublicSchema(), Topology.VERTEX_PREFIX + "A");
+        this.sqlgGraph.getTopology().getTableFor(schemaTable).put("surname", PropertyType.STRING);
+    }
+
+    private static boolean readOnOtherThread(Supplier<Boolean> read) throws InterruptedException {
+        AtomicReference<Boolean> result = new AtomicReference<>();
+        Thread thread = new Thread(() -> result.set(read.get()));
+        thread.start();
+        thread.join();
+        Assert.assertNotNull(result.get());
+        return result.get();
+    }
+}
@@ -0,0 +1,110 @@
+package org.umlg.sqlg.test.topology;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.IndexType;
+import org.umlg.sqlg.structure.topology.PropertyColumn;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Date: 2018/02/14
+ */
+public class TestTopologySnapshotFile extends BaseTest {
+
+    @SuppressWarnings("Duplicates")
+    @BeforeClass
+    public static void beforeClass() {
+        URL sqlProperties = Thread.currentThread().getContextClassLoader().getResource("sqlg.properties");
+        try {
+            configuration = new PropertiesConfiguration(sqlProperties);
+            configuration.addProperty("distributed", true);
+            if (!configuration.containsKey("jdbc.url"))
+                throw new IllegalArgumentException(String.format("SqlGraph configuration requires that the %s be set", "jdbc.url"));
+        } catch (ConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testWarmStartReplaysNewerLogs() throws Exception {
+        Path snapshot = Files.createTempFile("sqlg", ".json");
+        Files.delete(snapshot);
+        Configuration configuration = getConfigurationClone();
+        configuration.setProperty(SqlgGraph.TOPOLOGY_SNAPSHOT_FILE, snapshot.toString());
+        try {
+            Map<String, PropertyType> columns = new HashMap<>();
+            columns.put("name", PropertyType.STRING);
+            VertexLabel aVertexLabel = this.sqlgGraph.getTopology().ensureVertexLabelExist("A", columns);
+            aVertexLabel.ensureIndexExists(IndexType.UNIQUE, Collections.singletonList(aVertexLabel.getProperty("name").get()));
+            VertexLabel bVertexLabel = this.sqlgGraph.getTopology().ensureVertexLabelExist("B", "B", columns);
+            aVertexLabel.ensureEdgeLabelExist("ab", bVertexLabel, columns);
+            this.sqlgGraph.getTopology().ensureVertexLabelExist("C", columns).ensureEdgeLabelExist("ab", bVertexLabel);
+            this.sqlgGraph.tx().commit();
+
+            //the cold start writes the snapshot
+            try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+                Assert.assertTrue(Files.exists(snapshot));
+                Assert.assertEquals(this.sqlgGraph.getTopology(), sqlgGraph1.getTopology());
+            }
+            //change the topology after the snapshot was taken
+            Vertex d = this.sqlgGraph.addVertex(T.label, "D", "name", "d");
+            d.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B.B", "surname", "b"), "weight", 1);
+            this.sqlgGraph.tx().commit();
+
+            try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+                Assert.assertEquals(this.sqlgGraph.getTopology(), sqlgGraph1.getTopology());
+                Optional<VertexLabel> aVertexLabelOptional = sqlgGraph1.getTopology().getPublicSchema().getVertexLabel("A");
+                Assert.assertTrue(aVertexLabelOptional.isPresent());
+                Assert.assertEquals(1, aVertexLabelOptional.get().getIndexes().size());
+                Optional<VertexLabel> dVertexLabelOptional = sqlgGraph1.getTopology().getPublicSchema().getVertexLabel("D");
+                Assert.assertTrue(dVertexLabelOptional.isPresent());
+                Optional<EdgeLabel> edgeLabelOptional = sqlgGraph1.getTopology().getPublicSchema().getEdgeLabel("ab");
+                Assert.assertTrue(edgeLabelOptional.isPresent());
+                Assert.assertEquals(3, edgeLabelOptional.get().getOutVertexLabels().size());
+                Assert.assertTrue(edgeLabelOptional.get().getProperty("weight").isPresent());
+                Optional<PropertyColumn> surnameOptional = sqlgGraph1.getTopology().getVertexLabel("B", "B").flatMap(v -> v.getProperty("surname"));
+                Assert.assertTrue(surnameOptional.isPresent());
+                Assert.assertEquals(1, sqlgGraph1.traversal().V().hasLabel("D").out("ab").count().next(), 0);
+            }
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    @Test
+    public void testUnusableSnapshotIsIgnored() throws Exception {
+        Path snapshot = Files.createTempFile("sqlg", ".json");
+        Files.write(snapshot, "{\"jdbcUrl\": \"jdbc:another\", \"timestamp\": \"2018-01-01T00:00\", \"topology\": {}}".getBytes(StandardCharsets.UTF_8));
+        Configuration configuration = getConfigurationClone();
+        configuration.setProperty(SqlgGraph.TOPOLOGY_SNAPSHOT_FILE, snapshot.toString());
+        try {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+            this.sqlgGraph.tx().commit();
+            try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+                Assert.assertEquals(this.sqlgGraph.getTopology(), sqlgGraph1.getTopology());
+                Assert.assertTrue(sqlgGraph1.getTopology().getPublicSchema().getVertexLabel("A").isPresent());
+            }
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.umlg.sqlg.test.vertex;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.sql.dialect.SqlSchemaChangeDialect;
+import org.umlg.sqlg.structure.ElementCache;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgVertex;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.net.URL;
+import java.util.List;
+
+/**
+ * Date: 2018/02/03
+ */
+public class TestElementCache extends BaseTest {
+
+    @BeforeClass
+    public static void beforeClass() {
+        URL sqlProperties = Thread.currentThread().getContextClassLoader().getResource("sqlg.properties");
+        try {
+            configuration = new PropertiesConfiguration(sqlProperties);
+            configuration.setProperty(ElementCache.ELEMENT_CACHE_SIZE, 100);
+            if (!configuration.containsKey("jdbc.url")) {
+                throw new IllegalArgumentException(String.format("SqlGraph configuration requires that the %s be set", "jdbc.url"));
+            }
+        } catch (ConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testLoadFromCache() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        a1.addEdge("ab", b1);
+        this.sqlgGraph.tx().commit();
+
+        //the query caches the vertices it loads
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("B").toList().size());
+        this.sqlgGraph.tx().rollback();
+        ElementCache elementCache = this.sqlgGraph.getElementCache();
+        Assert.assertEquals(1, elementCache.size());
+
+        long hits = elementCache.getHits();
+        Edge edge = this.sqlgGraph.traversal().E().hasLabel("ab").next();
+        Assert.assertEquals("b1", edge.inVertex().value("name"));
+        Assert.assertEquals(hits + 1, elementCache.getHits());
+        this.sqlgGraph.tx().rollback();
+
+        //the out vertex is loaded from the db and then cached
+        edge = this.sqlgGraph.traversal().E().hasLabel("ab").next();
+        Assert.assertEquals("a1", edge.outVertex().value("name"));
+        Assert.assertEquals(2, elementCache.size());
+        this.sqlgGraph.tx().rollback();
+        edge = this.sqlgGraph.traversal().E().hasLabel("ab").next();
+        Assert.assertEquals("a1", edge.outVertex().value("name"));
+        Assert.assertEquals(hits + 2, elementCache.getHits());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testUpdateInvalidates() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        a1.addEdge("ab", b1);
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("B").toList().size());
+        this.sqlgGraph.tx().rollback();
+        ElementCache elementCache = this.sqlgGraph.getElementCache();
+        Assert.assertEquals(1, elementCache.size());
+
+        Vertex b = this.sqlgGraph.traversal().V().hasLabel("B").next();
+        b.property("name", "b2");
+        //the transaction wrote to B so it does not read its vertices from the cache
+        long hits = elementCache.getHits();
+        Edge edge = this.sqlgGraph.traversal().E().hasLabel("ab").next();
+        Assert.assertEquals("b2", edge.inVertex().value("name"));
+        Assert.assertEquals(hits, elementCache.getHits());
+        Assert.assertEquals(1, elementCache.size());
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(0, elementCache.size());
+
+        edge = this.sqlgGraph.traversal().E().hasLabel("ab").next();
+        Assert.assertEquals("b2", edge.inVertex().value("name"));
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(1, elementCache.size());
+        edge = this.sqlgGraph.traversal().E().hasLabel("ab").next();
+        Assert.assertEquals("b2", edge.inVertex().value("name"));
+        Assert.assertEquals(hits + 1, elementCache.getHits());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testRollbackDoesNotInvalidate() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").toList().size());
+        this.sqlgGraph.tx().rollback();
+        ElementCache elementCache = this.sqlgGraph.getElementCache();
+        Assert.assertEquals(1, elementCache.size());
+
+        this.sqlgGraph.traversal().V().hasLabel("A").next().property("name", "a2");
+        //the uncommitted value is not cached
+        Assert.assertEquals("a2", this.sqlgGraph.traversal().V().hasLabel("A").next().value("name"));
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(1, elementCache.size());
+        Assert.assertEquals("a1", this.sqlgGraph.traversal().V().hasLabel("A").next().value("name"));
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testDropInvalidates() {
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i));
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(20, this.sqlgGraph.traversal().V().toList().size());
+        this.sqlgGraph.tx().rollback();
+        ElementCache elementCache = this.sqlgGraph.getElementCache();
+        Assert.assertEquals(20, elementCache.size());
+
+        RecordId a0 = (RecordId) this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a0").next().id();
+        this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a0").drop().iterate();
+        this.sqlgGraph.tx().commit();
+        //depending on the drop strategy only the dropped vertex or all of the label's vertices are invalidated
+        Assert.assertTrue(elementCache.size() <= 19);
+        Assert.assertTrue(elementCache.size() >= 10);
+
+        //the dropped vertex is not loaded from the cache
+        long hits = elementCache.getHits();
+        long misses = elementCache.getMisses();
+        this.sqlgGraph.tx().readWrite();
+        Vertex dropped = SqlgVertex.of(this.sqlgGraph, a0.getId(), a0.getSchemaTable().getSchema(), a0.getSchemaTable().getTable());
+        try {
+            dropped.property("name");
+            Assert.fail("the dropped vertex does not exist");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        Assert.assertEquals(hits, elementCache.getHits());
+        Assert.assertEquals(misses + 1, elementCache.getMisses());
+        Assert.assertFalse(this.sqlgGraph.traversal().V(a0).hasNext());
+        this.sqlgGraph.tx().rollback();
+
+        this.sqlgGraph.traversal().V().hasLabel("B").drop().iterate();
+        this.sqlgGraph.tx().commit();
+        Assert.assertTrue(elementCache.size() <= 9);
+
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().toList();
+        Assert.assertEquals(9, vertices.size());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testLabels() throws Exception {
+        PropertiesConfiguration conf = new PropertiesConfiguration(Thread.currentThread().getContextClassLoader().getResource("sqlg.properties"));
+        conf.setProperty(ElementCache.ELEMENT_CACHE_SIZE, 100);
+        conf.setProperty(ElementCache.ELEMENT_CACHE_LABELS, "B");
+        this.sqlgGraph.close();
+        this.sqlgGraph = SqlgGraph.open(conf);
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().toList().size());
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(1, this.sqlgGraph.getElementCache().size());
+    }
+
+    @Test
+    public void testDistributedNeedsInvalidation() throws Exception {
+        Assume.assumeFalse(((SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect()).supportsElementCacheInvalidation());
+        PropertiesConfiguration conf = new PropertiesConfiguration(Thread.currentThread().getContextClassLoader().getResource("sqlg.properties"));
+        conf.setProperty(ElementCache.ELEMENT_CACHE_SIZE, 100);
+        conf.setProperty(SqlgGraph.DISTRIBUTED, true);
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(conf)) {
+            Assert.fail("the other graphs can not invalidate their cache");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+}